@@ -3,13 +3,17 @@ package io.opentelemetry.auto.bootstrap;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.security.CodeSigner;
+import java.security.CodeSource;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Classloader used to run the core agent.
  *
  * <p>It is built around the concept of a jar inside another jar. This classloader loads the files
- * of the internal jar to load classes and resources.
+ * of the internal jar to load classes and resources. Classes are defined straight from the internal
+ * jar mapped into memory, see {@link PackedInternalJar}.
  */
 @Slf4j
 public class AgentClassLoader extends URLClassLoader {
@@ -22,6 +26,9 @@ public class AgentClassLoader extends URLClassLoader {
   // As a workaround, we keep a reference to the bootstrap jar
   // to use only for resource lookups.
   private final BootstrapClassLoaderProxy bootstrapProxy;
+
+  private InternalJarURLHandler internalJarHandler;
+  private CodeSource internalJarCodeSource;
   /**
    * Construct a new AgentClassLoader
    *
@@ -45,13 +52,10 @@ public class AgentClassLoader extends URLClassLoader {
       // field.  If extending this class from Classloader instead of URLClassloader required less
       // boilerplate it could be used and the need for dummy fields would be reduced
 
-      final URL internalJarURL =
-          new URL(
-              "x-internal-jar",
-              null,
-              0,
-              "/",
-              new InternalJarURLHandler(internalJarFileName, bootstrapJarLocation));
+      internalJarHandler = new InternalJarURLHandler(internalJarFileName, bootstrapJarLocation);
+      final URL internalJarURL = new URL("x-internal-jar", null, 0, "/", internalJarHandler);
+      // as URLClassLoader would, the internal jar isn't signed
+      internalJarCodeSource = new CodeSource(internalJarURL, (CodeSigner[]) null);
 
       addURL(internalJarURL);
     } catch (final MalformedURLException e) {
@@ -60,6 +64,30 @@ public class AgentClassLoader extends URLClassLoader {
     }
   }
 
+  @Override
+  protected Class<?> findClass(final String name) throws ClassNotFoundException {
+    final ByteBuffer bytecode =
+        internalJarHandler == null
+            ? null
+            : internalJarHandler.getFile(name.replace('.', '/') + ".class");
+    if (bytecode == null) {
+      return super.findClass(name);
+    }
+    final int lastDot = name.lastIndexOf('.');
+    if (lastDot > 0) {
+      final String packageName = name.substring(0, lastDot);
+      if (getPackage(packageName) == null) {
+        try {
+          definePackage(packageName, null, null, null, null, null, null, null);
+        } catch (final IllegalArgumentException e) {
+          // Defined by another thread in the meantime
+        }
+      }
+    }
+    // a slice of the mapped internal jar, which defineClass reads in place
+    return defineClass(name, bytecode, internalJarCodeSource);
+  }
+
   @Override
   public URL getResource(final String resourceName) {
     final URL bootstrapResource = bootstrapProxy.getResource(resourceName);
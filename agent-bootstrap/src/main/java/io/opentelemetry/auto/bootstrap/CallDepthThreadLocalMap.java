@@ -1,36 +1,60 @@
 package io.opentelemetry.auto.bootstrap;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Utility to track nested instrumentation.
  *
  * <p>For example, this can be used to track nested calls to super() in constructors by calling
  * #incrementCallDepth at the beginning of each constructor.
+ *
+ * <p>Every key class is assigned a fixed slot the first time it is used, and each thread keeps its
+ * depths in a plain {@code int[]} indexed by that slot, so tracking the depth neither boxes nor
+ * allocates once the slot array has grown to fit. Slots are never reclaimed, so keys should be a
+ * fixed set of classes, not the classes of the instrumented objects.
  */
 public class CallDepthThreadLocalMap {
-  private static final ThreadLocal<Map<Object, Integer>> TLS =
-      new ThreadLocal<Map<Object, Integer>>() {
+  private static final AtomicInteger NEXT_SLOT = new AtomicInteger();
+
+  private static final ClassValue<Integer> SLOTS =
+      new ClassValue<Integer>() {
         @Override
-        public Map<Object, Integer> initialValue() {
-          return new HashMap<>();
+        protected Integer computeValue(final Class<?> type) {
+          return NEXT_SLOT.getAndIncrement();
         }
       };
 
-  public static int incrementCallDepth(final Object k) {
-    final Map<Object, Integer> map = TLS.get();
-    Integer depth = map.get(k);
-    if (depth == null) {
-      depth = 0;
-    } else {
-      depth += 1;
-    }
-    map.put(k, depth);
-    return depth;
+  private static final ThreadLocal<CallDepths> TLS =
+      new ThreadLocal<CallDepths>() {
+        @Override
+        public CallDepths initialValue() {
+          return new CallDepths();
+        }
+      };
+
+  public static int incrementCallDepth(final Class<?> k) {
+    return TLS.get().getAndIncrement(SLOTS.get(k));
   }
 
-  public static void reset(final Object k) {
-    TLS.get().remove(k);
+  public static void reset(final Class<?> k) {
+    TLS.get().reset(SLOTS.get(k));
+  }
+
+  private static final class CallDepths {
+    private int[] depths = new int[Math.max(16, NEXT_SLOT.get())];
+
+    int getAndIncrement(final int slot) {
+      if (slot >= depths.length) {
+        depths = Arrays.copyOf(depths, Math.max(slot + 1, depths.length * 2));
+      }
+      return depths[slot]++;
+    }
+
+    void reset(final int slot) {
+      if (slot < depths.length) {
+        depths[slot] = 0;
+      }
+    }
   }
 }
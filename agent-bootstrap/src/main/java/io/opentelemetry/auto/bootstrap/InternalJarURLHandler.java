@@ -1,6 +1,5 @@
 package io.opentelemetry.auto.bootstrap;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -8,67 +7,67 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
+import java.nio.ByteBuffer;
 import java.nio.file.NoSuchFileException;
 import java.security.Permission;
-import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Serves the files of the internal jar, which is packed into a single entry of the bootstrap jar.
+ *
+ * <p>Files are looked up in the index of the pack, built with the jar, and served from the pack
+ * mapped into memory: see {@link PackedInternalJar}.
+ */
 @Slf4j
 public class InternalJarURLHandler extends URLStreamHandler {
-  private final Map<String, JarEntry> filenameToEntry = new HashMap<>();
-  private JarFile bootstrapJarFile;
+  private PackedInternalJar packedJar;
 
   InternalJarURLHandler(final String internalJarFileName, final URL bootstrapJarLocation) {
-    final String filePrefix = internalJarFileName + "/";
-
     try {
       if (bootstrapJarLocation != null) {
-        bootstrapJarFile = new JarFile(new File(bootstrapJarLocation.toURI()), false);
-        final Enumeration<JarEntry> entries = bootstrapJarFile.entries();
-        while (entries.hasMoreElements()) {
-          final JarEntry entry = entries.nextElement();
-
-          if (!entry.isDirectory() && entry.getName().startsWith(filePrefix)) {
-            filenameToEntry.put(entry.getName().substring(internalJarFileName.length()), entry);
-          }
+        packedJar =
+            PackedInternalJar.open(new File(bootstrapJarLocation.toURI()), internalJarFileName);
+        if (packedJar == null) {
+          log.error("No internal jar {} in {}", internalJarFileName, bootstrapJarLocation);
         }
       }
     } catch (final URISyntaxException | IOException e) {
       log.error("Unable to read internal jar", e);
     }
+  }
 
-    if (filenameToEntry.isEmpty()) {
-      log.warn("No internal jar entries found");
-    }
+  /**
+   * @param name the path of the file in the internal jar, without a leading {@code /}
+   * @return a read only buffer holding the file, or {@code null} if not found
+   */
+  ByteBuffer getFile(final String name) {
+    return packedJar == null ? null : packedJar.get(name);
   }
 
   @Override
   protected URLConnection openConnection(final URL url) throws IOException {
-    final String filename = url.getFile().replaceAll("\\.class$", ".classdata");
+    final String filename = url.getFile();
     if ("/".equals(filename)) {
       // "/" is used as the default url of the jar
       // This is called by the SecureClassLoader trying to obtain permissions
 
       // nullInputStream() is not available until Java 11
-      return new InternalJarURLConnection(url, new ByteArrayInputStream(new byte[0]));
-    } else if (filenameToEntry.containsKey(filename)) {
-      final JarEntry entry = filenameToEntry.get(filename);
-      return new InternalJarURLConnection(url, bootstrapJarFile.getInputStream(entry));
+      return new InternalJarURLConnection(url, ByteBuffer.allocate(0));
+    }
+    final ByteBuffer file = filename.startsWith("/") ? getFile(filename.substring(1)) : null;
+    if (file != null) {
+      return new InternalJarURLConnection(url, file);
     } else {
       throw new NoSuchFileException(url.getFile(), null, url.getFile() + " not in internal jar");
     }
   }
 
   private static class InternalJarURLConnection extends URLConnection {
-    private final InputStream inputStream;
+    private final ByteBuffer file;
 
-    private InternalJarURLConnection(final URL url, final InputStream inputStream) {
+    private InternalJarURLConnection(final URL url, final ByteBuffer file) {
       super(url);
-      this.inputStream = inputStream;
+      this.file = file;
     }
 
     @Override
@@ -78,7 +77,18 @@ public class InternalJarURLHandler extends URLStreamHandler {
 
     @Override
     public InputStream getInputStream() throws IOException {
-      return inputStream;
+      return new ByteBufferInputStream(file.duplicate());
+    }
+
+    /** Lets the class loader read a resource into an array of the right size. */
+    @Override
+    public int getContentLength() {
+      return file.remaining();
+    }
+
+    @Override
+    public long getContentLengthLong() {
+      return file.remaining();
     }
 
     @Override
@@ -87,4 +97,42 @@ public class InternalJarURLHandler extends URLStreamHandler {
       return null;
     }
   }
+
+  private static class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(final ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      final int read = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, read);
+      return read;
+    }
+
+    @Override
+    public long skip(final long n) {
+      final int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+      buffer.position(buffer.position() + skipped);
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
 }
@@ -0,0 +1,190 @@
+package io.opentelemetry.auto.bootstrap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+/**
+ * The files of the internal jar, packed into a single entry of the bootstrap jar when the agent is
+ * built (see the {@code internalJarPack} task of the java-agent project).
+ *
+ * <p>The pack starts with an index of the files sorted by name, followed by their contents:
+ *
+ * <pre>
+ *   int magic, int count
+ *   count * (int name offset, int name length, int content offset, int content length)
+ *   names (UTF-8), contents
+ * </pre>
+ *
+ * Offsets are from the start of the pack and names are sorted by their unsigned bytes, so a file is
+ * found by a binary search of the index without reading it at startup. The entry is stored
+ * uncompressed, so the pack is mapped straight from the bootstrap jar file and a file is a slice of
+ * it, classes being defined from that slice without being copied. A pack which was compressed, by
+ * repackaging the agent jar for instance, is inflated into memory once instead.
+ */
+final class PackedInternalJar {
+  static final int MAGIC = 0x4f544a50; // "OTJP"
+
+  private static final int INDEX_OFFSET = 8;
+  private static final int INDEX_RECORD_SIZE = 16;
+
+  // Zip records, see APPNOTE.TXT
+  private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+  private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+  private static final int CENTRAL_DIRECTORY_HEADER = 0x02014b50;
+  private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+  private static final int LOCAL_FILE_HEADER = 0x04034b50;
+  private static final int LOCAL_FILE_HEADER_SIZE = 30;
+
+  private final ByteBuffer pack;
+  private final int count;
+
+  private PackedInternalJar(final ByteBuffer pack) throws IOException {
+    if (pack.remaining() < INDEX_OFFSET || pack.getInt(0) != MAGIC) {
+      throw new IOException("Not an internal jar pack");
+    }
+    this.pack = pack;
+    count = pack.getInt(4);
+  }
+
+  /**
+   * @param entryName the name of the pack in the bootstrap jar
+   * @return the pack, or {@code null} if the bootstrap jar has no such entry
+   */
+  static PackedInternalJar open(final File bootstrapJar, final String entryName)
+      throws IOException {
+    final ByteBuffer mapped = mapStoredEntry(bootstrapJar, entryName);
+    if (mapped != null) {
+      return new PackedInternalJar(mapped);
+    }
+    try (final JarFile jarFile = new JarFile(bootstrapJar, false)) {
+      final JarEntry entry = jarFile.getJarEntry(entryName);
+      if (entry == null || entry.isDirectory()) {
+        return null;
+      }
+      try (final InputStream inputStream = jarFile.getInputStream(entry)) {
+        return new PackedInternalJar(ByteBuffer.wrap(readFully(inputStream, entry.getSize())));
+      }
+    }
+  }
+
+  /** @return a read only slice of the pack holding the file, or {@code null} if not packed. */
+  ByteBuffer get(final String name) {
+    final byte[] key = name.getBytes(StandardCharsets.UTF_8);
+    int low = 0;
+    int high = count - 1;
+    while (low <= high) {
+      final int middle = (low + high) >>> 1;
+      final int record = INDEX_OFFSET + middle * INDEX_RECORD_SIZE;
+      final int comparison = compare(pack.getInt(record), pack.getInt(record + 4), key);
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        return slice(pack.getInt(record + 8), pack.getInt(record + 12));
+      }
+    }
+    return null;
+  }
+
+  private int compare(final int nameOffset, final int nameLength, final byte[] key) {
+    final int length = Math.min(nameLength, key.length);
+    for (int i = 0; i < length; i++) {
+      final int difference = (pack.get(nameOffset + i) & 0xff) - (key[i] & 0xff);
+      if (difference != 0) {
+        return difference;
+      }
+    }
+    return nameLength - key.length;
+  }
+
+  private ByteBuffer slice(final int offset, final int length) {
+    final ByteBuffer slice = pack.duplicate();
+    slice.limit(offset + length).position(offset);
+    return slice.slice().asReadOnlyBuffer();
+  }
+
+  /**
+   * Finds the entry in the central directory of the jar, and maps its content if stored.
+   *
+   * @return {@code null} if the entry isn't there or is compressed
+   */
+  private static ByteBuffer mapStoredEntry(final File jar, final String entryName)
+      throws IOException {
+    final ByteBuffer zip;
+    try (final RandomAccessFile file = new RandomAccessFile(jar, "r");
+        final FileChannel channel = file.getChannel()) {
+      // the mapping stays valid once the channel is closed
+      zip = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    zip.order(ByteOrder.LITTLE_ENDIAN);
+
+    int end = zip.limit() - END_OF_CENTRAL_DIRECTORY_SIZE;
+    // skip the archive comment, if any
+    while (end >= 0 && zip.getInt(end) != END_OF_CENTRAL_DIRECTORY) {
+      end--;
+    }
+    if (end < 0) {
+      throw new IOException("No central directory in " + jar);
+    }
+    final int entries = zip.getShort(end + 10) & 0xffff;
+    int header = zip.getInt(end + 16);
+
+    final byte[] name = entryName.getBytes(StandardCharsets.UTF_8);
+    for (int i = 0; i < entries && zip.getInt(header) == CENTRAL_DIRECTORY_HEADER; i++) {
+      final int nameLength = zip.getShort(header + 28) & 0xffff;
+      final int extraLength = zip.getShort(header + 30) & 0xffff;
+      final int commentLength = zip.getShort(header + 32) & 0xffff;
+      if (nameLength == name.length && matches(zip, header + CENTRAL_DIRECTORY_HEADER_SIZE, name)) {
+        if ((zip.getShort(header + 10) & 0xffff) != ZipEntry.STORED) {
+          return null;
+        }
+        final int size = zip.getInt(header + 24);
+        final int local = zip.getInt(header + 42);
+        if (zip.getInt(local) != LOCAL_FILE_HEADER) {
+          throw new IOException("Bad local header for " + entryName + " in " + jar);
+        }
+        // the extra field of the local header may differ from the central one
+        final int data =
+            local
+                + LOCAL_FILE_HEADER_SIZE
+                + (zip.getShort(local + 26) & 0xffff)
+                + (zip.getShort(local + 28) & 0xffff);
+        zip.limit(data + size).position(data);
+        return zip.slice();
+      }
+      header += CENTRAL_DIRECTORY_HEADER_SIZE + nameLength + extraLength + commentLength;
+    }
+    return null;
+  }
+
+  private static boolean matches(final ByteBuffer zip, final int offset, final byte[] name) {
+    for (int i = 0; i < name.length; i++) {
+      if (zip.get(offset + i) != name[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static byte[] readFully(final InputStream inputStream, final long size)
+      throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(size > 0 ? (int) size : 8192);
+    final byte[] buffer = new byte[8192];
+    int read;
+    while ((read = inputStream.read(buffer)) != -1) {
+      out.write(buffer, 0, read);
+    }
+    return out.toByteArray();
+  }
+}
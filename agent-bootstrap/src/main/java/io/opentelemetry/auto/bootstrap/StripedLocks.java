@@ -0,0 +1,39 @@
+package io.opentelemetry.auto.bootstrap;
+
+/**
+ * A fixed number of monitors shared by all keys of a map.
+ *
+ * <p>The monitor is picked from the identity hash code of the key, so the same key always gets the
+ * same monitor while threads working on different keys only wait on each other when their keys
+ * happen to share a stripe. Keys are never asked for their own {@code hashCode}, which may be
+ * expensive or broken for application classes.
+ */
+public final class StripedLocks {
+  public static final int DEFAULT_STRIPES = 64;
+
+  private final Object[] locks;
+  private final int mask;
+
+  public StripedLocks() {
+    this(DEFAULT_STRIPES);
+  }
+
+  /** @param stripes the number of monitors, rounded up to a power of two */
+  public StripedLocks(final int stripes) {
+    int size = 1;
+    while (size < stripes) {
+      size <<= 1;
+    }
+    locks = new Object[size];
+    for (int i = 0; i < size; i++) {
+      locks[i] = new Object();
+    }
+    mask = size - 1;
+  }
+
+  public Object lockFor(final Object key) {
+    final int hash = System.identityHashCode(key);
+    // identity hash codes are random, but their low bits aren't guaranteed to be well spread
+    return locks[(hash ^ (hash >>> 16)) & mask];
+  }
+}
@@ -3,6 +3,7 @@ package io.opentelemetry.auto.bootstrap;
 import java.util.Collections;
 import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
 import lombok.extern.slf4j.Slf4j;
 
@@ -18,6 +19,12 @@ public interface WeakMap<K, V> {
 
   void putIfAbsent(K key, V value);
 
+  /**
+   * Returns the value of the key, computing and storing it first if there is none.
+   *
+   * <p>The supplier is called without any lock held, so threads missing the same key at once may
+   * each call it. Only one of the values is stored, and every caller gets that one.
+   */
   V computeIfAbsent(K key, ValueSupplier<? super K, ? extends V> supplier);
 
   @Slf4j
@@ -59,15 +66,27 @@ public interface WeakMap<K, V> {
   }
 
   /**
-   * Supplies the value to be stored and it is called only when a value does not exists yet in the
-   * registry.
+   * Supplies the value to be stored when the key has none yet. It may be called more than once for
+   * the same key, with all but one of the values discarded, so it must be free of side effects.
    */
   interface ValueSupplier<K, V> {
     V get(K key);
   }
 
+  /**
+   * Adapts a {@link Map} with weak keys.
+   *
+   * <p>Missing values are computed without holding any lock, then published if no other thread did
+   * first, so a slow supplier blocks nobody and a supplier using the map again (for the parent of a
+   * class loader for instance) can't deadlock. Concurrent misses for the same key may each call the
+   * supplier, but all of them get the value which was published.
+   */
   class MapAdapter<K, V> implements WeakMap<K, V> {
+    // There is one map per context store, instrumentation matcher and cache, so stay small.
+    static final int LOCK_STRIPES = 16;
+
     private final Map<K, V> map;
+    private final StripedLocks locks = new StripedLocks(LOCK_STRIPES);
 
     public MapAdapter(final Map<K, V> map) {
       this.map = map;
@@ -95,10 +114,14 @@ public interface WeakMap<K, V> {
 
     @Override
     public void putIfAbsent(final K key, final V value) {
-      // We can't use putIfAbsent since it was added in 1.8.
+      if (map instanceof ConcurrentMap) {
+        ((ConcurrentMap<K, V>) map).putIfAbsent(key, value);
+        return;
+      }
+      // We can't use Map.putIfAbsent since it was added in 1.8.
       // As a result, we must use double check locking.
       if (!map.containsKey(key)) {
-        synchronized (this) {
+        synchronized (locks.lockFor(key)) {
           if (!map.containsKey(key)) {
             map.put(key, value);
           }
@@ -113,15 +136,18 @@ public interface WeakMap<K, V> {
         return map.get(key);
       }
 
-      synchronized (this) {
+      final V value = supplier.get(key);
+
+      if (map instanceof ConcurrentMap) {
+        final V existing = ((ConcurrentMap<K, V>) map).putIfAbsent(key, value);
+        return existing == null ? value : existing;
+      }
+      synchronized (locks.lockFor(key)) {
         if (map.containsKey(key)) {
           return map.get(key);
-        } else {
-          final V value = supplier.get(key);
-
-          map.put(key, value);
-          return value;
         }
+        map.put(key, value);
+        return value;
       }
     }
 
@@ -37,7 +37,16 @@ public class Config {
   private static final Pattern ENV_REPLACEMENT = Pattern.compile("[^a-zA-Z0-9_]");
 
   public static final String EXPORTER_JAR = "exporter.jar";
+  public static final String EXPORTER_BATCH_ENABLED = "exporter.batch.enabled";
+  public static final String EXPORTER_BATCH_SIZE = "exporter.batch.size";
+  public static final String EXPORTER_BATCH_QUEUE_SIZE = "exporter.batch.queue.size";
+  public static final String EXPORTER_BATCH_FLUSH_INTERVAL = "exporter.batch.flush.interval";
+  public static final String EXPORTER_BATCH_DROP_POLICY = "exporter.batch.drop.policy";
   public static final String SERVICE = "service";
+  public static final String SAMPLER = "trace.sampler";
+  public static final String SAMPLER_RATIO = "trace.sampler.ratio";
+  public static final String SAMPLER_RATE_LIMIT = "trace.sampler.rate.limit";
+  public static final String SAMPLER_PARENT_BASED = "trace.sampler.parent.based";
   public static final String CONFIGURATION_FILE = "trace.config";
   public static final String TRACE_ENABLED = "trace.enabled";
   public static final String INTEGRATIONS_ENABLED = "integrations.enabled";
@@ -52,17 +61,42 @@ public class Config {
   public static final String HTTP_CLIENT_TAG_QUERY_STRING = "http.client.tag.query-string";
   public static final String HTTP_CLIENT_HOST_SPLIT_BY_DOMAIN = "trace.http.client.split-by-domain";
   public static final String DB_CLIENT_HOST_SPLIT_BY_INSTANCE = "trace.db.client.split-by-instance";
+  public static final String DB_CLIENT_STATEMENT_OBFUSCATION =
+      "trace.db.client.statement.obfuscation";
+  public static final String GRPC_STREAMING_STATS = "trace.grpc.streaming.stats";
+  public static final String GRPC_MESSAGE_SAMPLE_INTERVAL = "trace.grpc.message.sample.interval";
+  public static final String KAFKA_CONSUMER_BATCH_SPANS = "trace.kafka.consumer.batch.spans";
   public static final String SCOPE_DEPTH_LIMIT = "trace.scope.depth.limit";
   public static final String RUNTIME_CONTEXT_FIELD_INJECTION =
       "trace.runtime.context.field.injection";
+  public static final String TYPE_CACHE_SHARDS = "trace.type.cache.shards";
+  public static final String TYPE_CACHE_MIN_CAPACITY = "trace.type.cache.capacity.min";
+  public static final String TYPE_CACHE_MAX_CAPACITY = "trace.type.cache.capacity.max";
+  public static final String MATCH_CACHE_FILE = "trace.match.cache.file";
+  public static final String MUZZLE_VALIDATION_THREADS = "trace.muzzle.validation.threads";
+  public static final String WEAK_MAP_CLEANER_JMX_ENABLED = "trace.weak.map.cleaner.jmx.enabled";
 
   public static final String LOGS_INJECTION_ENABLED = "logs.injection.enabled";
   public static final String LOGS_EVENTS_THRESHOLD = "logs.events.threshold";
 
   private static final boolean DEFAULT_TRACE_ENABLED = true;
+  private static final boolean DEFAULT_EXPORTER_BATCH_ENABLED = false;
+  private static final int DEFAULT_EXPORTER_BATCH_SIZE = 512;
+  private static final int DEFAULT_EXPORTER_BATCH_QUEUE_SIZE = 2048;
+  private static final int DEFAULT_EXPORTER_BATCH_FLUSH_INTERVAL = 5000; // ms
+  private static final String DEFAULT_EXPORTER_BATCH_DROP_POLICY = "drop_newest";
+  private static final String DEFAULT_SAMPLER = "always_on";
+  private static final double DEFAULT_SAMPLER_RATIO = 1.0;
+  private static final int DEFAULT_SAMPLER_RATE_LIMIT = 100; // traces per second
+  private static final boolean DEFAULT_SAMPLER_PARENT_BASED = true;
   public static final boolean DEFAULT_INTEGRATIONS_ENABLED = true;
 
   private static final boolean DEFAULT_RUNTIME_CONTEXT_FIELD_INJECTION = true;
+  private static final int DEFAULT_TYPE_CACHE_SHARDS = 0; // one per available processor
+  private static final int DEFAULT_TYPE_CACHE_MIN_CAPACITY = 256;
+  private static final int DEFAULT_TYPE_CACHE_MAX_CAPACITY = 8192;
+  private static final int DEFAULT_MUZZLE_VALIDATION_THREADS = 2;
+  private static final boolean DEFAULT_WEAK_MAP_CLEANER_JMX_ENABLED = false;
 
   private static final Set<Integer> DEFAULT_HTTP_SERVER_ERROR_STATUSES =
       parseIntegerRangeSet("500-599", "default");
@@ -72,6 +106,10 @@ public class Config {
   private static final boolean DEFAULT_HTTP_CLIENT_TAG_QUERY_STRING = false;
   private static final boolean DEFAULT_HTTP_CLIENT_SPLIT_BY_DOMAIN = false;
   private static final boolean DEFAULT_DB_CLIENT_HOST_SPLIT_BY_INSTANCE = false;
+  private static final boolean DEFAULT_DB_CLIENT_STATEMENT_OBFUSCATION = false;
+  private static final boolean DEFAULT_GRPC_STREAMING_STATS = false;
+  private static final int DEFAULT_GRPC_MESSAGE_SAMPLE_INTERVAL = 0; // no message spans
+  private static final boolean DEFAULT_KAFKA_CONSUMER_BATCH_SPANS = false;
   private static final int DEFAULT_SCOPE_DEPTH_LIMIT = 100;
 
   public static final boolean DEFAULT_LOGS_INJECTION_ENABLED = false;
@@ -84,7 +122,16 @@ public class Config {
   private static final String DEFAULT_TRACE_METHODS = null;
 
   @Getter private final String exporterJar;
+  @Getter private final boolean exporterBatchEnabled;
+  @Getter private final Integer exporterBatchSize;
+  @Getter private final Integer exporterBatchQueueSize;
+  @Getter private final Integer exporterBatchFlushInterval;
+  @Getter private final String exporterBatchDropPolicy;
   @Getter private final String serviceName;
+  @Getter private final String sampler;
+  @Getter private final Double samplerRatio;
+  @Getter private final Integer samplerRateLimit;
+  @Getter private final boolean samplerParentBased;
   @Getter private final boolean traceEnabled;
   @Getter private final boolean integrationsEnabled;
   @Getter private final List<String> excludedClasses;
@@ -94,8 +141,18 @@ public class Config {
   @Getter private final boolean httpClientTagQueryString;
   @Getter private final boolean httpClientSplitByDomain;
   @Getter private final boolean dbClientSplitByInstance;
+  @Getter private final boolean dbClientStatementObfuscation;
+  @Getter private final boolean grpcStreamingStats;
+  @Getter private final Integer grpcMessageSampleInterval;
+  @Getter private final boolean kafkaConsumerBatchSpans;
   @Getter private final Integer scopeDepthLimit;
   @Getter private final boolean runtimeContextFieldInjection;
+  @Getter private final Integer typeCacheShards;
+  @Getter private final Integer typeCacheMinCapacity;
+  @Getter private final Integer typeCacheMaxCapacity;
+  @Getter private final String matchCacheFile;
+  @Getter private final Integer muzzleValidationThreads;
+  @Getter private final boolean weakMapCleanerJmxEnabled;
 
   @Getter private final boolean logsInjectionEnabled;
 
@@ -131,7 +188,25 @@ public class Config {
     propertiesFromConfigFile = loadConfigurationFile();
 
     exporterJar = getSettingFromEnvironment(EXPORTER_JAR, null);
+    exporterBatchEnabled =
+        getBooleanSettingFromEnvironment(EXPORTER_BATCH_ENABLED, DEFAULT_EXPORTER_BATCH_ENABLED);
+    exporterBatchSize =
+        getIntegerSettingFromEnvironment(EXPORTER_BATCH_SIZE, DEFAULT_EXPORTER_BATCH_SIZE);
+    exporterBatchQueueSize =
+        getIntegerSettingFromEnvironment(
+            EXPORTER_BATCH_QUEUE_SIZE, DEFAULT_EXPORTER_BATCH_QUEUE_SIZE);
+    exporterBatchFlushInterval =
+        getIntegerSettingFromEnvironment(
+            EXPORTER_BATCH_FLUSH_INTERVAL, DEFAULT_EXPORTER_BATCH_FLUSH_INTERVAL);
+    exporterBatchDropPolicy =
+        getSettingFromEnvironment(EXPORTER_BATCH_DROP_POLICY, DEFAULT_EXPORTER_BATCH_DROP_POLICY);
     serviceName = getSettingFromEnvironment(SERVICE, "(unknown)");
+    sampler = getSettingFromEnvironment(SAMPLER, DEFAULT_SAMPLER);
+    samplerRatio = getDoubleSettingFromEnvironment(SAMPLER_RATIO, DEFAULT_SAMPLER_RATIO);
+    samplerRateLimit =
+        getIntegerSettingFromEnvironment(SAMPLER_RATE_LIMIT, DEFAULT_SAMPLER_RATE_LIMIT);
+    samplerParentBased =
+        getBooleanSettingFromEnvironment(SAMPLER_PARENT_BASED, DEFAULT_SAMPLER_PARENT_BASED);
     traceEnabled = getBooleanSettingFromEnvironment(TRACE_ENABLED, DEFAULT_TRACE_ENABLED);
     integrationsEnabled =
         getBooleanSettingFromEnvironment(INTEGRATIONS_ENABLED, DEFAULT_INTEGRATIONS_ENABLED);
@@ -162,6 +237,20 @@ public class Config {
         getBooleanSettingFromEnvironment(
             DB_CLIENT_HOST_SPLIT_BY_INSTANCE, DEFAULT_DB_CLIENT_HOST_SPLIT_BY_INSTANCE);
 
+    dbClientStatementObfuscation =
+        getBooleanSettingFromEnvironment(
+            DB_CLIENT_STATEMENT_OBFUSCATION, DEFAULT_DB_CLIENT_STATEMENT_OBFUSCATION);
+
+    grpcStreamingStats =
+        getBooleanSettingFromEnvironment(GRPC_STREAMING_STATS, DEFAULT_GRPC_STREAMING_STATS);
+    grpcMessageSampleInterval =
+        getIntegerSettingFromEnvironment(
+            GRPC_MESSAGE_SAMPLE_INTERVAL, DEFAULT_GRPC_MESSAGE_SAMPLE_INTERVAL);
+
+    kafkaConsumerBatchSpans =
+        getBooleanSettingFromEnvironment(
+            KAFKA_CONSUMER_BATCH_SPANS, DEFAULT_KAFKA_CONSUMER_BATCH_SPANS);
+
     scopeDepthLimit =
         getIntegerSettingFromEnvironment(SCOPE_DEPTH_LIMIT, DEFAULT_SCOPE_DEPTH_LIMIT);
 
@@ -169,6 +258,20 @@ public class Config {
         getBooleanSettingFromEnvironment(
             RUNTIME_CONTEXT_FIELD_INJECTION, DEFAULT_RUNTIME_CONTEXT_FIELD_INJECTION);
 
+    typeCacheShards =
+        getIntegerSettingFromEnvironment(TYPE_CACHE_SHARDS, DEFAULT_TYPE_CACHE_SHARDS);
+    typeCacheMinCapacity =
+        getIntegerSettingFromEnvironment(TYPE_CACHE_MIN_CAPACITY, DEFAULT_TYPE_CACHE_MIN_CAPACITY);
+    typeCacheMaxCapacity =
+        getIntegerSettingFromEnvironment(TYPE_CACHE_MAX_CAPACITY, DEFAULT_TYPE_CACHE_MAX_CAPACITY);
+    matchCacheFile = getSettingFromEnvironment(MATCH_CACHE_FILE, null);
+    muzzleValidationThreads =
+        getIntegerSettingFromEnvironment(
+            MUZZLE_VALIDATION_THREADS, DEFAULT_MUZZLE_VALIDATION_THREADS);
+    weakMapCleanerJmxEnabled =
+        getBooleanSettingFromEnvironment(
+            WEAK_MAP_CLEANER_JMX_ENABLED, DEFAULT_WEAK_MAP_CLEANER_JMX_ENABLED);
+
     logsInjectionEnabled =
         getBooleanSettingFromEnvironment(LOGS_INJECTION_ENABLED, DEFAULT_LOGS_INJECTION_ENABLED);
 
@@ -189,7 +292,25 @@ public class Config {
   // Read order: Properties -> Parent
   private Config(final Properties properties, final Config parent) {
     exporterJar = properties.getProperty(EXPORTER_JAR, parent.exporterJar);
+    exporterBatchEnabled =
+        getPropertyBooleanValue(properties, EXPORTER_BATCH_ENABLED, parent.exporterBatchEnabled);
+    exporterBatchSize =
+        getPropertyIntegerValue(properties, EXPORTER_BATCH_SIZE, parent.exporterBatchSize);
+    exporterBatchQueueSize =
+        getPropertyIntegerValue(
+            properties, EXPORTER_BATCH_QUEUE_SIZE, parent.exporterBatchQueueSize);
+    exporterBatchFlushInterval =
+        getPropertyIntegerValue(
+            properties, EXPORTER_BATCH_FLUSH_INTERVAL, parent.exporterBatchFlushInterval);
+    exporterBatchDropPolicy =
+        properties.getProperty(EXPORTER_BATCH_DROP_POLICY, parent.exporterBatchDropPolicy);
     serviceName = properties.getProperty(SERVICE, parent.serviceName);
+    sampler = properties.getProperty(SAMPLER, parent.sampler);
+    samplerRatio = getPropertyDoubleValue(properties, SAMPLER_RATIO, parent.samplerRatio);
+    samplerRateLimit =
+        getPropertyIntegerValue(properties, SAMPLER_RATE_LIMIT, parent.samplerRateLimit);
+    samplerParentBased =
+        getPropertyBooleanValue(properties, SAMPLER_PARENT_BASED, parent.samplerParentBased);
 
     traceEnabled = getPropertyBooleanValue(properties, TRACE_ENABLED, parent.traceEnabled);
     integrationsEnabled =
@@ -222,6 +343,20 @@ public class Config {
         getPropertyBooleanValue(
             properties, DB_CLIENT_HOST_SPLIT_BY_INSTANCE, parent.dbClientSplitByInstance);
 
+    dbClientStatementObfuscation =
+        getPropertyBooleanValue(
+            properties, DB_CLIENT_STATEMENT_OBFUSCATION, parent.dbClientStatementObfuscation);
+
+    grpcStreamingStats =
+        getPropertyBooleanValue(properties, GRPC_STREAMING_STATS, parent.grpcStreamingStats);
+    grpcMessageSampleInterval =
+        getPropertyIntegerValue(
+            properties, GRPC_MESSAGE_SAMPLE_INTERVAL, parent.grpcMessageSampleInterval);
+
+    kafkaConsumerBatchSpans =
+        getPropertyBooleanValue(
+            properties, KAFKA_CONSUMER_BATCH_SPANS, parent.kafkaConsumerBatchSpans);
+
     scopeDepthLimit =
         getPropertyIntegerValue(properties, SCOPE_DEPTH_LIMIT, parent.scopeDepthLimit);
 
@@ -229,6 +364,20 @@ public class Config {
         getPropertyBooleanValue(
             properties, RUNTIME_CONTEXT_FIELD_INJECTION, parent.runtimeContextFieldInjection);
 
+    typeCacheShards =
+        getPropertyIntegerValue(properties, TYPE_CACHE_SHARDS, parent.typeCacheShards);
+    typeCacheMinCapacity =
+        getPropertyIntegerValue(properties, TYPE_CACHE_MIN_CAPACITY, parent.typeCacheMinCapacity);
+    typeCacheMaxCapacity =
+        getPropertyIntegerValue(properties, TYPE_CACHE_MAX_CAPACITY, parent.typeCacheMaxCapacity);
+    matchCacheFile = properties.getProperty(MATCH_CACHE_FILE, parent.matchCacheFile);
+    muzzleValidationThreads =
+        getPropertyIntegerValue(
+            properties, MUZZLE_VALIDATION_THREADS, parent.muzzleValidationThreads);
+    weakMapCleanerJmxEnabled =
+        getPropertyBooleanValue(
+            properties, WEAK_MAP_CLEANER_JMX_ENABLED, parent.weakMapCleanerJmxEnabled);
+
     logsInjectionEnabled =
         getPropertyBooleanValue(properties, LOGS_INJECTION_ENABLED, parent.logsInjectionEnabled);
 
@@ -360,6 +509,20 @@ public class Config {
     }
   }
 
+  /**
+   * Calls {@link #getSettingFromEnvironment(String, String)} and converts the result to a Double.
+   */
+  private static Double getDoubleSettingFromEnvironment(
+      final String name, final Double defaultValue) {
+    final String value = getSettingFromEnvironment(name, null);
+    try {
+      return value == null ? defaultValue : Double.valueOf(value);
+    } catch (final NumberFormatException e) {
+      log.warn("Invalid configuration for " + name, e);
+      return defaultValue;
+    }
+  }
+
   /**
    * Calls {@link #getSettingFromEnvironment(String, String)} and converts the result to a set of
    * strings splitting by space or comma.
@@ -444,6 +607,12 @@ public class Config {
     return value == null || value.trim().isEmpty() ? defaultValue : Integer.valueOf(value);
   }
 
+  private static Double getPropertyDoubleValue(
+      final Properties properties, final String name, final Double defaultValue) {
+    final String value = properties.getProperty(name);
+    return value == null || value.trim().isEmpty() ? defaultValue : Double.valueOf(value);
+  }
+
   private static <T extends Enum<T>> Set<T> getPropertySetValue(
       final Properties properties, final String name, final Class<T> clazz) {
     final String value = properties.getProperty(name);
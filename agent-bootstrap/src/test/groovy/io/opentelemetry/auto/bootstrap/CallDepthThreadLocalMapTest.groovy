@@ -6,8 +6,8 @@ class CallDepthThreadLocalMapTest extends Specification {
 
   def "test CallDepthThreadLocalMap"() {
     setup:
-    def k1 = new Object()
-    def k2 = new Object()
+    def k1 = String
+    def k2 = Integer
 
     expect:
     CallDepthThreadLocalMap.incrementCallDepth(k1) == 0
@@ -32,4 +32,25 @@ class CallDepthThreadLocalMapTest extends Specification {
     CallDepthThreadLocalMap.incrementCallDepth(k1) == 1
     CallDepthThreadLocalMap.incrementCallDepth(k2) == 1
   }
+
+  def "call depth is tracked per thread"() {
+    setup:
+    def key = Long
+
+    when:
+    CallDepthThreadLocalMap.incrementCallDepth(key)
+    CallDepthThreadLocalMap.incrementCallDepth(key)
+    def otherThreadDepth = null
+    def thread = Thread.start {
+      otherThreadDepth = CallDepthThreadLocalMap.incrementCallDepth(key)
+    }
+    thread.join()
+
+    then:
+    otherThreadDepth == 0
+    CallDepthThreadLocalMap.incrementCallDepth(key) == 2
+
+    cleanup:
+    CallDepthThreadLocalMap.reset(key)
+  }
 }
@@ -0,0 +1,106 @@
+package io.opentelemetry.auto.bootstrap
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.nio.file.NoSuchFileException
+import java.util.jar.JarEntry
+import java.util.jar.JarOutputStream
+import java.util.zip.CRC32
+import java.util.zip.ZipEntry
+
+class InternalJarURLHandlerTest extends Specification {
+  static final String INTERNAL_JAR = "internal.isolated"
+
+  @Shared
+  File storedJar = File.createTempFile("bootstrap-stored", ".jar")
+
+  @Shared
+  File deflatedJar = File.createTempFile("bootstrap-deflated", ".jar")
+
+  def setupSpec() {
+    // as built by the internalJarPack task of java-agent
+    def files = new TreeMap<String, byte[]>([
+      "a/B.class"     : "class bytes".bytes,
+      "a/resource.txt": "resource".bytes,
+      "c/D.class"     : "other class".bytes
+    ])
+    def pack = new ByteArrayOutputStream()
+    new DataOutputStream(pack).withCloseable { out ->
+      int nameOffset = 8 + 16 * files.size()
+      int contentOffset = nameOffset + files.keySet().sum { it.bytes.length }
+      out.writeInt(PackedInternalJar.MAGIC)
+      out.writeInt(files.size())
+      files.each { name, content ->
+        out.writeInt(nameOffset)
+        out.writeInt(name.bytes.length)
+        out.writeInt(contentOffset)
+        out.writeInt(content.length)
+        nameOffset += name.bytes.length
+        contentOffset += content.length
+      }
+      files.keySet().each { out.write(it.bytes) }
+      files.values().each { out.write(it) }
+    }
+
+    writeJar(storedJar, pack.toByteArray(), ZipEntry.STORED)
+    writeJar(deflatedJar, pack.toByteArray(), ZipEntry.DEFLATED)
+  }
+
+  def writeJar(File file, byte[] pack, int method) {
+    file.deleteOnExit()
+    new JarOutputStream(new FileOutputStream(file)).withCloseable { jar ->
+      jar.putNextEntry(new JarEntry("a/C.class"))
+      jar.write("outside".bytes)
+      def entry = new JarEntry(INTERNAL_JAR)
+      entry.method = method
+      if (method == ZipEntry.STORED) {
+        def crc = new CRC32()
+        crc.update(pack)
+        entry.size = pack.length
+        entry.compressedSize = pack.length
+        entry.crc = crc.value
+      }
+      jar.putNextEntry(entry)
+      jar.write(pack)
+    }
+  }
+
+  def "#file is served as #expected from a #jar.name"() {
+    setup:
+    def handler = new InternalJarURLHandler(INTERNAL_JAR, jar.toURI().toURL())
+
+    when:
+    def connection = handler.openConnection(new URL("x-internal-jar", null, 0, file, handler))
+
+    then:
+    connection.inputStream.text == expected
+    connection.contentLength == expected.length()
+
+    where:
+    [jar, file, expected] << [
+      [storedJar, deflatedJar],
+      [["/a/B.class", "class bytes"], ["/a/resource.txt", "resource"], ["/c/D.class", "other class"], ["/", ""]]
+    ].combinations().collect { it.flatten() }
+  }
+
+  def "files are mapped from a stored pack"() {
+    expect:
+    PackedInternalJar.open(storedJar, INTERNAL_JAR).get("a/B.class").direct
+    !PackedInternalJar.open(deflatedJar, INTERNAL_JAR).get("a/B.class").direct
+  }
+
+  def "#file is not found"() {
+    setup:
+    def handler = new InternalJarURLHandler(INTERNAL_JAR, storedJar.toURI().toURL())
+
+    when:
+    handler.openConnection(new URL("x-internal-jar", null, 0, file, handler))
+
+    then:
+    thrown NoSuchFileException
+
+    where:
+    file << ["/a/C.class", "/a/", "/a/B", "/a/B.class.class", "/missing.txt", "/z"]
+  }
+}
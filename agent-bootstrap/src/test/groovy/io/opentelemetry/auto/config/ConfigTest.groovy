@@ -7,11 +7,20 @@ import spock.lang.Specification
 
 import static io.opentelemetry.auto.config.Config.CONFIGURATION_FILE
 import static io.opentelemetry.auto.config.Config.DB_CLIENT_HOST_SPLIT_BY_INSTANCE
+import static io.opentelemetry.auto.config.Config.EXPORTER_BATCH_DROP_POLICY
+import static io.opentelemetry.auto.config.Config.EXPORTER_BATCH_ENABLED
+import static io.opentelemetry.auto.config.Config.EXPORTER_BATCH_FLUSH_INTERVAL
+import static io.opentelemetry.auto.config.Config.EXPORTER_BATCH_QUEUE_SIZE
+import static io.opentelemetry.auto.config.Config.EXPORTER_BATCH_SIZE
 import static io.opentelemetry.auto.config.Config.HTTP_CLIENT_ERROR_STATUSES
 import static io.opentelemetry.auto.config.Config.HTTP_CLIENT_HOST_SPLIT_BY_DOMAIN
 import static io.opentelemetry.auto.config.Config.HTTP_SERVER_ERROR_STATUSES
 import static io.opentelemetry.auto.config.Config.PREFIX
 import static io.opentelemetry.auto.config.Config.RUNTIME_CONTEXT_FIELD_INJECTION
+import static io.opentelemetry.auto.config.Config.SAMPLER
+import static io.opentelemetry.auto.config.Config.SAMPLER_PARENT_BASED
+import static io.opentelemetry.auto.config.Config.SAMPLER_RATE_LIMIT
+import static io.opentelemetry.auto.config.Config.SAMPLER_RATIO
 import static io.opentelemetry.auto.config.Config.TRACE_ENABLED
 import static io.opentelemetry.auto.config.Config.TRACE_METHODS
 
@@ -35,6 +44,15 @@ class ConfigTest extends Specification {
     config.httpClientSplitByDomain == false
     config.dbClientSplitByInstance == false
     config.runtimeContextFieldInjection == true
+    config.exporterBatchEnabled == false
+    config.exporterBatchSize == 512
+    config.exporterBatchQueueSize == 2048
+    config.exporterBatchFlushInterval == 5000
+    config.exporterBatchDropPolicy == "drop_newest"
+    config.sampler == "always_on"
+    config.samplerRatio == 1.0d
+    config.samplerRateLimit == 100
+    config.samplerParentBased == true
     config.toString().contains("traceEnabled=true")
 
     where:
@@ -55,6 +73,15 @@ class ConfigTest extends Specification {
     prop.setProperty(HTTP_CLIENT_HOST_SPLIT_BY_DOMAIN, "true")
     prop.setProperty(DB_CLIENT_HOST_SPLIT_BY_INSTANCE, "true")
     prop.setProperty(RUNTIME_CONTEXT_FIELD_INJECTION, "false")
+    prop.setProperty(EXPORTER_BATCH_ENABLED, "true")
+    prop.setProperty(EXPORTER_BATCH_SIZE, "10")
+    prop.setProperty(EXPORTER_BATCH_QUEUE_SIZE, "20")
+    prop.setProperty(EXPORTER_BATCH_FLUSH_INTERVAL, "30")
+    prop.setProperty(EXPORTER_BATCH_DROP_POLICY, "drop_oldest")
+    prop.setProperty(SAMPLER, "ratio")
+    prop.setProperty(SAMPLER_RATIO, "0.25")
+    prop.setProperty(SAMPLER_RATE_LIMIT, "5")
+    prop.setProperty(SAMPLER_PARENT_BASED, "false")
 
     when:
     Config config = Config.get(prop)
@@ -67,6 +94,15 @@ class ConfigTest extends Specification {
     config.httpClientSplitByDomain == true
     config.dbClientSplitByInstance == true
     config.runtimeContextFieldInjection == false
+    config.exporterBatchEnabled == true
+    config.exporterBatchSize == 10
+    config.exporterBatchQueueSize == 20
+    config.exporterBatchFlushInterval == 30
+    config.exporterBatchDropPolicy == "drop_oldest"
+    config.sampler == "ratio"
+    config.samplerRatio == 0.25d
+    config.samplerRateLimit == 5
+    config.samplerParentBased == false
   }
 
   def "specify overrides via system properties"() {
@@ -78,6 +114,15 @@ class ConfigTest extends Specification {
     System.setProperty(PREFIX + HTTP_CLIENT_HOST_SPLIT_BY_DOMAIN, "true")
     System.setProperty(PREFIX + DB_CLIENT_HOST_SPLIT_BY_INSTANCE, "true")
     System.setProperty(PREFIX + RUNTIME_CONTEXT_FIELD_INJECTION, "false")
+    System.setProperty(PREFIX + EXPORTER_BATCH_ENABLED, "true")
+    System.setProperty(PREFIX + EXPORTER_BATCH_SIZE, "10")
+    System.setProperty(PREFIX + EXPORTER_BATCH_QUEUE_SIZE, "20")
+    System.setProperty(PREFIX + EXPORTER_BATCH_FLUSH_INTERVAL, "30")
+    System.setProperty(PREFIX + EXPORTER_BATCH_DROP_POLICY, "drop_oldest")
+    System.setProperty(PREFIX + SAMPLER, "ratio")
+    System.setProperty(PREFIX + SAMPLER_RATIO, "0.25")
+    System.setProperty(PREFIX + SAMPLER_RATE_LIMIT, "5")
+    System.setProperty(PREFIX + SAMPLER_PARENT_BASED, "false")
 
     when:
     Config config = new Config()
@@ -90,6 +135,15 @@ class ConfigTest extends Specification {
     config.httpClientSplitByDomain == true
     config.dbClientSplitByInstance == true
     config.runtimeContextFieldInjection == false
+    config.exporterBatchEnabled == true
+    config.exporterBatchSize == 10
+    config.exporterBatchQueueSize == 20
+    config.exporterBatchFlushInterval == 30
+    config.exporterBatchDropPolicy == "drop_oldest"
+    config.sampler == "ratio"
+    config.samplerRatio == 0.25d
+    config.samplerRateLimit == 5
+    config.samplerParentBased == false
   }
 
   def "specify overrides via env vars"() {
@@ -23,6 +23,10 @@ public abstract class BaseDecorator {
 
   public Span afterStart(final Span span) {
     assert span != null;
+    // Unsampled spans drop their attributes, don't spend time computing them.
+    if (!span.isRecording()) {
+      return span;
+    }
     final String spanType = getSpanType();
     if (spanType != null) {
       span.setAttribute(MoreTags.SPAN_TYPE, spanType);
@@ -41,6 +45,9 @@ public abstract class BaseDecorator {
 
   public Span onError(final Span span, final Throwable throwable) {
     assert span != null;
+    if (!span.isRecording()) {
+      return span;
+    }
     if (throwable != null) {
       span.setStatus(Status.UNKNOWN);
       addThrowable(
@@ -51,6 +58,9 @@ public abstract class BaseDecorator {
 
   public Span onPeerConnection(final Span span, final InetSocketAddress remoteConnection) {
     assert span != null;
+    if (!span.isRecording()) {
+      return span;
+    }
     if (remoteConnection != null) {
       onPeerConnection(span, remoteConnection.getAddress());
 
@@ -62,6 +72,9 @@ public abstract class BaseDecorator {
 
   public Span onPeerConnection(final Span span, final InetAddress remoteAddress) {
     assert span != null;
+    if (!span.isRecording()) {
+      return span;
+    }
     if (remoteAddress != null) {
       span.setAttribute(Tags.PEER_HOSTNAME, remoteAddress.getHostName());
       if (remoteAddress instanceof Inet4Address) {
@@ -74,6 +87,9 @@ public abstract class BaseDecorator {
   }
 
   public static void addThrowable(final Span span, final Throwable throwable) {
+    if (!span.isRecording()) {
+      return;
+    }
     final String message = throwable.getMessage();
     if (message != null) {
       span.setAttribute(MoreTags.ERROR_MSG, message);
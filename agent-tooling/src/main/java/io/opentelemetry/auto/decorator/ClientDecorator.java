@@ -10,6 +10,9 @@ public abstract class ClientDecorator extends BaseDecorator {
   @Override
   public Span afterStart(final Span span) {
     assert span != null;
+    if (!span.isRecording()) {
+      return span;
+    }
     if (service() != null) {
       span.setAttribute(MoreTags.SERVICE_NAME, service());
     }
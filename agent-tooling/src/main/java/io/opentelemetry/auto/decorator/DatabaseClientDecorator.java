@@ -16,6 +16,9 @@ public abstract class DatabaseClientDecorator<CONNECTION> extends ClientDecorato
   @Override
   public Span afterStart(final Span span) {
     assert span != null;
+    if (!span.isRecording()) {
+      return span;
+    }
     final String type = dbType();
     if (type != null) {
       span.setAttribute(Tags.DB_TYPE, type);
@@ -32,6 +35,9 @@ public abstract class DatabaseClientDecorator<CONNECTION> extends ClientDecorato
    */
   public Span onConnection(final Span span, final CONNECTION connection) {
     assert span != null;
+    if (!span.isRecording()) {
+      return span;
+    }
     if (connection != null) {
       final String user = dbUser(connection);
       if (user != null) {
@@ -51,6 +57,9 @@ public abstract class DatabaseClientDecorator<CONNECTION> extends ClientDecorato
 
   public Span onStatement(final Span span, final String statement) {
     assert span != null;
+    if (!span.isRecording()) {
+      return span;
+    }
     span.setAttribute(Tags.DB_STATEMENT, statement);
     return span;
   }
@@ -35,6 +35,9 @@ public abstract class HttpClientDecorator<REQUEST, RESPONSE> extends ClientDecor
 
   public Span onRequest(final Span span, final REQUEST request) {
     assert span != null;
+    if (!span.isRecording()) {
+      return span;
+    }
     if (request != null) {
       final String method = method(request);
       if (method != null) {
@@ -100,6 +103,9 @@ public abstract class HttpClientDecorator<REQUEST, RESPONSE> extends ClientDecor
 
   public Span onResponse(final Span span, final RESPONSE response) {
     assert span != null;
+    if (!span.isRecording()) {
+      return span;
+    }
     if (response != null) {
       final Integer status = status(response);
       if (status != null) {
@@ -8,22 +8,28 @@ import io.opentelemetry.trace.Span;
 import io.opentelemetry.trace.Status;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.regex.Pattern;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public abstract class HttpServerDecorator<REQUEST, CONNECTION, RESPONSE> extends ServerDecorator {
   public static final String SPAN_ATTRIBUTE = "io.opentelemetry.auto.span";
 
-  // Source: https://www.regextester.com/22
-  private static final Pattern VALID_IPV4_ADDRESS =
-      Pattern.compile(
-          "^(([0-9]|[1-9][0-9]|1[0-9]{2}|2[0-4][0-9]|25[0-5])\\.){3}([0-9]|[1-9][0-9]|1[0-9]{2}|2[0-4][0-9]|25[0-5])$");
+  private static final ThreadLocal<RequestUrl> REQUEST_URL = new RequestUrlThreadLocal();
 
   protected abstract String method(REQUEST request);
 
   protected abstract URI url(REQUEST request) throws URISyntaxException;
 
+  /**
+   * Describes the request URL with the raw values exposed by the server, which avoids building the
+   * {@link URI} returned by {@link #url(Object)} for every request.
+   *
+   * @return false if the values are not available, {@link #url(Object)} is used instead.
+   */
+  protected boolean requestUrl(final REQUEST request, final RequestUrl url) {
+    return false;
+  }
+
   protected abstract String peerHostIP(CONNECTION connection);
 
   protected abstract Integer peerPort(CONNECTION connection);
@@ -37,42 +43,29 @@ public abstract class HttpServerDecorator<REQUEST, CONNECTION, RESPONSE> extends
 
   public Span onRequest(final Span span, final REQUEST request) {
     assert span != null;
+    if (!span.isRecording()) {
+      return span;
+    }
     if (request != null) {
       span.setAttribute(Tags.HTTP_METHOD, method(request));
 
-      // Copy of HttpClientDecorator url handling
       try {
-        final URI url = url(request);
-        if (url != null) {
-          final StringBuilder urlNoParams = new StringBuilder();
-          if (url.getScheme() != null) {
-            urlNoParams.append(url.getScheme());
-            urlNoParams.append("://");
-          }
-          if (url.getHost() != null) {
-            urlNoParams.append(url.getHost());
-            if (url.getPort() > 0 && url.getPort() != 80 && url.getPort() != 443) {
-              urlNoParams.append(":");
-              urlNoParams.append(url.getPort());
-            }
-          }
-          final String path = url.getPath();
-          if (path.isEmpty()) {
-            urlNoParams.append("/");
-          } else {
-            urlNoParams.append(path);
-          }
-
-          span.setAttribute(Tags.HTTP_URL, urlNoParams.toString());
+        final RequestUrl requestUrl = REQUEST_URL.get().reset();
+        if (requestUrl(request, requestUrl) && requestUrl.parse()) {
+          span.setAttribute(Tags.HTTP_URL, requestUrl.url());
 
           if (Config.get().isHttpServerTagQueryString()) {
-            if (url.getQuery() != null) {
-              span.setAttribute(MoreTags.HTTP_QUERY, url.getQuery());
+            final String query = requestUrl.query();
+            if (query != null) {
+              span.setAttribute(MoreTags.HTTP_QUERY, query);
             }
-            if (url.getFragment() != null) {
-              span.setAttribute(MoreTags.HTTP_FRAGMENT, url.getFragment());
+            final String fragment = requestUrl.fragment();
+            if (fragment != null) {
+              span.setAttribute(MoreTags.HTTP_FRAGMENT, fragment);
             }
           }
+        } else {
+          onRequestUri(span, url(request), requestUrl.buffer());
         }
       } catch (final Exception e) {
         log.debug("Error tagging url", e);
@@ -82,14 +75,51 @@ public abstract class HttpServerDecorator<REQUEST, CONNECTION, RESPONSE> extends
     return span;
   }
 
+  private void onRequestUri(final Span span, final URI url, final StringBuilder urlNoParams) {
+    // Copy of HttpClientDecorator url handling
+    if (url != null) {
+      if (url.getScheme() != null) {
+        urlNoParams.append(url.getScheme());
+        urlNoParams.append("://");
+      }
+      if (url.getHost() != null) {
+        urlNoParams.append(url.getHost());
+        if (url.getPort() > 0 && url.getPort() != 80 && url.getPort() != 443) {
+          urlNoParams.append(":");
+          urlNoParams.append(url.getPort());
+        }
+      }
+      final String path = url.getPath();
+      if (path.isEmpty()) {
+        urlNoParams.append("/");
+      } else {
+        urlNoParams.append(path);
+      }
+
+      span.setAttribute(Tags.HTTP_URL, urlNoParams.toString());
+
+      if (Config.get().isHttpServerTagQueryString()) {
+        if (url.getQuery() != null) {
+          span.setAttribute(MoreTags.HTTP_QUERY, url.getQuery());
+        }
+        if (url.getFragment() != null) {
+          span.setAttribute(MoreTags.HTTP_FRAGMENT, url.getFragment());
+        }
+      }
+    }
+  }
+
   public Span onConnection(final Span span, final CONNECTION connection) {
     assert span != null;
+    if (!span.isRecording()) {
+      return span;
+    }
     if (connection != null) {
       final String ip = peerHostIP(connection);
       if (ip != null) {
-        if (VALID_IPV4_ADDRESS.matcher(ip).matches()) {
+        if (IpAddresses.isIpv4(ip)) {
           span.setAttribute(Tags.PEER_HOST_IPV4, ip);
-        } else if (ip.contains(":")) {
+        } else if (IpAddresses.isIpv6(ip)) {
           span.setAttribute(Tags.PEER_HOST_IPV6, ip);
         }
       }
@@ -104,6 +134,9 @@ public abstract class HttpServerDecorator<REQUEST, CONNECTION, RESPONSE> extends
 
   public Span onResponse(final Span span, final RESPONSE response) {
     assert span != null;
+    if (!span.isRecording()) {
+      return span;
+    }
     if (response != null) {
       final Integer status = status(response);
       if (status != null) {
@@ -128,4 +161,12 @@ public abstract class HttpServerDecorator<REQUEST, CONNECTION, RESPONSE> extends
   //    }
   //    return super.onError(span, throwable);
   //  }
+
+  // Named, and not anonymous, so the instrumentations can list it among their helpers.
+  private static final class RequestUrlThreadLocal extends ThreadLocal<RequestUrl> {
+    @Override
+    protected RequestUrl initialValue() {
+      return new RequestUrl();
+    }
+  }
 }
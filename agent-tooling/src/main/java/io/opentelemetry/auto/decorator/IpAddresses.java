@@ -0,0 +1,122 @@
+package io.opentelemetry.auto.decorator;
+
+/** Classifies textual IP addresses without regular expressions or allocations. */
+final class IpAddresses {
+  private static final int IPV6_GROUPS = 8;
+
+  private IpAddresses() {}
+
+  static boolean isIpv4(final CharSequence value) {
+    return isIpv4(value, 0, value.length());
+  }
+
+  /** Four decimal octets without leading zeros, e.g. {@code 10.0.0.1}. */
+  static boolean isIpv4(final CharSequence value, final int start, final int end) {
+    int octets = 0;
+    int i = start;
+    while (i < end) {
+      final int octetStart = i;
+      int octet = 0;
+      while (i < end && i - octetStart < 3) {
+        final char c = value.charAt(i);
+        if (c < '0' || c > '9') {
+          break;
+        }
+        octet = octet * 10 + (c - '0');
+        i++;
+      }
+      final int digits = i - octetStart;
+      if (digits == 0 || octet > 255 || (digits > 1 && value.charAt(octetStart) == '0')) {
+        return false;
+      }
+      if (++octets == 4) {
+        return i == end;
+      }
+      if (i == end || value.charAt(i) != '.') {
+        return false;
+      }
+      i++;
+    }
+    return false;
+  }
+
+  static boolean isIpv6(final CharSequence value) {
+    return isIpv6(value, 0, value.length());
+  }
+
+  /**
+   * Eight groups of up to four hex digits, where {@code ::} replaces consecutive zero groups and
+   * the last two groups may be written as an IPv4 address. A trailing zone id ({@code %eth0}) and
+   * enclosing brackets are accepted, e.g. {@code [fe80::1%1]}.
+   */
+  static boolean isIpv6(final CharSequence value, final int from, final int to) {
+    int start = from;
+    int end = to;
+    if (end - start >= 2 && value.charAt(start) == '[' && value.charAt(end - 1) == ']') {
+      start++;
+      end--;
+    }
+    for (int i = start; i < end; i++) {
+      if (value.charAt(i) == '%') {
+        if (i == end - 1) {
+          return false;
+        }
+        end = i;
+        break;
+      }
+    }
+    if (end - start < 2) {
+      return false;
+    }
+
+    int groups = 0;
+    boolean compressed = false;
+    int i = start;
+    if (value.charAt(i) == ':') {
+      if (value.charAt(i + 1) != ':') {
+        return false;
+      }
+      compressed = true;
+      i += 2;
+    }
+    while (i < end) {
+      final int groupStart = i;
+      while (i < end && i - groupStart <= 4 && isHexDigit(value.charAt(i))) {
+        i++;
+      }
+      if (i < end && value.charAt(i) == '.') {
+        // embedded IPv4 address, taking two groups
+        if (!isIpv4(value, groupStart, end)) {
+          return false;
+        }
+        groups += 2;
+        break;
+      }
+      if (i == groupStart || i - groupStart > 4) {
+        return false;
+      }
+      groups++;
+      if (i == end) {
+        break;
+      }
+      if (value.charAt(i) != ':') {
+        return false;
+      }
+      i++;
+      if (i < end && value.charAt(i) == ':') {
+        if (compressed) {
+          return false;
+        }
+        compressed = true;
+        i++;
+      } else if (i == end) {
+        return false;
+      }
+    }
+    return compressed ? groups < IPV6_GROUPS : groups == IPV6_GROUPS;
+  }
+
+  private static boolean isHexDigit(final char c) {
+    return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+  }
+}
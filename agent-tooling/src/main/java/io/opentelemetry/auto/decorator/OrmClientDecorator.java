@@ -10,6 +10,9 @@ public abstract class OrmClientDecorator extends DatabaseClientDecorator {
   public Span onOperation(final Span span, final Object entity) {
 
     assert span != null;
+    if (!span.isRecording()) {
+      return span;
+    }
     if (entity != null) {
       final String name = entityName(entity);
       if (name != null) {
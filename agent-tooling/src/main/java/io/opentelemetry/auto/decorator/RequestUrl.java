@@ -0,0 +1,427 @@
+package io.opentelemetry.auto.decorator;
+
+/**
+ * The URL of an incoming request, described with the raw values a server exposes (request target,
+ * {@code Host} header, server name...) instead of a {@link java.net.URI}.
+ *
+ * <p>Parsing only records offsets into the given character sequences and the URL is assembled in a
+ * reused buffer, so the strings put on the span are the only allocations. An instance is reused per
+ * thread by {@link HttpServerDecorator} and must not be kept by decorators.
+ *
+ * <p>Values are tagged exactly like {@link HttpServerDecorator#url(Object)} would tag them: when a
+ * value can't be read the same way {@link java.net.URI} reads it (escaped octets, user info,
+ * characters illegal in a URI...) {@link #parse()} fails and the decorator falls back to {@code
+ * url(request)}.
+ */
+public final class RequestUrl {
+  private static final int NO_PORT = -1;
+  private static final int MAX_PORT_DIGITS = 9;
+
+  private static final boolean[] PATH_CHARS = new boolean[128];
+  private static final boolean[] QUERY_CHARS = new boolean[128];
+
+  static {
+    // unreserved, punct and '/' (RFC 2396), as accepted by java.net.URI
+    final String path =
+        "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-_.!~*'();:@&=+$,/";
+    for (int i = 0; i < path.length(); i++) {
+      PATH_CHARS[path.charAt(i)] = true;
+      QUERY_CHARS[path.charAt(i)] = true;
+    }
+    QUERY_CHARS['?'] = true;
+    QUERY_CHARS['['] = true;
+    QUERY_CHARS[']'] = true;
+  }
+
+  // inputs
+  private CharSequence scheme;
+  private CharSequence authority;
+  private CharSequence host;
+  private int port;
+  private CharSequence target;
+  private CharSequence path;
+  private CharSequence query;
+
+  // parsed
+  private CharSequence schemeSource;
+  private int schemeStart;
+  private int schemeEnd;
+  private CharSequence hostSource;
+  private int hostStart;
+  private int hostEnd;
+  private boolean bracketHost;
+  private int parsedPort;
+  private CharSequence pathSource;
+  private int pathStart;
+  private int pathEnd;
+  private CharSequence querySource;
+  private int queryStart;
+  private int queryEnd;
+  private CharSequence fragmentSource;
+  private int fragmentStart;
+  private int fragmentEnd;
+
+  private final StringBuilder buffer = new StringBuilder(128);
+
+  RequestUrl reset() {
+    scheme = null;
+    authority = null;
+    host = null;
+    port = NO_PORT;
+    target = null;
+    path = null;
+    query = null;
+    return this;
+  }
+
+  /**
+   * The scheme used with {@link #authority} or {@link #host}, e.g. {@code "http"}. Must only be
+   * given along with one of them.
+   */
+  public RequestUrl scheme(final CharSequence scheme) {
+    this.scheme = scheme;
+    return this;
+  }
+
+  /**
+   * The host with an optional port as sent by the client, e.g. the {@code Host} header. Only used
+   * when the request target isn't an absolute URL.
+   */
+  public RequestUrl authority(final CharSequence authority) {
+    this.authority = authority;
+    return this;
+  }
+
+  /** The host and port of the server, e.g. {@code ServletRequest.getServerName()}. */
+  public RequestUrl host(final CharSequence host, final int port) {
+    this.host = host;
+    this.port = port;
+    return this;
+  }
+
+  /**
+   * The request target from the request line, as sent by the client: a path with optional query
+   * and fragment, or an absolute URL.
+   */
+  public RequestUrl target(final CharSequence target) {
+    this.target = target;
+    return this;
+  }
+
+  /**
+   * The path and query as tagged, e.g. {@code HttpServletRequest.getRequestURI()} and {@code
+   * getQueryString()}. Used instead of {@link #target}.
+   */
+  public RequestUrl path(final CharSequence path, final CharSequence query) {
+    this.path = path;
+    this.query = query;
+    return this;
+  }
+
+  /** @return false if the values can't be tagged without {@link java.net.URI}. */
+  boolean parse() {
+    schemeSource = null;
+    hostSource = null;
+    bracketHost = false;
+    parsedPort = NO_PORT;
+    pathSource = null;
+    querySource = null;
+    fragmentSource = null;
+
+    if (target != null) {
+      if (!parseTarget(target)) {
+        return false;
+      }
+    } else if (path != null) {
+      if (!isVerbatimPath(path)) {
+        return false;
+      }
+      pathSource = path;
+      pathStart = 0;
+      pathEnd = path.length();
+      if (query != null) {
+        querySource = query;
+        queryStart = 0;
+        queryEnd = query.length();
+      }
+    } else {
+      return false;
+    }
+
+    if (hostSource == null) {
+      if (authority != null) {
+        if (!parseAuthority(authority, 0, authority.length())) {
+          return false;
+        }
+      } else if (host != null) {
+        if (port < NO_PORT || !parseHost(host, 0, host.length(), true)) {
+          return false;
+        }
+        parsedPort = port;
+      }
+      if (scheme != null) {
+        if (hostSource == null || !isScheme(scheme, 0, scheme.length())) {
+          return false;
+        }
+        schemeSource = scheme;
+        schemeStart = 0;
+        schemeEnd = scheme.length();
+      }
+    }
+    return true;
+  }
+
+  /** @return the URL without query and fragment, as tagged by {@link HttpServerDecorator}. */
+  String url() {
+    final StringBuilder url = buffer();
+    if (schemeSource != null) {
+      url.append(schemeSource, schemeStart, schemeEnd).append("://");
+    }
+    if (hostSource != null) {
+      if (bracketHost) {
+        url.append('[').append(hostSource, hostStart, hostEnd).append(']');
+      } else {
+        url.append(hostSource, hostStart, hostEnd);
+      }
+      if (parsedPort > 0 && parsedPort != 80 && parsedPort != 443) {
+        url.append(':').append(parsedPort);
+      }
+    }
+    if (pathStart == pathEnd) {
+      url.append('/');
+    } else {
+      url.append(pathSource, pathStart, pathEnd);
+    }
+    return url.toString();
+  }
+
+  /** @return the query, or null if there is none. */
+  String query() {
+    return querySource == null ? null : querySource.subSequence(queryStart, queryEnd).toString();
+  }
+
+  /** @return the fragment, or null if there is none. */
+  String fragment() {
+    return fragmentSource == null
+        ? null
+        : fragmentSource.subSequence(fragmentStart, fragmentEnd).toString();
+  }
+
+  /** @return the cleared buffer used to assemble URLs on this thread. */
+  StringBuilder buffer() {
+    buffer.setLength(0);
+    return buffer;
+  }
+
+  private boolean parseTarget(final CharSequence target) {
+    final int length = target.length();
+    int start = 0;
+    if (length > 1 && target.charAt(0) == '/' && target.charAt(1) == '/') {
+      // read as an authority by URI
+      return false;
+    }
+    if (length > 0 && target.charAt(0) != '/') {
+      // absolute-form: scheme://authority[/path]
+      final int colon = indexOf(target, ':', 0, length);
+      if (colon <= 0
+          || !isScheme(target, 0, colon)
+          || colon + 2 >= length
+          || target.charAt(colon + 1) != '/'
+          || target.charAt(colon + 2) != '/') {
+        return false;
+      }
+      final int authorityStart = colon + 3;
+      int authorityEnd = authorityStart;
+      while (authorityEnd < length) {
+        final char c = target.charAt(authorityEnd);
+        if (c == '/' || c == '?' || c == '#') {
+          break;
+        }
+        authorityEnd++;
+      }
+      if (!parseAuthority(target, authorityStart, authorityEnd)) {
+        return false;
+      }
+      schemeSource = target;
+      schemeStart = 0;
+      schemeEnd = colon;
+      start = authorityEnd;
+    }
+
+    int end = start;
+    while (end < length && target.charAt(end) != '?' && target.charAt(end) != '#') {
+      end++;
+    }
+    if (!allowed(target, start, end, PATH_CHARS)) {
+      return false;
+    }
+    pathSource = target;
+    pathStart = start;
+    pathEnd = end;
+
+    if (end < length && target.charAt(end) == '?') {
+      start = end + 1;
+      end = indexOf(target, '#', start, length);
+      if (!allowed(target, start, end, QUERY_CHARS)) {
+        return false;
+      }
+      querySource = target;
+      queryStart = start;
+      queryEnd = end;
+    }
+    if (end < length) {
+      start = end + 1;
+      if (!allowed(target, start, length, QUERY_CHARS)) {
+        return false;
+      }
+      fragmentSource = target;
+      fragmentStart = start;
+      fragmentEnd = length;
+    }
+    return true;
+  }
+
+  /** host[:port], as accepted by {@link java.net.URI} for a server based authority. */
+  private boolean parseAuthority(final CharSequence value, final int start, final int end) {
+    int hostEndIndex;
+    if (start < end && value.charAt(start) == '[') {
+      hostEndIndex = indexOf(value, ']', start, end);
+      if (hostEndIndex == end) {
+        return false;
+      }
+      hostEndIndex++;
+      if (hostEndIndex < end && value.charAt(hostEndIndex) != ':') {
+        return false;
+      }
+    } else {
+      hostEndIndex = indexOf(value, ':', start, end);
+    }
+    if (!parseHost(value, start, hostEndIndex, false)) {
+      return false;
+    }
+    if (hostEndIndex < end) {
+      // URI ignores an empty port
+      final int digits = end - hostEndIndex - 1;
+      if (digits > MAX_PORT_DIGITS) {
+        return false;
+      }
+      int parsed = digits == 0 ? NO_PORT : 0;
+      for (int i = hostEndIndex + 1; i < end; i++) {
+        final char c = value.charAt(i);
+        if (c < '0' || c > '9') {
+          return false;
+        }
+        parsed = parsed * 10 + (c - '0');
+      }
+      parsedPort = parsed;
+    }
+    return true;
+  }
+
+  private boolean parseHost(
+      final CharSequence value, final int start, final int end, final boolean addBrackets) {
+    if (start == end) {
+      return false;
+    }
+    if (value.charAt(start) == '[') {
+      if (value.charAt(end - 1) != ']' || !IpAddresses.isIpv6(value, start + 1, end - 1)) {
+        return false;
+      }
+    } else if (addBrackets && indexOf(value, ':', start, end) < end) {
+      // the URI constructor encloses IPv6 literals in brackets
+      if (!IpAddresses.isIpv6(value, start, end)) {
+        return false;
+      }
+      bracketHost = true;
+    } else if (!isHostname(value, start, end) && !IpAddresses.isIpv4(value, start, end)) {
+      return false;
+    }
+    hostSource = value;
+    hostStart = start;
+    hostEnd = end;
+    return true;
+  }
+
+  /**
+   * Dot separated labels of alphanumerics and inner hyphens, the last one starting with a letter
+   * when there are several.
+   */
+  private static boolean isHostname(final CharSequence value, final int start, final int end) {
+    int lastLabel = start;
+    int i = start;
+    while (i < end) {
+      lastLabel = i;
+      if (!isAlphanumeric(value.charAt(i))) {
+        return false;
+      }
+      i++;
+      while (i < end && (isAlphanumeric(value.charAt(i)) || value.charAt(i) == '-')) {
+        i++;
+      }
+      if (value.charAt(i - 1) == '-') {
+        return false;
+      }
+      if (i < end) {
+        if (value.charAt(i) != '.') {
+          return false;
+        }
+        // a trailing dot is allowed
+        i++;
+      }
+    }
+    return lastLabel == start || isAlpha(value.charAt(lastLabel));
+  }
+
+  private static boolean isScheme(final CharSequence value, final int start, final int end) {
+    if (start == end || !isAlpha(value.charAt(start))) {
+      return false;
+    }
+    for (int i = start + 1; i < end; i++) {
+      final char c = value.charAt(i);
+      if (!isAlpha(c) && (c < '0' || c > '9') && c != '+' && c != '-' && c != '.') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The URI constructor quotes whatever the path contains and {@code URI.getPath()} decodes it
+   * back, so any absolute path is tagged verbatim. A leading {@code //} could be read as an
+   * authority.
+   */
+  private static boolean isVerbatimPath(final CharSequence path) {
+    final int length = path.length();
+    return length == 0 || (path.charAt(0) == '/' && (length == 1 || path.charAt(1) != '/'));
+  }
+
+  private static boolean allowed(
+      final CharSequence value, final int start, final int end, final boolean[] chars) {
+    for (int i = start; i < end; i++) {
+      final char c = value.charAt(i);
+      if (c >= chars.length || !chars[c]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isAlphanumeric(final char c) {
+    return isAlpha(c) || (c >= '0' && c <= '9');
+  }
+
+  private static boolean isAlpha(final char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  /** @return the index of {@code c}, or {@code end} if not found. */
+  private static int indexOf(
+      final CharSequence value, final char c, final int start, final int end) {
+    for (int i = start; i < end; i++) {
+      if (value.charAt(i) == c) {
+        return i;
+      }
+    }
+    return end;
+  }
+}
@@ -0,0 +1,234 @@
+package io.opentelemetry.auto.tooling;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import io.opentelemetry.auto.tooling.AgentCachingPoolStrategy.TypeCacheKey;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import net.bytebuddy.pool.TypePool;
+
+/**
+ * The TypePool.Resolution cache behind {@link AgentCachingPoolStrategy}.
+ *
+ * <p>Keys are spread over a fixed number of shards, by default one per core as long as each shard
+ * starts with at least {@link #MIN_DEFAULT_SHARD_CAPACITY} entries:
+ *
+ * <ul>
+ *   <li>each shard is an independent Guava Cache, so writers on different cores rarely contend
+ *   <li>each shard is sized independently and can be resized without blocking the others
+ * </ul>
+ *
+ * <p>{@link #adapt()} is called periodically. A shard whose window saw many size evictions (the
+ * startup burst) doubles its capacity up to the maximum; a shard which stayed mostly empty for a
+ * few windows (steady state, after idle entries expired) halves it down to the minimum.
+ */
+@Slf4j
+final class AdaptiveResolutionCache {
+  // Idle resolutions expire so the cache can shrink once startup is over.
+  private static final long EXPIRE_AFTER_ACCESS_MINUTES = 5;
+  // Grow when a window evicted more than 1/GROWTH_EVICTION_FRACTION of the shard capacity.
+  private static final int GROWTH_EVICTION_FRACTION = 4;
+  // Shrink when the shard was at most 1/SHRINK_OCCUPANCY_FRACTION full...
+  private static final int SHRINK_OCCUPANCY_FRACTION = 4;
+  // ... for this many consecutive windows without evictions.
+  private static final int STEADY_WINDOWS_BEFORE_SHRINK = 3;
+  // Smaller shards would evict on any burst of lookups hashing to them.
+  static final int MIN_DEFAULT_SHARD_CAPACITY = 32;
+
+  private final Shard[] shards;
+  private final int shardMask;
+  private final int minShardCapacity;
+  private final int maxShardCapacity;
+
+  /**
+   * @param shardCount number of shards, rounded up to a power of two. Values below one select the
+   *     number of available processors, capped so that shards get at least {@link
+   *     #MIN_DEFAULT_SHARD_CAPACITY} of the minimum capacity.
+   * @param minCapacity total capacity the cache starts with and never shrinks below.
+   * @param maxCapacity total capacity the cache never grows beyond.
+   */
+  AdaptiveResolutionCache(final int shardCount, final int minCapacity, final int maxCapacity) {
+    final int shardTotal =
+        roundToPowerOfTwo(shardCount > 0 ? shardCount : defaultShardCount(minCapacity));
+    shardMask = shardTotal - 1;
+    minShardCapacity = Math.max(1, minCapacity / shardTotal);
+    maxShardCapacity = Math.max(minShardCapacity, maxCapacity / shardTotal);
+    shards = new Shard[shardTotal];
+    for (int i = 0; i < shardTotal; i++) {
+      shards[i] = new Shard(minShardCapacity);
+    }
+  }
+
+  TypePool.Resolution getIfPresent(final TypeCacheKey key) {
+    return shardFor(key).getIfPresent(key);
+  }
+
+  void put(final TypeCacheKey key, final TypePool.Resolution resolution) {
+    shardFor(key).cache.put(key, resolution);
+  }
+
+  /** @return true if the shards can change size, i.e. {@link #adapt()} needs to be scheduled. */
+  boolean isAdaptive() {
+    return minShardCapacity < maxShardCapacity;
+  }
+
+  /** Resizes shards according to their activity since the previous call. */
+  synchronized void adapt() {
+    for (final Shard shard : shards) {
+      shard.adapt();
+    }
+  }
+
+  int shardCount() {
+    return shards.length;
+  }
+
+  long capacity() {
+    long capacity = 0;
+    for (final Shard shard : shards) {
+      capacity += shard.capacity;
+    }
+    return capacity;
+  }
+
+  long size() {
+    long size = 0;
+    for (final Shard shard : shards) {
+      size += shard.cache.size();
+    }
+    return size;
+  }
+
+  long hitCount() {
+    long count = 0;
+    for (final Shard shard : shards) {
+      count += shard.hits.get();
+    }
+    return count;
+  }
+
+  long missCount() {
+    long count = 0;
+    for (final Shard shard : shards) {
+      count += shard.misses.get();
+    }
+    return count;
+  }
+
+  long evictionCount() {
+    long count = 0;
+    for (final Shard shard : shards) {
+      count += shard.evictions.get();
+    }
+    return count;
+  }
+
+  private Shard shardFor(final TypeCacheKey key) {
+    final int hash = key.hashCode();
+    return shards[(hash ^ (hash >>> 16)) & shardMask];
+  }
+
+  private static int defaultShardCount(final int minCapacity) {
+    final int shardCount =
+        Math.min(
+            Runtime.getRuntime().availableProcessors(), minCapacity / MIN_DEFAULT_SHARD_CAPACITY);
+    // rounded down, so that rounding up to a power of two keeps it under the cap
+    return Integer.highestOneBit(Math.max(1, shardCount));
+  }
+
+  private static int roundToPowerOfTwo(final int value) {
+    final int bounded = Math.max(1, Math.min(value, 1 << 16));
+    final int highestBit = Integer.highestOneBit(bounded);
+    return highestBit == bounded ? bounded : highestBit << 1;
+  }
+
+  private final class Shard implements RemovalListener<TypeCacheKey, TypePool.Resolution> {
+    final AtomicLong hits = new AtomicLong();
+    final AtomicLong misses = new AtomicLong();
+    final AtomicLong evictions = new AtomicLong();
+    // only counts evictions caused by the size limit
+    final AtomicLong sizeEvictions = new AtomicLong();
+
+    volatile Cache<TypeCacheKey, TypePool.Resolution> cache;
+    volatile int capacity;
+
+    // guarded by AdaptiveResolutionCache.this
+    private long lastSizeEvictions = 0;
+    private int steadyWindows = 0;
+
+    Shard(final int capacity) {
+      this.capacity = capacity;
+      cache = newCache(capacity);
+    }
+
+    TypePool.Resolution getIfPresent(final TypeCacheKey key) {
+      final TypePool.Resolution resolution = cache.getIfPresent(key);
+      if (resolution == null) {
+        misses.incrementAndGet();
+      } else {
+        hits.incrementAndGet();
+      }
+      return resolution;
+    }
+
+    @Override
+    public void onRemoval(
+        final RemovalNotification<TypeCacheKey, TypePool.Resolution> notification) {
+      if (notification.wasEvicted()) {
+        evictions.incrementAndGet();
+        if (notification.getCause() == RemovalCause.SIZE) {
+          sizeEvictions.incrementAndGet();
+        }
+      }
+    }
+
+    void adapt() {
+      final long currentSizeEvictions = sizeEvictions.get();
+      final long windowEvictions = currentSizeEvictions - lastSizeEvictions;
+      lastSizeEvictions = currentSizeEvictions;
+
+      if (windowEvictions * GROWTH_EVICTION_FRACTION >= capacity) {
+        steadyWindows = 0;
+        if (capacity < maxShardCapacity) {
+          resize((int) Math.min((long) capacity * 2, maxShardCapacity));
+        }
+      } else if (windowEvictions == 0
+          && cache.size() * SHRINK_OCCUPANCY_FRACTION <= capacity
+          && capacity > minShardCapacity) {
+        if (++steadyWindows >= STEADY_WINDOWS_BEFORE_SHRINK) {
+          steadyWindows = 0;
+          resize(Math.max(capacity / 2, minShardCapacity));
+        }
+      } else {
+        steadyWindows = 0;
+      }
+    }
+
+    private void resize(final int newCapacity) {
+      final int oldCapacity = capacity;
+      final Cache<TypeCacheKey, TypePool.Resolution> newCache = newCache(newCapacity);
+      // Entries written to the old cache while copying may be lost, which is fine for a cache.
+      newCache.putAll(cache.asMap());
+      cache = newCache;
+      capacity = newCapacity;
+      // Evictions caused by copying into a smaller cache shouldn't count towards the next window.
+      lastSizeEvictions = sizeEvictions.get();
+      log.debug("Resized type resolution cache shard from {} to {}", oldCapacity, newCapacity);
+    }
+
+    private Cache<TypeCacheKey, TypePool.Resolution> newCache(final int capacity) {
+      return CacheBuilder.newBuilder()
+          .softValues()
+          .concurrencyLevel(1)
+          .initialCapacity(capacity)
+          .maximumSize(capacity)
+          .expireAfterAccess(EXPIRE_AFTER_ACCESS_MINUTES, TimeUnit.MINUTES)
+          .removalListener(this)
+          .build();
+    }
+  }
+}
@@ -4,7 +4,9 @@ import static net.bytebuddy.agent.builder.AgentBuilder.PoolStrategy;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import io.opentelemetry.auto.config.Config;
 import java.lang.ref.WeakReference;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.dynamic.ClassFileLocator;
@@ -30,6 +32,9 @@ import net.bytebuddy.pool.TypePool;
  * <p>This design was chosen to create a single limited size cache that can be adjusted for the
  * entire application -- without having to create a large number of WeakReference objects.
  *
+ * <p>The TypeResolution cache is sharded and resizes itself between the configured minimum and
+ * maximum capacity, see {@link AdaptiveResolutionCache}.
+ *
  * <p>Eviction is handled almost entirely through a size restriction; however, softValues are still
  * used as a further safeguard.
  */
@@ -40,10 +45,19 @@ public class AgentCachingPoolStrategy implements PoolStrategy {
 
   static final int CONCURRENCY_LEVEL = 8;
   static final int LOADER_CAPACITY = 64;
-  static final int TYPE_CAPACITY = 64;
 
   static final int BOOTSTRAP_HASH = 0;
 
+  static final long ADAPT_PERIOD_SECONDS = 1;
+
+  private static final Cleaner.Adapter<AdaptiveResolutionCache> ADAPTER =
+      new Cleaner.Adapter<AdaptiveResolutionCache>() {
+        @Override
+        public void clean(final AdaptiveResolutionCache cache) {
+          cache.adapt();
+        }
+      };
+
   /**
    * Cache of recent ClassLoader WeakReferences; used to...
    *
@@ -63,17 +77,33 @@ public class AgentCachingPoolStrategy implements PoolStrategy {
   /**
    * Single shared Type.Resolution cache -- uses a composite key -- conceptually of loader & name
    */
-  final Cache<TypeCacheKey, TypePool.Resolution> sharedResolutionCache =
-      CacheBuilder.newBuilder()
-          .softValues()
-          .concurrencyLevel(CONCURRENCY_LEVEL)
-          .initialCapacity(TYPE_CAPACITY)
-          .maximumSize(TYPE_CAPACITY)
-          .build();
+  final AdaptiveResolutionCache sharedResolutionCache;
 
   /** Fast path for bootstrap */
-  final SharedResolutionCacheAdapter bootstrapCacheProvider =
-      new SharedResolutionCacheAdapter(BOOTSTRAP_HASH, null, sharedResolutionCache);
+  final SharedResolutionCacheAdapter bootstrapCacheProvider;
+
+  public AgentCachingPoolStrategy() {
+    this(
+        Config.get().getTypeCacheShards(),
+        Config.get().getTypeCacheMinCapacity(),
+        Config.get().getTypeCacheMaxCapacity());
+  }
+
+  /**
+   * @param shards number of independent cache shards, 0 for one per available processor.
+   * @param minCapacity total number of resolutions cached initially and after startup.
+   * @param maxCapacity total number of resolutions the cache may grow to under load.
+   */
+  public AgentCachingPoolStrategy(final int shards, final int minCapacity, final int maxCapacity) {
+    sharedResolutionCache = new AdaptiveResolutionCache(shards, minCapacity, maxCapacity);
+    bootstrapCacheProvider =
+        new SharedResolutionCacheAdapter(BOOTSTRAP_HASH, null, sharedResolutionCache);
+    if (sharedResolutionCache.isAdaptive()) {
+      new Cleaner()
+          .scheduleCleaning(
+              sharedResolutionCache, ADAPTER, ADAPT_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+  }
 
   @Override
   public final TypePool typePool(
@@ -118,6 +148,24 @@ public class AgentCachingPoolStrategy implements PoolStrategy {
     return sharedResolutionCache.size();
   }
 
+  /** @return current total capacity of the resolution cache. */
+  public final long getCapacity() {
+    return sharedResolutionCache.capacity();
+  }
+
+  public final long getHitCount() {
+    return sharedResolutionCache.hitCount();
+  }
+
+  public final long getMissCount() {
+    return sharedResolutionCache.missCount();
+  }
+
+  /** @return number of resolutions removed because of the size limit, expiry or GC. */
+  public final long getEvictionCount() {
+    return sharedResolutionCache.evictionCount();
+  }
+
   /**
    * TypeCacheKey is key for the sharedResolutionCache. Conceptually, it is a mix of ClassLoader &
    * class name.
@@ -200,12 +248,12 @@ public class AgentCachingPoolStrategy implements PoolStrategy {
 
     private final int loaderHash;
     private final WeakReference<ClassLoader> loaderRef;
-    private final Cache<TypeCacheKey, TypePool.Resolution> sharedResolutionCache;
+    private final AdaptiveResolutionCache sharedResolutionCache;
 
     SharedResolutionCacheAdapter(
         final int loaderHash,
         final WeakReference<ClassLoader> loaderRef,
-        final Cache<TypeCacheKey, TypePool.Resolution> sharedResolutionCache) {
+        final AdaptiveResolutionCache sharedResolutionCache) {
       this.loaderHash = loaderHash;
       this.loaderRef = loaderRef;
       this.sharedResolutionCache = sharedResolutionCache;
@@ -3,12 +3,11 @@ package io.opentelemetry.auto.tooling;
 import static io.opentelemetry.auto.tooling.ClassLoaderMatcher.skipClassLoader;
 import static io.opentelemetry.auto.tooling.GlobalIgnoresMatcher.globalIgnoresMatcher;
 import static net.bytebuddy.matcher.ElementMatchers.any;
-import static net.bytebuddy.matcher.ElementMatchers.nameStartsWith;
-import static net.bytebuddy.matcher.ElementMatchers.named;
-import static net.bytebuddy.matcher.ElementMatchers.none;
 
 import io.opentelemetry.OpenTelemetry;
+import io.opentelemetry.auto.common.exec.DaemonThreadFactory;
 import io.opentelemetry.auto.config.Config;
+import io.opentelemetry.auto.tooling.muzzle.ReferenceMatcher;
 import java.lang.instrument.Instrumentation;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -16,13 +15,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import lombok.extern.slf4j.Slf4j;
 import net.bytebuddy.agent.builder.AgentBuilder;
 import net.bytebuddy.agent.builder.ResettableClassFileTransformer;
 import net.bytebuddy.description.type.TypeDefinition;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.dynamic.DynamicType;
-import net.bytebuddy.matcher.ElementMatcher;
 import net.bytebuddy.utility.JavaModule;
 
 @Slf4j
@@ -72,7 +73,7 @@ public class AgentInstaller {
 
     addByteBuddyRawSetting();
 
-    AgentBuilder agentBuilder =
+    AgentBuilder.Ignored ignoredAgentBuilder =
         new AgentBuilder.Default()
             .disableClassFormatChanges()
             .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
@@ -84,8 +85,14 @@ public class AgentInstaller {
             // https://github.com/raphw/byte-buddy/issues/558
             // .with(AgentBuilder.LambdaInstrumentationStrategy.ENABLED)
             .ignore(any(), skipClassLoader())
-            .or(globalIgnoresMatcher())
-            .or(matchesConfiguredExcludes());
+            .or(globalIgnoresMatcher(Config.get().getExcludedClasses()));
+
+    AgentBuilder agentBuilder = ignoredAgentBuilder;
+    final PersistentMatchCache matchCache = PersistentMatchCache.get();
+    if (matchCache.isEnabled()) {
+      // Last, so only types which made it past the other ignores are recorded as unmatched.
+      agentBuilder = ignoredAgentBuilder.or(matchCache).with(matchCache.listener());
+    }
 
     if (log.isDebugEnabled()) {
       agentBuilder =
@@ -99,6 +106,7 @@ public class AgentInstaller {
       agentBuilder = agentBuilder.with(listener);
     }
     int numInstrumenters = 0;
+    final List<Instrumenter.Default> muzzledInstrumenters = new ArrayList<>();
     for (final Instrumenter instrumenter :
         ServiceLoader.load(Instrumenter.class, AgentInstaller.class.getClassLoader())) {
       log.debug("Loading instrumentation {}", instrumenter.getClass().getName());
@@ -106,15 +114,64 @@ public class AgentInstaller {
       try {
         agentBuilder = instrumenter.instrument(agentBuilder);
         numInstrumenters++;
+        if (instrumenter instanceof Instrumenter.Default
+            && ((Instrumenter.Default) instrumenter).enabled) {
+          muzzledInstrumenters.add((Instrumenter.Default) instrumenter);
+        }
       } catch (final Exception | LinkageError e) {
         log.error("Unable to load instrumentation {}", instrumenter.getClass().getName(), e);
       }
     }
     log.debug("Installed {} instrumenter(s)", numInstrumenters);
 
+    validateMuzzleInBackground(muzzledInstrumenters);
+
     return agentBuilder.installOn(inst);
   }
 
+  /**
+   * Checks the muzzle references of all instrumentations against the bootstrap and system class
+   * loaders on a few background threads, so most classes loaded at startup find the result cached
+   * instead of checking references on the application thread.
+   */
+  private static void validateMuzzleInBackground(final List<Instrumenter.Default> instrumenters) {
+    final int threads = Config.get().getMuzzleValidationThreads();
+    if (threads <= 0 || instrumenters.isEmpty()) {
+      return;
+    }
+    final ExecutorService executor =
+        Executors.newFixedThreadPool(threads, DaemonThreadFactory.MUZZLE_VALIDATOR);
+    final ClassLoader[] loaders = {
+      ClassLoaderMatcher.BOOTSTRAP_CLASSLOADER, ClassLoader.getSystemClassLoader()
+    };
+    try {
+      for (final Instrumenter.Default instrumenter : instrumenters) {
+        for (final ClassLoader loader : loaders) {
+          executor.execute(
+              new Runnable() {
+                @Override
+                public void run() {
+                  try {
+                    // loads the references, which MuzzleMatcher otherwise postpones to first use
+                    final ReferenceMatcher muzzle = instrumenter.getInstrumentationMuzzle();
+                    if (muzzle != null) {
+                      muzzle.matches(loader);
+                    }
+                  } catch (final Throwable t) {
+                    log.debug("Unable to validate {} on {}", instrumenter, loader, t);
+                  }
+                }
+              });
+        }
+      }
+    } catch (final RejectedExecutionException e) {
+      log.debug("Muzzle validation rejected", e);
+    } finally {
+      // threads exit once the queue is drained
+      executor.shutdown();
+    }
+  }
+
   private static void addByteBuddyRawSetting() {
     final String savedPropertyValue = System.getProperty(TypeDefinition.RAW_TYPES_PROPERTY);
     try {
@@ -132,22 +189,6 @@ public class AgentInstaller {
     }
   }
 
-  private static ElementMatcher.Junction<Object> matchesConfiguredExcludes() {
-    final List<String> excludedClasses = Config.get().getExcludedClasses();
-    ElementMatcher.Junction matcher = none();
-    for (String excludedClass : excludedClasses) {
-      excludedClass = excludedClass.trim();
-      if (excludedClass.endsWith("*")) {
-        // remove the trailing *
-        final String prefix = excludedClass.substring(0, excludedClass.length() - 1);
-        matcher = matcher.or(nameStartsWith(prefix));
-      } else {
-        matcher = matcher.or(named(excludedClass));
-      }
-    }
-    return matcher;
-  }
-
   @Slf4j
   static class RedefinitionLoggingListener implements AgentBuilder.RedefinitionStrategy.Listener {
 
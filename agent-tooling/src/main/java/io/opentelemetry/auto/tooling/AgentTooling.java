@@ -1,6 +1,7 @@
 package io.opentelemetry.auto.tooling;
 
 import io.opentelemetry.auto.bootstrap.WeakMap;
+import io.opentelemetry.auto.config.Config;
 
 /**
  * This class contains class references for objects shared by the agent installer as well as muzzle
@@ -27,7 +28,11 @@ public class AgentTooling {
 
   private static void registerWeakMapProvider() {
     if (!WeakMap.Provider.isProviderRegistered()) {
-      WeakMap.Provider.registerIfAbsent(new WeakMapSuppliers.WeakConcurrent(new Cleaner()));
+      final WeakMapCleaner cleaner = new WeakMapCleaner();
+      if (Config.get().isWeakMapCleanerJmxEnabled()) {
+        cleaner.registerMBean();
+      }
+      WeakMap.Provider.registerIfAbsent(new WeakMapSuppliers.WeakConcurrent(cleaner));
       //    WeakMap.Provider.registerIfAbsent(new WeakMapSuppliers.WeakConcurrent.Inline());
       //    WeakMap.Provider.registerIfAbsent(new WeakMapSuppliers.Guava());
     }
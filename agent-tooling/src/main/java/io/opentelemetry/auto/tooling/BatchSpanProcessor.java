@@ -0,0 +1,235 @@
+package io.opentelemetry.auto.tooling;
+
+import io.opentelemetry.auto.common.exec.DaemonThreadFactory;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanData;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A {@link SpanProcessor} which queues ended spans in a {@link BoundedRingBuffer} and exports them
+ * in batches from a single daemon thread, so {@link SpanExporter#export(List)} is never called on
+ * an application thread.
+ *
+ * <p>A batch is exported as soon as {@code maxExportBatchSize} spans are queued, or when the flush
+ * interval elapses, whichever happens first. When the queue is full the {@link DropPolicy} decides
+ * which span is discarded; application threads never wait for the exporter.
+ */
+@Slf4j
+public class BatchSpanProcessor implements SpanProcessor {
+  private static final long SHUTDOWN_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+  public enum DropPolicy {
+    /** Discard the span being ended, keeping everything already queued. */
+    DROP_NEWEST,
+    /** Evict the oldest queued span to make room for the span being ended. */
+    DROP_OLDEST;
+
+    public static DropPolicy fromString(final String value) {
+      if (value != null) {
+        for (final DropPolicy policy : values()) {
+          if (policy.name().equalsIgnoreCase(value.trim())) {
+            return policy;
+          }
+        }
+        log.warn("Unknown span drop policy '{}', falling back to {}", value, DROP_NEWEST);
+      }
+      return DROP_NEWEST;
+    }
+  }
+
+  private final SpanExporter exporter;
+  private final BoundedRingBuffer<ReadableSpan> queue;
+  private final int maxExportBatchSize;
+  private final long flushIntervalNanos;
+  private final DropPolicy dropPolicy;
+  private final Thread worker;
+
+  private final AtomicLong droppedSpans = new AtomicLong();
+  private final AtomicLong exportedSpans = new AtomicLong();
+  private final AtomicLong failedExports = new AtomicLong();
+
+  private volatile boolean workerParked = false;
+  private volatile boolean shutdown = false;
+
+  public BatchSpanProcessor(
+      final SpanExporter exporter,
+      final int maxExportBatchSize,
+      final int maxQueueSize,
+      final long flushIntervalMillis,
+      final DropPolicy dropPolicy) {
+    this(exporter, maxExportBatchSize, maxQueueSize, flushIntervalMillis, dropPolicy, "");
+  }
+
+  /** @param threadNameSuffix distinguishes the worker threads of several processors. */
+  public BatchSpanProcessor(
+      final SpanExporter exporter,
+      final int maxExportBatchSize,
+      final int maxQueueSize,
+      final long flushIntervalMillis,
+      final DropPolicy dropPolicy,
+      final String threadNameSuffix) {
+    if (maxExportBatchSize < 1) {
+      throw new IllegalArgumentException("maxExportBatchSize must be positive");
+    }
+    if (flushIntervalMillis < 1) {
+      throw new IllegalArgumentException("flushIntervalMillis must be positive");
+    }
+    this.exporter = exporter;
+    queue = new BoundedRingBuffer<>(Math.max(maxQueueSize, maxExportBatchSize));
+    this.maxExportBatchSize = maxExportBatchSize;
+    flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+    this.dropPolicy = dropPolicy == null ? DropPolicy.DROP_NEWEST : dropPolicy;
+
+    worker = DaemonThreadFactory.TRACE_WRITER.newThread(new Worker());
+    worker.setName(worker.getName() + threadNameSuffix);
+    worker.start();
+  }
+
+  @Override
+  public void onStart(final ReadableSpan span) {}
+
+  @Override
+  public void onEnd(final ReadableSpan span) {
+    if (shutdown || !span.getSpanContext().getTraceFlags().isSampled()) {
+      return;
+    }
+    if (enqueue(span) && workerParked && queue.size() >= maxExportBatchSize) {
+      workerParked = false;
+      LockSupport.unpark(worker);
+    }
+  }
+
+  private boolean enqueue(final ReadableSpan span) {
+    if (queue.offer(span)) {
+      return true;
+    }
+    if (dropPolicy == DropPolicy.DROP_OLDEST) {
+      if (queue.poll() != null) {
+        droppedSpans.incrementAndGet();
+      }
+      // Another thread may have claimed the freed slot, in which case this span is dropped too.
+      if (queue.offer(span)) {
+        return true;
+      }
+    }
+    droppedSpans.incrementAndGet();
+    return false;
+  }
+
+  @Override
+  public void shutdown() {
+    if (shutdown) {
+      return;
+    }
+    shutdown = true;
+    LockSupport.unpark(worker);
+    try {
+      worker.join(SHUTDOWN_WAIT_MILLIS);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    exporter.shutdown();
+  }
+
+  /** @return number of spans discarded because the queue was full. */
+  public long getDroppedSpanCount() {
+    return droppedSpans.get();
+  }
+
+  /** @return number of spans handed to the exporter. */
+  public long getExportedSpanCount() {
+    return exportedSpans.get();
+  }
+
+  /** @return number of {@link SpanExporter#export(List)} calls that failed. */
+  public long getFailedExportCount() {
+    return failedExports.get();
+  }
+
+  /** @return current number of spans waiting to be exported. */
+  public int getQueueDepth() {
+    return queue.size();
+  }
+
+  public int getQueueCapacity() {
+    return queue.capacity();
+  }
+
+  private void exportQueued() {
+    List<SpanData> batch = new ArrayList<>(Math.min(queue.size(), maxExportBatchSize));
+    ReadableSpan span;
+    while ((span = queue.poll()) != null) {
+      batch.add(span.toSpanData());
+      if (batch.size() >= maxExportBatchSize) {
+        export(batch);
+        batch = new ArrayList<>(Math.min(queue.size(), maxExportBatchSize));
+      }
+    }
+    if (!batch.isEmpty()) {
+      export(batch);
+    }
+  }
+
+  private void export(final List<SpanData> batch) {
+    try {
+      final SpanExporter.ResultCode result = exporter.export(batch);
+      if (result == SpanExporter.ResultCode.SUCCESS) {
+        exportedSpans.addAndGet(batch.size());
+      } else {
+        failedExports.incrementAndGet();
+        log.debug("Exporter {} failed to export {} spans: {}", exporter, batch.size(), result);
+      }
+    } catch (final Throwable e) {
+      failedExports.incrementAndGet();
+      log.warn("Exception thrown by exporter " + exporter, e);
+    }
+  }
+
+  private class Worker implements Runnable {
+    private long lastReportedDrops = 0;
+
+    @Override
+    public void run() {
+      long nextFlush = System.nanoTime() + flushIntervalNanos;
+      while (!shutdown) {
+        if (queue.size() < maxExportBatchSize) {
+          final long remaining = nextFlush - System.nanoTime();
+          if (remaining > 0) {
+            workerParked = true;
+            // Re-check after publishing the flag so a producer filling the batch can't be missed.
+            if (queue.size() < maxExportBatchSize && !shutdown) {
+              LockSupport.parkNanos(BatchSpanProcessor.this, remaining);
+            }
+            workerParked = false;
+            continue;
+          }
+        }
+        exportQueued();
+        reportDrops();
+        nextFlush = System.nanoTime() + flushIntervalNanos;
+      }
+      // Flush whatever is left on shutdown.
+      exportQueued();
+      reportDrops();
+    }
+
+    private void reportDrops() {
+      final long drops = droppedSpans.get();
+      if (drops != lastReportedDrops) {
+        log.debug(
+            "Span queue full, dropped {} spans (total {}, queue capacity {})",
+            drops - lastReportedDrops,
+            drops,
+            queue.capacity());
+        lastReportedDrops = drops;
+      }
+    }
+  }
+}
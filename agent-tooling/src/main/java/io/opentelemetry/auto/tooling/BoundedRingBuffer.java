@@ -0,0 +1,115 @@
+package io.opentelemetry.auto.tooling;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free, multi-producer multi-consumer queue backed by a power-of-two sized array.
+ *
+ * <p>Each slot carries a sequence number which tells producers whether the slot is free for the
+ * current lap and consumers whether it has been published, so neither side ever blocks. {@link
+ * #offer(Object)} returns {@code false} instead of waiting when the buffer is full.
+ */
+public final class BoundedRingBuffer<E> {
+  private final int capacity;
+  private final int mask;
+  private final AtomicReferenceArray<E> elements;
+  private final AtomicLongArray sequences;
+
+  // Next slot to consume
+  private final AtomicLong head = new AtomicLong();
+  // Next slot to produce
+  private final AtomicLong tail = new AtomicLong();
+
+  public BoundedRingBuffer(final int requestedCapacity) {
+    if (requestedCapacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive: " + requestedCapacity);
+    }
+    capacity = roundToPowerOfTwo(requestedCapacity);
+    mask = capacity - 1;
+    elements = new AtomicReferenceArray<>(capacity);
+    sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /** @return false if the buffer is full and the element was not added. */
+  public boolean offer(final E element) {
+    if (element == null) {
+      throw new NullPointerException();
+    }
+    long position = tail.get();
+    while (true) {
+      final int index = (int) (position & mask);
+      final long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          elements.lazySet(index, element);
+          // publish the slot to consumers
+          sequences.set(index, position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (difference < 0) {
+        // the slot still holds an element from the previous lap
+        return false;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  /** @return the oldest element, or null if the buffer is empty. */
+  public E poll() {
+    long position = head.get();
+    while (true) {
+      final int index = (int) (position & mask);
+      final long difference = sequences.get(index) - (position + 1);
+      if (difference == 0) {
+        if (head.compareAndSet(position, position + 1)) {
+          final E element = elements.get(index);
+          elements.lazySet(index, null);
+          // hand the slot back to producers for the next lap
+          sequences.set(index, position + capacity);
+          return element;
+        }
+        position = head.get();
+      } else if (difference < 0) {
+        // nothing has been published to this slot yet
+        return null;
+      } else {
+        position = head.get();
+      }
+    }
+  }
+
+  /** @return an estimate of the number of elements currently queued. */
+  public int size() {
+    // read head first so a concurrent poll can't make the result negative
+    final long currentHead = head.get();
+    final long currentTail = tail.get();
+    final long size = currentTail - currentHead;
+    if (size < 0) {
+      return 0;
+    }
+    return (int) Math.min(size, capacity);
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  private static int roundToPowerOfTwo(final int value) {
+    if (value > (1 << 30)) {
+      return 1 << 30;
+    }
+    final int highestBit = Integer.highestOneBit(value);
+    return highestBit == value ? value : highestBit << 1;
+  }
+}
@@ -61,7 +61,7 @@ public class ByteBuddyElementMatchers {
     return new SafeMatcher<>(matcher, false, description);
   }
 
-  private static TypeDescription safeAsErasure(final TypeDefinition typeDefinition) {
+  static TypeDescription safeAsErasure(final TypeDefinition typeDefinition) {
     try {
       return typeDefinition.asErasure();
     } catch (final Exception e) {
@@ -82,6 +82,8 @@ public class ByteBuddyElementMatchers {
    *   <li>Exceptions are logged
    *   <li>When exception happens the rest of the inheritance subtree is discarded (since ByteBuddy
    *       cannot load/parse type information for it) but search in other subtrees continues
+   *   <li>Matchers on super type names test the names collected once by {@link SuperTypeCache}
+   *       and shared by all matchers, instead of each matcher walking the hierarchy again
    * </ul>
    *
    * <p>This is useful because this allows us to see when matcher's check is not complete (i.e. part
@@ -93,13 +95,15 @@ public class ByteBuddyElementMatchers {
    * @see net.bytebuddy.matcher.HasSuperTypeMatcher
    */
   @HashCodeAndEqualsPlugin.Enhance
-  private static class SafeHasSuperTypeMatcher<T extends TypeDescription>
+  static class SafeHasSuperTypeMatcher<T extends TypeDescription>
       extends ElementMatcher.Junction.AbstractBase<T> {
 
     /** The matcher to apply to any super type of the matched type. */
-    private final ElementMatcher<? super TypeDescription.Generic> matcher;
+    final ElementMatcher<? super TypeDescription.Generic> matcher;
 
     private final boolean interfacesOnly;
+    // the names matched by the matcher if it only matches names, null otherwise
+    private final Set<String> names;
     /**
      * Creates a new matcher for a super type.
      *
@@ -110,69 +114,28 @@ public class ByteBuddyElementMatchers {
         final boolean interfacesOnly) {
       this.matcher = matcher;
       this.interfacesOnly = interfacesOnly;
+      names = InstrumenterIndex.Requirement.exactNames(matcher);
     }
 
     @Override
     public boolean matches(final T target) {
-      final Set<TypeDescription> checkedInterfaces = new HashSet<>();
-      // We do not use foreach loop and iterator interface here because we need to catch exceptions
-      // in {@code getSuperClass} calls
-      TypeDefinition typeDefinition = target;
-      while (typeDefinition != null) {
-        if (((!interfacesOnly || typeDefinition.isInterface())
-                && matcher.matches(typeDefinition.asGenericType()))
-            || hasInterface(typeDefinition, checkedInterfaces)) {
-          return true;
-        }
-        typeDefinition = safeGetSuperClass(typeDefinition);
-      }
-      return false;
-    }
-
-    /**
-     * Matches a type's interfaces against the provided matcher.
-     *
-     * @param typeDefinition The type for which to check all implemented interfaces.
-     * @param checkedInterfaces The interfaces that have already been checked.
-     * @return {@code true} if any interface matches the supplied matcher.
-     */
-    private boolean hasInterface(
-        final TypeDefinition typeDefinition, final Set<TypeDescription> checkedInterfaces) {
-      for (final TypeDefinition interfaceType : safeGetInterfaces(typeDefinition)) {
-        final TypeDescription erasure = safeAsErasure(interfaceType);
-        if (erasure != null) {
-          if (checkedInterfaces.add(interfaceType.asErasure())
-              && (matcher.matches(interfaceType.asGenericType())
-                  || hasInterface(interfaceType, checkedInterfaces))) {
+      if (names != null) {
+        final SuperTypeCache.SuperTypes superTypes = SuperTypeCache.superTypes(target);
+        for (int i = 0; i < superTypes.names.length; i++) {
+          if ((!interfacesOnly || superTypes.interfaces[i])
+              && names.contains(superTypes.names[i])) {
             return true;
           }
         }
+        return false;
       }
-      return false;
-    }
-
-    /**
-     * TypeDefinition#getInterfaces() produces an interator which may throw an exception during
-     * iteration if an interface is absent from the classpath.
-     *
-     * <p>This method exists to allow getting interfaces even if the lookup on one fails.
-     */
-    private List<TypeDefinition> safeGetInterfaces(final TypeDefinition typeDefinition) {
-      final List<TypeDefinition> interfaceTypes = new ArrayList<>();
-      try {
-        final Iterator<TypeDescription.Generic> interfaceIter =
-            typeDefinition.getInterfaces().iterator();
-        while (interfaceIter.hasNext()) {
-          interfaceTypes.add(interfaceIter.next());
+      for (final TypeDescription superType : SuperTypeCache.walk(target)) {
+        if ((!interfacesOnly || superType.isInterface())
+            && matcher.matches(superType.asGenericType())) {
+          return true;
         }
-      } catch (final Exception e) {
-        log.debug(
-            "{} trying to get interfaces for target {}: {}",
-            e.getClass().getSimpleName(),
-            safeTypeDefinitionName(typeDefinition),
-            e.getMessage());
       }
-      return interfaceTypes;
+      return false;
     }
 
     @Override
@@ -181,6 +144,30 @@ public class ByteBuddyElementMatchers {
     }
   }
 
+  /**
+   * TypeDefinition#getInterfaces() produces an interator which may throw an exception during
+   * iteration if an interface is absent from the classpath.
+   *
+   * <p>This method exists to allow getting interfaces even if the lookup on one fails.
+   */
+  static List<TypeDefinition> safeGetInterfaces(final TypeDefinition typeDefinition) {
+    final List<TypeDefinition> interfaceTypes = new ArrayList<>();
+    try {
+      final Iterator<TypeDescription.Generic> interfaceIter =
+          typeDefinition.getInterfaces().iterator();
+      while (interfaceIter.hasNext()) {
+        interfaceTypes.add(interfaceIter.next());
+      }
+    } catch (final Exception e) {
+      log.debug(
+          "{} trying to get interfaces for target {}: {}",
+          e.getClass().getSimpleName(),
+          safeTypeDefinitionName(typeDefinition),
+          e.getMessage());
+    }
+    return interfaceTypes;
+  }
+
   /**
    * An element matcher that matches its argument's {@link TypeDescription.Generic} raw type against
    * the given matcher for a {@link TypeDescription}. As a wildcard does not define an erasure, a
@@ -192,11 +179,11 @@ public class ByteBuddyElementMatchers {
    * @see net.bytebuddy.matcher.ErasureMatcher
    */
   @HashCodeAndEqualsPlugin.Enhance
-  private static class SafeErasureMatcher<T extends TypeDefinition>
+  static class SafeErasureMatcher<T extends TypeDefinition>
       extends ElementMatcher.Junction.AbstractBase<T> {
 
     /** The matcher to apply to the raw type of the matched element. */
-    private final ElementMatcher<? super TypeDescription> matcher;
+    final ElementMatcher<? super TypeDescription> matcher;
 
     /**
      * Creates a new erasure matcher.
@@ -234,10 +221,10 @@ public class ByteBuddyElementMatchers {
    * @see net.bytebuddy.matcher.FailSafeMatcher
    */
   @HashCodeAndEqualsPlugin.Enhance
-  private static class SafeMatcher<T> extends ElementMatcher.Junction.AbstractBase<T> {
+  static class SafeMatcher<T> extends ElementMatcher.Junction.AbstractBase<T> {
 
     /** The delegate matcher that might throw an exception. */
-    private final ElementMatcher<? super T> matcher;
+    final ElementMatcher<? super T> matcher;
 
     /** The fallback value in case of an exception. */
     private final boolean fallback;
@@ -354,7 +341,7 @@ public class ByteBuddyElementMatchers {
     }
   }
 
-  private static TypeDefinition safeGetSuperClass(final TypeDefinition typeDefinition) {
+  static TypeDefinition safeGetSuperClass(final TypeDefinition typeDefinition) {
     try {
       return typeDefinition.getSuperClass();
     } catch (final Exception e) {
@@ -367,10 +354,10 @@ public class ByteBuddyElementMatchers {
     }
   }
 
-  private static class SafeExtendsClassMatcher<T extends TypeDescription>
+  static class SafeExtendsClassMatcher<T extends TypeDescription>
       extends ElementMatcher.Junction.AbstractBase<T> {
 
-    private final ElementMatcher<? super TypeDescription.Generic> matcher;
+    final ElementMatcher<? super TypeDescription.Generic> matcher;
 
     public SafeExtendsClassMatcher(final ElementMatcher<? super TypeDescription.Generic> matcher) {
       this.matcher = matcher;
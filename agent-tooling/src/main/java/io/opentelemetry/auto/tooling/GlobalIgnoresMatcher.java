@@ -1,118 +1,289 @@
 package io.opentelemetry.auto.tooling;
 
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import net.bytebuddy.build.HashCodeAndEqualsPlugin;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
 
+/**
+ * Ignores classes which must never be instrumented, plus the classes excluded by configuration.
+ *
+ * <p>All rules are compiled into a prefix tree over the class name, so a class name is matched in a
+ * single pass no matter how many rules there are. The most specific rule wins: an exact name beats
+ * any prefix and a longer prefix beats a shorter one. Configured excludes always win.
+ */
 @HashCodeAndEqualsPlugin.Enhance
 class GlobalIgnoresMatcher<T extends TypeDescription>
     extends ElementMatcher.Junction.AbstractBase<T> {
 
-  private static final Pattern COM_MCHANGE_PROXY =
-      Pattern.compile("com\\.mchange\\.v2\\.c3p0\\..*Proxy");
+  private static final int NO_RULE = 0;
+  private static final int IGNORE = 1;
+  private static final int ALLOW = 2;
+
+  private final Node root;
+  private final String[][] infixesByFirstChar;
 
   public static <T extends TypeDescription> ElementMatcher.Junction<T> globalIgnoresMatcher() {
-    return new GlobalIgnoresMatcher<>();
+    return globalIgnoresMatcher(Collections.<String>emptyList());
+  }
+
+  /**
+   * @param excludedClasses class names, or prefixes when ending with {@code *}, which are ignored
+   *     regardless of the global rules.
+   */
+  public static <T extends TypeDescription> ElementMatcher.Junction<T> globalIgnoresMatcher(
+      final List<String> excludedClasses) {
+    return new GlobalIgnoresMatcher<>(excludedClasses);
+  }
+
+  private GlobalIgnoresMatcher(final List<String> excludedClasses) {
+    final Builder builder = new Builder();
+    addGlobalRules(builder);
+    builder.exclude(excludedClasses);
+    root = builder.root;
+    infixesByFirstChar = builder.compileInfixes();
   }
 
   /**
-   * Be very careful about the types of matchers used in this section as they are called on every
-   * class load, so they must be fast. Generally speaking try to only use name matchers as they
-   * don't have to load additional info.
+   * Be very careful about the rules added here as they are checked on every class load. Only class
+   * names are available, no other type information.
    */
+  private static void addGlobalRules(final Builder builder) {
+    builder
+        .ignorePrefixes(
+            "net.bytebuddy.",
+            "jdk.",
+            "org.aspectj.",
+            "org.groovy.",
+            "org.codehaus.groovy.macro.",
+            "com.intellij.rt.debugger.",
+            "com.p6spy.",
+            "com.newrelic.",
+            "com.dynatrace.",
+            "com.jloadtrace.",
+            "com.appdynamics.",
+            "com.singularity.",
+            "com.jinspired.",
+            "org.jinspired.",
+            "org.springframework.cglib.")
+        .ignorePrefixes("io.opentelemetry.auto.")
+        // FIXME: We should remove this once
+        // https://github.com/raphw/byte-buddy/issues/558 is fixed
+        .allowNames(
+            "io.opentelemetry.auto.bootstrap.instrumentation.java.concurrent.RunnableWrapper",
+            "io.opentelemetry.auto.bootstrap.instrumentation.java.concurrent.CallableWrapper")
+        .ignorePrefixes("java.")
+        .allowNames("java.net.URL", "java.net.HttpURLConnection")
+        .allowPrefixes("java.rmi.", "java.util.concurrent.", "java.util.logging.")
+        // Concurrent instrumentation modifies the structure of
+        // Cleaner class incompatibly with java9+ modules.
+        // Working around until a long-term fix for modules can be
+        // put in place.
+        .ignoreNames("java.util.logging.LogManager$Cleaner")
+        .ignorePrefixes("com.sun.")
+        .allowPrefixes("com.sun.messaging.", "com.sun.jersey.api.client")
+        .ignorePrefixes("sun.")
+        .allowPrefixes("sun.net.www.protocol.", "sun.rmi.server", "sun.rmi.transport")
+        .allowNames("sun.net.www.http.HttpClient")
+        .ignorePrefixes("org.slf4j.")
+        .allowNames("org.slf4j.MDC")
+        // Only checked when no prefix or name rule applies.
+        .ignoreInfixes("$JaxbAccessor", "CGLIB$$", "javassist", ".asm.", "$__sisu")
+        .ignorePrefixWithSuffix("com.mchange.v2.c3p0.", "Proxy");
+  }
+
   @Override
   public boolean matches(final T target) {
-    final String name = target.getActualName();
-
-    if (name.startsWith("net.bytebuddy.")
-        || name.startsWith("jdk.")
-        || name.startsWith("org.aspectj.")
-        || name.startsWith("org.groovy.")
-        || name.startsWith("org.codehaus.groovy.macro.")
-        || name.startsWith("com.intellij.rt.debugger.")
-        || name.startsWith("com.p6spy.")
-        || name.startsWith("com.newrelic.")
-        || name.startsWith("com.dynatrace.")
-        || name.startsWith("com.jloadtrace.")
-        || name.startsWith("com.appdynamics.")
-        || name.startsWith("com.singularity.")
-        || name.startsWith("com.jinspired.")
-        || name.startsWith("org.jinspired.")
-        || name.startsWith("org.springframework.cglib.")) {
+    return matches(target.getActualName());
+  }
+
+  boolean matches(final String name) {
+    if (root.excludedPrefix) {
+      // an exclude of "*"
       return true;
     }
+    final int length = name.length();
+    Node node = root;
+    int decision = NO_RULE;
+    boolean infixFound = false;
+    Node suffixNode = null;
+    int suffixNodeDepth = 0;
 
-    if (name.startsWith("io.opentelemetry.auto.")) {
-      // FIXME: We should remove this once
-      // https://github.com/raphw/byte-buddy/issues/558 is fixed
-      if (name.equals(
-              "io.opentelemetry.auto.bootstrap.instrumentation.java.concurrent.RunnableWrapper")
-          || name.equals(
-              "io.opentelemetry.auto.bootstrap.instrumentation.java.concurrent.CallableWrapper")) {
-        return false;
+    for (int i = 0; i < length; i++) {
+      final char c = name.charAt(i);
+      if (!infixFound && c < infixesByFirstChar.length && infixesByFirstChar[c] != null) {
+        infixFound = containsInfixAt(name, i, infixesByFirstChar[c]);
+      }
+      if (node != null) {
+        node = node.child(c);
+        if (node != null) {
+          if (node.excludedPrefix) {
+            return true;
+          }
+          if (node.prefixRule != NO_RULE) {
+            decision = node.prefixRule;
+          }
+          if (node.ignoredSuffix != null) {
+            suffixNode = node;
+            suffixNodeDepth = i + 1;
+          }
+        } else if (decision != NO_RULE) {
+          // No longer prefix can apply and exact names need the whole name.
+          return decision == IGNORE;
+        }
       }
-      return true;
     }
 
-    if (name.startsWith("java.")) {
-      if (name.equals("java.net.URL") || name.equals("java.net.HttpURLConnection")) {
-        return false;
+    if (node != null) {
+      if (node.excludedName) {
+        return true;
       }
-      if (name.startsWith("java.rmi.") || name.startsWith("java.util.concurrent.")) {
-        return false;
+      if (node.nameRule != NO_RULE) {
+        decision = node.nameRule;
       }
-      // Concurrent instrumentation modifies the structure of
-      // Cleaner class incompatibly with java9+ modules.
-      // Working around until a long-term fix for modules can be
-      // put in place.
-      if (name.startsWith("java.util.logging.")
-          && !name.equals("java.util.logging.LogManager$Cleaner")) {
-        return false;
+    }
+    if (decision != NO_RULE) {
+      return decision == IGNORE;
+    }
+    if (infixFound) {
+      return true;
+    }
+    return suffixNode != null
+        && length - suffixNodeDepth >= suffixNode.ignoredSuffix.length()
+        && name.endsWith(suffixNode.ignoredSuffix);
+  }
+
+  private static boolean containsInfixAt(
+      final String name, final int index, final String[] infixes) {
+    for (final String infix : infixes) {
+      if (name.startsWith(infix, index)) {
+        return true;
       }
+    }
+    return false;
+  }
 
-      return true;
+  private static final class Node {
+    private char[] keys = new char[0];
+    private Node[] children = new Node[0];
+
+    // rule for names starting with the path to this node
+    int prefixRule = NO_RULE;
+    // rule for names equal to the path to this node
+    int nameRule = NO_RULE;
+    boolean excludedPrefix = false;
+    boolean excludedName = false;
+    // names starting with the path to this node and ending with this are ignored
+    String ignoredSuffix = null;
+
+    Node child(final char c) {
+      final int index = Arrays.binarySearch(keys, c);
+      return index < 0 ? null : children[index];
     }
 
-    if (name.startsWith("com.sun.")) {
-      if (name.startsWith("com.sun.messaging.") || name.startsWith("com.sun.jersey.api.client")) {
-        return false;
+    Node getOrCreateChild(final char c) {
+      int index = Arrays.binarySearch(keys, c);
+      if (index < 0) {
+        index = -index - 1;
+        final char[] newKeys = new char[keys.length + 1];
+        final Node[] newChildren = new Node[children.length + 1];
+        System.arraycopy(keys, 0, newKeys, 0, index);
+        System.arraycopy(children, 0, newChildren, 0, index);
+        newKeys[index] = c;
+        newChildren[index] = new Node();
+        System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+        System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+        keys = newKeys;
+        children = newChildren;
       }
+      return children[index];
+    }
+  }
 
-      return true;
+  private static final class Builder {
+    final Node root = new Node();
+    private final List<String> infixes = new ArrayList<>();
+
+    Builder ignorePrefixes(final String... prefixes) {
+      for (final String prefix : prefixes) {
+        path(prefix).prefixRule = IGNORE;
+      }
+      return this;
     }
 
-    if (name.startsWith("sun.")) {
-      if (name.startsWith("sun.net.www.protocol.")
-          || name.startsWith("sun.rmi.server")
-          || name.startsWith("sun.rmi.transport")
-          || name.equals("sun.net.www.http.HttpClient")) {
-        return false;
+    Builder allowPrefixes(final String... prefixes) {
+      for (final String prefix : prefixes) {
+        path(prefix).prefixRule = ALLOW;
       }
+      return this;
+    }
 
-      return true;
+    Builder ignoreNames(final String... names) {
+      for (final String name : names) {
+        path(name).nameRule = IGNORE;
+      }
+      return this;
     }
 
-    if (name.startsWith("org.slf4j.")) {
-      if (name.equals("org.slf4j.MDC")) {
-        return false;
+    Builder allowNames(final String... names) {
+      for (final String name : names) {
+        path(name).nameRule = ALLOW;
       }
+      return this;
+    }
 
-      return true;
+    Builder ignoreInfixes(final String... infixes) {
+      this.infixes.addAll(Arrays.asList(infixes));
+      return this;
     }
 
-    if (name.contains("$JaxbAccessor")
-        || name.contains("CGLIB$$")
-        || name.contains("javassist")
-        || name.contains(".asm.")
-        || name.contains("$__sisu")) {
-      return true;
+    Builder ignorePrefixWithSuffix(final String prefix, final String suffix) {
+      path(prefix).ignoredSuffix = suffix;
+      return this;
     }
 
-    if (COM_MCHANGE_PROXY.matcher(name).matches()) {
-      return true;
+    void exclude(final List<String> excludedClasses) {
+      for (final String excludedClass : excludedClasses) {
+        final String trimmed = excludedClass.trim();
+        if (trimmed.endsWith("*")) {
+          // remove the trailing *
+          path(trimmed.substring(0, trimmed.length() - 1)).excludedPrefix = true;
+        } else {
+          path(trimmed).excludedName = true;
+        }
+      }
     }
 
-    return false;
+    /** @return infixes indexed by their first character */
+    String[][] compileInfixes() {
+      int maxChar = -1;
+      for (final String infix : infixes) {
+        maxChar = Math.max(maxChar, infix.charAt(0));
+      }
+      final String[][] table = new String[maxChar + 1][];
+      for (final String infix : infixes) {
+        final char first = infix.charAt(0);
+        final String[] existing = table[first];
+        if (existing == null) {
+          table[first] = new String[] {infix};
+        } else {
+          final String[] extended = Arrays.copyOf(existing, existing.length + 1);
+          extended[existing.length] = infix;
+          table[first] = extended;
+        }
+      }
+      return table;
+    }
+
+    private Node path(final String value) {
+      Node node = root;
+      for (int i = 0; i < value.length(); i++) {
+        node = node.getOrCreateChild(value.charAt(i));
+      }
+      return node;
+    }
   }
 }
@@ -1,12 +1,9 @@
 package io.opentelemetry.auto.tooling;
 
-import static io.opentelemetry.auto.bootstrap.WeakMap.Provider.newWeakMap;
 import static io.opentelemetry.auto.tooling.ClassLoaderMatcher.BOOTSTRAP_CLASSLOADER;
 
-import io.opentelemetry.auto.bootstrap.WeakMap;
 import java.io.File;
 import java.io.IOException;
-import java.lang.ref.WeakReference;
 import java.security.SecureClassLoader;
 import java.util.Arrays;
 import java.util.Collection;
@@ -17,16 +14,19 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArrayList;
 import lombok.extern.slf4j.Slf4j;
 import net.bytebuddy.agent.builder.AgentBuilder.Transformer;
 import net.bytebuddy.description.type.TypeDescription;
-import net.bytebuddy.dynamic.ClassFileLocator;
 import net.bytebuddy.dynamic.DynamicType;
 import net.bytebuddy.dynamic.loading.ClassInjector;
 import net.bytebuddy.utility.JavaModule;
 
-/** Injects instrumentation helper classes into the user's classloader. */
+/**
+ * Injects instrumentation helper classes into the user's classloader.
+ *
+ * <p>Helpers already injected into the classloader, by this or another instrumentation, are
+ * skipped and the missing ones are injected in a single batch. See {@link HelperRegistry}.
+ */
 @Slf4j
 public class HelperInjector implements Transformer {
   // Need this because we can't put null into the injectedClassLoaders map.
@@ -36,9 +36,6 @@ public class HelperInjector implements Transformer {
   private final Set<String> helperClassNames;
   private final Map<String, byte[]> dynamicTypeMap = new LinkedHashMap<>();
 
-  private final WeakMap<ClassLoader, Boolean> injectedClassLoaders = newWeakMap();
-
-  private final List<WeakReference<Object>> helperModules = new CopyOnWriteArrayList<>();
   /**
    * Construct HelperInjector.
    *
@@ -65,22 +62,16 @@ public class HelperInjector implements Transformer {
     return new HelperInjector(bytes);
   }
 
-  private Map<String, byte[]> getHelperMap() throws IOException {
-    if (dynamicTypeMap.isEmpty()) {
-      final Map<String, byte[]> classnameToBytes = new LinkedHashMap<>();
-
-      final ClassFileLocator locator =
-          ClassFileLocator.ForClassLoader.of(Utils.getAgentClassLoader());
-
-      for (final String helperClassName : helperClassNames) {
-        final byte[] classBytes = locator.locate(helperClassName).resolve();
-        classnameToBytes.put(helperClassName, classBytes);
+  private Map<String, byte[]> getHelperMap(final Set<String> classNames) throws IOException {
+    final Map<String, byte[]> classnameToBytes = new LinkedHashMap<>();
+    for (final String helperClassName : classNames) {
+      if (dynamicTypeMap.isEmpty()) {
+        classnameToBytes.put(helperClassName, HelperRegistry.INSTANCE.bytecode(helperClassName));
+      } else {
+        classnameToBytes.put(helperClassName, dynamicTypeMap.get(helperClassName));
       }
-
-      return classnameToBytes;
-    } else {
-      return dynamicTypeMap;
     }
+    return classnameToBytes;
   }
 
   @Override
@@ -94,70 +85,98 @@ public class HelperInjector implements Transformer {
         classLoader = BOOTSTRAP_CLASSLOADER_PLACEHOLDER;
       }
 
-      if (!injectedClassLoaders.containsKey(classLoader)) {
-        try {
-          log.debug("Injecting classes onto classloader {} -> {}", classLoader, helperClassNames);
-
-          final Map<String, byte[]> classnameToBytes = getHelperMap();
-          final Map<String, Class<?>> classes;
-          if (classLoader == BOOTSTRAP_CLASSLOADER_PLACEHOLDER) {
-            classes =
-                ClassInjector.UsingInstrumentation.of(
-                        new File(System.getProperty("java.io.tmpdir")),
-                        ClassInjector.UsingInstrumentation.Target.BOOTSTRAP,
-                        AgentInstaller.getInstrumentation())
-                    .injectRaw(classnameToBytes);
-          } else {
-            classes = new ClassInjector.UsingReflection(classLoader).injectRaw(classnameToBytes);
+      final HelperRegistry.Injected injected = HelperRegistry.INSTANCE.injectedInto(classLoader);
+      if (!injectedAll(injected)) {
+        synchronized (injected) {
+          // Helpers shared with other instrumentations may already be there.
+          final Set<String> missing = new LinkedHashSet<>();
+          for (final String helperClassName : helperClassNames) {
+            if (!injected.contains(helperClassName)) {
+              missing.add(helperClassName);
+            }
           }
-
-          // All agent helper classes are in the unnamed module
-          // And there's exactly one unnamed module per classloader
-          // Use the module of the first class for convenience
-          if (JavaModule.isSupported()) {
-            final JavaModule javaModule = JavaModule.ofType(classes.values().iterator().next());
-            helperModules.add(new WeakReference<>(javaModule.unwrap()));
+          if (!missing.isEmpty()) {
+            inject(typeDescription, classLoader, missing, injected);
           }
-        } catch (final Exception e) {
-          final String classLoaderType =
-              classLoader == BOOTSTRAP_CLASSLOADER_PLACEHOLDER
-                  ? "<bootstrap>"
-                  : classLoader.getClass().getName();
-
-          log.error(
-              "Error preparing helpers for {}. Failed to inject helper classes into instance {} of type {}",
-              typeDescription,
-              classLoader,
-              classLoaderType,
-              e);
-          throw new RuntimeException(e);
         }
-
-        injectedClassLoaders.put(classLoader, true);
       }
 
-      ensureModuleCanReadHelperModules(module);
+      ensureModuleCanReadHelperModule(module, injected);
     }
     return builder;
   }
 
-  private void ensureModuleCanReadHelperModules(final JavaModule target) {
+  private boolean injectedAll(final HelperRegistry.Injected injected) {
+    for (final String helperClassName : helperClassNames) {
+      if (!injected.contains(helperClassName)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void inject(
+      final TypeDescription typeDescription,
+      final ClassLoader classLoader,
+      final Set<String> classNames,
+      final HelperRegistry.Injected injected) {
+    try {
+      log.debug("Injecting classes onto classloader {} -> {}", classLoader, classNames);
+
+      // All missing helpers in one batch
+      final Map<String, byte[]> classnameToBytes = getHelperMap(classNames);
+      final Map<String, Class<?>> classes;
+      if (classLoader == BOOTSTRAP_CLASSLOADER_PLACEHOLDER) {
+        classes =
+            ClassInjector.UsingInstrumentation.of(
+                    new File(System.getProperty("java.io.tmpdir")),
+                    ClassInjector.UsingInstrumentation.Target.BOOTSTRAP,
+                    AgentInstaller.getInstrumentation())
+                .injectRaw(classnameToBytes);
+      } else {
+        classes = new ClassInjector.UsingReflection(classLoader).injectRaw(classnameToBytes);
+      }
+
+      // All agent helper classes are in the unnamed module
+      // And there's exactly one unnamed module per classloader
+      // Use the module of the first class for convenience
+      Object helperModule = null;
+      if (JavaModule.isSupported()) {
+        helperModule = JavaModule.ofType(classes.values().iterator().next()).unwrap();
+      }
+      injected.add(classNames, helperModule);
+    } catch (final Exception e) {
+      final String classLoaderType =
+          classLoader == BOOTSTRAP_CLASSLOADER_PLACEHOLDER
+              ? "<bootstrap>"
+              : classLoader.getClass().getName();
+
+      log.error(
+          "Error preparing helpers for {}. Failed to inject helper classes into instance {} of type {}",
+          typeDescription,
+          classLoader,
+          classLoaderType,
+          e);
+      throw new RuntimeException(e);
+    }
+  }
+
+  private void ensureModuleCanReadHelperModule(
+      final JavaModule target, final HelperRegistry.Injected injected) {
     if (JavaModule.isSupported() && target != JavaModule.UNSUPPORTED && target.isNamed()) {
-      for (final WeakReference<Object> helperModuleReference : helperModules) {
-        final Object realModule = helperModuleReference.get();
-        if (realModule != null) {
-          final JavaModule helperModule = JavaModule.of(realModule);
-
-          if (!target.canRead(helperModule)) {
-            log.debug("Adding module read from {} to {}", target, helperModule);
-            target.modify(
-                AgentInstaller.getInstrumentation(),
-                Collections.singleton(helperModule),
-                Collections.<String, Set<JavaModule>>emptyMap(),
-                Collections.<String, Set<JavaModule>>emptyMap(),
-                Collections.<Class<?>>emptySet(),
-                Collections.<Class<?>, List<Class<?>>>emptyMap());
-          }
+      final Object realModule = injected.helperModule();
+      if (realModule != null) {
+        final JavaModule helperModule = JavaModule.of(realModule);
+
+        if (!target.canRead(helperModule)) {
+          log.debug("Adding module read from {} to {}", target, helperModule);
+          target.modify(
+              AgentInstaller.getInstrumentation(),
+              Collections.singleton(helperModule),
+              Collections.<String, Set<JavaModule>>emptyMap(),
+              Collections.<String, Set<JavaModule>>emptyMap(),
+              Collections.<Class<?>>emptySet(),
+              Collections.<Class<?>, List<Class<?>>>emptyMap());
         }
       }
     }
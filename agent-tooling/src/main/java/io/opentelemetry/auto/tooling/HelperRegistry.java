@@ -0,0 +1,86 @@
+package io.opentelemetry.auto.tooling;
+
+import static io.opentelemetry.auto.bootstrap.WeakMap.Provider.newWeakMap;
+
+import io.opentelemetry.auto.bootstrap.WeakMap;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import net.bytebuddy.dynamic.ClassFileLocator;
+
+/**
+ * State shared by all the {@link HelperInjector}s.
+ *
+ * <p>Many instrumentations use the same helpers (the decorator base classes are used by dozens of
+ * them), and application servers can have hundreds of class loaders. The bytes of each helper are
+ * read from the agent class loader once, whichever instrumentation asks for them first, and the
+ * helpers already injected into a class loader are tracked in one place, so a helper is injected
+ * once per class loader however many instrumentations need it.
+ */
+final class HelperRegistry {
+  static final HelperRegistry INSTANCE = new HelperRegistry();
+
+  // Helpers are few and small, keeping them saves reading the agent jar for every class loader.
+  private final ConcurrentMap<String, byte[]> bytecode = new ConcurrentHashMap<>();
+
+  private final WeakMap<ClassLoader, Injected> injected = newWeakMap();
+
+  /** @return the bytes of the helper class, as found by the agent class loader. */
+  byte[] bytecode(final String className) throws IOException {
+    byte[] bytes = bytecode.get(className);
+    if (bytes == null) {
+      bytes =
+          ClassFileLocator.ForClassLoader.of(Utils.getAgentClassLoader())
+              .locate(className)
+              .resolve();
+      final byte[] existing = bytecode.putIfAbsent(className, bytes);
+      if (existing != null) {
+        bytes = existing;
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * @return the helpers injected into the class loader. Synchronize on it while injecting, so
+   *     helpers aren't defined twice.
+   */
+  Injected injectedInto(final ClassLoader classLoader) {
+    return injected.computeIfAbsent(
+        classLoader,
+        new WeakMap.ValueSupplier<ClassLoader, Injected>() {
+          @Override
+          public Injected get(final ClassLoader key) {
+            return new Injected();
+          }
+        });
+  }
+
+  /** Must not reference the class loader, which is the weak key of its entry. */
+  static final class Injected {
+    private final Set<String> classNames = Collections.synchronizedSet(new HashSet<String>());
+    // All helpers of a class loader are in its unnamed module.
+    private volatile WeakReference<Object> helperModule = null;
+
+    boolean contains(final String className) {
+      return classNames.contains(className);
+    }
+
+    void add(final Set<String> injectedClassNames, final Object module) {
+      classNames.addAll(injectedClassNames);
+      if (helperModule == null && module != null) {
+        helperModule = new WeakReference<>(module);
+      }
+    }
+
+    /** @return the module of the injected helpers, or {@code null} if unknown. */
+    Object helperModule() {
+      final WeakReference<Object> reference = helperModule;
+      return reference == null ? null : reference.get();
+    }
+  }
+}
@@ -71,12 +71,16 @@ public interface Instrumenter {
         return parentAgentBuilder;
       }
 
+      final ElementMatcher<TypeDescription> typeMatcher =
+          ByteBuddyElementMatchers.<TypeDescription>failSafe(
+              typeMatcher(),
+              "Instrumentation type matcher unexpected exception: " + getClass().getName());
       AgentBuilder.Identified.Extendable agentBuilder =
           parentAgentBuilder
-              .type(
-                  failSafe(
-                      typeMatcher(),
-                      "Instrumentation type matcher unexpected exception: " + getClass().getName()),
+              // Rules out most types with a lookup shared by all instrumentations.
+              .type(InstrumenterIndex.INSTANCE.register(typeMatcher))
+              .and(
+                  typeMatcher,
                   failSafe(
                       classLoaderMatcher(),
                       "Instrumentation class loader matcher unexpected exception: "
@@ -131,27 +135,46 @@ public interface Instrumenter {
          */
         final ReferenceMatcher muzzle = getInstrumentationMuzzle();
         if (null != muzzle) {
-          final List<Reference.Mismatch> mismatches =
-              muzzle.getMismatchedReferenceSources(classLoader);
-          if (mismatches.size() > 0) {
-            if (log.isDebugEnabled()) {
+          final String instrumentationClassName = Instrumenter.Default.this.getClass().getName();
+          final PersistentMatchCache matchCache = PersistentMatchCache.get();
+          final Boolean cachedMatch =
+              matchCache.muzzleMatches(instrumentationClassName, classLoader);
+          if (cachedMatch != null) {
+            log.debug(
+                "Reusing muzzle result from a previous run: {} -- {} on {} matches: {}",
+                instrumentationPrimaryName,
+                instrumentationClassName,
+                classLoader,
+                cachedMatch);
+            return cachedMatch;
+          }
+          // Only collect every mismatch when they are going to be logged.
+          final boolean matches;
+          if (log.isDebugEnabled()) {
+            final List<Reference.Mismatch> mismatches =
+                muzzle.getMismatchedReferenceSources(classLoader);
+            matches = mismatches.isEmpty();
+            if (!matches) {
               log.debug(
                   "Instrumentation muzzled: {} -- {} on {}",
                   instrumentationNames,
-                  Instrumenter.Default.this.getClass().getName(),
+                  instrumentationClassName,
                   classLoader);
               for (final Reference.Mismatch mismatch : mismatches) {
                 log.debug("-- {}", mismatch);
               }
+            } else {
+              log.debug(
+                  "Applying instrumentation: {} -- {} on {}",
+                  instrumentationPrimaryName,
+                  instrumentationClassName,
+                  classLoader);
             }
           } else {
-            log.debug(
-                "Applying instrumentation: {} -- {} on {}",
-                instrumentationPrimaryName,
-                Instrumenter.Default.this.getClass().getName(),
-                classLoader);
+            matches = muzzle.matches(classLoader);
           }
-          return mismatches.size() == 0;
+          matchCache.recordMuzzle(instrumentationClassName, classLoader, matches);
+          return matches;
         }
         return true;
       }
@@ -0,0 +1,348 @@
+package io.opentelemetry.auto.tooling;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.NameMatcher;
+import net.bytebuddy.matcher.StringMatcher;
+import net.bytebuddy.utility.JavaModule;
+
+/**
+ * Narrows down the instrumentations which could apply to a type before their matchers run.
+ *
+ * <p>Each instrumentation is its own transformation of the agent builder, so every loaded type is
+ * offered to every instrumentation in turn. When an instrumentation registers, its type matcher is
+ * analyzed for a condition any type it matches must meet: having one of a set of names, starting
+ * with one of a set of prefixes, or having one of a set of super types ({@code safeHasSuperType},
+ * {@code safeHasInterface} and {@code safeExtendsClass}). The instrumentations whose condition a
+ * type meets are looked up once per type, and the transformations of all the others stop at a bit
+ * test instead of running their class loader and type matchers. Instrumentations whose matcher
+ * can't be analyzed are always candidates.
+ */
+@Slf4j
+final class InstrumenterIndex {
+  static final InstrumenterIndex INSTANCE = new InstrumenterIndex();
+
+  // Replaced on every registration, so types can be matched while instrumentations register.
+  private volatile Snapshot snapshot = new Snapshot();
+
+  private final ThreadLocal<Candidates> candidates =
+      new ThreadLocal<Candidates>() {
+        @Override
+        protected Candidates initialValue() {
+          return new Candidates();
+        }
+      };
+
+  /** @return a matcher ruling out the types the given type matcher can't match. */
+  synchronized AgentBuilder.RawMatcher register(final ElementMatcher<?> typeMatcher) {
+    final Snapshot next = new Snapshot(snapshot);
+    final int slot = next.size++;
+    final Requirement requirement = Requirement.of(typeMatcher);
+    if (requirement == null) {
+      log.debug("Type matcher can't be indexed: {}", typeMatcher);
+      next.unindexed.set(slot);
+    } else {
+      add(next.byName, requirement.names, slot);
+      add(next.byPrefix, requirement.prefixes, slot);
+      add(next.bySuperType, requirement.superTypes, slot);
+    }
+    snapshot = next;
+    return new Candidate(slot);
+  }
+
+  private static void add(final Map<String, BitSet> index, final Set<String> keys, final int slot) {
+    for (final String key : keys) {
+      final BitSet existing = index.get(key);
+      // copied, the previous snapshot may still be in use
+      final BitSet slots = existing == null ? new BitSet() : (BitSet) existing.clone();
+      slots.set(slot);
+      index.put(key, slots);
+    }
+  }
+
+  boolean isCandidate(final int slot, final TypeDescription type, final ClassLoader loader) {
+    final Snapshot current = snapshot;
+    final Candidates cached = candidates.get();
+    if (cached.snapshot != current || cached.type.get() != type) {
+      cached.compute(current, type, loader);
+    }
+    return cached.slots.get(slot);
+  }
+
+  private final class Candidate implements AgentBuilder.RawMatcher {
+    private final int slot;
+
+    private Candidate(final int slot) {
+      this.slot = slot;
+    }
+
+    @Override
+    public boolean matches(
+        final TypeDescription typeDescription,
+        final ClassLoader classLoader,
+        final JavaModule module,
+        final Class<?> classBeingRedefined,
+        final ProtectionDomain protectionDomain) {
+      return isCandidate(slot, typeDescription, classLoader);
+    }
+  }
+
+  private static final class Snapshot {
+    private final Map<String, BitSet> byName;
+    private final Map<String, BitSet> byPrefix;
+    private final Map<String, BitSet> bySuperType;
+    private final BitSet unindexed;
+    private int size;
+
+    private Snapshot() {
+      byName = new HashMap<>();
+      byPrefix = new HashMap<>();
+      bySuperType = new HashMap<>();
+      unindexed = new BitSet();
+      size = 0;
+    }
+
+    private Snapshot(final Snapshot previous) {
+      byName = new HashMap<>(previous.byName);
+      byPrefix = new HashMap<>(previous.byPrefix);
+      bySuperType = new HashMap<>(previous.bySuperType);
+      unindexed = (BitSet) previous.unindexed.clone();
+      size = previous.size;
+    }
+  }
+
+  /** The instrumentations which may match the last type seen by a thread. */
+  private static final class Candidates {
+    private static final WeakReference<TypeDescription> NONE = new WeakReference<>(null);
+
+    private final BitSet slots = new BitSet();
+    private Snapshot snapshot = null;
+    // Weak, as the type pool may hold on to the type's class loader.
+    private WeakReference<TypeDescription> type = NONE;
+
+    private void compute(
+        final Snapshot snapshot, final TypeDescription type, final ClassLoader loader) {
+      this.snapshot = snapshot;
+      this.type = new WeakReference<>(type);
+      slots.clear();
+      slots.or(snapshot.unindexed);
+
+      final String name = type.getName();
+      or(snapshot.byName.get(name));
+      for (final Map.Entry<String, BitSet> prefix : snapshot.byPrefix.entrySet()) {
+        if (name.startsWith(prefix.getKey())) {
+          slots.or(prefix.getValue());
+        }
+      }
+      if (!snapshot.bySuperType.isEmpty()) {
+        for (final String superType : SuperTypeCache.superTypes(loader, type).names) {
+          or(snapshot.bySuperType.get(superType));
+        }
+      }
+    }
+
+    private void or(final BitSet other) {
+      if (other != null) {
+        slots.or(other);
+      }
+    }
+  }
+
+  /**
+   * A condition every type matched by a matcher meets: its name is one of {@link #names}, starts
+   * with one of {@link #prefixes}, or one of its super types (itself included) is named one of
+   * {@link #superTypes}.
+   */
+  static final class Requirement {
+    final Set<String> names = new HashSet<>();
+    final Set<String> prefixes = new HashSet<>();
+    final Set<String> superTypes = new HashSet<>();
+
+    /** @return the requirement of the matcher, or {@code null} if it can't be told. */
+    static Requirement of(final ElementMatcher<?> matcher) {
+      try {
+        return analyze(matcher);
+      } catch (final Exception e) {
+        log.debug("Unable to analyze type matcher {}", matcher, e);
+        return null;
+      }
+    }
+
+    /**
+     * @return the names the matcher matches if it matches nothing but these names, or {@code null}
+     *     otherwise.
+     */
+    static Set<String> exactNames(final ElementMatcher<?> matcher) {
+      try {
+        return collectExactNames(matcher);
+      } catch (final Exception e) {
+        log.debug("Unable to analyze matcher {}", matcher, e);
+        return null;
+      }
+    }
+
+    private static Set<String> collectExactNames(final ElementMatcher<?> matcher)
+        throws Exception {
+      if (matcher instanceof ByteBuddyElementMatchers.SafeErasureMatcher) {
+        return collectExactNames(((ByteBuddyElementMatchers.SafeErasureMatcher<?>) matcher).matcher);
+      } else if (matcher instanceof NameMatcher) {
+        final Requirement requirement = name(operands(matcher));
+        return requirement == null || !requirement.prefixes.isEmpty() ? null : requirement.names;
+      } else if (matcher instanceof ElementMatcher.Junction.Disjunction) {
+        final Set<String> union = new HashSet<>();
+        for (final ElementMatcher<?> operand : operands(matcher)) {
+          final Set<String> names = collectExactNames(operand);
+          if (names == null) {
+            return null;
+          }
+          union.addAll(names);
+        }
+        return union.isEmpty() ? null : union;
+      }
+      return null;
+    }
+
+    private static Requirement analyze(final ElementMatcher<?> matcher) throws Exception {
+      if (matcher instanceof ByteBuddyElementMatchers.SafeMatcher) {
+        // matches less than its delegate, if anything
+        return analyze(((ByteBuddyElementMatchers.SafeMatcher<?>) matcher).matcher);
+      } else if (matcher instanceof ByteBuddyElementMatchers.SafeErasureMatcher) {
+        return analyze(((ByteBuddyElementMatchers.SafeErasureMatcher<?>) matcher).matcher);
+      } else if (matcher instanceof ByteBuddyElementMatchers.SafeHasSuperTypeMatcher) {
+        return superTypes(((ByteBuddyElementMatchers.SafeHasSuperTypeMatcher<?>) matcher).matcher);
+      } else if (matcher instanceof ByteBuddyElementMatchers.SafeExtendsClassMatcher) {
+        return superTypes(((ByteBuddyElementMatchers.SafeExtendsClassMatcher<?>) matcher).matcher);
+      } else if (matcher instanceof NameMatcher) {
+        return name(operands(matcher));
+      } else if (matcher instanceof ElementMatcher.Junction.Conjunction) {
+        // any operand's requirement holds, keep the most selective
+        Requirement best = null;
+        for (final ElementMatcher<?> operand : operands(matcher)) {
+          final Requirement requirement = analyze(operand);
+          if (requirement != null && (best == null || requirement.rank() < best.rank())) {
+            best = requirement;
+          }
+        }
+        return best;
+      } else if (matcher instanceof ElementMatcher.Junction.Disjunction) {
+        final Requirement union = new Requirement();
+        for (final ElementMatcher<?> operand : operands(matcher)) {
+          final Requirement requirement = analyze(operand);
+          if (requirement == null) {
+            return null;
+          }
+          union.names.addAll(requirement.names);
+          union.prefixes.addAll(requirement.prefixes);
+          union.superTypes.addAll(requirement.superTypes);
+        }
+        // no operand found: ruling out every type would be wrong, ruling out none is safe
+        return union.isEmpty() ? null : union;
+      }
+      return null;
+    }
+
+    private static Requirement superTypes(final ElementMatcher<?> superTypeMatcher)
+        throws Exception {
+      final Requirement names = analyze(superTypeMatcher);
+      if (names == null || !names.prefixes.isEmpty() || !names.superTypes.isEmpty()) {
+        return null;
+      }
+      final Requirement requirement = new Requirement();
+      requirement.superTypes.addAll(names.names);
+      return requirement;
+    }
+
+    private static Requirement name(final List<ElementMatcher<?>> nameMatchers) throws Exception {
+      if (nameMatchers.size() != 1 || !(nameMatchers.get(0) instanceof StringMatcher)) {
+        return null;
+      }
+      final StringMatcher stringMatcher = (StringMatcher) nameMatchers.get(0);
+      String value = null;
+      StringMatcher.Mode mode = null;
+      for (final Object field : fieldValues(stringMatcher)) {
+        if (field instanceof String) {
+          value = (String) field;
+        } else if (field instanceof StringMatcher.Mode) {
+          mode = (StringMatcher.Mode) field;
+        }
+      }
+      if (value == null) {
+        return null;
+      }
+      final Requirement requirement = new Requirement();
+      if (mode == StringMatcher.Mode.EQUALS_FULLY) {
+        requirement.names.add(value);
+      } else if (mode == StringMatcher.Mode.STARTS_WITH) {
+        requirement.prefixes.add(value);
+      } else {
+        return null;
+      }
+      return requirement;
+    }
+
+    /** Names are looked up directly, prefixes are scanned, super types need the hierarchy. */
+    private int rank() {
+      if (!superTypes.isEmpty()) {
+        return 2;
+      }
+      return prefixes.isEmpty() ? 0 : 1;
+    }
+
+    /** @return the matchers a composite matcher delegates to. */
+    private static List<ElementMatcher<?>> operands(final ElementMatcher<?> matcher)
+        throws Exception {
+      final List<ElementMatcher<?>> operands = new ArrayList<>();
+      for (final Object value : fieldValues(matcher)) {
+        if (value instanceof ElementMatcher) {
+          operands.add((ElementMatcher<?>) value);
+        } else if (value instanceof Iterable) {
+          for (final Object element : (Iterable<?>) value) {
+            if (element instanceof ElementMatcher) {
+              operands.add((ElementMatcher<?>) element);
+            }
+          }
+        }
+      }
+      return operands;
+    }
+
+    /**
+     * ByteBuddy's matchers don't expose what they match on, so their fields are read by type
+     * rather than by name, which differs between versions.
+     */
+    private static List<Object> fieldValues(final Object target) throws IllegalAccessException {
+      final List<Object> values = new ArrayList<>();
+      for (Class<?> type = target.getClass(); type != Object.class; type = type.getSuperclass()) {
+        for (final Field field : type.getDeclaredFields()) {
+          if (!Modifier.isStatic(field.getModifiers())) {
+            field.setAccessible(true);
+            values.add(field.get(target));
+          }
+        }
+      }
+      return values;
+    }
+
+    private boolean isEmpty() {
+      return names.isEmpty() && prefixes.isEmpty() && superTypes.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+      return "names=" + names + ", prefixes=" + prefixes + ", superTypes=" + superTypes;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package io.opentelemetry.auto.tooling;
+
+import io.opentelemetry.sdk.trace.Sampler;
+import io.opentelemetry.trace.AttributeValue;
+import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceId;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Follows the decision of the parent span, local or propagated, so traces are never cut in the
+ * middle, and asks the given sampler for root spans only.
+ */
+final class ParentBasedSampler implements Sampler {
+  private final Sampler root;
+
+  ParentBasedSampler(final Sampler root) {
+    this.root = root;
+  }
+
+  @Override
+  public Decision shouldSample(
+      final SpanContext parentContext,
+      final TraceId traceId,
+      final SpanId spanId,
+      final String name,
+      final Span.Kind spanKind,
+      final Map<String, AttributeValue> attributes,
+      final List<Link> parentLinks) {
+    if (parentContext != null && parentContext.isValid()) {
+      return SamplingDecision.of(parentContext.getTraceFlags().isSampled());
+    }
+    return root.shouldSample(
+        parentContext, traceId, spanId, name, spanKind, attributes, parentLinks);
+  }
+
+  @Override
+  public String getDescription() {
+    return "ParentBasedSampler{" + root.getDescription() + "}";
+  }
+}
@@ -0,0 +1,612 @@
+package io.opentelemetry.auto.tooling;
+
+import static io.opentelemetry.auto.bootstrap.WeakMap.Provider.newWeakMap;
+
+import io.opentelemetry.auto.bootstrap.WeakMap;
+import io.opentelemetry.auto.config.Config;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.utility.JavaModule;
+
+/**
+ * Keeps matching decisions between runs of the same deployment, so later starts skip most of the
+ * type matching and muzzle reference checking. Enabled by setting {@link
+ * Config#MATCH_CACHE_FILE}.
+ *
+ * <p>Two kinds of decisions are kept:
+ *
+ * <ul>
+ *   <li>types which no instrumentation matched, used as an additional ignore matcher
+ *   <li>muzzle outcomes, per instrumentation and class loader
+ * </ul>
+ *
+ * Every decision is keyed by a fingerprint of the class loader it was made on: the path, size and
+ * modification time of every jar on the loader's classpath and its parents' classpaths. Loaders
+ * which can't be fingerprinted (directories on the classpath, custom loaders) are never cached.
+ * Types are only remembered as unmatched when they were defined from one of the fingerprinted jars
+ * or by the JDK's own loaders, and never when their name looks generated: the name of a proxy or
+ * other runtime generated class depends on load order and may belong to another type next run.
+ * The whole file is discarded when the agent version, the agent jar or the agent configuration
+ * changes.
+ *
+ * <p>Decisions are stored as sorted 64-bit hashes and the previous file is memory-mapped and
+ * binary-searched in place, so reading it costs nothing up front. Decisions made during this run
+ * are merged in and written out periodically and on shutdown.
+ */
+@Slf4j
+public final class PersistentMatchCache implements AgentBuilder.RawMatcher {
+  private static final int MAGIC = 0x4f544d43; // "OTMC"
+  private static final int FORMAT_VERSION = 2;
+  // magic, format version, environment, three table sizes and padding to keep the tables aligned
+  private static final int HEADER_SIZE = 32;
+  // Entries from previous runs are dropped once a table grows beyond this.
+  private static final int MAX_ENTRIES = 1 << 20;
+  private static final long SAVE_PERIOD_SECONDS = 30;
+
+  private static final long UNCACHEABLE = 0;
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private static final PersistentMatchCache DISABLED = new PersistentMatchCache();
+  private static volatile PersistentMatchCache instance = null;
+
+  private final boolean enabled;
+  private final File file;
+  private final long environment;
+
+  // decisions read from the previous run's file
+  private final LongBuffer previousUnmatched;
+  private final LongBuffer previousMuzzlePassed;
+  private final LongBuffer previousMuzzleFailed;
+
+  // decisions made during this run
+  private final Set<Long> unmatched = newConcurrentSet();
+  private final Set<Long> muzzlePassed = newConcurrentSet();
+  private final Set<Long> muzzleFailed = newConcurrentSet();
+  private volatile boolean dirty = false;
+
+  private final WeakMap<ClassLoader, Fingerprint> fingerprints = newWeakMap();
+  private final WeakMap.ValueSupplier<ClassLoader, Fingerprint> fingerprintSupplier =
+      new WeakMap.ValueSupplier<ClassLoader, Fingerprint>() {
+        @Override
+        public Fingerprint get(final ClassLoader loader) {
+          return computeFingerprint(loader);
+        }
+      };
+  private final ThreadLocal<Pending> pending =
+      new ThreadLocal<Pending>() {
+        @Override
+        protected Pending initialValue() {
+          return new Pending();
+        }
+      };
+
+  /** @return the cache configured by {@link Config#MATCH_CACHE_FILE}, or a disabled one. */
+  public static PersistentMatchCache get() {
+    PersistentMatchCache cache = instance;
+    if (cache == null) {
+      synchronized (PersistentMatchCache.class) {
+        cache = instance;
+        if (cache == null) {
+          cache = create();
+          instance = cache;
+        }
+      }
+    }
+    return cache;
+  }
+
+  private static PersistentMatchCache create() {
+    final String path = Config.get().getMatchCacheFile();
+    if (path == null || path.trim().isEmpty()) {
+      return DISABLED;
+    }
+    final PersistentMatchCache cache =
+        new PersistentMatchCache(new File(path.trim()), currentEnvironment());
+    new Cleaner()
+        .scheduleCleaning(cache, SaveAdapter.INSTANCE, SAVE_PERIOD_SECONDS, TimeUnit.SECONDS);
+    Runtime.getRuntime().addShutdownHook(new Thread(new SaveOnShutdown(cache)));
+    return cache;
+  }
+
+  private PersistentMatchCache() {
+    enabled = false;
+    file = null;
+    environment = 0;
+    previousUnmatched = previousMuzzlePassed = previousMuzzleFailed = emptyTable();
+  }
+
+  /**
+   * @param file where decisions are read from and saved to.
+   * @param environment hash of everything outside the class loaders which influences matching.
+   *     Decisions saved under a different environment are ignored.
+   */
+  PersistentMatchCache(final File file, final long environment) {
+    enabled = true;
+    this.file = file;
+    this.environment = environment;
+
+    final LongBuffer[] tables = read(file, environment);
+    previousUnmatched = tables[0];
+    previousMuzzlePassed = tables[1];
+    previousMuzzleFailed = tables[2];
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Ignore matcher: true if a previous run found no instrumentation for this type. */
+  @Override
+  public boolean matches(
+      final TypeDescription typeDescription,
+      final ClassLoader classLoader,
+      final JavaModule module,
+      final Class<?> classBeingRedefined,
+      final ProtectionDomain protectionDomain) {
+    final Fingerprint fingerprint = fingerprint(classLoader);
+    final String typeName = typeDescription.getName();
+    if (fingerprint == Fingerprint.UNCACHEABLE
+        || isGeneratedName(typeName)
+        || !fingerprint.defined(protectionDomain)) {
+      return false;
+    }
+    final long key = hash(fingerprint.value, typeName);
+    if (contains(previousUnmatched, key) || unmatched.contains(key)) {
+      return true;
+    }
+    // Remember the type so the listener can record the outcome of matching it.
+    final Pending current = pending.get();
+    current.typeName = typeName;
+    current.key = key;
+    return false;
+  }
+
+  /** @return a listener recording types no instrumentation matched. */
+  public AgentBuilder.Listener listener() {
+    return new RecordingListener();
+  }
+
+  /**
+   * @return the muzzle outcome a previous run found for this instrumentation on this loader, or
+   *     null if unknown.
+   */
+  public Boolean muzzleMatches(final String instrumentation, final ClassLoader loader) {
+    if (!enabled) {
+      return null;
+    }
+    final long fingerprint = fingerprint(loader).value;
+    if (fingerprint == UNCACHEABLE) {
+      return null;
+    }
+    final long key = hash(fingerprint, instrumentation);
+    if (contains(previousMuzzlePassed, key) || muzzlePassed.contains(key)) {
+      return Boolean.TRUE;
+    }
+    if (contains(previousMuzzleFailed, key) || muzzleFailed.contains(key)) {
+      return Boolean.FALSE;
+    }
+    return null;
+  }
+
+  public void recordMuzzle(
+      final String instrumentation, final ClassLoader loader, final boolean matches) {
+    if (!enabled) {
+      return;
+    }
+    final long fingerprint = fingerprint(loader).value;
+    if (fingerprint != UNCACHEABLE) {
+      (matches ? muzzlePassed : muzzleFailed).add(hash(fingerprint, instrumentation));
+      dirty = true;
+    }
+  }
+
+  /** Merges the decisions made during this run into the file, if there are any new ones. */
+  synchronized void save() {
+    if (!enabled || !dirty) {
+      return;
+    }
+    dirty = false;
+    final long[] unmatchedTable = merge(previousUnmatched, unmatched);
+    final long[] muzzlePassedTable = merge(previousMuzzlePassed, muzzlePassed);
+    final long[] muzzleFailedTable = merge(previousMuzzleFailed, muzzleFailed);
+
+    final File parent = file.getAbsoluteFile().getParentFile();
+    File temp = null;
+    try {
+      if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+        throw new IOException("Unable to create " + parent);
+      }
+      temp = File.createTempFile(file.getName(), ".tmp", parent);
+      try (final DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(environment);
+        out.writeInt(unmatchedTable.length);
+        out.writeInt(muzzlePassedTable.length);
+        out.writeInt(muzzleFailedTable.length);
+        out.writeInt(0);
+        writeTable(out, unmatchedTable);
+        writeTable(out, muzzlePassedTable);
+        writeTable(out, muzzleFailedTable);
+      }
+      // Readers still holding the old file mapped are unaffected by replacing it.
+      try {
+        Files.move(
+            temp.toPath(),
+            file.toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (final AtomicMoveNotSupportedException e) {
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+      log.debug(
+          "Saved {} unmatched types and {} muzzle outcomes to {}",
+          unmatchedTable.length,
+          muzzlePassedTable.length + muzzleFailedTable.length,
+          file);
+    } catch (final IOException e) {
+      log.debug("Unable to save match cache to " + file, e);
+      if (temp != null) {
+        temp.delete();
+      }
+    }
+  }
+
+  private Fingerprint fingerprint(final ClassLoader loader) {
+    if (loader == ClassLoaderMatcher.BOOTSTRAP_CLASSLOADER) {
+      return Fingerprint.JDK;
+    }
+    return fingerprints.computeIfAbsent(loader, fingerprintSupplier);
+  }
+
+  private Fingerprint computeFingerprint(final ClassLoader loader) {
+    final ClassLoader parent = loader.getParent();
+    final Fingerprint parentFingerprint = parent == null ? Fingerprint.JDK : fingerprint(parent);
+    if (parentFingerprint == Fingerprint.UNCACHEABLE) {
+      return Fingerprint.UNCACHEABLE;
+    }
+    long fingerprint = hash(parentFingerprint.value, loader.getClass().getName());
+    final Set<String> jars = new HashSet<>(parentFingerprint.jars);
+
+    if (loader instanceof URLClassLoader) {
+      for (final URL url : ((URLClassLoader) loader).getURLs()) {
+        final File entry = toFile(url);
+        if (entry == null) {
+          return Fingerprint.UNCACHEABLE;
+        }
+        fingerprint = mixEntry(fingerprint, entry);
+        if (fingerprint == UNCACHEABLE) {
+          return Fingerprint.UNCACHEABLE;
+        }
+        jars.add(entry.getAbsolutePath());
+      }
+      return new Fingerprint(fingerprint, jars, false);
+    } else if (loader == ClassLoader.getSystemClassLoader()) {
+      // Java 9+ application class loader
+      final String classPath = System.getProperty("java.class.path", "");
+      for (final String path : classPath.split(File.pathSeparator)) {
+        if (!path.isEmpty()) {
+          final File entry = new File(path);
+          fingerprint = mixEntry(fingerprint, entry);
+          if (fingerprint == UNCACHEABLE) {
+            return Fingerprint.UNCACHEABLE;
+          }
+          jars.add(entry.getAbsolutePath());
+        }
+      }
+      return new Fingerprint(fingerprint, jars, false);
+    } else if (parent == null && isSystemClassLoaderParent(loader)) {
+      // Java 9+ platform class loader: its content only depends on the JDK
+      return new Fingerprint(fingerprint, jars, true);
+    }
+    return Fingerprint.UNCACHEABLE;
+  }
+
+  /** Proxies and other classes generated at runtime are named in the order they are generated. */
+  static boolean isGeneratedName(final String typeName) {
+    return typeName.contains("$Proxy")
+        || typeName.contains("$$")
+        || typeName.contains("$ByteBuddy$");
+  }
+
+  private static boolean isSystemClassLoaderParent(final ClassLoader loader) {
+    final ClassLoader systemClassLoader = ClassLoader.getSystemClassLoader();
+    return systemClassLoader != null && systemClassLoader.getParent() == loader;
+  }
+
+  private static File toFile(final URL url) {
+    if (!"file".equals(url.getProtocol())) {
+      return null;
+    }
+    try {
+      return new File(url.toURI());
+    } catch (final Exception e) {
+      return null;
+    }
+  }
+
+  private static long mixEntry(final long fingerprint, final File entry) {
+    if (entry.isDirectory()) {
+      // Classes in a directory can change without anything cheap to notice it by.
+      return UNCACHEABLE;
+    }
+    long result = hash(fingerprint, entry.getAbsolutePath());
+    result = mix(result, entry.length());
+    return mix(result, entry.lastModified());
+  }
+
+  private static long currentEnvironment() {
+    return environment(Utils.getBootstrapProxy().getURLs());
+  }
+
+  /**
+   * @param agentLocations the agent jar. Snapshot and local builds share a version, so the jar
+   *     itself tells them apart.
+   */
+  static long environment(final URL[] agentLocations) {
+    long result = hash(FNV_OFFSET_BASIS, VersionLogger.getAgentVersion());
+    for (final URL location : agentLocations) {
+      final File entry = toFile(location);
+      if (entry == null || entry.isDirectory()) {
+        result = hash(result, location.toString());
+      } else {
+        result = mixEntry(result, entry);
+      }
+    }
+    result = hash(result, Config.get().toString());
+    // Integration toggles are not part of Config, so include all agent settings.
+    final Map<String, String> settings = new TreeMap<>();
+    for (final String name : System.getProperties().stringPropertyNames()) {
+      if (name.startsWith("ota.")) {
+        settings.put(name, System.getProperty(name));
+      }
+    }
+    for (final Map.Entry<String, String> env : System.getenv().entrySet()) {
+      if (env.getKey().startsWith("OTA_")) {
+        settings.put(env.getKey(), env.getValue());
+      }
+    }
+    for (final Map.Entry<String, String> setting : settings.entrySet()) {
+      result = hash(hash(result, setting.getKey()), setting.getValue());
+    }
+    return result;
+  }
+
+  private static LongBuffer[] read(final File file, final long environment) {
+    final LongBuffer[] tables = {emptyTable(), emptyTable(), emptyTable()};
+    if (!file.isFile()) {
+      return tables;
+    }
+    try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      final long size = channel.size();
+      if (size < HEADER_SIZE) {
+        return tables;
+      }
+      // The mapping stays valid after the channel is closed.
+      final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      if (buffer.getInt(0) != MAGIC
+          || buffer.getInt(4) != FORMAT_VERSION
+          || buffer.getLong(8) != environment) {
+        log.debug("Ignoring match cache {} written by a different agent or configuration", file);
+        return tables;
+      }
+      final int[] counts = {buffer.getInt(16), buffer.getInt(20), buffer.getInt(24)};
+      long expectedSize = HEADER_SIZE;
+      for (final int count : counts) {
+        expectedSize += 8L * count;
+      }
+      if (counts[0] < 0 || counts[1] < 0 || counts[2] < 0 || expectedSize != size) {
+        log.debug("Ignoring truncated match cache {}", file);
+        return tables;
+      }
+      int position = HEADER_SIZE;
+      for (int i = 0; i < counts.length; i++) {
+        buffer.limit(position + 8 * counts[i]).position(position);
+        tables[i] = buffer.slice().asLongBuffer();
+        position += 8 * counts[i];
+      }
+      log.debug(
+          "Loaded {} unmatched types and {} muzzle outcomes from {}",
+          counts[0],
+          counts[1] + counts[2],
+          file);
+    } catch (final IOException e) {
+      log.debug("Unable to read match cache " + file, e);
+    }
+    return tables;
+  }
+
+  private static void writeTable(final DataOutputStream out, final long[] table)
+      throws IOException {
+    for (final long value : table) {
+      out.writeLong(value);
+    }
+  }
+
+  private static long[] merge(final LongBuffer previous, final Set<Long> current) {
+    final int previousSize = previous.limit() + current.size() > MAX_ENTRIES ? 0 : previous.limit();
+    long[] merged = new long[previousSize + current.size()];
+    int size = 0;
+    for (int i = 0; i < previousSize; i++) {
+      merged[size++] = previous.get(i);
+    }
+    for (final Long value : current) {
+      if (size == merged.length) {
+        // the set grew while copying
+        merged = Arrays.copyOf(merged, size * 2);
+      }
+      merged[size++] = value;
+    }
+    Arrays.sort(merged, 0, size);
+    int unique = 0;
+    for (int i = 0; i < size; i++) {
+      if (unique == 0 || merged[unique - 1] != merged[i]) {
+        merged[unique++] = merged[i];
+      }
+    }
+    return Arrays.copyOf(merged, unique);
+  }
+
+  private static boolean contains(final LongBuffer table, final long key) {
+    int low = 0;
+    int high = table.limit() - 1;
+    while (low <= high) {
+      final int middle = (low + high) >>> 1;
+      final long value = table.get(middle);
+      if (value < key) {
+        low = middle + 1;
+      } else if (value > key) {
+        high = middle - 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static LongBuffer emptyTable() {
+    return LongBuffer.allocate(0);
+  }
+
+  private static Set<Long> newConcurrentSet() {
+    return Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+  }
+
+  /** FNV-1a over the characters of value, seeded with seed and finalized with a bit mixer. */
+  static long hash(final long seed, final String value) {
+    long result = seed ^ FNV_OFFSET_BASIS;
+    for (int i = 0; i < value.length(); i++) {
+      result ^= value.charAt(i);
+      result *= FNV_PRIME;
+    }
+    return mix(result, value.length());
+  }
+
+  private static long mix(final long seed, final long value) {
+    long result = seed ^ value;
+    result ^= result >>> 33;
+    result *= 0xff51afd7ed558ccdL;
+    result ^= result >>> 33;
+    result *= 0xc4ceb9fe1a85ec53L;
+    result ^= result >>> 33;
+    // zero is reserved for loaders which can't be fingerprinted
+    return result == UNCACHEABLE ? 1 : result;
+  }
+
+  private static class Fingerprint {
+    static final Fingerprint UNCACHEABLE =
+        new Fingerprint(PersistentMatchCache.UNCACHEABLE, Collections.<String>emptySet(), false);
+    static final Fingerprint JDK =
+        new Fingerprint(
+            hash(
+                hash(
+                    hash(FNV_OFFSET_BASIS, System.getProperty("java.home", "")),
+                    System.getProperty("java.version", "")),
+                System.getProperty("java.vm.version", "")),
+            Collections.<String>emptySet(),
+            true);
+
+    final long value;
+    // absolute paths of the jars on the loader's and its parents' classpaths
+    final Set<String> jars;
+    // the loader only defines the JDK's own classes
+    final boolean jdk;
+
+    Fingerprint(final long value, final Set<String> jars, final boolean jdk) {
+      this.value = value;
+      this.jars = jars;
+      this.jdk = jdk;
+    }
+
+    /** @return whether a type with this protection domain was read from a fingerprinted jar. */
+    boolean defined(final ProtectionDomain protectionDomain) {
+      if (jdk) {
+        return true;
+      }
+      final CodeSource codeSource =
+          protectionDomain == null ? null : protectionDomain.getCodeSource();
+      final URL location = codeSource == null ? null : codeSource.getLocation();
+      final File jar = location == null ? null : toFile(location);
+      return jar != null && jars.contains(jar.getAbsolutePath());
+    }
+  }
+
+  private static class Pending {
+    String typeName;
+    long key;
+  }
+
+  private class RecordingListener extends AgentBuilder.Listener.Adapter {
+    @Override
+    public void onIgnored(
+        final TypeDescription typeDescription,
+        final ClassLoader classLoader,
+        final JavaModule module,
+        final boolean loaded) {
+      final Pending current = pending.get();
+      // Only types which went through matching have a pending entry.
+      if (typeDescription.getName().equals(current.typeName)) {
+        unmatched.add(current.key);
+        dirty = true;
+      }
+    }
+
+    @Override
+    public void onComplete(
+        final String typeName,
+        final ClassLoader classLoader,
+        final JavaModule module,
+        final boolean loaded) {
+      pending.get().typeName = null;
+    }
+  }
+
+  private static class SaveAdapter implements Cleaner.Adapter<PersistentMatchCache> {
+    static final SaveAdapter INSTANCE = new SaveAdapter();
+
+    @Override
+    public void clean(final PersistentMatchCache cache) {
+      cache.save();
+    }
+  }
+
+  private static class SaveOnShutdown implements Runnable {
+    private final PersistentMatchCache cache;
+
+    SaveOnShutdown(final PersistentMatchCache cache) {
+      this.cache = cache;
+    }
+
+    @Override
+    public void run() {
+      cache.save();
+    }
+  }
+}
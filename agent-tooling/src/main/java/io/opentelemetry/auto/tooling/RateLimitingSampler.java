@@ -0,0 +1,89 @@
+package io.opentelemetry.auto.tooling;
+
+import io.opentelemetry.sdk.trace.Sampler;
+import io.opentelemetry.trace.AttributeValue;
+import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Samples at most the given number of traces per second, with bursts of up to one second worth of
+ * traces after a quiet period.
+ *
+ * <p>The token bucket is kept as the time at which it was last empty, so taking a token is a single
+ * compare-and-set and nothing has to refill it in the background.
+ */
+final class RateLimitingSampler implements Sampler {
+  private static final long BURST_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final int tracesPerSecond;
+  private final long nanosPerToken;
+  private final AtomicLong emptyAt;
+  private final Ticker ticker;
+
+  RateLimitingSampler(final int tracesPerSecond) {
+    this(tracesPerSecond, Ticker.SYSTEM);
+  }
+
+  RateLimitingSampler(final int tracesPerSecond, final Ticker ticker) {
+    this.tracesPerSecond = tracesPerSecond;
+    this.ticker = ticker;
+    nanosPerToken = tracesPerSecond > 0 ? BURST_NANOS / tracesPerSecond : Long.MAX_VALUE;
+    // start with a full bucket
+    emptyAt = new AtomicLong(ticker.nanoTime() - BURST_NANOS);
+  }
+
+  @Override
+  public Decision shouldSample(
+      final SpanContext parentContext,
+      final TraceId traceId,
+      final SpanId spanId,
+      final String name,
+      final Span.Kind spanKind,
+      final Map<String, AttributeValue> attributes,
+      final List<Link> parentLinks) {
+    return SamplingDecision.of(tryAcquire());
+  }
+
+  boolean tryAcquire() {
+    if (nanosPerToken == Long.MAX_VALUE) {
+      return false;
+    }
+    final long now = ticker.nanoTime();
+    while (true) {
+      final long current = emptyAt.get();
+      // a bucket can't hold more than a burst worth of tokens
+      final long base = now - current > BURST_NANOS ? now - BURST_NANOS : current;
+      final long next = base + nanosPerToken;
+      if (next - now > 0) {
+        return false;
+      }
+      if (emptyAt.compareAndSet(current, next)) {
+        return true;
+      }
+    }
+  }
+
+  @Override
+  public String getDescription() {
+    return "RateLimitingSampler{" + tracesPerSecond + "}";
+  }
+
+  interface Ticker {
+    Ticker SYSTEM =
+        new Ticker() {
+          @Override
+          public long nanoTime() {
+            return System.nanoTime();
+          }
+        };
+
+    long nanoTime();
+  }
+}
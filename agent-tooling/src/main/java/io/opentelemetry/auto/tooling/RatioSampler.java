@@ -0,0 +1,51 @@
+package io.opentelemetry.auto.tooling;
+
+import io.opentelemetry.sdk.trace.Sampler;
+import io.opentelemetry.trace.AttributeValue;
+import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceId;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Samples the given ratio of traces. The decision only depends on the trace id, so every service
+ * configured with the same ratio keeps the same traces.
+ */
+final class RatioSampler implements Sampler {
+  private final double ratio;
+  private final long idUpperBound;
+
+  RatioSampler(final double ratio) {
+    this.ratio = Math.max(0, Math.min(1, ratio));
+    if (this.ratio == 0) {
+      idUpperBound = Long.MIN_VALUE;
+    } else if (this.ratio == 1) {
+      idUpperBound = Long.MAX_VALUE;
+    } else {
+      idUpperBound = (long) (this.ratio * Long.MAX_VALUE);
+    }
+  }
+
+  @Override
+  public Decision shouldSample(
+      final SpanContext parentContext,
+      final TraceId traceId,
+      final SpanId spanId,
+      final String name,
+      final Span.Kind spanKind,
+      final Map<String, AttributeValue> attributes,
+      final List<Link> parentLinks) {
+    // Long.MIN_VALUE has no positive counterpart, it's only sampled with a ratio of 1
+    final long id = traceId.getLowerLong();
+    return SamplingDecision.of(
+        idUpperBound == Long.MAX_VALUE || (id != Long.MIN_VALUE && Math.abs(id) < idUpperBound));
+  }
+
+  @Override
+  public String getDescription() {
+    return "RatioSampler{" + ratio + "}";
+  }
+}
@@ -0,0 +1,32 @@
+package io.opentelemetry.auto.tooling;
+
+import io.opentelemetry.sdk.trace.Sampler;
+import io.opentelemetry.trace.AttributeValue;
+import java.util.Collections;
+import java.util.Map;
+
+/** Decisions of the agent samplers, which don't add any attribute to the span. */
+enum SamplingDecision implements Sampler.Decision {
+  SAMPLED(true),
+  NOT_SAMPLED(false);
+
+  private final boolean sampled;
+
+  SamplingDecision(final boolean sampled) {
+    this.sampled = sampled;
+  }
+
+  static SamplingDecision of(final boolean sampled) {
+    return sampled ? SAMPLED : NOT_SAMPLED;
+  }
+
+  @Override
+  public boolean isSampled() {
+    return sampled;
+  }
+
+  @Override
+  public Map<String, AttributeValue> attributes() {
+    return Collections.emptyMap();
+  }
+}
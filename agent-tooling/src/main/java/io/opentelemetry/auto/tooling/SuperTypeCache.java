@@ -0,0 +1,216 @@
+package io.opentelemetry.auto.tooling;
+
+import static io.opentelemetry.auto.tooling.ByteBuddyElementMatchers.safeAsErasure;
+import static io.opentelemetry.auto.tooling.ByteBuddyElementMatchers.safeGetInterfaces;
+import static io.opentelemetry.auto.tooling.ByteBuddyElementMatchers.safeGetSuperClass;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.bytebuddy.description.type.TypeDefinition;
+import net.bytebuddy.description.type.TypeDescription;
+
+/**
+ * Keeps the names of the super types of the types matched by {@link
+ * ByteBuddyElementMatchers#safeHasSuperType} and {@link ByteBuddyElementMatchers#safeHasInterface}.
+ *
+ * <p>Dozens of instrumentations match on super types, so every loaded class used to have its
+ * hierarchy walked (and each super type resolved through the type pool) once per instrumentation.
+ * The first walk is now kept as a flat list of the names of every super class and interface, the
+ * type itself included, and the matchers on super type names only test that list. The super types
+ * of the super types are kept too, so classes sharing a parent only resolve it once.
+ *
+ * <p>The type pool hands out a new description every time a type is resolved, so entries are
+ * keyed by class loader and type name. They only hold names and a weak reference to the loader,
+ * and the number of entries is capped: entries of collected loaders are evicted as the least
+ * recently used ones.
+ *
+ * <p>Matchers only see the type, so {@link InstrumenterIndex}, which runs first for each type and
+ * knows its loader, leaves its lookup on the thread for the matchers to pick up.
+ */
+final class SuperTypeCache {
+  private static final int MAX_CACHED_TYPES = 8192;
+  private static final SuperTypes NONE = new SuperTypes(new String[0], new boolean[0]);
+
+  private static final Cache<Key, SuperTypes> SUPER_TYPES =
+      CacheBuilder.newBuilder().maximumSize(MAX_CACHED_TYPES).build();
+
+  private static final ThreadLocal<Last> LAST =
+      new ThreadLocal<Last>() {
+        @Override
+        protected Last initialValue() {
+          return new Last();
+        }
+      };
+
+  private SuperTypeCache() {}
+
+  /**
+   * @return the names of the type, its super classes and all the interfaces they implement, leaving
+   *     out the parts of the hierarchy that couldn't be resolved.
+   */
+  static SuperTypes superTypes(final ClassLoader loader, final TypeDescription type) {
+    final SuperTypes superTypes = superTypes(loader, type, new HashSet<String>());
+    final Last last = LAST.get();
+    last.type = new WeakReference<>(type);
+    last.superTypes = superTypes;
+    return superTypes;
+  }
+
+  /**
+   * @return the super types of a type this thread just looked up with its loader, or else those
+   *     found by walking its hierarchy without caching.
+   */
+  static SuperTypes superTypes(final TypeDescription type) {
+    final Last last = LAST.get();
+    if (last.type.get() == type) {
+      return last.superTypes;
+    }
+    final Map<String, Boolean> collected = new LinkedHashMap<>();
+    for (final TypeDescription superType : walk(type)) {
+      collected.put(superType.getName(), superType.isInterface());
+    }
+    return SuperTypes.of(collected);
+  }
+
+  /**
+   * @return the type, its super classes and all the interfaces they implement, resolved anew for
+   *     matchers which need more than their names.
+   */
+  static List<TypeDescription> walk(final TypeDescription type) {
+    final Map<String, TypeDescription> collected = new LinkedHashMap<>();
+    collected.put(type.getName(), type);
+    walk(type, collected);
+    return new ArrayList<>(collected.values());
+  }
+
+  private static void walk(
+      final TypeDefinition definition, final Map<String, TypeDescription> collected) {
+    for (final TypeDefinition superType : directSuperTypes(definition)) {
+      final TypeDescription erasure = safeAsErasure(superType);
+      if (erasure == null) {
+        // The type itself can't be matched, but its own super types might still be resolvable.
+        walk(superType, collected);
+      } else if (!collected.containsKey(erasure.getName())) {
+        collected.put(erasure.getName(), erasure);
+        walk(erasure, collected);
+      }
+    }
+  }
+
+  private static SuperTypes superTypes(
+      final ClassLoader loader, final TypeDescription type, final Set<String> inProgress) {
+    final Key key = new Key(loader, type.getName());
+    SuperTypes superTypes = SUPER_TYPES.getIfPresent(key);
+    if (superTypes != null) {
+      return superTypes;
+    }
+    if (!inProgress.add(type.getName())) {
+      // Only a broken class file can have a circular hierarchy.
+      return NONE;
+    }
+    final Map<String, Boolean> collected = new LinkedHashMap<>();
+    collected.put(type.getName(), type.isInterface());
+    addSuperTypes(loader, type, collected, inProgress);
+    inProgress.remove(type.getName());
+    superTypes = SuperTypes.of(collected);
+    SUPER_TYPES.put(key, superTypes);
+    return superTypes;
+  }
+
+  private static void addSuperTypes(
+      final ClassLoader loader,
+      final TypeDefinition definition,
+      final Map<String, Boolean> collected,
+      final Set<String> inProgress) {
+    for (final TypeDefinition superType : directSuperTypes(definition)) {
+      final TypeDescription erasure = safeAsErasure(superType);
+      if (erasure == null) {
+        addSuperTypes(loader, superType, collected, inProgress);
+      } else if (!collected.containsKey(erasure.getName())) {
+        final SuperTypes inherited = superTypes(loader, erasure, inProgress);
+        for (int i = 0; i < inherited.names.length; i++) {
+          collected.put(inherited.names[i], inherited.interfaces[i]);
+        }
+      }
+    }
+  }
+
+  private static List<TypeDefinition> directSuperTypes(final TypeDefinition definition) {
+    final List<TypeDefinition> superTypes = safeGetInterfaces(definition);
+    final TypeDefinition superClass = safeGetSuperClass(definition);
+    if (superClass != null) {
+      superTypes.add(0, superClass);
+    }
+    return superTypes;
+  }
+
+  /** The names of a type's super types, and whether each is an interface. */
+  static final class SuperTypes {
+    final String[] names;
+    final boolean[] interfaces;
+
+    private SuperTypes(final String[] names, final boolean[] interfaces) {
+      this.names = names;
+      this.interfaces = interfaces;
+    }
+
+    private static SuperTypes of(final Map<String, Boolean> collected) {
+      final String[] names = new String[collected.size()];
+      final boolean[] interfaces = new boolean[collected.size()];
+      int i = 0;
+      for (final Map.Entry<String, Boolean> entry : collected.entrySet()) {
+        names[i] = entry.getKey();
+        interfaces[i++] = entry.getValue();
+      }
+      return new SuperTypes(names, interfaces);
+    }
+  }
+
+  private static final class Key {
+    // null for the bootstrap class loader
+    private final WeakReference<ClassLoader> loader;
+    private final String name;
+    private final int hashCode;
+
+    private Key(final ClassLoader loader, final String name) {
+      this.loader = loader == null ? null : new WeakReference<>(loader);
+      this.name = name;
+      hashCode = 31 * System.identityHashCode(loader) + name.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) obj;
+      if (hashCode != other.hashCode || !name.equals(other.name)) {
+        return false;
+      }
+      if (loader == null || other.loader == null) {
+        return loader == other.loader;
+      }
+      final ClassLoader referent = loader.get();
+      // entries of a collected loader never match again and are left to be evicted
+      return referent != null && referent == other.loader.get();
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static final class Last {
+    // Weak, as the type pool may hold on to the type's class loader.
+    WeakReference<TypeDescription> type = new WeakReference<>(null);
+    SuperTypes superTypes = NONE;
+  }
+}
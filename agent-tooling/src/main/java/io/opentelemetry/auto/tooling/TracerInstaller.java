@@ -4,12 +4,18 @@ import com.google.common.annotations.VisibleForTesting;
 import io.opentelemetry.auto.config.Config;
 import io.opentelemetry.auto.exportersupport.SpanExporterFactory;
 import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.trace.Sampler;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.TracerSdkFactory;
 import io.opentelemetry.sdk.trace.export.SimpleSpansProcessor;
 import io.opentelemetry.sdk.trace.export.SpanExporter;
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import java.util.ServiceLoader;
 import lombok.extern.slf4j.Slf4j;
 
@@ -19,17 +25,36 @@ public class TracerInstaller {
   public static synchronized void installAgentTracer() {
     if (Config.get().isTraceEnabled()) {
 
-      // Try to create an exporter
+      // Sampling is decided when a span starts, before any decorator runs, and unsampled spans
+      // don't record anything.
+      final Sampler sampler = createSampler();
+      if (sampler != null) {
+        final TracerSdkFactory tracerFactory = OpenTelemetrySdk.getTracerFactory();
+        tracerFactory.updateActiveTraceConfig(
+            tracerFactory.getActiveTraceConfig().toBuilder().setSampler(sampler).build());
+        log.info("Installed sampler: " + sampler.getDescription());
+      }
+
+      // Try to create the exporters
       final String exporterJar = Config.get().getExporterJar();
       if (exporterJar != null) {
-        final SpanExporter exporter = loadFromJar(exporterJar);
-        if (exporter != null) {
-          OpenTelemetrySdk.getTracerFactory()
-              .addSpanProcessor(SimpleSpansProcessor.newBuilder(exporter).build());
-          log.info("Installed span exporter: " + exporter.getClass().getCanonicalName());
+        final List<SpanExporter> exporters = new ArrayList<>();
+        for (final String jar : exporterJar.split(",")) {
+          if (!jar.trim().isEmpty()) {
+            exporters.addAll(loadFromJar(jar.trim()));
+          }
+        }
+        if (!exporters.isEmpty()) {
+          for (final SpanProcessor processor : createSpanProcessors(exporters)) {
+            OpenTelemetrySdk.getTracerFactory().addSpanProcessor(processor);
+          }
+          for (final SpanExporter exporter : exporters) {
+            log.info("Installed span exporter: " + exporter.getClass().getCanonicalName());
+          }
         } else {
           log.warn("No valid exporter found. Tracing will run but spans are dropped");
         }
+      } else {
         log.warn("No exporter is specified. Tracing will run but spans are dropped");
       }
     } else {
@@ -37,31 +62,97 @@ public class TracerInstaller {
     }
   }
 
+  /** @return null to keep the SDK's default sampler, which records every span. */
+  static Sampler createSampler() {
+    final Config config = Config.get();
+    final String type =
+        config.getSampler() == null ? "" : config.getSampler().trim().toLowerCase(Locale.ROOT);
+    final Sampler root;
+    switch (type) {
+      case "always_on":
+      case "":
+        return null;
+      case "always_off":
+        root = new RatioSampler(0);
+        break;
+      case "ratio":
+        root = new RatioSampler(config.getSamplerRatio());
+        break;
+      case "rate_limited":
+        root = new RateLimitingSampler(config.getSamplerRateLimit());
+        break;
+      default:
+        log.warn("Unknown sampler " + config.getSampler() + ". All spans will be sampled");
+        return null;
+    }
+    return config.isSamplerParentBased() ? new ParentBasedSampler(root) : root;
+  }
+
+  /**
+   * A single exporter is called synchronously unless batching is enabled. With several exporters
+   * each one gets its own queue and worker thread, so a slow backend only delays, and at worst
+   * drops, its own spans.
+   */
+  static List<SpanProcessor> createSpanProcessors(final List<SpanExporter> exporters) {
+    final List<SpanProcessor> processors = new ArrayList<>(exporters.size());
+    if (exporters.size() == 1 && !Config.get().isExporterBatchEnabled()) {
+      processors.add(SimpleSpansProcessor.newBuilder(exporters.get(0)).build());
+      return processors;
+    }
+    for (final SpanExporter exporter : exporters) {
+      final String threadNameSuffix =
+          exporters.size() == 1 ? "" : "-" + exporter.getClass().getSimpleName();
+      processors.add(createBatchSpanProcessor(exporter, threadNameSuffix));
+    }
+    return processors;
+  }
+
+  private static SpanProcessor createBatchSpanProcessor(
+      final SpanExporter exporter, final String threadNameSuffix) {
+    final Config config = Config.get();
+    final BatchSpanProcessor.DropPolicy dropPolicy =
+        BatchSpanProcessor.DropPolicy.fromString(config.getExporterBatchDropPolicy());
+    log.debug(
+        "Exporting spans to {} in batches of {} (queue size {}, flush interval {} ms, {})",
+        exporter.getClass().getName(),
+        config.getExporterBatchSize(),
+        config.getExporterBatchQueueSize(),
+        config.getExporterBatchFlushInterval(),
+        dropPolicy);
+    return new BatchSpanProcessor(
+        exporter,
+        config.getExporterBatchSize(),
+        config.getExporterBatchQueueSize(),
+        config.getExporterBatchFlushInterval(),
+        dropPolicy,
+        threadNameSuffix);
+  }
+
   @VisibleForTesting
-  private static synchronized SpanExporter loadFromJar(final String exporterJar) {
+  private static synchronized List<SpanExporter> loadFromJar(final String exporterJar) {
     final URL url;
     try {
       url = new File(exporterJar).toURI().toURL();
     } catch (final MalformedURLException e) {
       log.warn("Filename could not be parsed: " + exporterJar + ". Exporter is not installed");
-      return null;
+      return Collections.emptyList();
     }
 
     final ExporterClassLoader exporterLoader =
         new ExporterClassLoader(new URL[] {url}, TracerInstaller.class.getClassLoader());
     final ServiceLoader<SpanExporterFactory> sl =
         ServiceLoader.load(SpanExporterFactory.class, exporterLoader);
-    final Iterator<SpanExporterFactory> itor = sl.iterator();
-    if (itor.hasNext()) {
-      final SpanExporterFactory f = itor.next();
-      if (itor.hasNext()) {
-        log.warn(
-            "Exporter JAR defines more than one factory. Only the first one found will be used");
+    final List<SpanExporter> exporters = new ArrayList<>();
+    for (final SpanExporterFactory factory : sl) {
+      final SpanExporter exporter = factory.fromConfig(new DefaultConfigProvider("exporter"));
+      if (exporter != null) {
+        exporters.add(exporter);
       }
-      return f.fromConfig(new DefaultConfigProvider("exporter"));
     }
-    log.warn("No matching providers in jar " + exporterJar);
-    return null;
+    if (exporters.isEmpty()) {
+      log.warn("No matching providers in jar " + exporterJar);
+    }
+    return exporters;
   }
 
   public static void logVersionInfo() {
@@ -23,6 +23,12 @@ public class VersionLogger {
         System.getProperty("java.vm.version"));
   }
 
+  /** @return the version of the agent, or "unknown" if it can't be determined. */
+  static String getAgentVersion() {
+    return getVersionString(
+        ClassLoader.getSystemClassLoader().getResourceAsStream("opentelemetry-auto.version"));
+  }
+
   private static String getVersionString(final InputStream stream) {
     String v;
     try {
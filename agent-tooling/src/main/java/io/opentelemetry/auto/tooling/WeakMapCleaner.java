@@ -0,0 +1,219 @@
+package io.opentelemetry.auto.tooling;
+
+import com.blogspot.mydailyjava.weaklockfree.WeakConcurrentMap;
+import io.opentelemetry.auto.common.exec.CommonTaskExecutor;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Expunges the stale entries of every {@link WeakConcurrentMap} handed out by the agent from a
+ * single periodic task, instead of one task per map.
+ *
+ * <p>A key only goes stale when the garbage collector clears it, so the task checks a sentinel
+ * weak reference on every tick and leaves the maps alone until a collection happened. Once one
+ * did, the maps' reference queues are drained; passes are repeated every tick while they expunge
+ * a large backlog, spaced out up to {@link #MAX_PASS_INTERVAL_TICKS} ticks while they expunge
+ * little, and stop once a pass finds nothing to expunge. Keys cleared by a collection may reach
+ * the queues after the sentinel is seen cleared, so the first pass after a collection is always
+ * followed by another one.
+ */
+@Slf4j
+class WeakMapCleaner implements Runnable, WeakMapCleanerMXBean {
+  static final long TICK_SECONDS = 1;
+  static final int BACKLOG_THRESHOLD = 1024;
+  static final int MAX_PASS_INTERVAL_TICKS = 8;
+
+  private static final String MBEAN_NAME = "io.opentelemetry.auto:type=WeakMapCleaner";
+
+  private final long tickMillis;
+  private final Queue<WeakReference<CleanedMap<?, ?>>> maps = new ConcurrentLinkedQueue<>();
+
+  // Guarded by this.
+  private ScheduledFuture<?> future = null;
+
+  // Only accessed from the cleaning task.
+  private WeakReference<Object> gcSentinel = new WeakReference<>(new Object());
+  private boolean stale = false;
+  private boolean collectedSinceLastPass = false;
+  private int ticksSinceLastPass = 0;
+
+  // Written by the cleaning task, read through JMX.
+  private volatile int passIntervalTicks = 1;
+  private volatile long passes = 0;
+  private volatile long expungedEntries = 0;
+  private volatile long cleaningTimeNanos = 0;
+
+  WeakMapCleaner() {
+    this(TimeUnit.SECONDS.toMillis(TICK_SECONDS));
+  }
+
+  WeakMapCleaner(final long tickMillis) {
+    this.tickMillis = tickMillis;
+  }
+
+  void register(final CleanedMap<?, ?> map) {
+    synchronized (this) {
+      maps.add(new WeakReference<CleanedMap<?, ?>>(map));
+      if (future == null) {
+        schedule();
+      }
+    }
+  }
+
+  private void schedule() {
+    if (CommonTaskExecutor.INSTANCE.isShutdown()) {
+      log.warn("Task scheduler is shutdown. Stale weak map entries won't be expunged");
+      return;
+    }
+    try {
+      future =
+          CommonTaskExecutor.INSTANCE.scheduleAtFixedRate(
+              this, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    } catch (final RejectedExecutionException e) {
+      log.warn("Cleaning task rejected. Stale weak map entries won't be expunged");
+    }
+  }
+
+  void registerMBean() {
+    try {
+      ManagementFactory.getPlatformMBeanServer()
+          .registerMBean(
+              new StandardMBean(this, WeakMapCleanerMXBean.class, true),
+              new ObjectName(MBEAN_NAME));
+    } catch (final Exception e) {
+      log.warn("Could not register {}", MBEAN_NAME, e);
+    }
+  }
+
+  @Override
+  public void run() {
+    if (gcSentinel.get() == null) {
+      gcSentinel = new WeakReference<>(new Object());
+      stale = true;
+      collectedSinceLastPass = true;
+    }
+    ticksSinceLastPass++;
+    if (stale && ticksSinceLastPass >= passIntervalTicks) {
+      expungeStaleEntries();
+    }
+  }
+
+  private void expungeStaleEntries() {
+    final long start = System.nanoTime();
+    int tracked = 0;
+    long expunged = 0;
+    final Iterator<WeakReference<CleanedMap<?, ?>>> iterator = maps.iterator();
+    while (iterator.hasNext()) {
+      final CleanedMap<?, ?> map = iterator.next().get();
+      if (map == null) {
+        iterator.remove();
+        continue;
+      }
+      tracked++;
+      expunged += map.expunge();
+    }
+    final long elapsed = System.nanoTime() - start;
+
+    ticksSinceLastPass = 0;
+    if (expunged == 0 && !collectedSinceLastPass) {
+      // The reference queues are drained, nothing more until the next collection.
+      stale = false;
+    } else if (expunged == 0 || expunged >= BACKLOG_THRESHOLD) {
+      // Keys of the last collection may still be on their way to the queues.
+      passIntervalTicks = 1;
+    } else {
+      passIntervalTicks = Math.min(passIntervalTicks * 2, MAX_PASS_INTERVAL_TICKS);
+    }
+    collectedSinceLastPass = false;
+    passes++;
+    expungedEntries += expunged;
+    cleaningTimeNanos += elapsed;
+
+    if (log.isDebugEnabled()) {
+      log.debug(
+          "Expunged {} stale entries from {} weak maps in {} us",
+          expunged,
+          tracked,
+          TimeUnit.NANOSECONDS.toMicros(elapsed));
+    }
+
+    if (tracked == 0) {
+      stopIfUnused();
+    }
+  }
+
+  private synchronized void stopIfUnused() {
+    if (maps.isEmpty() && future != null) {
+      future.cancel(false);
+      future = null;
+    }
+  }
+
+  synchronized boolean isScheduled() {
+    return future != null;
+  }
+
+  @Override
+  public int getTrackedMaps() {
+    return maps.size();
+  }
+
+  @Override
+  public long getPasses() {
+    return passes;
+  }
+
+  @Override
+  public long getExpungedEntries() {
+    return expungedEntries;
+  }
+
+  @Override
+  public long getCleaningTimeMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(cleaningTimeNanos);
+  }
+
+  @Override
+  public int getPassIntervalSeconds() {
+    return (int) (passIntervalTicks * TimeUnit.MILLISECONDS.toSeconds(tickMillis));
+  }
+
+  /**
+   * A {@link WeakConcurrentMap} which counts the collected keys it drains from its reference queue,
+   * each of which has its entry removed.
+   */
+  static class CleanedMap<K, V> extends WeakConcurrentMap<K, V> {
+    // Only accessed from the cleaning task, the only caller of expungeStaleEntries().
+    private int drained = 0;
+
+    CleanedMap() {
+      super(false, true);
+    }
+
+    /** @return the number of collected keys whose entries were expunged. */
+    int expunge() {
+      drained = 0;
+      expungeStaleEntries();
+      return drained;
+    }
+
+    @Override
+    public Reference<? extends K> poll() {
+      final Reference<? extends K> reference = super.poll();
+      if (reference != null) {
+        drained++;
+      }
+      return reference;
+    }
+  }
+}
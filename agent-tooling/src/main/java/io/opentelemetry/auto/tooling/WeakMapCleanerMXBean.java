@@ -0,0 +1,20 @@
+package io.opentelemetry.auto.tooling;
+
+/** Counters of the {@link WeakMapCleaner}, registered when JMX is enabled for it. */
+public interface WeakMapCleanerMXBean {
+
+  /** @return the number of weak maps cleaned, until collected maps are noticed by a pass. */
+  int getTrackedMaps();
+
+  /** @return the number of times the stale entries of all maps were expunged. */
+  long getPasses();
+
+  /** @return the number of collected keys drained from the maps' reference queues so far. */
+  long getExpungedEntries();
+
+  /** @return the total time spent expunging stale entries. */
+  long getCleaningTimeMillis();
+
+  /** @return the current number of seconds between passes while stale entries remain. */
+  int getPassIntervalSeconds();
+}
@@ -1,10 +1,8 @@
 package io.opentelemetry.auto.tooling;
 
 import com.blogspot.mydailyjava.weaklockfree.WeakConcurrentMap;
-import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.MapMaker;
 import io.opentelemetry.auto.bootstrap.WeakMap;
-import java.util.concurrent.TimeUnit;
 
 class WeakMapSuppliers {
   // Comparison with using WeakConcurrentMap vs Guava's implementation:
@@ -24,35 +22,29 @@ class WeakMapSuppliers {
   //            backed by big company with many-many users
 
   /**
-   * Provides instances of {@link WeakConcurrentMap} and retains weak reference to them to allow a
-   * single thread to clean void weak references out for all instances. Cleaning is done every
-   * second.
+   * Provides instances of {@link WeakConcurrentMap} and hands them to a {@link WeakMapCleaner},
+   * which expunges the void weak references of all instances from a single thread.
    */
   static class WeakConcurrent implements WeakMap.Implementation {
 
-    @VisibleForTesting static final long CLEAN_FREQUENCY_SECONDS = 1;
-    private final Cleaner cleaner;
+    private final WeakMapCleaner cleaner;
 
-    WeakConcurrent(final Cleaner cleaner) {
+    WeakConcurrent(final WeakMapCleaner cleaner) {
       this.cleaner = cleaner;
     }
 
     @Override
     public <K, V> WeakMap<K, V> get() {
-      final WeakConcurrentMap<K, V> map = new WeakConcurrentMap<>(false, true);
-      cleaner.scheduleCleaning(map, MapCleaner.CLEANER, CLEAN_FREQUENCY_SECONDS, TimeUnit.SECONDS);
+      final WeakMapCleaner.CleanedMap<K, V> map = new WeakMapCleaner.CleanedMap<>();
+      cleaner.register(map);
       return new Adapter<>(map);
     }
 
-    private static class MapCleaner implements Cleaner.Adapter<WeakConcurrentMap> {
-      private static final MapCleaner CLEANER = new MapCleaner();
-
-      @Override
-      public void clean(final WeakConcurrentMap target) {
-        target.expungeStaleEntries();
-      }
-    }
-
+    /**
+     * Everything goes straight to the lock-free {@link WeakConcurrentMap}. A missing value in {@link
+     * #computeIfAbsent} is computed without any lock held, as in {@link WeakMap.MapAdapter}, and
+     * the first value published wins.
+     */
     private static class Adapter<K, V> implements WeakMap<K, V> {
       private final WeakConcurrentMap<K, V> map;
 
@@ -87,20 +79,16 @@ class WeakMapSuppliers {
 
       @Override
       public V computeIfAbsent(final K key, final ValueSupplier<? super K, ? extends V> supplier) {
-        if (map.containsKey(key)) {
-          return map.get(key);
+        // WeakConcurrentMap doesn't hold null values, so a single lookup tells a hit from a miss
+        final V existing = map.get(key);
+        if (existing != null) {
+          return existing;
         }
 
-        synchronized (this) {
-          if (map.containsKey(key)) {
-            return map.get(key);
-          } else {
-            final V value = supplier.get(key);
+        final V value = supplier.get(key);
 
-            map.put(key, value);
-            return value;
-          }
-        }
+        final V raced = map.putIfAbsent(key, value);
+        return raced == null ? value : raced;
       }
     }
 
@@ -10,6 +10,7 @@ import static net.bytebuddy.matcher.ElementMatchers.not;
 import io.opentelemetry.auto.bootstrap.ContextStore;
 import io.opentelemetry.auto.bootstrap.FieldBackedContextStoreAppliedMarker;
 import io.opentelemetry.auto.bootstrap.InstrumentationContext;
+import io.opentelemetry.auto.bootstrap.StripedLocks;
 import io.opentelemetry.auto.bootstrap.WeakMap;
 import io.opentelemetry.auto.config.Config;
 import io.opentelemetry.auto.tooling.HelperInjector;
@@ -840,6 +841,9 @@ public class FieldBackedProvider implements InstrumentationContextProvider {
         new ContextStoreImplementationTemplate(WeakMap.Provider.newWeakMap());
 
     private final WeakMap map;
+    // Keys without an injected field can't be locked on themselves, and locking the whole map
+    // would make every thread putting a context for such a class wait on each other.
+    private final StripedLocks locks = new StripedLocks();
 
     private ContextStoreImplementationTemplate(final WeakMap map) {
       this.map = map;
@@ -911,7 +915,7 @@ public class FieldBackedProvider implements InstrumentationContextProvider {
     }
 
     private Object mapSynchronizeInstance(final Object key) {
-      return map;
+      return locks.lockFor(key);
     }
 
     public static ContextStore getContextStore(final Class keyClass, final Class contextClass) {
@@ -14,19 +14,50 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import lombok.extern.slf4j.Slf4j;
 import net.bytebuddy.description.field.FieldDescription;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.pool.TypePool;
 
-/** Matches a set of references against a classloader. */
+/**
+ * Matches a set of references against a classloader.
+ *
+ * <p>{@link #matches(ClassLoader)} is the fast path used while transforming: it stops at the first
+ * mismatching reference and shares the outcome of each reference with every other matcher checking
+ * an identical reference on the same loader. {@link #getMismatchedReferenceSources(ClassLoader)}
+ * collects every mismatch and is only needed for reporting.
+ */
 @Slf4j
 public class ReferenceMatcher
     implements WeakMap.ValueSupplier<ClassLoader, List<Reference.Mismatch>> {
+  /* Outcome of every reference checked so far, by loader and reference signature. */
+  private static final WeakMap<ClassLoader, ConcurrentMap<String, Boolean>> SHARED_RESULTS =
+      newWeakMap();
+  private static final WeakMap.ValueSupplier<ClassLoader, ConcurrentMap<String, Boolean>>
+      NEW_RESULTS =
+          new WeakMap.ValueSupplier<ClassLoader, ConcurrentMap<String, Boolean>>() {
+            @Override
+            public ConcurrentMap<String, Boolean> get(final ClassLoader loader) {
+              return new ConcurrentHashMap<>();
+            }
+          };
+
   private final WeakMap<ClassLoader, List<Reference.Mismatch>> mismatchCache = newWeakMap();
+  private final WeakMap<ClassLoader, Boolean> matchCache = newWeakMap();
+  private final WeakMap.ValueSupplier<ClassLoader, Boolean> matchSupplier =
+      new WeakMap.ValueSupplier<ClassLoader, Boolean>() {
+        @Override
+        public Boolean get(final ClassLoader loader) {
+          return checkAllMatch(loader);
+        }
+      };
   private final Reference[] references;
   private final Set<String> helperClassNames;
+  // signatures of the references which aren't helpers, computed on first use
+  private volatile String[] signatures = null;
 
   public ReferenceMatcher(final Reference... references) {
     this(new String[0], references);
@@ -45,8 +76,88 @@ public class ReferenceMatcher
    * @param loader Classloader to validate against (or null for bootstrap)
    * @return true if all references match the classpath of loader
    */
-  public boolean matches(final ClassLoader loader) {
-    return getMismatchedReferenceSources(loader).isEmpty();
+  public boolean matches(ClassLoader loader) {
+    if (loader == BOOTSTRAP_LOADER) {
+      loader = Utils.getBootstrapProxy();
+    }
+
+    return matchCache.computeIfAbsent(loader, matchSupplier);
+  }
+
+  private boolean checkAllMatch(final ClassLoader loader) {
+    final String[] signatures = getSignatures();
+    final ConcurrentMap<String, Boolean> sharedResults =
+        SHARED_RESULTS.computeIfAbsent(loader, NEW_RESULTS);
+    TypePool typePool = null;
+    int index = 0;
+    for (final Reference reference : references) {
+      if (helperClassNames.contains(reference.getClassName())) {
+        continue;
+      }
+      final String signature = signatures[index++];
+      Boolean matches = sharedResults.get(signature);
+      if (matches == null) {
+        if (typePool == null) {
+          typePool = typePool(loader);
+        }
+        matches = checkMatch(reference, loader, typePool).isEmpty();
+        sharedResults.put(signature, matches);
+      }
+      if (!matches) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private String[] getSignatures() {
+    String[] result = signatures;
+    if (result == null) {
+      final List<String> list = new ArrayList<>(references.length);
+      for (final Reference reference : references) {
+        if (!helperClassNames.contains(reference.getClassName())) {
+          list.add(signature(reference));
+        }
+      }
+      result = list.toArray(new String[0]);
+      signatures = result;
+    }
+    return result;
+  }
+
+  /** @return a string identifying everything {@link #checkMatch} looks at in the reference. */
+  static String signature(final Reference reference) {
+    final StringBuilder signature = new StringBuilder(reference.getClassName());
+    appendSorted(signature, flagNames(reference.getFlags()));
+    final List<String> fields = new ArrayList<>(reference.getFields().size());
+    for (final Reference.Field field : reference.getFields()) {
+      fields.add(
+          field.getName() + field.getType().getInternalName() + flagNames(field.getFlags()));
+    }
+    appendSorted(signature, fields);
+    final List<String> methods = new ArrayList<>(reference.getMethods().size());
+    for (final Reference.Method method : reference.getMethods()) {
+      methods.add(method.toString() + flagNames(method.getFlags()));
+    }
+    appendSorted(signature, methods);
+    return signature.toString();
+  }
+
+  private static List<String> flagNames(final Set<Reference.Flag> flags) {
+    final List<String> names = new ArrayList<>(flags.size());
+    for (final Reference.Flag flag : flags) {
+      names.add(flag.name());
+    }
+    Collections.sort(names);
+    return names;
+  }
+
+  private static void appendSorted(final StringBuilder signature, final List<String> values) {
+    Collections.sort(values);
+    signature.append('|');
+    for (final String value : values) {
+      signature.append(value).append(';');
+    }
   }
 
   /**
@@ -64,12 +175,13 @@ public class ReferenceMatcher
   @Override
   public List<Mismatch> get(final ClassLoader loader) {
     final List<Mismatch> mismatches = new ArrayList<>(0);
+    final TypePool typePool = typePool(loader);
 
     for (final Reference reference : references) {
       // Don't reference-check helper classes.
       // They will be injected by the instrumentation's HelperInjector.
       if (!helperClassNames.contains(reference.getClassName())) {
-        mismatches.addAll(checkMatch(reference, loader));
+        mismatches.addAll(checkMatch(reference, loader, typePool));
       }
     }
 
@@ -83,9 +195,16 @@ public class ReferenceMatcher
    * @return A list of mismatched sources. A list of size 0 means the reference matches the class.
    */
   public static List<Reference.Mismatch> checkMatch(Reference reference, ClassLoader loader) {
-    final TypePool typePool =
-        AgentTooling.poolStrategy()
-            .typePool(AgentTooling.locationStrategy().classFileLocator(loader), loader);
+    return checkMatch(reference, loader, typePool(loader));
+  }
+
+  private static TypePool typePool(final ClassLoader loader) {
+    return AgentTooling.poolStrategy()
+        .typePool(AgentTooling.locationStrategy().classFileLocator(loader), loader);
+  }
+
+  private static List<Reference.Mismatch> checkMatch(
+      final Reference reference, final ClassLoader loader, final TypePool typePool) {
     final List<Mismatch> mismatches = new ArrayList<>(0);
     try {
       final TypePool.Resolution resolution =
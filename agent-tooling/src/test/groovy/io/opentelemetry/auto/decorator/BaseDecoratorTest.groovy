@@ -22,6 +22,19 @@ class BaseDecoratorTest extends AgentSpecification {
     1 * span.setAttribute(MoreTags.SPAN_TYPE, decorator.getSpanType())
     1 * span.setAttribute(Tags.COMPONENT, "test-component")
     _ * span.setAttribute(_, _) // Want to allow other calls from child implementations.
+    _ * span.isRecording() >> true
+    0 * _
+  }
+
+  def "test span that is not recording"() {
+    when:
+    decorator.afterStart(span)
+    decorator.onPeerConnection(span, new InetSocketAddress("localhost", 888))
+    decorator.onError(span, new Exception())
+    BaseDecorator.addThrowable(span, new Exception())
+
+    then:
+    (1.._) * span.isRecording() >> false
     0 * _
   }
 
@@ -42,6 +55,7 @@ class BaseDecoratorTest extends AgentSpecification {
     if (connection.address instanceof Inet6Address) {
       1 * span.setAttribute(Tags.PEER_HOST_IPV6, connection.address.hostAddress)
     }
+    _ * span.isRecording() >> true
     0 * _
 
     where:
@@ -61,6 +75,7 @@ class BaseDecoratorTest extends AgentSpecification {
       1 * span.setAttribute(MoreTags.ERROR_TYPE, error.getClass().getName())
       1 * span.setAttribute(MoreTags.ERROR_STACK, _)
     }
+    _ * span.isRecording() >> true
     0 * _
 
     where:
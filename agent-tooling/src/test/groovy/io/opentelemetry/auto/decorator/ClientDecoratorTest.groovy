@@ -22,6 +22,7 @@ class ClientDecoratorTest extends BaseDecoratorTest {
     1 * span.setAttribute(Tags.COMPONENT, "test-component")
     1 * span.setAttribute(MoreTags.SPAN_TYPE, decorator.getSpanType())
     _ * span.setAttribute(_, _) // Want to allow other calls from child implementations.
+    _ * span.isRecording() >> true
     0 * _
 
     where:
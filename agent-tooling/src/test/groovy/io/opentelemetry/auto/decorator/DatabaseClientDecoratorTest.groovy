@@ -25,6 +25,7 @@ class DatabaseClientDecoratorTest extends ClientDecoratorTest {
     1 * span.setAttribute(Tags.COMPONENT, "test-component")
     1 * span.setAttribute(Tags.DB_TYPE, "test-db")
     1 * span.setAttribute(MoreTags.SPAN_TYPE, "test-type")
+    _ * span.isRecording() >> true
     0 * _
 
     where:
@@ -52,6 +53,7 @@ class DatabaseClientDecoratorTest extends ClientDecoratorTest {
         1 * span.setAttribute(MoreTags.SERVICE_NAME, session.instance)
       }
     }
+    _ * span.isRecording() >> true
     0 * _
 
     where:
@@ -62,6 +64,19 @@ class DatabaseClientDecoratorTest extends ClientDecoratorTest {
     true          | [user: "test-user", instance: "test-instance"]
   }
 
+  def "test query that is not recording"() {
+    setup:
+    def decorator = newDecorator()
+
+    when:
+    decorator.onConnection(span, [user: "test-user", instance: "test-instance"])
+    decorator.onStatement(span, "db-statement")
+
+    then:
+    2 * span.isRecording() >> false
+    0 * _
+  }
+
   def "test onStatement"() {
     setup:
     def decorator = newDecorator()
@@ -71,6 +86,7 @@ class DatabaseClientDecoratorTest extends ClientDecoratorTest {
 
     then:
     1 * span.setAttribute(Tags.DB_STATEMENT, statement)
+    _ * span.isRecording() >> true
     0 * _
 
     where:
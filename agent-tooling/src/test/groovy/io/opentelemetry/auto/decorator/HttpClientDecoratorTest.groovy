@@ -35,6 +35,7 @@ class HttpClientDecoratorTest extends ClientDecoratorTest {
         1 * span.setAttribute(MoreTags.SERVICE_NAME, req.host)
       }
     }
+    _ * span.isRecording() >> true
     0 * _
 
     where:
@@ -45,6 +46,19 @@ class HttpClientDecoratorTest extends ClientDecoratorTest {
     true          | [method: "test-method", url: testUrl, host: "test-host", port: 555]
   }
 
+  def "test request that is not recording"() {
+    setup:
+    def decorator = newDecorator()
+
+    when:
+    decorator.onRequest(span, [method: "test-method", url: testUrl, host: "test-host", port: 555])
+    decorator.onResponse(span, [status: 500])
+
+    then:
+    2 * span.isRecording() >> false
+    0 * _
+  }
+
   def "test url handling for #url"() {
     setup:
     def decorator = newDecorator()
@@ -66,6 +80,7 @@ class HttpClientDecoratorTest extends ClientDecoratorTest {
         1 * span.setAttribute(MoreTags.HTTP_FRAGMENT, expectedFragment)
       }
     }
+    _ * span.isRecording() >> true
     0 * _
 
     where:
@@ -102,6 +117,7 @@ class HttpClientDecoratorTest extends ClientDecoratorTest {
     if (error) {
       1 * span.setStatus(Status.UNKNOWN)
     }
+    _ * span.isRecording() >> true
     0 * _
 
     where:
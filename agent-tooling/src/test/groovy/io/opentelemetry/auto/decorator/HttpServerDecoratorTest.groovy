@@ -24,6 +24,7 @@ class HttpServerDecoratorTest extends ServerDecoratorTest {
       1 * span.setAttribute(Tags.HTTP_METHOD, "test-method")
       1 * span.setAttribute(Tags.HTTP_URL, url)
     }
+    _ * span.isRecording() >> true
     0 * _
 
     where:
@@ -36,6 +37,20 @@ class HttpServerDecoratorTest extends ServerDecoratorTest {
     [method: "test-method", url: URI.create("http://123:8080/some/path")]  | "http://123:8080/some/path"
   }
 
+  def "test request that is not recording"() {
+    setup:
+    def decorator = newDecorator()
+
+    when:
+    decorator.onRequest(span, [method: "test-method", url: URI.create("http://test-url/")])
+    decorator.onConnection(span, [ip: "10.0.0.1", port: 555])
+    decorator.onResponse(span, [status: 500])
+
+    then:
+    3 * span.isRecording() >> false
+    0 * _
+  }
+
   def "test url handling for #url"() {
     setup:
     def decorator = newDecorator()
@@ -58,6 +73,7 @@ class HttpServerDecoratorTest extends ServerDecoratorTest {
       }
     }
     1 * span.setAttribute(Tags.HTTP_METHOD, null)
+    _ * span.isRecording() >> true
     0 * _
 
     where:
@@ -79,6 +95,69 @@ class HttpServerDecoratorTest extends ServerDecoratorTest {
     req = [url: url == null ? null : new URI(url)]
   }
 
+  def "raw request target #target with host #host"() {
+    setup:
+    def decorator = newDecorator()
+
+    when:
+    withConfigOverride(Config.HTTP_SERVER_TAG_QUERY_STRING, "true") {
+      decorator.onRequest(span, [target: target, host: host, url: url(target, host)])
+    }
+
+    then:
+    1 * span.setAttribute(Tags.HTTP_METHOD, null)
+    1 * span.setAttribute(Tags.HTTP_URL, expectedUrl)
+    if (expectedQuery != null) {
+      1 * span.setAttribute(MoreTags.HTTP_QUERY, expectedQuery)
+    }
+    if (expectedFragment != null) {
+      1 * span.setAttribute(MoreTags.HTTP_FRAGMENT, expectedFragment)
+    }
+    _ * span.isRecording() >> true
+    0 * _
+
+    where:
+    target                           | host             | expectedUrl                  | expectedQuery | expectedFragment
+    ""                               | null             | "/"                          | null          | null
+    "/path?a=1&b=2"                  | null             | "/path"                      | "a=1&b=2"     | null
+    "/path?query#fragment"           | "host:8080"      | "http://host:8080/path"      | "query"       | "fragment"
+    "/path"                          | "host:80"        | "http://host/path"           | null          | null
+    "/path"                          | "host:"          | "http://host/path"           | null          | null
+    "/path"                          | "[::1]:8080"     | "http://[::1]:8080/path"     | null          | null
+    "/path"                          | "10.0.0.1"       | "http://10.0.0.1/path"       | null          | null
+    "https://other:9443/path?q"      | "host"           | "https://other:9443/path"    | "q"           | null
+    // escaped and illegal characters are left to java.net.URI
+    "/encoded%20path?%28query%29"    | "host"           | "http://host/encoded path"   | "(query)"     | null
+    "/path"                          | "under_score:99" | "http:///path"               | null          | null
+  }
+
+  def "raw request components for #path"() {
+    setup:
+    def decorator = newDecorator()
+
+    when:
+    withConfigOverride(Config.HTTP_SERVER_TAG_QUERY_STRING, "true") {
+      decorator.onRequest(span, [scheme: scheme, serverName: serverName, serverPort: serverPort, path: path, query: query,
+                                 url: new URI(scheme, null, serverName, serverPort, path, query, null)])
+    }
+
+    then:
+    1 * span.setAttribute(Tags.HTTP_METHOD, null)
+    1 * span.setAttribute(Tags.HTTP_URL, expectedUrl)
+    if (query != null) {
+      1 * span.setAttribute(MoreTags.HTTP_QUERY, query)
+    }
+    _ * span.isRecording() >> true
+    0 * _
+
+    where:
+    scheme  | serverName | serverPort | path          | query         | expectedUrl
+    "http"  | "host"     | 8080       | "/path"       | null          | "http://host:8080/path"
+    "https" | "host"     | 443        | ""            | "a=1"         | "https://host/"
+    "http"  | "::1"      | -1         | "/path"       | null          | "http://[::1]/path"
+    "http"  | "host"     | 80         | "/a%20b c"    | "q=%28x%29 y" | "http://host/a%20b c"
+  }
+
   def "test onConnection"() {
     setup:
     def decorator = newDecorator()
@@ -95,6 +174,7 @@ class HttpServerDecoratorTest extends ServerDecoratorTest {
         1 * span.setAttribute(Tags.PEER_HOST_IPV6, "3ffe:1900:4545:3:200:f8ff:fe21:67cf")
       }
     }
+    _ * span.isRecording() >> true
     0 * _
 
     where:
@@ -103,6 +183,8 @@ class HttpServerDecoratorTest extends ServerDecoratorTest {
     null  | [ip: null, port: 555]
     true  | [ip: "10.0.0.1", port: 555]
     false | [ip: "3ffe:1900:4545:3:200:f8ff:fe21:67cf", port: 555]
+    null  | [ip: "10.0.0.256", port: 555]
+    null  | [ip: "not-an-ip", port: 555]
   }
 
   def "test onResponse"() {
@@ -121,6 +203,7 @@ class HttpServerDecoratorTest extends ServerDecoratorTest {
     if (error) {
       1 * span.setStatus(Status.UNKNOWN)
     }
+    _ * span.isRecording() >> true
     0 * _
 
     where:
@@ -154,6 +237,14 @@ class HttpServerDecoratorTest extends ServerDecoratorTest {
     thrown(AssertionError)
   }
 
+  static URI url(String target, String host) {
+    def uri = new URI(target)
+    if (!uri.host && host != null) {
+      uri = new URI("http://" + host + target)
+    }
+    return uri
+  }
+
   @Override
   def newDecorator() {
     return new HttpServerDecorator<Map, Map, Map>() {
@@ -173,6 +264,22 @@ class HttpServerDecoratorTest extends ServerDecoratorTest {
         return m.url
       }
 
+      @Override
+      protected boolean requestUrl(Map m, RequestUrl url) {
+        if (m.target != null) {
+          url.target(m.target)
+          if (m.host != null) {
+            url.scheme("http").authority(m.host)
+          }
+          return true
+        }
+        if (m.path != null) {
+          url.scheme(m.scheme).host(m.serverName, m.serverPort).path(m.path, m.query)
+          return true
+        }
+        return false
+      }
+
       @Override
       protected String peerHostIP(Map m) {
         return m.ip
@@ -16,6 +16,7 @@ class OrmClientDecoratorTest extends DatabaseClientDecoratorTest {
     if (isSet) {
       1 * span.setAttribute(MoreTags.RESOURCE_NAME, entityName)
     }
+    _ * span.isRecording() >> true
     0 * _
 
     where:
@@ -17,6 +17,7 @@ class ServerDecoratorTest extends BaseDecoratorTest {
     then:
     1 * span.setAttribute(Tags.COMPONENT, "test-component")
     1 * span.setAttribute(MoreTags.SPAN_TYPE, decorator.getSpanType())
+    _ * span.isRecording() >> true
     0 * _
   }
 
@@ -0,0 +1,245 @@
+package io.opentelemetry.auto.tooling
+
+import io.opentelemetry.OpenTelemetry
+import io.opentelemetry.auto.util.test.AgentSpecification
+import io.opentelemetry.sdk.trace.ReadableSpan
+import io.opentelemetry.sdk.trace.SpanData
+import io.opentelemetry.sdk.trace.export.SpanExporter
+import spock.lang.Timeout
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+@Timeout(10)
+class BatchSpanProcessorTest extends AgentSpecification {
+
+  def tracer = OpenTelemetry.getTracerFactory().get("test")
+
+  def "ring buffer is bounded and FIFO"() {
+    setup:
+    def buffer = new BoundedRingBuffer<String>(3)
+
+    expect:
+    buffer.capacity() == 4
+    buffer.isEmpty()
+    buffer.offer("a")
+    buffer.offer("b")
+    buffer.offer("c")
+    buffer.offer("d")
+    !buffer.offer("e")
+    buffer.size() == 4
+    buffer.poll() == "a"
+    buffer.offer("e")
+    buffer.poll() == "b"
+    buffer.poll() == "c"
+    buffer.poll() == "d"
+    buffer.poll() == "e"
+    buffer.poll() == null
+    buffer.isEmpty()
+  }
+
+  def "ring buffer does not lose elements across producers"() {
+    setup:
+    def buffer = new BoundedRingBuffer<Integer>(1024)
+    def threads = 8
+    def perThread = 10000
+    def start = new CountDownLatch(1)
+    def producers = (1..threads).collect { t ->
+      Thread.start {
+        start.await()
+        for (int i = 0; i < perThread; i++) {
+          while (!buffer.offer(i)) {
+            Thread.yield()
+          }
+        }
+      }
+    }
+    long consumed = 0
+
+    when:
+    start.countDown()
+    while (consumed < threads * perThread) {
+      if (buffer.poll() != null) {
+        consumed++
+      }
+    }
+    producers*.join()
+
+    then:
+    consumed == threads * perThread
+    buffer.poll() == null
+  }
+
+  def "spans are exported once the batch is full"() {
+    setup:
+    def exporter = new CollectingExporter()
+    def processor = new BatchSpanProcessor(exporter, 2, 16, TimeUnit.MINUTES.toMillis(1), BatchSpanProcessor.DropPolicy.DROP_NEWEST)
+
+    when:
+    processor.onEnd(endedSpan("one"))
+    processor.onEnd(endedSpan("two"))
+    exporter.awaitSpans(2)
+
+    then:
+    exporter.spans*.name == ["one", "two"]
+    processor.exportedSpanCount == 2
+    processor.droppedSpanCount == 0
+
+    cleanup:
+    processor.shutdown()
+  }
+
+  def "spans are exported when the flush interval elapses"() {
+    setup:
+    def exporter = new CollectingExporter()
+    def processor = new BatchSpanProcessor(exporter, 100, 128, 10, BatchSpanProcessor.DropPolicy.DROP_NEWEST)
+
+    when:
+    processor.onEnd(endedSpan("lonely"))
+    exporter.awaitSpans(1)
+
+    then:
+    exporter.spans*.name == ["lonely"]
+    processor.queueDepth == 0
+
+    cleanup:
+    processor.shutdown()
+  }
+
+  def "queued spans are flushed on shutdown"() {
+    setup:
+    def exporter = new CollectingExporter()
+    def processor = new BatchSpanProcessor(exporter, 100, 128, TimeUnit.MINUTES.toMillis(1), BatchSpanProcessor.DropPolicy.DROP_NEWEST)
+
+    when:
+    processor.onEnd(endedSpan("one"))
+    processor.onEnd(endedSpan("two"))
+    processor.shutdown()
+
+    then:
+    exporter.spans*.name == ["one", "two"]
+    exporter.shutdown
+  }
+
+  def "full queue applies #policy"() {
+    setup:
+    def exporter = new CollectingExporter()
+    def processor = new BatchSpanProcessor(exporter, 4, 4, TimeUnit.MINUTES.toMillis(1), policy)
+    exporter.block()
+
+    when:
+    // Fill the queue and wait for the worker to take the batch and block in the exporter.
+    (1..4).each { processor.onEnd(endedSpan("first-$it")) }
+    exporter.awaitExportStarted()
+    (1..6).each { processor.onEnd(endedSpan("second-$it")) }
+
+    then:
+    processor.droppedSpanCount == 2
+    processor.queueDepth == 4
+
+    when:
+    exporter.unblock()
+    processor.shutdown()
+
+    then:
+    exporter.spans*.name == expected
+
+    where:
+    policy                                  | expected
+    BatchSpanProcessor.DropPolicy.DROP_NEWEST | (1..4).collect { "first-$it" } + (1..4).collect { "second-$it" }
+    BatchSpanProcessor.DropPolicy.DROP_OLDEST | (1..4).collect { "first-$it" } + (3..6).collect { "second-$it" }
+  }
+
+  def "each exporter gets its own queue"() {
+    setup:
+    def slow = new CollectingExporter()
+    def fast = new CollectingExporter()
+    def processors = TracerInstaller.createSpanProcessors([slow, fast])
+    slow.block()
+
+    when:
+    processors*.onEnd(endedSpan("one"))
+    processors*.onEnd(endedSpan("two"))
+    processors[1].shutdown()
+
+    then:
+    processors.every { it instanceof BatchSpanProcessor }
+    fast.spans*.name == ["one", "two"]
+    slow.spans.isEmpty()
+
+    cleanup:
+    slow.unblock()
+    processors[0].shutdown()
+  }
+
+  def "a single exporter is called synchronously unless batching is enabled"() {
+    setup:
+    def exporter = new CollectingExporter()
+    def processors = TracerInstaller.createSpanProcessors([exporter])
+
+    when:
+    processors*.onEnd(endedSpan("one"))
+
+    then:
+    processors.size() == 1
+    !(processors[0] instanceof BatchSpanProcessor)
+    exporter.spans*.name == ["one"]
+  }
+
+  def "drop policy parsing"() {
+    expect:
+    BatchSpanProcessor.DropPolicy.fromString(value) == expected
+
+    where:
+    value         | expected
+    null          | BatchSpanProcessor.DropPolicy.DROP_NEWEST
+    "drop_oldest" | BatchSpanProcessor.DropPolicy.DROP_OLDEST
+    "DROP_NEWEST" | BatchSpanProcessor.DropPolicy.DROP_NEWEST
+    "bogus"       | BatchSpanProcessor.DropPolicy.DROP_NEWEST
+  }
+
+  ReadableSpan endedSpan(String name) {
+    def span = tracer.spanBuilder(name).startSpan()
+    span.end()
+    return (ReadableSpan) span
+  }
+
+  static class CollectingExporter implements SpanExporter {
+    final List<SpanData> spans = new CopyOnWriteArrayList<>()
+    volatile boolean shutdown = false
+    volatile CountDownLatch gate = null
+    final CountDownLatch exportStarted = new CountDownLatch(1)
+
+    void block() {
+      gate = new CountDownLatch(1)
+    }
+
+    void unblock() {
+      gate.countDown()
+    }
+
+    void awaitExportStarted() {
+      assert exportStarted.await(5, TimeUnit.SECONDS)
+    }
+
+    void awaitSpans(int count) {
+      while (spans.size() < count) {
+        Thread.sleep(1)
+      }
+    }
+
+    @Override
+    SpanExporter.ResultCode export(List<SpanData> list) {
+      exportStarted.countDown()
+      gate?.await()
+      spans.addAll(list)
+      return SpanExporter.ResultCode.SUCCESS
+    }
+
+    @Override
+    void shutdown() {
+      shutdown = true
+    }
+  }
+}
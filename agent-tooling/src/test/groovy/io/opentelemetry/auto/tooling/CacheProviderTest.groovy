@@ -160,8 +160,8 @@ class CacheProviderTest extends AgentSpecification {
 
   def "test capacity"() {
     setup:
-    def poolStrat = new AgentCachingPoolStrategy()
-    def capacity = AgentCachingPoolStrategy.TYPE_CAPACITY
+    def capacity = 64
+    def poolStrat = new AgentCachingPoolStrategy(1, capacity, capacity)
 
     def loader1 = newClassLoader()
     def loaderHash1 = loader1.hashCode()
@@ -199,6 +199,85 @@ class CacheProviderTest extends AgentSpecification {
     poolStrat.approximateSize() > 0.8 * capacity
   }
 
+  def "test hit and miss counters"() {
+    setup:
+    def poolStrat = new AgentCachingPoolStrategy(4, 64, 64)
+
+    def loader = newClassLoader()
+    def cacheProvider = poolStrat.createCacheProvider(loader.hashCode(), new WeakReference<ClassLoader>(loader))
+
+    when:
+    cacheProvider.find("foo")
+    cacheProvider.register("foo", newVoid())
+    cacheProvider.find("foo")
+    cacheProvider.find("foo")
+
+    then:
+    poolStrat.missCount == 1
+    poolStrat.hitCount == 2
+    poolStrat.evictionCount == 0
+    poolStrat.capacity == 64
+  }
+
+  def "test shards grow under eviction pressure and shrink when idle"() {
+    setup:
+    def cache = new AdaptiveResolutionCache(2, 32, 256)
+    def loader = newClassLoader()
+    def loaderRef = new WeakReference<ClassLoader>(loader)
+    def id = 0
+
+    expect:
+    cache.shardCount() == 2
+    cache.capacity() == 32
+
+    when:
+    // overflow both shards several times over
+    256.times {
+      id += 1
+      cache.put(new AgentCachingPoolStrategy.TypeCacheKey(loader.hashCode(), loaderRef, "foo${id}"), newVoid())
+    }
+    cache.adapt()
+
+    then:
+    cache.evictionCount() > 0
+    cache.capacity() == 64
+
+    when:
+    3.times { cache.adapt() }
+
+    then:
+    // still full, so no shrinking
+    cache.capacity() == 64
+
+    when:
+    // simulate entries expiring after startup
+    cache.shards.each { it.cache.invalidateAll() }
+    3.times { cache.adapt() }
+
+    then:
+    cache.capacity() == 32
+  }
+
+  def "test default shard count keeps shards from starting tiny with #minCapacity entries"() {
+    setup:
+    def cache = new AdaptiveResolutionCache(0, minCapacity, 8192)
+
+    expect:
+    cache.capacity() == minCapacity
+    cache.shardCount() <= Math.max(1, minCapacity.intdiv(AdaptiveResolutionCache.MIN_DEFAULT_SHARD_CAPACITY))
+    cache.shardCount() <= Runtime.runtime.availableProcessors()
+    cache.shards.every { it.capacity >= Math.min(minCapacity, AdaptiveResolutionCache.MIN_DEFAULT_SHARD_CAPACITY) }
+
+    where:
+    minCapacity << [16, 32, 256, 4096]
+  }
+
+  def "test fixed capacity is not adaptive"() {
+    expect:
+    !new AdaptiveResolutionCache(1, 64, 64).isAdaptive()
+    new AdaptiveResolutionCache(1, 64, 128).isAdaptive()
+  }
+
   static newVoid() {
     return new TypePool.Resolution.Simple(TypeDescription.VOID)
   }
@@ -0,0 +1,69 @@
+package io.opentelemetry.auto.tooling
+
+import io.opentelemetry.auto.util.test.AgentSpecification
+
+class GlobalIgnoresMatcherTest extends AgentSpecification {
+
+  def "global rules for #name"() {
+    setup:
+    def matcher = (GlobalIgnoresMatcher) GlobalIgnoresMatcher.globalIgnoresMatcher()
+
+    expect:
+    matcher.matches(name) == ignored
+
+    where:
+    name                                                                              | ignored
+    "net.bytebuddy.description.type.TypeDescription"                                  | true
+    "io.opentelemetry.auto.tooling.AgentInstaller"                                    | true
+    "io.opentelemetry.auto.bootstrap.instrumentation.java.concurrent.RunnableWrapper" | false
+    "java.lang.String"                                                                | true
+    "java.net.URL"                                                                    | false
+    "java.net.URLConnection"                                                          | true
+    "java.util.concurrent.ThreadPoolExecutor"                                         | false
+    "java.util.logging.Logger"                                                        | false
+    "java.util.logging.LogManager\$Cleaner"                                           | true
+    "com.sun.messaging.jms.Session"                                                   | false
+    "com.sun.proxy.\$Proxy1"                                                          | true
+    "sun.net.www.protocol.http.HttpURLConnection"                                     | false
+    "sun.net.www.http.HttpClient"                                                     | false
+    "sun.net.www.http.KeepAliveCache"                                                 | true
+    "sun.rmi.transport.Transport"                                                     | false
+    "org.slf4j.MDC"                                                                   | false
+    "org.slf4j.Logger"                                                                | true
+    "com.example.Foo\$\$EnhancerByCGLIB\$\$1"                                          | true
+    "org.objectweb.asm.ClassReader"                                                   | true
+    "com.example.Foo\$JaxbAccessorM_getName"                                          | true
+    "com.mchange.v2.c3p0.impl.NewProxyConnection"                                     | false
+    "com.mchange.v2.c3p0.impl.C3P0PooledConnectionProxy"                              | true
+    "com.mchange.v2.c3p0.Proxy"                                                       | true
+    "com.example.Application"                                                         | false
+    ""                                                                                | false
+  }
+
+  def "configured excludes override global rules"() {
+    setup:
+    def matcher = (GlobalIgnoresMatcher) GlobalIgnoresMatcher.globalIgnoresMatcher(
+      ["java.util.concurrent.*", " com.example.Excluded", "com.example.excluded.*"])
+
+    expect:
+    matcher.matches(name) == ignored
+
+    where:
+    name                                      | ignored
+    "java.util.concurrent.ThreadPoolExecutor" | true
+    "java.rmi.Remote"                         | false
+    "com.example.Excluded"                    | true
+    "com.example.Excluded\$Nested"            | false
+    "com.example.excluded.Foo"                | true
+    "com.example.Application"                 | false
+  }
+
+  def "excluding everything"() {
+    setup:
+    def matcher = (GlobalIgnoresMatcher) GlobalIgnoresMatcher.globalIgnoresMatcher(["*"])
+
+    expect:
+    matcher.matches("com.example.Application")
+    matcher.matches("java.net.URL")
+  }
+}
@@ -0,0 +1,33 @@
+package io.opentelemetry.auto.tooling
+
+import io.opentelemetry.auto.util.test.AgentSpecification
+
+import static io.opentelemetry.auto.test.utils.ClasspathUtils.isClassLoaded
+
+class HelperRegistryTest extends AgentSpecification {
+  static final String HELPER_CLASS = "io.opentelemetry.auto.test.HelperClass"
+  static final String OTHER_HELPER_CLASS = "io.opentelemetry.auto.test.BadAdvice"
+
+  def "helpers already injected into a classloader are skipped"() {
+    setup:
+    URLClassLoader emptyLoader = new URLClassLoader(new URL[0], (ClassLoader) null)
+    // as if another instrumentation had injected it
+    HelperRegistry.INSTANCE.injectedInto(emptyLoader).add([HELPER_CLASS] as Set, null)
+
+    when:
+    new HelperInjector(HELPER_CLASS, OTHER_HELPER_CLASS).transform(null, null, emptyLoader, null)
+
+    then:
+    !isClassLoaded(HELPER_CLASS, emptyLoader)
+    isClassLoaded(OTHER_HELPER_CLASS, emptyLoader)
+    HelperRegistry.INSTANCE.injectedInto(emptyLoader).contains(OTHER_HELPER_CLASS)
+
+    cleanup:
+    emptyLoader?.close()
+  }
+
+  def "helper bytes are read once"() {
+    expect:
+    HelperRegistry.INSTANCE.bytecode(HELPER_CLASS).is(HelperRegistry.INSTANCE.bytecode(HELPER_CLASS))
+  }
+}
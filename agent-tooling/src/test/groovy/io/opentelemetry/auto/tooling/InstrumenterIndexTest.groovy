@@ -0,0 +1,73 @@
+package io.opentelemetry.auto.tooling
+
+import io.opentelemetry.auto.util.test.AgentSpecification
+import net.bytebuddy.description.type.TypeDescription
+
+import static io.opentelemetry.auto.tooling.ByteBuddyElementMatchers.failSafe
+import static io.opentelemetry.auto.tooling.ByteBuddyElementMatchers.safeExtendsClass
+import static io.opentelemetry.auto.tooling.ByteBuddyElementMatchers.safeHasInterface
+import static io.opentelemetry.auto.tooling.ByteBuddyElementMatchers.safeHasSuperType
+import static net.bytebuddy.matcher.ElementMatchers.any
+import static net.bytebuddy.matcher.ElementMatchers.isInterface
+import static net.bytebuddy.matcher.ElementMatchers.nameEndsWith
+import static net.bytebuddy.matcher.ElementMatchers.nameStartsWith
+import static net.bytebuddy.matcher.ElementMatchers.named
+import static net.bytebuddy.matcher.ElementMatchers.not
+
+class InstrumenterIndexTest extends AgentSpecification {
+
+  def "requirement of #matcher"() {
+    when:
+    def requirement = InstrumenterIndex.Requirement.of(matcher)
+
+    then:
+    requirement?.names == names as Set
+    requirement?.prefixes == prefixes as Set
+    requirement?.superTypes == superTypes as Set
+
+    where:
+    matcher                                                               | names          | prefixes | superTypes
+    named("a.B")                                                          | ["a.B"]        | []       | []
+    named("a.B").or(named("a.C"))                                         | ["a.B", "a.C"] | []       | []
+    nameStartsWith("a.")                                                  | []             | ["a."]   | []
+    failSafe(named("a.B"), "test")                                        | ["a.B"]        | []       | []
+    not(isInterface()).and(safeHasInterface(named("java.sql.Statement"))) | []             | []       | ["java.sql.Statement"]
+    safeHasSuperType(named("a.B").or(named("a.C")))                       | []             | []       | ["a.B", "a.C"]
+    not(isInterface()).and(safeExtendsClass(named("a.B")))                | []             | []       | ["a.B"]
+    safeHasInterface(named("a.I")).and(named("a.B"))                      | ["a.B"]        | []       | []
+    named("a.B").or(safeHasSuperType(named("a.C")))                       | ["a.B"]        | []       | ["a.C"]
+    nameEndsWith("Handler")                                               | null           | null     | null
+    named("a.B").or(nameEndsWith("Handler"))                              | null           | null     | null
+    not(named("a.B"))                                                     | null           | null     | null
+    any()                                                                 | null           | null     | null
+  }
+
+  def "only types meeting the requirement are candidates"() {
+    setup:
+    def index = new InstrumenterIndex()
+    // slots are handed out in registration order
+    index.register(named(ArrayList.name))
+    index.register(nameStartsWith("java.util.concurrent."))
+    index.register(not(isInterface()).and(safeHasInterface(named(Collection.name))))
+    index.register(nameEndsWith("List"))
+
+    expect:
+    index.isCandidate(0, type(ArrayList), null)
+    !index.isCandidate(1, type(ArrayList), null)
+    index.isCandidate(2, type(ArrayList), null)
+    index.isCandidate(3, type(ArrayList), null)
+
+    !index.isCandidate(0, type(Thread), null)
+    !index.isCandidate(1, type(Thread), null)
+    !index.isCandidate(2, type(Thread), null)
+    index.isCandidate(3, type(Thread), null)
+
+    !index.isCandidate(0, type(java.util.concurrent.ConcurrentLinkedQueue), null)
+    index.isCandidate(1, type(java.util.concurrent.ConcurrentLinkedQueue), null)
+    index.isCandidate(2, type(java.util.concurrent.ConcurrentLinkedQueue), null)
+  }
+
+  def type(Class<?> type) {
+    return new TypeDescription.ForLoadedType(type)
+  }
+}
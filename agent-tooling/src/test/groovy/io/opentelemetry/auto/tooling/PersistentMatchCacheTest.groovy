@@ -0,0 +1,204 @@
+package io.opentelemetry.auto.tooling
+
+import io.opentelemetry.auto.util.test.AgentSpecification
+import net.bytebuddy.description.type.TypeDescription
+import net.bytebuddy.description.type.TypeList
+
+import java.nio.file.Files
+import java.security.CodeSource
+import java.security.ProtectionDomain
+import java.security.cert.Certificate
+import java.sql.Connection
+
+class PersistentMatchCacheTest extends AgentSpecification {
+
+  def dir = Files.createTempDirectory("match-cache").toFile()
+  def file = new File(dir, "match.cache")
+  def jar = new File(dir, "app.jar")
+  def loader
+  def domain
+
+  def setup() {
+    jar.bytes = [1, 2, 3] as byte[]
+    loader = new URLClassLoader([jar.toURI().toURL()] as URL[], (ClassLoader) null)
+    domain = protectionDomain(jar)
+  }
+
+  def cleanup() {
+    dir.deleteDir()
+  }
+
+  def "unmatched types are remembered across runs"() {
+    setup:
+    def first = new PersistentMatchCache(file, 42)
+    def type = new TypeDescription.ForLoadedType(String)
+
+    when:
+    def ignoredBefore = first.matches(type, loader, null, null, domain)
+    unmatched(first, type, loader)
+    first.save()
+    def second = new PersistentMatchCache(file, 42)
+
+    then:
+    !ignoredBefore
+    first.matches(type, loader, null, null, domain)
+    second.matches(type, loader, null, null, domain)
+    !second.matches(new TypeDescription.ForLoadedType(Integer), loader, null, null, domain)
+  }
+
+  def "transformed types are not remembered"() {
+    setup:
+    def cache = new PersistentMatchCache(file, 42)
+    def type = new TypeDescription.ForLoadedType(String)
+    def listener = cache.listener()
+
+    when:
+    cache.matches(type, loader, null, null, domain)
+    listener.onTransformation(type, loader, null, false, null)
+    listener.onComplete(type.name, loader, null, false)
+    // ignored without going through the cache's matcher, e.g. by the global ignores
+    listener.onIgnored(type, loader, null, false)
+    listener.onComplete(type.name, loader, null, false)
+
+    then:
+    !cache.matches(type, loader, null, null, domain)
+  }
+
+  def "#description are not remembered as unmatched"() {
+    setup:
+    def first = new PersistentMatchCache(file, 42)
+    def type = Mock(TypeDescription) {
+      getName() >> name
+    }
+    def typeDomain = location == null ? null : protectionDomain(new File(dir, location))
+
+    when:
+    first.matches(type, loader, null, null, typeDomain)
+    unmatched(first, type, loader)
+    first.save()
+    def second = new PersistentMatchCache(file, 42)
+
+    then:
+    !first.matches(type, loader, null, null, typeDomain)
+    !second.matches(type, loader, null, null, typeDomain)
+
+    where:
+    description                   | name                                      | location
+    "types without a code source" | "com.example.Foo"                         | null
+    "types from other locations"  | "com.example.Foo"                         | "other.jar"
+    "JDK proxies"                 | "com.sun.proxy.\$Proxy12"                 | "app.jar"
+    "CGLIB proxies"               | "com.example.Foo\$\$EnhancerByCGLIB\$\$1" | "app.jar"
+    "ByteBuddy proxies"           | "com.example.Foo\$ByteBuddy\$abc"         | "app.jar"
+  }
+
+  def "a proxy name given to another type next run is matched again"() {
+    setup:
+    def proxyName = "com.sun.proxy.\$Proxy12"
+    def comparableProxy = Mock(TypeDescription) {
+      getName() >> proxyName
+      getInterfaces() >> new TypeList.Generic.ForLoadedTypes(Comparable)
+    }
+    def connectionProxy = Mock(TypeDescription) {
+      getName() >> proxyName
+      getInterfaces() >> new TypeList.Generic.ForLoadedTypes(Connection)
+    }
+    def first = new PersistentMatchCache(file, 42)
+
+    when:
+    first.matches(comparableProxy, loader, null, null, domain)
+    unmatched(first, comparableProxy, loader)
+    first.save()
+    def second = new PersistentMatchCache(file, 42)
+
+    then:
+    !second.matches(connectionProxy, loader, null, null, domain)
+  }
+
+  def "muzzle outcomes are remembered across runs"() {
+    setup:
+    def first = new PersistentMatchCache(file, 42)
+
+    when:
+    first.recordMuzzle("passing", loader, true)
+    first.recordMuzzle("failing", loader, false)
+    first.save()
+    def second = new PersistentMatchCache(file, 42)
+
+    then:
+    second.muzzleMatches("passing", loader) == Boolean.TRUE
+    second.muzzleMatches("failing", loader) == Boolean.FALSE
+    second.muzzleMatches("unknown", loader) == null
+  }
+
+  def "decisions are discarded when #change"() {
+    setup:
+    def first = new PersistentMatchCache(file, 42)
+    first.recordMuzzle("passing", loader, true)
+    first.save()
+
+    when:
+    jar.bytes = jarContent as byte[]
+    def second = new PersistentMatchCache(file, environment)
+
+    then:
+    second.muzzleMatches("passing", newLoader()) == null
+
+    where:
+    change                  | environment | jarContent
+    "the environment moved" | 43          | [1, 2, 3]
+    "a jar changed"         | 42          | [1, 2, 3, 4]
+  }
+
+  def "decisions are discarded when the agent jar changed"() {
+    setup:
+    def agentJar = new File(dir, "agent.jar")
+    agentJar.bytes = [1, 2, 3] as byte[]
+    def agentLocations = [agentJar.toURI().toURL()] as URL[]
+    def first = new PersistentMatchCache(file, PersistentMatchCache.environment(agentLocations))
+    first.recordMuzzle("passing", loader, true)
+    first.save()
+
+    when:
+    def unchanged = new PersistentMatchCache(file, PersistentMatchCache.environment(agentLocations))
+    agentJar.bytes = [1, 2, 3, 4] as byte[]
+    def rebuilt = new PersistentMatchCache(file, PersistentMatchCache.environment(agentLocations))
+
+    then:
+    unchanged.muzzleMatches("passing", loader) == Boolean.TRUE
+    rebuilt.muzzleMatches("passing", loader) == null
+  }
+
+  def "loaders with directories are not cached"() {
+    setup:
+    def cache = new PersistentMatchCache(file, 42)
+    def directoryLoader = new URLClassLoader([dir.toURI().toURL()] as URL[], (ClassLoader) null)
+
+    when:
+    cache.recordMuzzle("passing", directoryLoader, true)
+
+    then:
+    cache.muzzleMatches("passing", directoryLoader) == null
+  }
+
+  def "corrupt files are ignored"() {
+    setup:
+    file.bytes = [1, 2, 3, 4, 5] as byte[]
+
+    expect:
+    new PersistentMatchCache(file, 42).muzzleMatches("passing", loader) == null
+  }
+
+  static ProtectionDomain protectionDomain(File location) {
+    return new ProtectionDomain(new CodeSource(location.toURI().toURL(), (Certificate[]) null), null)
+  }
+
+  def newLoader() {
+    return new URLClassLoader([jar.toURI().toURL()] as URL[], (ClassLoader) null)
+  }
+
+  static void unmatched(PersistentMatchCache cache, TypeDescription type, ClassLoader loader) {
+    def listener = cache.listener()
+    listener.onIgnored(type, loader, null, false)
+    listener.onComplete(type.name, loader, null, false)
+  }
+}
@@ -0,0 +1,103 @@
+package io.opentelemetry.auto.tooling
+
+import io.opentelemetry.auto.util.test.AgentSpecification
+import io.opentelemetry.trace.Span
+import io.opentelemetry.trace.SpanContext
+import io.opentelemetry.trace.SpanId
+import io.opentelemetry.trace.TraceFlags
+import io.opentelemetry.trace.TraceId
+import io.opentelemetry.trace.Tracestate
+
+import java.util.concurrent.TimeUnit
+
+class SamplerTest extends AgentSpecification {
+
+  def "ratio #ratio samples trace id #lowerId: #sampled"() {
+    expect:
+    sample(new RatioSampler(ratio), null, lowerId) == sampled
+
+    where:
+    ratio | lowerId                      | sampled
+    0     | 0                            | false
+    0     | Long.MIN_VALUE               | false
+    1     | Long.MIN_VALUE               | true
+    1     | Long.MAX_VALUE               | true
+    0.5   | 1                            | true
+    0.5   | -1                           | true
+    0.5   | Long.MAX_VALUE               | false
+    0.5   | Long.MIN_VALUE               | false
+    0.5   | Long.MAX_VALUE.intdiv(4)     | true
+    0.5   | -Long.MAX_VALUE.intdiv(4)    | true
+    0.5   | Long.MAX_VALUE.intdiv(4) * 3 | false
+    2     | Long.MIN_VALUE               | true
+  }
+
+  def "ratio sampling is close to the ratio"() {
+    setup:
+    def sampler = new RatioSampler(0.1)
+    def random = new Random(42)
+
+    when:
+    def sampled = (1..100000).count { sample(sampler, null, random.nextLong()) }
+
+    then:
+    sampled > 9000
+    sampled < 11000
+  }
+
+  def "rate limit allows a burst then #perSecond per second"() {
+    setup:
+    def now = 0L
+    def ticker = { now } as RateLimitingSampler.Ticker
+    def sampler = new RateLimitingSampler(perSecond, ticker)
+
+    expect:
+    (1..perSecond * 2).count { sampler.tryAcquire() } == perSecond
+
+    when:
+    now += TimeUnit.MILLISECONDS.toNanos(500)
+
+    then:
+    (1..perSecond * 2).count { sampler.tryAcquire() } == perSecond.intdiv(2)
+
+    when:
+    now += TimeUnit.SECONDS.toNanos(10)
+
+    then:
+    (1..perSecond * 2).count { sampler.tryAcquire() } == perSecond
+
+    where:
+    perSecond << [10, 1000]
+  }
+
+  def "rate limit of 0 samples nothing"() {
+    expect:
+    !new RateLimitingSampler(0).tryAcquire()
+  }
+
+  def "parent based sampler follows the parent"() {
+    setup:
+    def sampler = new ParentBasedSampler(new RatioSampler(root ? 1 : 0))
+
+    expect:
+    sample(sampler, parent, 1) == sampled
+
+    where:
+    parent                   | root  | sampled
+    null                     | true  | true
+    null                     | false | false
+    SpanContext.getInvalid() | true  | true
+    spanContext(true)        | false | true
+    spanContext(false)       | true  | false
+  }
+
+  static boolean sample(sampler, SpanContext parent, long lowerId) {
+    return sampler.shouldSample(parent, new TraceId(1, lowerId), new SpanId(1), "span", Span.Kind.SERVER,
+      Collections.emptyMap(), Collections.emptyList()).isSampled()
+  }
+
+  static SpanContext spanContext(boolean sampled) {
+    return SpanContext.createFromRemoteParent(new TraceId(1, 2), new SpanId(3),
+      TraceFlags.builder().setIsSampled(sampled).build(), Tracestate.getDefault())
+  }
+}
@@ -0,0 +1,103 @@
+package io.opentelemetry.auto.tooling
+
+import io.opentelemetry.auto.util.test.AgentSpecification
+import net.bytebuddy.description.type.TypeDescription
+import net.bytebuddy.dynamic.ClassFileLocator
+import net.bytebuddy.pool.TypePool
+
+import static io.opentelemetry.auto.tooling.ByteBuddyElementMatchers.safeHasInterface
+import static io.opentelemetry.auto.tooling.ByteBuddyElementMatchers.safeHasSuperType
+import static net.bytebuddy.matcher.ElementMatchers.isAnnotatedWith
+import static net.bytebuddy.matcher.ElementMatchers.named
+
+class SuperTypeCacheTest extends AgentSpecification {
+
+  def loader = new URLClassLoader(new URL[0], SuperTypeCacheTest.classLoader)
+  // as used by the agent: every resolution describes the type anew
+  def pool = new TypePool.Default.WithLazyResolution(
+    new TypePool.CacheProvider.Simple(),
+    ClassFileLocator.ForClassLoader.of(loader),
+    TypePool.Default.ReaderMode.FAST)
+
+  def "collects the super classes and interfaces of #type.simpleName"() {
+    when:
+    def superTypes = SuperTypeCache.superTypes(loader, describe(type))
+
+    then:
+    (superTypes.names as List).containsAll(expected*.name)
+    (superTypes.names as List).unique().size() == superTypes.names.length
+    superTypes.names.length == superTypes.interfaces.length
+    superTypes.names.eachWithIndex { name, i ->
+      assert superTypes.interfaces[i] == Class.forName(name).isInterface()
+    }
+
+    where:
+    type      | expected
+    Object    | [Object]
+    Runnable  | [Runnable]
+    ArrayList | [ArrayList, AbstractList, AbstractCollection, Object, List, Collection, Iterable, RandomAccess, Cloneable, Serializable]
+    Thread    | [Thread, Object, Runnable]
+  }
+
+  def "types are cached by loader and name, not by description"() {
+    when:
+    def superTypes = SuperTypeCache.superTypes(loader, describe(ArrayList))
+
+    then:
+    SuperTypeCache.superTypes(loader, describe(ArrayList)).is(superTypes)
+    // resolved while walking ArrayList's hierarchy
+    SuperTypeCache.superTypes(loader, describe(AbstractList)).is(
+      SuperTypeCache.superTypes(loader, describe(AbstractList)))
+    !SuperTypeCache.superTypes(new URLClassLoader(new URL[0], loader), describe(ArrayList)).is(superTypes)
+  }
+
+  def "matchers reuse the lookup made for the same description"() {
+    setup:
+    def description = describe(ArrayList)
+
+    when:
+    def superTypes = SuperTypeCache.superTypes(loader, description)
+
+    then:
+    SuperTypeCache.superTypes(description).is(superTypes)
+    // another description of the same type is walked instead
+    def walked = SuperTypeCache.superTypes(describe(ArrayList))
+    !walked.is(superTypes)
+    walked.names == superTypes.names
+  }
+
+  def "#matcherName(#superType.simpleName) matches #type.simpleName: #matches"() {
+    setup:
+    def matcher = matcherName == "safeHasInterface" ? safeHasInterface(named(superType.name)) : safeHasSuperType(named(superType.name))
+    def description = describe(type)
+
+    expect:
+    matcher.matches(description) == matches
+    SuperTypeCache.superTypes(loader, description) != null
+    matcher.matches(description) == matches
+
+    where:
+    matcherName        | superType    | type      | matches
+    "safeHasInterface" | Collection   | ArrayList | true
+    "safeHasInterface" | AbstractList | ArrayList | false
+    "safeHasInterface" | Runnable     | Runnable  | true
+    "safeHasInterface" | Runnable     | ArrayList | false
+    "safeHasSuperType" | AbstractList | ArrayList | true
+    "safeHasSuperType" | Iterable     | ArrayList | true
+    "safeHasSuperType" | ArrayList    | ArrayList | true
+    "safeHasSuperType" | Thread       | ArrayList | false
+  }
+
+  def "matchers on more than names walk the hierarchy"() {
+    setup:
+    def matcher = safeHasSuperType(isAnnotatedWith(FunctionalInterface))
+
+    expect:
+    matcher.matches(describe(Runnable))
+    !matcher.matches(describe(ArrayList))
+  }
+
+  TypeDescription describe(Class<?> type) {
+    return pool.describe(type.name).resolve()
+  }
+}
@@ -7,13 +7,16 @@ import spock.lang.Retry
 import spock.lang.Shared
 
 import java.lang.ref.WeakReference
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
 import java.util.concurrent.TimeUnit
 
 @Retry
 // These tests fail sometimes in CI.
 class WeakConcurrentSupplierTest extends AgentSpecification {
   @Shared
-  def cleaner = new Cleaner()
+  def cleaner = new WeakMapCleaner()
   @Shared
   def weakConcurrentSupplier = new WeakMapSuppliers.WeakConcurrent(cleaner)
   @Shared
@@ -43,6 +46,79 @@ class WeakConcurrentSupplierTest extends AgentSpecification {
     "Guava"          | guavaSupplier
   }
 
+  def "computeIfAbsent on #name gives the same value to concurrent threads"() {
+    setup:
+    WeakMap.Provider.provider.set(supplier)
+    def map = WeakMap.Provider.newWeakMap()
+    def keys = (1..100).collect { new Object() }
+    def valueSupplier = { key -> new Object() } as WeakMap.ValueSupplier
+    def start = new CountDownLatch(1)
+    def executor = Executors.newFixedThreadPool(16)
+
+    when:
+    def futures = (1..16).collect {
+      executor.submit({
+        start.await()
+        return keys.collect { key -> map.computeIfAbsent(key, valueSupplier) }
+      } as Callable)
+    }
+    start.countDown()
+    def results = futures.collect { it.get(10, TimeUnit.SECONDS) }
+
+    then:
+    map.size() == keys.size()
+    results.every { values -> (0..<keys.size()).every { values[it].is(map.get(keys[it])) } }
+
+    cleanup:
+    executor.shutdownNow()
+
+    where:
+    name             | supplier
+    "WeakConcurrent" | weakConcurrentSupplier
+    "WeakInline"     | weakInlineSupplier
+    "Guava"          | guavaSupplier
+  }
+
+  def "computeIfAbsent on #name can be called again by the supplier"() {
+    setup:
+    WeakMap.Provider.provider.set(supplier)
+    def map = WeakMap.Provider.newWeakMap()
+    // Chains of keys whose values depend on the value of the next one, as class loaders and their
+    // parents, walked from both ends so threads would lock stripes in opposite orders.
+    def chain = (1..64).collect { new Object() }
+    def valueSupplier
+    valueSupplier = { key ->
+      def index = chain.indexOf(key)
+      return index == chain.size() - 1 ? 0 : map.computeIfAbsent(chain[index + 1], valueSupplier) + 1
+    } as WeakMap.ValueSupplier
+    def start = new CountDownLatch(1)
+    def executor = Executors.newFixedThreadPool(2)
+
+    when:
+    def first = executor.submit({
+      start.await()
+      return map.computeIfAbsent(chain[0], valueSupplier)
+    } as Callable)
+    def last = executor.submit({
+      start.await()
+      return (chain.size() - 1..0).collect { map.computeIfAbsent(chain[it], valueSupplier) }
+    } as Callable)
+    start.countDown()
+
+    then:
+    first.get(10, TimeUnit.SECONDS) == chain.size() - 1
+    last.get(10, TimeUnit.SECONDS) == (0..<chain.size()).collect { it }
+
+    cleanup:
+    executor.shutdownNow()
+
+    where:
+    name             | supplier
+    "WeakConcurrent" | weakConcurrentSupplier
+    "WeakInline"     | weakInlineSupplier
+    "Guava"          | guavaSupplier
+  }
+
   def "Unreferenced supplier gets cleaned up on #name"() {
     setup:
     // Note: we use 'double supplier' here because Groovy keeps reference to test data preventing it from being GCed
@@ -105,7 +181,7 @@ class WeakConcurrentSupplierTest extends AgentSpecification {
       // so we try a few times.
       int count = 0
       while (map.size() != 0 && count < 10) {
-        Thread.sleep(TimeUnit.SECONDS.toMillis(WeakMapSuppliers.WeakConcurrent.CLEAN_FREQUENCY_SECONDS))
+        Thread.sleep(TimeUnit.SECONDS.toMillis(WeakMapCleaner.TICK_SECONDS))
         count++
       }
     }
@@ -125,7 +201,8 @@ class WeakConcurrentSupplierTest extends AgentSpecification {
 
     where:
     name             | map
-    "WeakConcurrent" | weakConcurrentSupplier.get()
+    // a new cleaner, so passes aren't spaced out by what other tests expunged
+    "WeakConcurrent" | new WeakMapSuppliers.WeakConcurrent(new WeakMapCleaner()).get()
     "WeakInline"     | weakInlineSupplier.get()
     // Guava's cleanup process depends on concurrency level,
     // and in order to be able to test it we need to set concurrency to 1
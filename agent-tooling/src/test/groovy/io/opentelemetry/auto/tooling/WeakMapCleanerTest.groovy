@@ -0,0 +1,90 @@
+package io.opentelemetry.auto.tooling
+
+import io.opentelemetry.auto.util.gc.GCUtils
+import io.opentelemetry.auto.util.test.AgentSpecification
+
+import java.lang.ref.WeakReference
+import java.util.concurrent.TimeUnit
+
+class WeakMapCleanerTest extends AgentSpecification {
+
+  // the scheduled task never runs during a test, passes are run by hand
+  def cleaner = new WeakMapCleaner(TimeUnit.HOURS.toMillis(1))
+
+  def "expunges entries once their keys are collected"() {
+    setup:
+    def map = new WeakMapCleaner.CleanedMap<Object, String>()
+    cleaner.register(map)
+    def key = new Object()
+    map.put(key, "value")
+
+    expect:
+    cleaner.scheduled
+    cleaner.trackedMaps == 1
+
+    when:
+    def keyRef = new WeakReference(key)
+    key = null
+    GCUtils.awaitGC(keyRef)
+    // cleared keys are enqueued asynchronously by the reference handler
+    int count = 0
+    while (map.approximateSize() != 0 && count < 10) {
+      GCUtils.awaitGC()
+      cleaner.run()
+      count++
+    }
+
+    then:
+    map.approximateSize() == 0
+    cleaner.expungedEntries == 1
+    cleaner.passes >= 1
+    cleaner.trackedMaps == 1
+  }
+
+  def "drains the maps once more on the tick after a collection"() {
+    setup:
+    cleaner.register(new WeakMapCleaner.CleanedMap<Object, String>())
+
+    when:
+    GCUtils.awaitGC()
+    cleaner.run()
+
+    then:
+    cleaner.passes == 1
+
+    when: "the first pass found nothing, keys may still be on their way to the queue"
+    cleaner.run()
+
+    then:
+    cleaner.passes == 2
+
+    when:
+    cleaner.run()
+
+    then:
+    cleaner.passes == 2
+    cleaner.expungedEntries == 0
+  }
+
+  def "stops once all its maps are collected"() {
+    setup:
+    def map = new WeakMapCleaner.CleanedMap<Object, String>()
+    cleaner.register(map)
+
+    when:
+    def mapRef = new WeakReference(map)
+    map = null
+    GCUtils.awaitGC(mapRef)
+    cleaner.run()
+
+    then:
+    cleaner.trackedMaps == 0
+    !cleaner.scheduled
+
+    when:
+    cleaner.register(new WeakMapCleaner.CleanedMap<Object, String>())
+
+    then:
+    cleaner.scheduled
+  }
+}
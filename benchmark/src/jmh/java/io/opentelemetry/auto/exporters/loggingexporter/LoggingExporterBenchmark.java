@@ -0,0 +1,162 @@
+package io.opentelemetry.auto.exporters.loggingexporter;
+
+import io.opentelemetry.OpenTelemetry;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.trace.AttributeValue;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Throughput of exporting span batches from several threads at once with the previous {@link
+ * LoggingExporter}, which printed every token to {@code System.out}, and the buffered one writing to
+ * stdout or to a rotating file.
+ *
+ * <p>{@code System.out} is replaced by an auto-flushing stream discarding its output, so the numbers
+ * show the locking and flushing cost rather than the terminal's.
+ *
+ * <p>Lives in the exporter's package because the file output is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class LoggingExporterBenchmark {
+
+  @Param({"1", "64"})
+  public int batchSize;
+
+  private List<SpanData> batch;
+  private PrintStream stdout;
+  private File dir;
+
+  private SpanExporter legacy;
+  private SpanExporter bufferedStdout;
+  private SpanExporter bufferedFile;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    final Tracer tracer = OpenTelemetry.getTracerFactory().get("benchmark");
+    batch = new ArrayList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      final Span span = tracer.spanBuilder("servlet.request").startSpan();
+      span.setAttribute("http.method", "GET");
+      span.setAttribute("http.url", "http://localhost:8080/api/v1/orders/" + i);
+      span.setAttribute("http.status_code", 200L);
+      span.setAttribute("span.kind", "server");
+      span.setAttribute("peer.ipv4", "10.120.33.251");
+      span.setAttribute("peer.port", 52144L);
+      span.setAttribute("error", false);
+      span.end();
+      batch.add(((ReadableSpan) span).toSpanData());
+    }
+
+    stdout = System.out;
+    System.setOut(
+        new PrintStream(
+            new OutputStream() {
+              @Override
+              public void write(final int b) {}
+
+              @Override
+              public void write(final byte[] b, final int off, final int len) {}
+            },
+            true));
+
+    dir = File.createTempFile("logging-exporter", "");
+    if (!dir.delete() || !dir.mkdir()) {
+      throw new IOException("Could not create " + dir);
+    }
+    legacy = new LegacyLoggingExporter("LOGGED_SPAN");
+    bufferedStdout = new LoggingExporter("LOGGED_SPAN");
+    bufferedFile =
+        new LoggingExporter(
+            "LOGGED_SPAN", new RotatingFileOutput(new File(dir, "spans.log"), 10 * 1024 * 1024, 2));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    bufferedFile.shutdown();
+    System.setOut(stdout);
+    for (final File file : dir.listFiles()) {
+      file.delete();
+    }
+    dir.delete();
+  }
+
+  @Benchmark
+  public SpanExporter.ResultCode legacy() {
+    return legacy.export(batch);
+  }
+
+  @Benchmark
+  public SpanExporter.ResultCode bufferedStdout() {
+    return bufferedStdout.export(batch);
+  }
+
+  @Benchmark
+  public SpanExporter.ResultCode bufferedFile() {
+    return bufferedFile.export(batch);
+  }
+
+  /** The previous implementation, kept as the baseline. */
+  static class LegacyLoggingExporter implements SpanExporter {
+    private final String prefix;
+
+    LegacyLoggingExporter(final String prefix) {
+      this.prefix = prefix;
+    }
+
+    @Override
+    public ResultCode export(final List<SpanData> list) {
+      for (final SpanData span : list) {
+        System.out.print(
+            prefix + " " + span.getName() + " " + span.getSpanId().toLowerBase16() + " ");
+        for (final Map.Entry<String, AttributeValue> attr : span.getAttributes().entrySet()) {
+          System.out.print(attr.getKey() + "=");
+          final AttributeValue value = attr.getValue();
+          switch (value.getType()) {
+            case STRING:
+              System.out.print('"' + value.getStringValue() + '"');
+              break;
+            case BOOLEAN:
+              System.out.print(value.getBooleanValue());
+              break;
+            case LONG:
+              System.out.print(value.getLongValue());
+              break;
+            case DOUBLE:
+              System.out.print(value.getDoubleValue());
+              break;
+          }
+          System.out.print(" ");
+        }
+      }
+      System.out.println();
+      return ResultCode.SUCCESS;
+    }
+
+    @Override
+    public void shutdown() {}
+  }
+}
@@ -0,0 +1,222 @@
+package io.opentelemetry.auto.tooling;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Pattern;
+import net.bytebuddy.description.type.TypeDescription;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the prefix tree behind {@link GlobalIgnoresMatcher} with the chain of {@code
+ * startsWith}/{@code contains} checks, regex and per-exclude matchers it replaced.
+ *
+ * <p>The corpus is made of the class names found on the boot class path (Java 8) and in the jars on
+ * the benchmark's classpath, plus generated proxy names, shuffled so both implementations see the
+ * same mix of ignored and instrumentable names a class loading application produces.
+ *
+ * <p>Lives in the tooling package because the matcher is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class GlobalIgnoresMatcherBenchmark {
+  private static final int CORPUS_SIZE = 20000;
+
+  @Param({"0", "10"})
+  public int configuredExcludes;
+
+  private String[] corpus;
+  private GlobalIgnoresMatcher<TypeDescription> trie;
+  private ChainedIgnoresMatcher chained;
+
+  @Setup(Level.Trial)
+  @SuppressWarnings("unchecked")
+  public void setUp() throws IOException {
+    final List<String> names = new ArrayList<>();
+    addClassNames(names, System.getProperty("sun.boot.class.path", ""));
+    addClassNames(names, System.getProperty("java.class.path", ""));
+    for (int i = 0; i < 100; i++) {
+      names.add("com.example.service.OrderService$$EnhancerBySpringCGLIB$$" + i);
+      names.add("com.mchange.v2.c3p0.impl.NewProxyPreparedStatement" + i);
+      names.add("com.example.web.Controller" + i + "$JaxbAccessorF_name");
+    }
+    Collections.shuffle(names, new Random(42));
+    corpus = new String[CORPUS_SIZE];
+    for (int i = 0; i < CORPUS_SIZE; i++) {
+      corpus[i] = names.get(i % names.size());
+    }
+
+    final List<String> excludes = new ArrayList<>();
+    for (int i = 0; i < configuredExcludes; i++) {
+      excludes.add(i % 2 == 0 ? "com.example.excluded" + i + ".*" : "com.example.Excluded" + i);
+    }
+    trie =
+        (GlobalIgnoresMatcher<TypeDescription>) GlobalIgnoresMatcher.globalIgnoresMatcher(excludes);
+    chained = new ChainedIgnoresMatcher(excludes);
+  }
+
+  private static void addClassNames(final List<String> names, final String path)
+      throws IOException {
+    for (final String entry : path.split(File.pathSeparator)) {
+      final File file = new File(entry);
+      if (!file.isFile() || !file.getName().endsWith(".jar")) {
+        continue;
+      }
+      try (final JarFile jar = new JarFile(file)) {
+        final Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+          final String name = entries.nextElement().getName();
+          if (name.endsWith(".class") && !name.contains("-")) {
+            names.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+          }
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CORPUS_SIZE)
+  public int prefixTree() {
+    int ignored = 0;
+    for (final String name : corpus) {
+      if (trie.matches(name)) {
+        ignored++;
+      }
+    }
+    return ignored;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CORPUS_SIZE)
+  public int chainedChecks() {
+    int ignored = 0;
+    for (final String name : corpus) {
+      if (chained.matches(name)) {
+        ignored++;
+      }
+    }
+    return ignored;
+  }
+
+  /** The previous implementation, kept as the baseline. */
+  private static class ChainedIgnoresMatcher {
+    private static final Pattern COM_MCHANGE_PROXY =
+        Pattern.compile("com\\.mchange\\.v2\\.c3p0\\..*Proxy");
+
+    private final List<String> excludedPrefixes = new ArrayList<>();
+    private final List<String> excludedNames = new ArrayList<>();
+
+    ChainedIgnoresMatcher(final List<String> excludes) {
+      for (final String exclude : excludes) {
+        if (exclude.endsWith("*")) {
+          excludedPrefixes.add(exclude.substring(0, exclude.length() - 1));
+        } else {
+          excludedNames.add(exclude);
+        }
+      }
+    }
+
+    boolean matches(final String name) {
+      if (globalIgnores(name)) {
+        return true;
+      }
+      // each exclude used to be its own nameStartsWith/named junction
+      for (final String prefix : excludedPrefixes) {
+        if (name.startsWith(prefix)) {
+          return true;
+        }
+      }
+      for (final String excluded : excludedNames) {
+        if (name.equals(excluded)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static boolean globalIgnores(final String name) {
+      if (name.startsWith("net.bytebuddy.")
+          || name.startsWith("jdk.")
+          || name.startsWith("org.aspectj.")
+          || name.startsWith("org.groovy.")
+          || name.startsWith("org.codehaus.groovy.macro.")
+          || name.startsWith("com.intellij.rt.debugger.")
+          || name.startsWith("com.p6spy.")
+          || name.startsWith("com.newrelic.")
+          || name.startsWith("com.dynatrace.")
+          || name.startsWith("com.jloadtrace.")
+          || name.startsWith("com.appdynamics.")
+          || name.startsWith("com.singularity.")
+          || name.startsWith("com.jinspired.")
+          || name.startsWith("org.jinspired.")
+          || name.startsWith("org.springframework.cglib.")) {
+        return true;
+      }
+
+      if (name.startsWith("io.opentelemetry.auto.")) {
+        return !name.equals(
+                "io.opentelemetry.auto.bootstrap.instrumentation.java.concurrent.RunnableWrapper")
+            && !name.equals(
+                "io.opentelemetry.auto.bootstrap.instrumentation.java.concurrent.CallableWrapper");
+      }
+
+      if (name.startsWith("java.")) {
+        if (name.equals("java.net.URL") || name.equals("java.net.HttpURLConnection")) {
+          return false;
+        }
+        if (name.startsWith("java.rmi.") || name.startsWith("java.util.concurrent.")) {
+          return false;
+        }
+        return !name.startsWith("java.util.logging.")
+            || name.equals("java.util.logging.LogManager$Cleaner");
+      }
+
+      if (name.startsWith("com.sun.")) {
+        return !name.startsWith("com.sun.messaging.")
+            && !name.startsWith("com.sun.jersey.api.client");
+      }
+
+      if (name.startsWith("sun.")) {
+        return !name.startsWith("sun.net.www.protocol.")
+            && !name.startsWith("sun.rmi.server")
+            && !name.startsWith("sun.rmi.transport")
+            && !name.equals("sun.net.www.http.HttpClient");
+      }
+
+      if (name.startsWith("org.slf4j.")) {
+        return !name.equals("org.slf4j.MDC");
+      }
+
+      if (name.contains("$JaxbAccessor")
+          || name.contains("CGLIB$$")
+          || name.contains("javassist")
+          || name.contains(".asm.")
+          || name.contains("$__sisu")) {
+        return true;
+      }
+
+      return COM_MCHANGE_PROXY.matcher(name).matches();
+    }
+  }
+}
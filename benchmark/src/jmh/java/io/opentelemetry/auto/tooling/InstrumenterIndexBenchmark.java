@@ -0,0 +1,121 @@
+package io.opentelemetry.auto.tooling;
+
+import static io.opentelemetry.auto.tooling.ByteBuddyElementMatchers.safeHasInterface;
+import static io.opentelemetry.auto.tooling.ByteBuddyElementMatchers.safeHasSuperType;
+import static net.bytebuddy.matcher.ElementMatchers.isInterface;
+import static net.bytebuddy.matcher.ElementMatchers.nameStartsWith;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.not;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-class cost of finding the instrumentations which match a type, with matchers shaped like the
+ * ones of the instrumentation modules: exact names, name prefixes and super types.
+ *
+ * <p>{@code sequential} runs every matcher against every type, as the agent builder did before
+ * the index. {@code indexed} only runs the matchers the {@link InstrumenterIndex} reports as
+ * candidates. Descriptions are reused between invocations, so both pay the same, cached, super type
+ * resolution and the difference is the matching itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InstrumenterIndexBenchmark {
+  private static final Class<?>[] TYPES = {
+    Object.class,
+    String.class,
+    Thread.class,
+    java.util.ArrayList.class,
+    java.util.HashMap.class,
+    java.util.LinkedList.class,
+    java.util.TreeMap.class,
+    java.util.concurrent.ConcurrentHashMap.class,
+    java.util.concurrent.ThreadPoolExecutor.class,
+    java.util.concurrent.FutureTask.class,
+    java.util.concurrent.ForkJoinPool.class,
+    java.io.BufferedReader.class,
+    java.io.ByteArrayOutputStream.class,
+    java.net.URLClassLoader.class,
+    java.net.HttpURLConnection.class,
+    java.nio.ByteBuffer.class,
+    java.sql.Timestamp.class,
+    java.lang.reflect.Method.class,
+    java.text.SimpleDateFormat.class,
+    java.util.logging.Logger.class,
+  };
+
+  /** Number of each kind of matcher, about the size of the instrumentation modules today. */
+  @Param({"50"})
+  public int matchersPerKind;
+
+  private final List<ElementMatcher<TypeDescription>> matchers = new ArrayList<>();
+  private final List<TypeDescription> types = new ArrayList<>();
+  private InstrumenterIndex index;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    index = new InstrumenterIndex();
+    for (int i = 0; i < matchersPerKind; i++) {
+      add(named("com.example.library" + i + ".Client"));
+      add(nameStartsWith("com.example.framework" + i + "."));
+      add(not(isInterface()).and(safeHasInterface(named("com.example.api" + i + ".Handler"))));
+    }
+    // a few which match the types below
+    add(named("java.net.HttpURLConnection"));
+    add(nameStartsWith("java.util.concurrent."));
+    add(not(isInterface()).and(safeHasInterface(named("java.lang.Runnable"))));
+    add(safeHasSuperType(named("java.lang.ClassLoader")));
+
+    for (final Class<?> type : TYPES) {
+      final TypeDescription description = new TypeDescription.ForLoadedType(type);
+      SuperTypeCache.superTypes(type.getClassLoader(), description);
+      types.add(description);
+    }
+  }
+
+  private void add(final ElementMatcher<TypeDescription> matcher) {
+    matchers.add(matcher);
+    index.register(matcher);
+  }
+
+  @Benchmark
+  public void sequential(final Blackhole blackhole) {
+    for (final TypeDescription type : types) {
+      for (int slot = 0; slot < matchers.size(); slot++) {
+        blackhole.consume(matchers.get(slot).matches(type));
+      }
+    }
+  }
+
+  @Benchmark
+  public void indexed(final Blackhole blackhole) {
+    for (final TypeDescription type : types) {
+      for (int slot = 0; slot < matchers.size(); slot++) {
+        // the types are all loaded by the bootstrap class loader
+        blackhole.consume(
+            index.isCandidate(slot, type, null) && matchers.get(slot).matches(type));
+      }
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package io.opentelemetry.benchmark;
+
+import io.opentelemetry.OpenTelemetry;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * 64 threads submitting new tasks to a shared executor while a span is active, so that the
+ * executor instrumentation attaches a state to every task through its context store.
+ *
+ * <p>{@code field} tasks are loaded after the agent and get an injected field, {@code map} tasks
+ * are {@link FutureTask}s, which are loaded before the agent and fall back to the context store's
+ * weak map - the path that used to lock the whole map for every task.
+ *
+ * <p>Only meaningful when run through {@link WithAgent}; the base class gives the uninstrumented
+ * cost of the executor itself.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(64)
+public class ExecutorContentionBenchmark {
+  private static final Tracer TRACER = OpenTelemetry.getTracerFactory().get("benchmark");
+
+  @Param({"field", "map"})
+  public String task;
+
+  private final AtomicLong executed = new AtomicLong();
+  private ThreadPoolExecutor executor;
+
+  @Setup
+  public void setUp() {
+    // a bounded queue so producers can't outrun the workers, which then run the task themselves
+    executor =
+        new ThreadPoolExecutor(
+            8,
+            8,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(1024),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  public void submit(final ActiveSpan activeSpan) {
+    final Runnable runnable = new CountingTask(executed);
+    final Runnable submitted = "map".equals(task) ? new FutureTask<Void>(runnable, null) : runnable;
+    try (final Scope scope = TRACER.withSpan(activeSpan.span)) {
+      executor.execute(submitted);
+    }
+  }
+
+  @State(org.openjdk.jmh.annotations.Scope.Thread)
+  public static class ActiveSpan {
+    Span span;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      span = TRACER.spanBuilder("submitter").startSpan();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      span.end();
+    }
+  }
+
+  static final class CountingTask implements Runnable {
+    private final AtomicLong executed;
+
+    CountingTask(final AtomicLong executed) {
+      this.executed = executed;
+    }
+
+    @Override
+    public void run() {
+      executed.incrementAndGet();
+    }
+  }
+
+  @Fork(jvmArgsAppend = BenchmarkAgent.JVM_ARG)
+  public static class WithAgent extends ExecutorContentionBenchmark {}
+}
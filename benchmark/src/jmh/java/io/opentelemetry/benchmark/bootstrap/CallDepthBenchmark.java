@@ -0,0 +1,76 @@
+package io.opentelemetry.benchmark.bootstrap;
+
+import io.opentelemetry.auto.bootstrap.CallDepthThreadLocalMap;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Compares {@link CallDepthThreadLocalMap} against the previous {@code HashMap<Object, Integer>}
+ * implementation for the enter/nested enter/exit pattern used by the JDBC statement advice.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(1)
+public class CallDepthBenchmark {
+
+  @Benchmark
+  public int classSlots() {
+    final int outer = CallDepthThreadLocalMap.incrementCallDepth(Statement.class);
+    final int inner = CallDepthThreadLocalMap.incrementCallDepth(Statement.class);
+    final int other = CallDepthThreadLocalMap.incrementCallDepth(PreparedStatement.class);
+    CallDepthThreadLocalMap.reset(PreparedStatement.class);
+    CallDepthThreadLocalMap.reset(Statement.class);
+    return outer + inner + other;
+  }
+
+  @Benchmark
+  public int hashMap() {
+    final int outer = HashMapCallDepth.incrementCallDepth(Statement.class);
+    final int inner = HashMapCallDepth.incrementCallDepth(Statement.class);
+    final int other = HashMapCallDepth.incrementCallDepth(PreparedStatement.class);
+    HashMapCallDepth.reset(PreparedStatement.class);
+    HashMapCallDepth.reset(Statement.class);
+    return outer + inner + other;
+  }
+
+  @Threads(8)
+  public static class EightThreads extends CallDepthBenchmark {}
+
+  @Threads(64)
+  public static class SixtyFourThreads extends CallDepthBenchmark {}
+
+  /** The implementation {@link CallDepthThreadLocalMap} replaced, kept here as a baseline. */
+  static class HashMapCallDepth {
+    private static final ThreadLocal<Map<Object, Integer>> TLS =
+        new ThreadLocal<Map<Object, Integer>>() {
+          @Override
+          public Map<Object, Integer> initialValue() {
+            return new HashMap<>();
+          }
+        };
+
+    static int incrementCallDepth(final Object k) {
+      final Map<Object, Integer> map = TLS.get();
+      Integer depth = map.get(k);
+      if (depth == null) {
+        depth = 0;
+      } else {
+        depth += 1;
+      }
+      map.put(k, depth);
+      return depth;
+    }
+
+    static void reset(final Object k) {
+      TLS.get().remove(k);
+    }
+  }
+}
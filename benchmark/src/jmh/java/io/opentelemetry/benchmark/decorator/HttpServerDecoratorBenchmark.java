@@ -0,0 +1,252 @@
+package io.opentelemetry.benchmark.decorator;
+
+import io.opentelemetry.auto.decorator.HttpServerDecorator;
+import io.opentelemetry.auto.decorator.RequestUrl;
+import io.opentelemetry.trace.Span;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares tagging the request URL from the raw request values ({@link RequestUrl}) against
+ * building a {@link URI} per request, for a netty style request (request target and {@code Host}
+ * header) and a servlet style request (scheme, server name, port, request URI and query string).
+ * Also compares the peer address classification against the regular expression it replaced.
+ *
+ * <p>Run with {@code -prof gc} to see the allocation rate per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HttpServerDecoratorBenchmark {
+  private static final Pattern VALID_IPV4_ADDRESS =
+      Pattern.compile(
+          "^(([0-9]|[1-9][0-9]|1[0-9]{2}|2[0-4][0-9]|25[0-5])\\.){3}([0-9]|[1-9][0-9]|1[0-9]{2}|2[0-4][0-9]|25[0-5])$");
+
+  private final NettyRequest nettyRequest =
+      new NettyRequest("GET", "/api/v1/orders/12345?include=items&sort=desc", "shop.example.com");
+  private final ServletRequest servletRequest =
+      new ServletRequest(
+          "GET", "http", "shop.example.com", 8080, "/api/v1/orders/12345", "include=items");
+  private final Connection ipv4Connection = new Connection("10.120.33.251", 52144);
+  private final Connection ipv6Connection =
+      new Connection("3ffe:1900:4545:3:200:f8ff:fe21:67cf", 52144);
+
+  private final NettyDecorator nettyUri = new NettyDecorator(false);
+  private final NettyDecorator nettyRaw = new NettyDecorator(true);
+  private final ServletDecorator servletUri = new ServletDecorator(false);
+  private final ServletDecorator servletRaw = new ServletDecorator(true);
+
+  private Span span;
+
+  @Setup
+  public void setUp() {
+    span =
+        (Span)
+            Proxy.newProxyInstance(
+                Span.class.getClassLoader(), new Class<?>[] {Span.class}, new AttributeSink());
+  }
+
+  @Benchmark
+  public Span nettyUri() {
+    return nettyUri.onRequest(span, nettyRequest);
+  }
+
+  @Benchmark
+  public Span nettyRaw() {
+    return nettyRaw.onRequest(span, nettyRequest);
+  }
+
+  @Benchmark
+  public Span servletUri() {
+    return servletUri.onRequest(span, servletRequest);
+  }
+
+  @Benchmark
+  public Span servletRaw() {
+    return servletRaw.onRequest(span, servletRequest);
+  }
+
+  @Benchmark
+  public Span connection() {
+    nettyRaw.onConnection(span, ipv4Connection);
+    return nettyRaw.onConnection(span, ipv6Connection);
+  }
+
+  @Benchmark
+  public boolean connectionRegex() {
+    // the classification done by onConnection before
+    final boolean ipv4 = VALID_IPV4_ADDRESS.matcher(ipv4Connection.ip).matches();
+    final boolean ipv6 = !VALID_IPV4_ADDRESS.matcher(ipv6Connection.ip).matches();
+    return ipv4 && ipv6 && ipv6Connection.ip.contains(":");
+  }
+
+  /** Keeps the attributes so building them can't be optimized away. */
+  static final class AttributeSink implements InvocationHandler {
+    volatile Object[] last;
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+      if (method.getName().equals("isRecording")) {
+        return true;
+      }
+      last = args;
+      return null;
+    }
+  }
+
+  static final class NettyRequest {
+    final String method;
+    final String uri;
+    final String host;
+
+    NettyRequest(final String method, final String uri, final String host) {
+      this.method = method;
+      this.uri = uri;
+      this.host = host;
+    }
+  }
+
+  static final class ServletRequest {
+    final String method;
+    final String scheme;
+    final String serverName;
+    final int serverPort;
+    final String requestUri;
+    final String queryString;
+
+    ServletRequest(
+        final String method,
+        final String scheme,
+        final String serverName,
+        final int serverPort,
+        final String requestUri,
+        final String queryString) {
+      this.method = method;
+      this.scheme = scheme;
+      this.serverName = serverName;
+      this.serverPort = serverPort;
+      this.requestUri = requestUri;
+      this.queryString = queryString;
+    }
+  }
+
+  static final class Connection {
+    final String ip;
+    final int port;
+
+    Connection(final String ip, final int port) {
+      this.ip = ip;
+      this.port = port;
+    }
+  }
+
+  abstract static class BenchmarkDecorator<REQUEST>
+      extends HttpServerDecorator<REQUEST, Connection, Object> {
+    final boolean raw;
+
+    BenchmarkDecorator(final boolean raw) {
+      this.raw = raw;
+    }
+
+    @Override
+    protected String getComponentName() {
+      return "benchmark";
+    }
+
+    @Override
+    protected String peerHostIP(final Connection connection) {
+      return connection.ip;
+    }
+
+    @Override
+    protected Integer peerPort(final Connection connection) {
+      return connection.port;
+    }
+
+    @Override
+    protected Integer status(final Object response) {
+      return response instanceof Integer ? (Integer) response : 200;
+    }
+  }
+
+  /** Mirrors the netty server decorators. */
+  static final class NettyDecorator extends BenchmarkDecorator<NettyRequest> {
+    NettyDecorator(final boolean raw) {
+      super(raw);
+    }
+
+    @Override
+    protected String method(final NettyRequest request) {
+      return request.method;
+    }
+
+    @Override
+    protected URI url(final NettyRequest request) throws URISyntaxException {
+      final URI uri = new URI(request.uri);
+      if ((uri.getHost() == null || uri.getHost().equals("")) && request.host != null) {
+        return new URI("http://" + request.host + request.uri);
+      } else {
+        return uri;
+      }
+    }
+
+    @Override
+    protected boolean requestUrl(final NettyRequest request, final RequestUrl url) {
+      if (!raw) {
+        return false;
+      }
+      url.target(request.uri);
+      if (request.host != null) {
+        url.scheme("http").authority(request.host);
+      }
+      return true;
+    }
+  }
+
+  /** Mirrors the servlet server decorators. */
+  static final class ServletDecorator extends BenchmarkDecorator<ServletRequest> {
+    ServletDecorator(final boolean raw) {
+      super(raw);
+    }
+
+    @Override
+    protected String method(final ServletRequest request) {
+      return request.method;
+    }
+
+    @Override
+    protected URI url(final ServletRequest request) throws URISyntaxException {
+      return new URI(
+          request.scheme,
+          null,
+          request.serverName,
+          request.serverPort,
+          request.requestUri,
+          request.queryString,
+          null);
+    }
+
+    @Override
+    protected boolean requestUrl(final ServletRequest request, final RequestUrl url) {
+      if (!raw) {
+        return false;
+      }
+      url.scheme(request.scheme)
+          .host(request.serverName, request.serverPort)
+          .path(request.requestUri, request.queryString);
+      return true;
+    }
+  }
+}
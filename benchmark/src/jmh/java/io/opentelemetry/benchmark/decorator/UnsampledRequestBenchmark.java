@@ -0,0 +1,125 @@
+package io.opentelemetry.benchmark.decorator;
+
+import io.opentelemetry.auto.instrumentation.servlet3.Servlet3Decorator;
+import io.opentelemetry.trace.Span;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link Servlet3Decorator} work done for a servlet request on a span that is recording and on one
+ * that isn't.
+ *
+ * <p>Both spans discard their attributes, so {@code recording=true} is also what an unsampled
+ * request cost before the decorators checked {@link Span#isRecording()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UnsampledRequestBenchmark {
+
+  @Param({"true", "false"})
+  public boolean recording;
+
+  private final HttpServletRequest request = servletRequest();
+  private final HttpServletResponse ok = servletResponse(200);
+  private final HttpServletResponse serverError = servletResponse(500);
+  private final Exception error = new IllegalStateException("boom");
+  private final Servlet3Decorator decorator = Servlet3Decorator.DECORATE;
+
+  private Span span;
+
+  @Setup
+  public void setUp() {
+    span =
+        (Span)
+            Proxy.newProxyInstance(
+                Span.class.getClassLoader(), new Class<?>[] {Span.class}, new Sink(recording));
+  }
+
+  @Benchmark
+  public Span request() {
+    decorator.afterStart(span);
+    decorator.onConnection(span, request);
+    decorator.onRequest(span, request);
+    decorator.onResponse(span, ok);
+    return decorator.beforeFinish(span);
+  }
+
+  @Benchmark
+  public Span failedRequest() {
+    decorator.afterStart(span);
+    decorator.onConnection(span, request);
+    decorator.onRequest(span, request);
+    decorator.onError(span, error);
+    decorator.onResponse(span, serverError);
+    return decorator.beforeFinish(span);
+  }
+
+  private static HttpServletRequest servletRequest() {
+    final Map<String, Object> values = new HashMap<>();
+    values.put("getMethod", "GET");
+    values.put("getScheme", "http");
+    values.put("getServerName", "shop.example.com");
+    values.put("getServerPort", 8080);
+    values.put("getRequestURI", "/shop/api/v1/orders/12345");
+    values.put("getQueryString", "include=items");
+    values.put("getContextPath", "/shop");
+    values.put("getServletPath", "/api");
+    values.put("getRemoteAddr", "10.120.33.251");
+    values.put("getRemotePort", 52144);
+    return fake(HttpServletRequest.class, values);
+  }
+
+  private static HttpServletResponse servletResponse(final int status) {
+    return fake(
+        HttpServletResponse.class, Collections.<String, Object>singletonMap("getStatus", status));
+  }
+
+  /** @return a T answering the getters in values and null otherwise. */
+  private static <T> T fake(final Class<T> type, final Map<String, Object> values) {
+    return type.cast(
+        Proxy.newProxyInstance(
+            type.getClassLoader(),
+            new Class<?>[] {type},
+            new InvocationHandler() {
+              @Override
+              public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                return values.get(method.getName());
+              }
+            }));
+  }
+
+  /** Discards everything but keeps the last arguments so they can't be optimized away. */
+  static final class Sink implements InvocationHandler {
+    private final boolean recording;
+    volatile Object[] last;
+
+    Sink(final boolean recording) {
+      this.recording = recording;
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+      if (method.getName().equals("isRecording")) {
+        return recording;
+      }
+      last = args;
+      return null;
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package io.opentelemetry.benchmark.overhead;
+
+import io.opentelemetry.OpenTelemetry;
+import io.opentelemetry.benchmark.BenchmarkAgent;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A task submitted to an executor and waited for, while a span is active so that the agent
+ * propagates it to the task. See {@link io.opentelemetry.benchmark.ExecutorContentionBenchmark}
+ * for many threads submitting at once.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExecutorBenchmark {
+  private static final Tracer TRACER = OpenTelemetry.getTracerFactory().get("benchmark");
+
+  private final Callable<Integer> task =
+      new Callable<Integer>() {
+        @Override
+        public Integer call() {
+          return 42;
+        }
+      };
+
+  private ExecutorService executor;
+  private Span span;
+
+  @Setup
+  public void setUp() {
+    executor = Executors.newSingleThreadExecutor();
+    span = TRACER.spanBuilder("submitter").startSpan();
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    span.end();
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  public Integer submit() throws ExecutionException, InterruptedException {
+    try (final Scope scope = TRACER.withSpan(span)) {
+      return executor.submit(task).get();
+    }
+  }
+
+  @Fork(jvmArgsAppend = BenchmarkAgent.JVM_ARG)
+  public static class WithAgent extends ExecutorBenchmark {}
+}
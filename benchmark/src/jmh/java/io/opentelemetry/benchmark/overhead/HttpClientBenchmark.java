@@ -0,0 +1,78 @@
+package io.opentelemetry.benchmark.overhead;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import io.opentelemetry.benchmark.BenchmarkAgent;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A request made with {@link HttpURLConnection}, over a kept-alive connection to a local server
+ * which isn't instrumented, so only the client side is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HttpClientBenchmark {
+  private static final byte[] BODY = "Hello world".getBytes(US_ASCII);
+
+  private HttpServer server;
+  private URL url;
+
+  @Setup
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext(
+        "/hello",
+        new HttpHandler() {
+          @Override
+          public void handle(final HttpExchange exchange) throws IOException {
+            exchange.sendResponseHeaders(200, BODY.length);
+            try (final OutputStream body = exchange.getResponseBody()) {
+              body.write(BODY);
+            }
+          }
+        });
+    server.start();
+    url = new URL("http://localhost:" + server.getAddress().getPort() + "/hello");
+  }
+
+  @TearDown
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  @Benchmark
+  public int request() throws IOException {
+    final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    // read to the end, so that the connection goes back to the keep-alive cache
+    int read = 0;
+    try (final InputStream body = connection.getInputStream()) {
+      while (body.read() != -1) {
+        read++;
+      }
+    }
+    return connection.getResponseCode() + read;
+  }
+
+  @Fork(jvmArgsAppend = BenchmarkAgent.JVM_ARG)
+  public static class WithAgent extends HttpClientBenchmark {}
+}
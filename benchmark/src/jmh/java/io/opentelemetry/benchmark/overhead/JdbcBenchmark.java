@@ -0,0 +1,76 @@
+package io.opentelemetry.benchmark.overhead;
+
+import io.opentelemetry.benchmark.BenchmarkAgent;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/** A query by primary key, and the same query through a plain statement, on in-memory H2. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JdbcBenchmark {
+  private static final String QUERY = "SELECT name FROM customer WHERE id = ";
+
+  private Connection connection;
+  private PreparedStatement preparedStatement;
+  private int id = 0;
+
+  @Setup
+  public void setUp() throws SQLException {
+    // one database per thread
+    connection =
+        DriverManager.getConnection(
+            "jdbc:h2:mem:benchmark" + Thread.currentThread().getId(), "sa", "");
+    try (final Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE customer (id INT PRIMARY KEY, name VARCHAR(64))");
+      for (int i = 0; i < 100; i++) {
+        statement.execute("INSERT INTO customer VALUES (" + i + ", 'customer " + i + "')");
+      }
+    }
+    preparedStatement = connection.prepareStatement(QUERY + "?");
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    preparedStatement.close();
+    connection.close();
+  }
+
+  @Benchmark
+  public String preparedQuery() throws SQLException {
+    preparedStatement.setInt(1, nextId());
+    try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+      return resultSet.next() ? resultSet.getString(1) : null;
+    }
+  }
+
+  @Benchmark
+  public String query() throws SQLException {
+    try (final Statement statement = connection.createStatement();
+        final ResultSet resultSet = statement.executeQuery(QUERY + nextId())) {
+      return resultSet.next() ? resultSet.getString(1) : null;
+    }
+  }
+
+  private int nextId() {
+    id = (id + 1) % 100;
+    return id;
+  }
+
+  @Fork(jvmArgsAppend = BenchmarkAgent.JVM_ARG)
+  public static class WithAgent extends JdbcBenchmark {}
+}
@@ -0,0 +1,95 @@
+package io.opentelemetry.benchmark.overhead;
+
+import io.opentelemetry.OpenTelemetry;
+import io.opentelemetry.benchmark.BenchmarkAgent;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * A record sent with a {@link KafkaProducer}, which is what the agent instruments, to a stub
+ * broker: a local socket which never answers. The producer doesn't wait for metadata, so every send
+ * fails fast and completes its callback on the calling thread. That is the whole instrumented path
+ * (span, header injection, callback wrapping) without a broker.
+ *
+ * <p>{@code sendUnderSpan} sends records by the hundred under the same span, as a service fanning a
+ * request out does, which is where the trace context headers of the records share the most.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KafkaProducerBenchmark {
+  private static final Callback CALLBACK =
+      new Callback() {
+        @Override
+        public void onCompletion(final RecordMetadata metadata, final Exception exception) {}
+      };
+
+  private static final int FANOUT = 100;
+
+  private static final Tracer TRACER = OpenTelemetry.getTracerFactory().get("benchmark");
+
+  private ServerSocket broker;
+  private Producer<String, String> producer;
+
+  @Setup
+  public void setUp() throws IOException {
+    broker = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    final Map<String, Object> config = new HashMap<>();
+    config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:" + broker.getLocalPort());
+    config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 0);
+    producer = new KafkaProducer<>(config, new StringSerializer(), new StringSerializer());
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    producer.close(0, TimeUnit.MILLISECONDS);
+    broker.close();
+  }
+
+  @Benchmark
+  public Future<RecordMetadata> send() {
+    return producer.send(new ProducerRecord<>("benchmark", "key", "value"), CALLBACK);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(FANOUT)
+  public void sendUnderSpan(final Blackhole blackhole) {
+    final Span span = TRACER.spanBuilder("fanout").startSpan();
+    try (final io.opentelemetry.context.Scope scope = TRACER.withSpan(span)) {
+      for (int i = 0; i < FANOUT; i++) {
+        blackhole.consume(
+            producer.send(new ProducerRecord<>("benchmark", "key", "value"), CALLBACK));
+      }
+    } finally {
+      span.end();
+    }
+  }
+
+  @Fork(jvmArgsAppend = BenchmarkAgent.JVM_ARG)
+  public static class WithAgent extends KafkaProducerBenchmark {}
+}
@@ -0,0 +1,85 @@
+package io.opentelemetry.benchmark.overhead;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.ReferenceCountUtil;
+import io.opentelemetry.benchmark.BenchmarkAgent;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A request through a Netty HTTP server pipeline, on an embedded channel so that no socket or
+ * event loop is involved. The agent adds its handlers when the codec is added to the pipeline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NettyServerBenchmark {
+  private static final byte[] REQUEST =
+      "GET /hello HTTP/1.1\r\nHost: localhost\r\nConnection: keep-alive\r\n\r\n".getBytes(US_ASCII);
+  private static final byte[] BODY = "Hello world".getBytes(US_ASCII);
+
+  private EmbeddedChannel channel;
+
+  @Setup
+  public void setUp() {
+    channel =
+        new EmbeddedChannel(
+            new HttpServerCodec(), new HttpObjectAggregator(1024), new HelloHandler());
+  }
+
+  @TearDown
+  public void tearDown() {
+    channel.finish();
+  }
+
+  @Benchmark
+  public int request() {
+    channel.writeInbound(Unpooled.wrappedBuffer(REQUEST));
+    int written = 0;
+    Object response;
+    while ((response = channel.readOutbound()) != null) {
+      if (response instanceof ByteBuf) {
+        written += ((ByteBuf) response).readableBytes();
+      }
+      ReferenceCountUtil.release(response);
+    }
+    return written;
+  }
+
+  static final class HelloHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+    @Override
+    protected void channelRead0(final ChannelHandlerContext ctx, final FullHttpRequest request) {
+      final FullHttpResponse response =
+          new DefaultFullHttpResponse(
+              HttpVersion.HTTP_1_1, HttpResponseStatus.OK, Unpooled.wrappedBuffer(BODY));
+      response.headers().set(HttpHeaderNames.CONTENT_TYPE, "text/plain");
+      response.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, BODY.length);
+      ctx.writeAndFlush(response);
+    }
+  }
+
+  @Fork(jvmArgsAppend = BenchmarkAgent.JVM_ARG)
+  public static class WithAgent extends NettyServerBenchmark {}
+}
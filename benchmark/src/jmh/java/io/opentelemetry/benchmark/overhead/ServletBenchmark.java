@@ -0,0 +1,68 @@
+package io.opentelemetry.benchmark.overhead;
+
+import io.opentelemetry.benchmark.BenchmarkAgent;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A request to a servlet in Jetty, through Jetty's in-memory connector so that no socket is
+ * involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ServletBenchmark {
+  private static final String REQUEST =
+      "GET /hello?name=world HTTP/1.1\r\nHost: localhost\r\nConnection: keep-alive\r\n\r\n";
+
+  private Server server;
+  private LocalConnector connector;
+
+  @Setup
+  public void setUp() throws Exception {
+    server = new Server();
+    connector = new LocalConnector(server);
+    server.addConnector(connector);
+    final ServletContextHandler handler = new ServletContextHandler();
+    handler.addServlet(HelloServlet.class, "/hello");
+    server.setHandler(handler);
+    server.start();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    server.stop();
+  }
+
+  @Benchmark
+  public String request() throws Exception {
+    return connector.getResponse(REQUEST);
+  }
+
+  public static class HelloServlet extends HttpServlet {
+    @Override
+    protected void doGet(final HttpServletRequest request, final HttpServletResponse response)
+        throws IOException {
+      response.setContentType("text/plain");
+      response.getWriter().write("Hello " + request.getParameter("name"));
+    }
+  }
+
+  @Fork(jvmArgsAppend = BenchmarkAgent.JVM_ARG)
+  public static class WithAgent extends ServletBenchmark {}
+}
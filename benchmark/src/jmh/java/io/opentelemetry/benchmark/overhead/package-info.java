@@ -0,0 +1,12 @@
+/**
+ * Latency of single calls through instrumented libraries, each benchmark running without the
+ * agent and, through its {@code WithAgent} subclass, with it.
+ *
+ * <p>The {@code WithAgent} forks load the agent jar built by {@code :opentelemetry-auto:shadowJar},
+ * see {@code BenchmarkAgent}. Add the gc profiler for the allocation per call:
+ *
+ * <pre>
+ * ./gradlew :benchmark:jmh -PjmhIncludes='.*overhead.*' -PjmhProfilers=gc
+ * </pre>
+ */
+package io.opentelemetry.benchmark.overhead;
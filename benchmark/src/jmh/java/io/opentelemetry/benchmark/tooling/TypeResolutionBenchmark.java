@@ -0,0 +1,134 @@
+package io.opentelemetry.benchmark.tooling;
+
+import io.opentelemetry.auto.tooling.AgentCachingPoolStrategy;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import net.bytebuddy.description.type.TypeDefinition;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.pool.TypePool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Simulates the type matching done while an application starts: every class of the jars on the
+ * classpath is described through a fresh {@link AgentCachingPoolStrategy} from several class
+ * loaders, walking its super class and interfaces the way the instrumentation matchers do.
+ *
+ * <p>Each measurement is a single cold pass, so the result is the startup cost for the given
+ * resolution cache capacity ({@code minCapacity == maxCapacity} disables adaptive sizing).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class TypeResolutionBenchmark {
+  private static final int MAX_CORPUS_SIZE = 5000;
+
+  @Param({"64-64", "1024-1024", "8192-8192", "256-8192"})
+  public String capacity;
+
+  @Param({"8"})
+  public int classLoaders;
+
+  private final List<String> corpus = new ArrayList<>();
+  private final List<ClassLoader> loaders = new ArrayList<>();
+  private final List<ClassFileLocator> locators = new ArrayList<>();
+  private AgentCachingPoolStrategy poolStrategy;
+
+  @Setup(Level.Trial)
+  public void loadCorpus() throws IOException {
+    final List<URL> urls = new ArrayList<>();
+    for (final String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+      final File file = new File(path);
+      if (!file.getName().endsWith(".jar")) {
+        continue;
+      }
+      urls.add(file.toURI().toURL());
+      try (final JarFile jar = new JarFile(file)) {
+        final Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements() && corpus.size() < MAX_CORPUS_SIZE) {
+          final String name = entries.nextElement().getName();
+          if (name.endsWith(".class") && !name.contains("-")) {
+            corpus.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+          }
+        }
+      }
+    }
+    for (int i = 0; i < classLoaders; i++) {
+      final ClassLoader loader = new URLClassLoader(urls.toArray(new URL[0]), null);
+      loaders.add(loader);
+      locators.add(ClassFileLocator.ForClassLoader.of(loader));
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void newPoolStrategy() {
+    final String[] bounds = capacity.split("-");
+    poolStrategy =
+        new AgentCachingPoolStrategy(0, Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]));
+  }
+
+  @TearDown(Level.Trial)
+  public void report() {
+    System.out.println(
+        "\ncapacity "
+            + poolStrategy.getCapacity()
+            + ", hits "
+            + poolStrategy.getHitCount()
+            + ", misses "
+            + poolStrategy.getMissCount()
+            + ", evictions "
+            + poolStrategy.getEvictionCount());
+  }
+
+  @Benchmark
+  public int describeAll() {
+    int resolved = 0;
+    for (int i = 0; i < loaders.size(); i++) {
+      final ClassLoader loader = loaders.get(i);
+      final ClassFileLocator locator = locators.get(i);
+      for (final String name : corpus) {
+        final TypePool.Resolution resolution =
+            poolStrategy.typePool(locator, loader).describe(name);
+        if (resolution.isResolved()) {
+          resolved += walkHierarchy(resolution.resolve());
+        }
+      }
+    }
+    return resolved;
+  }
+
+  private static int walkHierarchy(final TypeDescription type) {
+    int count = 0;
+    try {
+      TypeDefinition current = type;
+      while (current != null) {
+        count += current.getInterfaces().asErasures().size();
+        current = current.getSuperClass();
+      }
+    } catch (final RuntimeException e) {
+      // missing dependencies of the corpus, same as when matching real applications
+    }
+    return count;
+  }
+}
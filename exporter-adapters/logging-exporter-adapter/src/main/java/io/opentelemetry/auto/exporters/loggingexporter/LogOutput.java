@@ -0,0 +1,25 @@
+package io.opentelemetry.auto.exporters.loggingexporter;
+
+import java.io.IOException;
+
+/** Where {@link LoggingExporter} writes the rendered spans, one call per exported batch. */
+interface LogOutput {
+
+  LogOutput STDOUT =
+      new LogOutput() {
+        @Override
+        public void write(final CharSequence chars) {
+          // PrintStream takes its lock once for the whole string
+          System.out.print(chars.toString());
+        }
+
+        @Override
+        public void close() {
+          System.out.flush();
+        }
+      };
+
+  void write(CharSequence chars) throws IOException;
+
+  void close() throws IOException;
+}
@@ -3,45 +3,96 @@ package io.opentelemetry.auto.exporters.loggingexporter;
 import io.opentelemetry.sdk.trace.SpanData;
 import io.opentelemetry.sdk.trace.export.SpanExporter;
 import io.opentelemetry.trace.AttributeValue;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Prints one line per span with its name, id and attributes.
+ *
+ * <p>A batch is rendered into a buffer owned by the exporting thread and handed to the output in
+ * a single write, so concurrent exporters only contend once per batch instead of once per token.
+ */
 public class LoggingExporter implements SpanExporter {
+  // Don't hold on to the buffer of an unusually large batch.
+  private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+
   private final String prefix;
+  private final LogOutput output;
+
+  private final ThreadLocal<StringBuilder> buffers =
+      new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+          return new StringBuilder(1024);
+        }
+      };
 
   public LoggingExporter(final String prefix) {
+    this(prefix, LogOutput.STDOUT);
+  }
+
+  LoggingExporter(final String prefix, final LogOutput output) {
     this.prefix = prefix;
+    this.output = output;
   }
 
   @Override
   public ResultCode export(final List<SpanData> list) {
+    StringBuilder buffer = buffers.get();
+    if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+      buffer = new StringBuilder(1024);
+      buffers.set(buffer);
+    }
+    buffer.setLength(0);
     for (final SpanData span : list) {
-      System.out.print(
-          prefix + " " + span.getName() + " " + span.getSpanId().toLowerBase16() + " ");
-      for (final Map.Entry<String, AttributeValue> attr : span.getAttributes().entrySet()) {
-        System.out.print(attr.getKey() + "=");
-        final AttributeValue value = attr.getValue();
-        switch (value.getType()) {
-          case STRING:
-            System.out.print('"' + value.getStringValue() + '"');
-            break;
-          case BOOLEAN:
-            System.out.print(value.getBooleanValue());
-            break;
-          case LONG:
-            System.out.print(value.getLongValue());
-            break;
-          case DOUBLE:
-            System.out.print(value.getDoubleValue());
-            break;
-        }
-        System.out.print(" ");
+      render(span, buffer);
+    }
+    try {
+      output.write(buffer);
+      return ResultCode.SUCCESS;
+    } catch (final IOException e) {
+      return ResultCode.FAILED_NOT_RETRYABLE;
+    }
+  }
+
+  private void render(final SpanData span, final StringBuilder buffer) {
+    buffer
+        .append(prefix)
+        .append(' ')
+        .append(span.getName())
+        .append(' ')
+        .append(span.getSpanId().toLowerBase16())
+        .append(' ');
+    for (final Map.Entry<String, AttributeValue> attr : span.getAttributes().entrySet()) {
+      buffer.append(attr.getKey()).append('=');
+      final AttributeValue value = attr.getValue();
+      switch (value.getType()) {
+        case STRING:
+          buffer.append('"').append(value.getStringValue()).append('"');
+          break;
+        case BOOLEAN:
+          buffer.append(value.getBooleanValue());
+          break;
+        case LONG:
+          buffer.append(value.getLongValue());
+          break;
+        case DOUBLE:
+          buffer.append(value.getDoubleValue());
+          break;
       }
+      buffer.append(' ');
     }
-    System.out.println();
-    return ResultCode.SUCCESS;
+    buffer.append(LINE_SEPARATOR);
   }
 
   @Override
-  public void shutdown() {}
+  public void shutdown() {
+    try {
+      output.close();
+    } catch (final IOException e) {
+      // nothing left to do with the output
+    }
+  }
 }
@@ -3,10 +3,30 @@ package io.opentelemetry.auto.exporters.loggingexporter;
 import io.opentelemetry.auto.exportersupport.ConfigProvider;
 import io.opentelemetry.auto.exportersupport.SpanExporterFactory;
 import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.File;
+import java.io.IOException;
 
 public class LoggingExporterFactory implements SpanExporterFactory {
+  private static final long DEFAULT_MAX_FILE_SIZE = 10 * 1024 * 1024;
+  private static final int DEFAULT_MAX_BACKUPS = 5;
+
   @Override
   public SpanExporter fromConfig(final ConfigProvider config) {
-    return new LoggingExporter(config.getString("logging.prefix", "no-prefix"));
+    final String prefix = config.getString("logging.prefix", "no-prefix");
+    final String file = config.getString("logging.file", null);
+    if (file == null) {
+      return new LoggingExporter(prefix);
+    }
+    try {
+      return new LoggingExporter(
+          prefix,
+          new RotatingFileOutput(
+              new File(file),
+              config.getLong("logging.file.max.size", DEFAULT_MAX_FILE_SIZE),
+              config.getInt("logging.file.max.backups", DEFAULT_MAX_BACKUPS)));
+    } catch (final IOException e) {
+      System.err.println("Cannot open " + file + ", logging spans to stdout instead: " + e);
+      return new LoggingExporter(prefix);
+    }
   }
 }
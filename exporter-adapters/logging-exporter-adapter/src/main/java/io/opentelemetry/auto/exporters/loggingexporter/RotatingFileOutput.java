@@ -0,0 +1,125 @@
+package io.opentelemetry.auto.exporters.loggingexporter;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Appends to a file through its channel, encoding into a reused byte buffer.
+ *
+ * <p>Once the file grows past {@code maxFileSize} it is renamed to {@code <file>.1} (shifting older
+ * files up to {@code <file>.<maxBackups>}, the oldest being deleted) and a new file is started.
+ * Rotation happens between batches, so a file can exceed the limit by one batch.
+ */
+final class RotatingFileOutput implements LogOutput {
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final File file;
+  private final long maxFileSize;
+  private final int maxBackups;
+
+  private final CharsetEncoder encoder =
+      StandardCharsets.UTF_8
+          .newEncoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+
+  private FileChannel channel;
+  private long size;
+
+  RotatingFileOutput(final File file, final long maxFileSize, final int maxBackups)
+      throws IOException {
+    this.file = file;
+    this.maxFileSize = maxFileSize;
+    this.maxBackups = maxBackups;
+    open();
+  }
+
+  @Override
+  public synchronized void write(final CharSequence chars) throws IOException {
+    if (channel == null) {
+      throw new IOException(file + " is closed");
+    }
+    final CharBuffer in = CharBuffer.wrap(chars);
+    encoder.reset();
+    CoderResult result;
+    do {
+      result = encoder.encode(in, bytes, true);
+      if (result.isOverflow()) {
+        drain();
+      }
+    } while (result.isOverflow());
+    while (encoder.flush(bytes).isOverflow()) {
+      drain();
+    }
+    drain();
+
+    if (maxFileSize > 0 && size >= maxFileSize) {
+      rotate();
+    }
+  }
+
+  private void drain() throws IOException {
+    bytes.flip();
+    while (bytes.hasRemaining()) {
+      size += channel.write(bytes);
+    }
+    bytes.clear();
+  }
+
+  private void rotate() throws IOException {
+    channel.close();
+    channel = null;
+    try {
+      shiftBackups();
+    } finally {
+      // keep logging to the current file if it could not be moved away
+      open();
+    }
+  }
+
+  private void shiftBackups() throws IOException {
+    if (maxBackups > 0) {
+      final File oldest = backup(maxBackups);
+      if (oldest.exists() && !oldest.delete()) {
+        throw new IOException("Could not delete " + oldest);
+      }
+      for (int i = maxBackups - 1; i >= 1; i--) {
+        final File backup = backup(i);
+        if (backup.exists() && !backup.renameTo(backup(i + 1))) {
+          throw new IOException("Could not rename " + backup);
+        }
+      }
+      if (!file.renameTo(backup(1))) {
+        throw new IOException("Could not rename " + file);
+      }
+    } else if (!file.delete()) {
+      throw new IOException("Could not delete " + file);
+    }
+  }
+
+  private File backup(final int index) {
+    return new File(file.getPath() + "." + index);
+  }
+
+  private void open() throws IOException {
+    channel = new FileOutputStream(file, true).getChannel();
+    size = channel.size();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+      channel = null;
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package io.opentelemetry.auto.exporters.loggingexporter
+
+import io.opentelemetry.OpenTelemetry
+import io.opentelemetry.sdk.trace.ReadableSpan
+import io.opentelemetry.sdk.trace.SpanData
+import io.opentelemetry.sdk.trace.export.SpanExporter
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+class LoggingExporterTest extends Specification {
+
+  def dir = Files.createTempDirectory("logging-exporter").toFile()
+  def tracer = OpenTelemetry.getTracerFactory().get("test")
+
+  def cleanup() {
+    dir.deleteDir()
+  }
+
+  def "batch is written with one line per span"() {
+    setup:
+    def file = new File(dir, "spans.log")
+    def exporter = new LoggingExporter("LOGGED", new RotatingFileOutput(file, 0, 0))
+
+    when:
+    def result = exporter.export([spanData("first", ["a": "b"]), spanData("second", ["n": 1L])])
+    exporter.shutdown()
+
+    then:
+    result == SpanExporter.ResultCode.SUCCESS
+    def lines = file.readLines()
+    lines.size() == 2
+    lines[0].startsWith("LOGGED first ")
+    lines[0].endsWith(' a="b" ')
+    lines[1].startsWith("LOGGED second ")
+    lines[1].endsWith(" n=1 ")
+  }
+
+  def "file is rotated once it exceeds the maximum size"() {
+    setup:
+    def file = new File(dir, "spans.log")
+    def exporter = new LoggingExporter("LOGGED", new RotatingFileOutput(file, 50, 2))
+
+    when:
+    // two spans fill a file
+    (1..6).each { exporter.export([spanData("span-$it", [:])]) }
+    exporter.shutdown()
+
+    then:
+    file.length() == 0
+    new File(dir, "spans.log.1").readLines().collect { it.split(" ")[1] } == ["span-5", "span-6"]
+    new File(dir, "spans.log.2").readLines().collect { it.split(" ")[1] } == ["span-3", "span-4"]
+    !new File(dir, "spans.log.3").exists()
+  }
+
+  def "closed output fails the export"() {
+    setup:
+    def exporter = new LoggingExporter("LOGGED", new RotatingFileOutput(new File(dir, "spans.log"), 0, 0))
+    exporter.shutdown()
+
+    expect:
+    exporter.export([spanData("late", [:])]) == SpanExporter.ResultCode.FAILED_NOT_RETRYABLE
+  }
+
+  SpanData spanData(String name, Map<String, Object> attributes) {
+    def span = tracer.spanBuilder(name).startSpan()
+    attributes.each { key, value -> span.setAttribute(key, value) }
+    span.end()
+    return ((ReadableSpan) span).toSpanData()
+  }
+}
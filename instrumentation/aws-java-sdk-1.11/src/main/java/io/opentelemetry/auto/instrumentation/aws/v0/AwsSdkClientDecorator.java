@@ -28,6 +28,9 @@ public class AwsSdkClientDecorator extends HttpClientDecorator<Request, Response
 
   @Override
   public Span onRequest(final Span span, final Request request) {
+    if (!span.isRecording()) {
+      return span;
+    }
     // Call super first because we override the resource name below.
     super.onRequest(span, request);
 
@@ -75,6 +78,9 @@ public class AwsSdkClientDecorator extends HttpClientDecorator<Request, Response
 
   @Override
   public Span onResponse(final Span span, final Response response) {
+    if (!span.isRecording()) {
+      return span;
+    }
     if (response.getAwsResponse() instanceof AmazonWebServiceResponse) {
       final AmazonWebServiceResponse awsResp = (AmazonWebServiceResponse) response.getAwsResponse();
       span.setAttribute("aws.requestId", awsResp.getRequestId());
@@ -23,6 +23,9 @@ public class AwsSdkClientDecorator extends HttpClientDecorator<SdkHttpRequest, S
   static final String COMPONENT_NAME = "java-aws-sdk";
 
   public Span onSdkRequest(final Span span, final SdkRequest request) {
+    if (!span.isRecording()) {
+      return span;
+    }
     // S3
     request
         .getValueForField("Bucket", String.class)
@@ -46,7 +49,9 @@ public class AwsSdkClientDecorator extends HttpClientDecorator<SdkHttpRequest, S
   }
 
   public Span onAttributes(final Span span, final ExecutionAttributes attributes) {
-
+    if (!span.isRecording()) {
+      return span;
+    }
     final String awsServiceName = attributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME);
     final String awsOperation = attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
 
@@ -62,6 +67,9 @@ public class AwsSdkClientDecorator extends HttpClientDecorator<SdkHttpRequest, S
 
   // Not overriding the super.  Should call both with each type of response.
   public Span onResponse(final Span span, final SdkResponse response) {
+    if (!span.isRecording()) {
+      return span;
+    }
     if (response instanceof AwsResponse) {
       span.setAttribute("aws.requestId", ((AwsResponse) response).responseMetadata().requestId());
     }
@@ -42,6 +42,9 @@ public class CassandraClientDecorator extends DatabaseClientDecorator<Session> {
   }
 
   public Span onResponse(final Span span, final ResultSet result) {
+    if (!span.isRecording()) {
+      return span;
+    }
     if (result != null) {
       final Host host = result.getExecutionInfo().getQueriedHost();
       span.setAttribute(Tags.PEER_PORT, host.getSocketAddress().getPort());
@@ -45,12 +45,18 @@ public class ElasticsearchRestClientDecorator extends DatabaseClientDecorator {
   }
 
   public Span onRequest(final Span span, final String method, final String endpoint) {
+    if (!span.isRecording()) {
+      return span;
+    }
     span.setAttribute(Tags.HTTP_METHOD, method);
     span.setAttribute(Tags.HTTP_URL, endpoint);
     return span;
   }
 
   public Span onResponse(final Span span, final Response response) {
+    if (!span.isRecording()) {
+      return span;
+    }
     if (response != null && response.getHost() != null) {
       span.setAttribute(Tags.PEER_HOSTNAME, response.getHost().getHostName());
       span.setAttribute(Tags.PEER_PORT, response.getHost().getPort());
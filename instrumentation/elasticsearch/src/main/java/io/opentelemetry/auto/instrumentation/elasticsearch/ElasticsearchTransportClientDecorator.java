@@ -44,6 +44,9 @@ public class ElasticsearchTransportClientDecorator extends DatabaseClientDecorat
   }
 
   public Span onRequest(final Span span, final Class action, final Class request) {
+    if (!span.isRecording()) {
+      return span;
+    }
     if (action != null) {
       span.setAttribute(MoreTags.RESOURCE_NAME, action.getSimpleName());
       span.setAttribute("elasticsearch.action", action.getSimpleName());
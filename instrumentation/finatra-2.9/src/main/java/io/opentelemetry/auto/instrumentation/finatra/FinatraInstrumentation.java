@@ -44,6 +44,9 @@ public class FinatraInstrumentation extends Instrumenter.Default {
       "io.opentelemetry.auto.decorator.BaseDecorator",
       "io.opentelemetry.auto.decorator.ServerDecorator",
       "io.opentelemetry.auto.decorator.HttpServerDecorator",
+      "io.opentelemetry.auto.decorator.HttpServerDecorator$RequestUrlThreadLocal",
+      "io.opentelemetry.auto.decorator.RequestUrl",
+      "io.opentelemetry.auto.decorator.IpAddresses",
       packageName + ".FinatraDecorator",
       FinatraInstrumentation.class.getName() + "$Listener"
     };
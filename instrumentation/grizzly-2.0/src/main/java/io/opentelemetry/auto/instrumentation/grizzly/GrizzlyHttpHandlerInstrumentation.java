@@ -46,6 +46,9 @@ public class GrizzlyHttpHandlerInstrumentation extends Instrumenter.Default {
       "io.opentelemetry.auto.decorator.BaseDecorator",
       "io.opentelemetry.auto.decorator.ServerDecorator",
       "io.opentelemetry.auto.decorator.HttpServerDecorator",
+      "io.opentelemetry.auto.decorator.HttpServerDecorator$RequestUrlThreadLocal",
+      "io.opentelemetry.auto.decorator.RequestUrl",
+      "io.opentelemetry.auto.decorator.IpAddresses",
       packageName + ".GrizzlyDecorator",
       packageName + ".GrizzlyRequestExtractAdapter",
       getClass().getName() + "$SpanClosingListener"
@@ -0,0 +1,137 @@
+package io.opentelemetry.auto.instrumentation.grpc;
+
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor.Marshaller;
+import io.grpc.MethodDescriptor.PrototypeMarshaller;
+import io.opentelemetry.auto.config.Config;
+import io.opentelemetry.trace.Span;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Messages of a call, recorded on the call span when it ends instead of a span per message, for
+ * streams too long to trace message by message. Enabled by {@link Config#isGrpcStreamingStats()}.
+ *
+ * <p>Counts are recorded both ways, and sizes when the marshaller tells them without serializing
+ * the messages again. For received messages, the time elapsed between two messages is recorded in
+ * a histogram, and one message in {@link Config#getGrpcMessageSampleInterval()} can still be given
+ * its own span.
+ */
+public final class GrpcMessageStats {
+  private static final long[] INTERVAL_BOUNDS_NANOS = {
+    TimeUnit.MILLISECONDS.toNanos(1),
+    TimeUnit.MILLISECONDS.toNanos(10),
+    TimeUnit.MILLISECONDS.toNanos(100),
+    TimeUnit.SECONDS.toNanos(1)
+  };
+  private static final String[] INTERVAL_ATTRIBUTES = {
+    "message.received.interval.le_1ms",
+    "message.received.interval.le_10ms",
+    "message.received.interval.le_100ms",
+    "message.received.interval.le_1s",
+    "message.received.interval.gt_1s"
+  };
+
+  private final int sampleInterval;
+
+  // Listener callbacks of a call don't run concurrently, they are the only ones updating these.
+  private long received = 0;
+  private long receivedBytes = 0;
+  private long lastReceivedNanos;
+  private final long[] receivedIntervals = new long[INTERVAL_ATTRIBUTES.length];
+
+  // Messages of a call are sent one at a time, but not always from the same thread.
+  private volatile long sent = 0;
+  private volatile long sentBytes = 0;
+
+  GrpcMessageStats(final int sampleInterval) {
+    this.sampleInterval = sampleInterval;
+  }
+
+  /** @return the stats of a new call, or {@code null} if messages are traced one by one. */
+  public static GrpcMessageStats forNewCall() {
+    final Config config = Config.get();
+    if (!config.isGrpcStreamingStats()) {
+      return null;
+    }
+    return new GrpcMessageStats(config.getGrpcMessageSampleInterval());
+  }
+
+  /**
+   * @return the size of the message once serialized, or -1 if its marshaller can't tell without
+   *     serializing it
+   */
+  public static <T> long serializedSize(final Marshaller<T> marshaller, final T message) {
+    // Protobuf marshallers stream messages lazily, and the stream knows its size before being read.
+    // Other marshallers may serialize the whole message in stream(), leave them alone.
+    if (!(marshaller instanceof PrototypeMarshaller)) {
+      return -1;
+    }
+    final InputStream stream = marshaller.stream(message);
+    try {
+      return stream instanceof KnownLength ? stream.available() : -1;
+    } catch (final IOException e) {
+      return -1;
+    } finally {
+      try {
+        stream.close();
+      } catch (final IOException e) {
+        // nothing was read
+      }
+    }
+  }
+
+  /**
+   * Records a received message.
+   *
+   * @param size as returned by {@link #serializedSize(Marshaller, Object)}
+   * @return whether the message is sampled and should get a span
+   */
+  public boolean received(final long size) {
+    final long now = System.nanoTime();
+    if (received > 0) {
+      final long interval = now - lastReceivedNanos;
+      int bucket = 0;
+      while (bucket < INTERVAL_BOUNDS_NANOS.length && interval > INTERVAL_BOUNDS_NANOS[bucket]) {
+        bucket++;
+      }
+      receivedIntervals[bucket]++;
+    }
+    lastReceivedNanos = now;
+    received++;
+    if (size > 0) {
+      receivedBytes += size;
+    }
+    return sampleInterval > 0 && (received - 1) % sampleInterval == 0;
+  }
+
+  /**
+   * Records a sent message.
+   *
+   * @param size as returned by {@link #serializedSize(Marshaller, Object)}
+   */
+  public void sent(final long size) {
+    sent++;
+    if (size > 0) {
+      sentBytes += size;
+    }
+  }
+
+  /** Adds the messages recorded so far to the call span, before it ends. */
+  public void onFinish(final Span span) {
+    span.setAttribute("message.received.count", received);
+    if (receivedBytes > 0) {
+      span.setAttribute("message.received.bytes", receivedBytes);
+    }
+    if (received > 1) {
+      for (int bucket = 0; bucket < receivedIntervals.length; bucket++) {
+        span.setAttribute(INTERVAL_ATTRIBUTES[bucket], receivedIntervals[bucket]);
+      }
+    }
+    span.setAttribute("message.sent.count", sent);
+    if (sentBytes > 0) {
+      span.setAttribute("message.sent.bytes", sentBytes);
+    }
+  }
+}
@@ -15,6 +15,7 @@ import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
 import io.grpc.Status;
 import io.opentelemetry.auto.instrumentation.api.MoreTags;
+import io.opentelemetry.auto.instrumentation.grpc.GrpcMessageStats;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.trace.Span;
 
@@ -43,24 +44,33 @@ public class TracingClientInterceptor implements ClientInterceptor {
         span.end();
         throw e;
       }
-      return new TracingClientCall<>(span, result);
+      return new TracingClientCall<>(span, GrpcMessageStats.forNewCall(), method, result);
     }
   }
 
   static final class TracingClientCall<ReqT, RespT>
       extends ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT> {
     final Span span;
-
-    TracingClientCall(final Span span, final ClientCall<ReqT, RespT> delegate) {
+    final GrpcMessageStats stats;
+    final MethodDescriptor<ReqT, RespT> method;
+
+    TracingClientCall(
+        final Span span,
+        final GrpcMessageStats stats,
+        final MethodDescriptor<ReqT, RespT> method,
+        final ClientCall<ReqT, RespT> delegate) {
       super(delegate);
       this.span = span;
+      this.stats = stats;
+      this.method = method;
     }
 
     @Override
     public void start(final Listener<RespT> responseListener, final Metadata headers) {
       TRACER.getHttpTextFormat().inject(span.getContext(), headers, SETTER);
       try (final Scope scope = TRACER.withSpan(span)) {
-        super.start(new TracingClientCallListener<>(span, responseListener), headers);
+        super.start(
+            new TracingClientCallListener<>(span, stats, method, responseListener), headers);
       } catch (final Throwable e) {
         DECORATE.onError(span, e);
         DECORATE.beforeFinish(span);
@@ -71,6 +81,9 @@ public class TracingClientInterceptor implements ClientInterceptor {
 
     @Override
     public void sendMessage(final ReqT message) {
+      if (stats != null) {
+        stats.sent(GrpcMessageStats.serializedSize(method.getRequestMarshaller(), message));
+      }
       try (final Scope scope = TRACER.withSpan(span)) {
         super.sendMessage(message);
       } catch (final Throwable e) {
@@ -85,14 +98,30 @@ public class TracingClientInterceptor implements ClientInterceptor {
   static final class TracingClientCallListener<RespT>
       extends ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT> {
     final Span span;
-
-    TracingClientCallListener(final Span span, final ClientCall.Listener<RespT> delegate) {
+    final GrpcMessageStats stats;
+    final MethodDescriptor<?, RespT> method;
+
+    TracingClientCallListener(
+        final Span span,
+        final GrpcMessageStats stats,
+        final MethodDescriptor<?, RespT> method,
+        final ClientCall.Listener<RespT> delegate) {
       super(delegate);
       this.span = span;
+      this.stats = stats;
+      this.method = method;
     }
 
     @Override
     public void onMessage(final RespT message) {
+      if (stats != null
+          && !stats.received(
+              GrpcMessageStats.serializedSize(method.getResponseMarshaller(), message))) {
+        try (final Scope scope = TRACER.withSpan(span)) {
+          delegate().onMessage(message);
+        }
+        return;
+      }
       final Span messageSpan =
           TRACER.spanBuilder("grpc.message").setSpanKind(CLIENT).setParent(span).startSpan();
       messageSpan.setAttribute("message.type", message.getClass().getName());
@@ -118,6 +147,9 @@ public class TracingClientInterceptor implements ClientInterceptor {
         DECORATE.onError(span, e);
         throw e;
       } finally {
+        if (stats != null) {
+          stats.onFinish(span);
+        }
         DECORATE.beforeFinish(span);
         span.end();
       }
@@ -32,6 +32,7 @@ public class GrpcServerBuilderInstrumentation extends Instrumenter.Default {
       "io.opentelemetry.auto.instrumentation.grpc.server.TracingServerInterceptor",
       "io.opentelemetry.auto.instrumentation.grpc.server.TracingServerInterceptor$TracingServerCall",
       "io.opentelemetry.auto.instrumentation.grpc.server.TracingServerInterceptor$TracingServerCallListener",
+      "io.opentelemetry.auto.instrumentation.grpc.GrpcMessageStats",
       "io.opentelemetry.auto.decorator.BaseDecorator",
       "io.opentelemetry.auto.decorator.ServerDecorator",
       packageName + ".GrpcServerDecorator",
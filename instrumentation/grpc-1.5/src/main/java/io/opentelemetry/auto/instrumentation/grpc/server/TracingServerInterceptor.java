@@ -8,11 +8,13 @@ import static io.opentelemetry.trace.Span.Kind.SERVER;
 import io.grpc.ForwardingServerCall;
 import io.grpc.ForwardingServerCallListener;
 import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
 import io.grpc.ServerCall;
 import io.grpc.ServerCallHandler;
 import io.grpc.ServerInterceptor;
 import io.grpc.Status;
 import io.opentelemetry.auto.instrumentation.api.MoreTags;
+import io.opentelemetry.auto.instrumentation.grpc.GrpcMessageStats;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.trace.Span;
 import io.opentelemetry.trace.SpanContext;
@@ -42,6 +44,7 @@ public class TracingServerInterceptor implements ServerInterceptor {
 
     DECORATE.afterStart(span);
 
+    final GrpcMessageStats stats = GrpcMessageStats.forNewCall();
     final ServerCall.Listener<ReqT> result;
     try (final Scope scope = TRACER.withSpan(span)) {
 
@@ -49,7 +52,7 @@ public class TracingServerInterceptor implements ServerInterceptor {
         // Wrap the server call so that we can decorate the span
         // with the resulting status
         final TracingServerCall<ReqT, RespT> tracingServerCall =
-            new TracingServerCall<>(span, call);
+            new TracingServerCall<>(span, stats, call);
 
         // call other interceptors
         result = next.startCall(tracingServerCall, headers);
@@ -62,16 +65,29 @@ public class TracingServerInterceptor implements ServerInterceptor {
     }
 
     // This ensures the server implementation can see the span in scope
-    return new TracingServerCallListener<>(span, result);
+    return new TracingServerCallListener<>(span, stats, call.getMethodDescriptor(), result);
   }
 
   static final class TracingServerCall<ReqT, RespT>
       extends ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT> {
     final Span span;
+    final GrpcMessageStats stats;
 
-    TracingServerCall(final Span span, final ServerCall<ReqT, RespT> delegate) {
+    TracingServerCall(
+        final Span span, final GrpcMessageStats stats, final ServerCall<ReqT, RespT> delegate) {
       super(delegate);
       this.span = span;
+      this.stats = stats;
+    }
+
+    @Override
+    public void sendMessage(final RespT message) {
+      if (stats != null) {
+        stats.sent(
+            GrpcMessageStats.serializedSize(
+                getMethodDescriptor().getResponseMarshaller(), message));
+      }
+      super.sendMessage(message);
     }
 
     @Override
@@ -89,14 +105,34 @@ public class TracingServerInterceptor implements ServerInterceptor {
   static final class TracingServerCallListener<ReqT>
       extends ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT> {
     private final Span span;
-
-    TracingServerCallListener(final Span span, final ServerCall.Listener<ReqT> delegate) {
+    private final GrpcMessageStats stats;
+    private final MethodDescriptor<ReqT, ?> method;
+
+    TracingServerCallListener(
+        final Span span,
+        final GrpcMessageStats stats,
+        final MethodDescriptor<ReqT, ?> method,
+        final ServerCall.Listener<ReqT> delegate) {
       super(delegate);
       this.span = span;
+      this.stats = stats;
+      this.method = method;
     }
 
     @Override
     public void onMessage(final ReqT message) {
+      if (stats != null
+          && !stats.received(
+              GrpcMessageStats.serializedSize(method.getRequestMarshaller(), message))) {
+        try (final Scope scope = TRACER.withSpan(span)) {
+          delegate().onMessage(message);
+        } catch (final Throwable e) {
+          DECORATE.onError(span, e);
+          finish();
+          throw e;
+        }
+        return;
+      }
       final Span span =
           TRACER
               .spanBuilder("grpc.message")
@@ -110,8 +146,7 @@ public class TracingServerInterceptor implements ServerInterceptor {
         delegate().onMessage(message);
       } catch (final Throwable e) {
         DECORATE.onError(span, e);
-        DECORATE.beforeFinish(this.span);
-        this.span.end();
+        finish();
         throw e;
       } finally {
         DECORATE.beforeFinish(span);
@@ -126,8 +161,7 @@ public class TracingServerInterceptor implements ServerInterceptor {
         delegate().onHalfClose();
       } catch (final Throwable e) {
         DECORATE.onError(span, e);
-        DECORATE.beforeFinish(span);
-        span.end();
+        finish();
         throw e;
       }
     }
@@ -142,8 +176,7 @@ public class TracingServerInterceptor implements ServerInterceptor {
         DECORATE.onError(span, e);
         throw e;
       } finally {
-        DECORATE.beforeFinish(span);
-        span.end();
+        finish();
       }
     }
 
@@ -156,8 +189,7 @@ public class TracingServerInterceptor implements ServerInterceptor {
         DECORATE.onError(span, e);
         throw e;
       } finally {
-        DECORATE.beforeFinish(span);
-        span.end();
+        finish();
       }
     }
 
@@ -167,10 +199,18 @@ public class TracingServerInterceptor implements ServerInterceptor {
         delegate().onReady();
       } catch (final Throwable e) {
         DECORATE.onError(span, e);
-        DECORATE.beforeFinish(span);
-        span.end();
+        finish();
         throw e;
       }
     }
+
+    /** Finishes the call span. */
+    private void finish() {
+      if (stats != null) {
+        stats.onFinish(span);
+      }
+      DECORATE.beforeFinish(span);
+      span.end();
+    }
   }
 }
@@ -6,6 +6,7 @@ import io.grpc.Server
 import io.grpc.inprocess.InProcessChannelBuilder
 import io.grpc.inprocess.InProcessServerBuilder
 import io.grpc.stub.StreamObserver
+import io.opentelemetry.auto.config.Config
 import io.opentelemetry.auto.instrumentation.api.MoreTags
 import io.opentelemetry.auto.instrumentation.api.SpanTypes
 import io.opentelemetry.auto.instrumentation.api.Tags
@@ -13,9 +14,11 @@ import io.opentelemetry.auto.test.AgentTestRunner
 import io.opentelemetry.sdk.trace.SpanData
 
 import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicReference
 
+import static io.opentelemetry.auto.test.utils.ConfigUtils.withConfigOverride
 import static io.opentelemetry.trace.Span.Kind.CLIENT
 import static io.opentelemetry.trace.Span.Kind.SERVER
 
@@ -174,4 +177,122 @@ class GrpcStreamingTest extends AgentTestRunner {
     clientRange = 1..clientMessageCount
     serverRange = 1..serverMessageCount
   }
+
+  def "test conversation with streaming stats"() {
+    setup:
+    def clientMessageCount = 3
+    def serverMessageCount = 2
+    def error = new AtomicReference()
+    def completed = new CountDownLatch(1)
+
+    BindableService greeter = new GreeterGrpc.GreeterImplBase() {
+      @Override
+      StreamObserver<Helloworld.Response> conversation(StreamObserver<Helloworld.Response> observer) {
+        return new StreamObserver<Helloworld.Response>() {
+          @Override
+          void onNext(Helloworld.Response value) {
+            serverMessageCount.times {
+              observer.onNext(value)
+            }
+          }
+
+          @Override
+          void onError(Throwable t) {
+            error.set(t)
+            observer.onError(t)
+          }
+
+          @Override
+          void onCompleted() {
+            observer.onCompleted()
+          }
+        }
+      }
+    }
+    Server server = InProcessServerBuilder.forName(getClass().name).addService(greeter).directExecutor().build().start()
+
+    ManagedChannel channel = InProcessChannelBuilder.forName(getClass().name).build()
+    GreeterGrpc.GreeterStub client = GreeterGrpc.newStub(channel).withWaitForReady()
+
+    when:
+    withConfigOverride(Config.GRPC_STREAMING_STATS, "true") {
+      def observer = client.conversation(new StreamObserver<Helloworld.Response>() {
+        @Override
+        void onNext(Helloworld.Response value) {
+        }
+
+        @Override
+        void onError(Throwable t) {
+          error.set(t)
+          completed.countDown()
+        }
+
+        @Override
+        void onCompleted() {
+          completed.countDown()
+        }
+      })
+
+      (1..clientMessageCount).each {
+        observer.onNext(Helloworld.Response.newBuilder().setMessage("call $it").build())
+      }
+      observer.onCompleted()
+      completed.await(10, TimeUnit.SECONDS)
+    }
+
+    then:
+    error.get() == null
+
+    // messages are recorded on the call spans only
+    assertTraces(1) {
+      trace(0, 2) {
+        span(0) {
+          operationName "grpc.client"
+          spanKind CLIENT
+          parent()
+          errored false
+          tags {
+            "$MoreTags.RESOURCE_NAME" "example.Greeter/Conversation"
+            "$MoreTags.SPAN_TYPE" SpanTypes.RPC
+            "$Tags.COMPONENT" "grpc-client"
+            "status.code" "OK"
+            "message.sent.count" clientMessageCount
+            "message.sent.bytes" { it > 0 }
+            "message.received.count" clientMessageCount * serverMessageCount
+            "message.received.bytes" { it > 0 }
+            "message.received.interval.le_1ms" Long
+            "message.received.interval.le_10ms" Long
+            "message.received.interval.le_100ms" Long
+            "message.received.interval.le_1s" Long
+            "message.received.interval.gt_1s" Long
+          }
+        }
+        span(1) {
+          operationName "grpc.server"
+          spanKind SERVER
+          childOf span(0)
+          errored false
+          tags {
+            "$MoreTags.RESOURCE_NAME" "example.Greeter/Conversation"
+            "$MoreTags.SPAN_TYPE" SpanTypes.RPC
+            "$Tags.COMPONENT" "grpc-server"
+            "status.code" "OK"
+            "message.sent.count" clientMessageCount * serverMessageCount
+            "message.sent.bytes" { it > 0 }
+            "message.received.count" clientMessageCount
+            "message.received.bytes" { it > 0 }
+            "message.received.interval.le_1ms" Long
+            "message.received.interval.le_10ms" Long
+            "message.received.interval.le_100ms" Long
+            "message.received.interval.le_1s" Long
+            "message.received.interval.gt_1s" Long
+          }
+        }
+      }
+    }
+
+    cleanup:
+    channel?.shutdownNow()?.awaitTermination(10, TimeUnit.SECONDS)
+    server?.shutdownNow()?.awaitTermination()
+  }
 }
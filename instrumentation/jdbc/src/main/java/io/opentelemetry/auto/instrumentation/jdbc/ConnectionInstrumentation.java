@@ -34,6 +34,8 @@ public final class ConnectionInstrumentation extends Instrumenter.Default {
   public String[] helperClassNames() {
     return new String[] {
       packageName + ".JDBCMaps",
+      packageName + ".LRUCache",
+      packageName + ".LRUCache$Segment",
     };
   }
 
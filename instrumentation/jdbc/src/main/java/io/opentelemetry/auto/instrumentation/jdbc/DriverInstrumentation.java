@@ -35,11 +35,13 @@ public final class DriverInstrumentation extends Instrumenter.Default {
 
   @Override
   public String[] helperClassNames() {
-    final List<String> helpers = new ArrayList<>(JDBCConnectionUrlParser.values().length + 4);
+    final List<String> helpers = new ArrayList<>(JDBCConnectionUrlParser.values().length + 6);
 
     helpers.add(packageName + ".DBInfo");
     helpers.add(packageName + ".DBInfo$Builder");
     helpers.add(packageName + ".JDBCMaps");
+    helpers.add(packageName + ".LRUCache");
+    helpers.add(packageName + ".LRUCache$Segment");
     helpers.add(packageName + ".JDBCConnectionUrlParser");
 
     for (final JDBCConnectionUrlParser parser : JDBCConnectionUrlParser.values()) {
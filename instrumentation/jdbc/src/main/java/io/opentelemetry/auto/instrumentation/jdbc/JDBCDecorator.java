@@ -1,6 +1,7 @@
 package io.opentelemetry.auto.instrumentation.jdbc;
 
 import io.opentelemetry.OpenTelemetry;
+import io.opentelemetry.auto.config.Config;
 import io.opentelemetry.auto.decorator.DatabaseClientDecorator;
 import io.opentelemetry.auto.instrumentation.api.MoreTags;
 import io.opentelemetry.auto.instrumentation.api.SpanTypes;
@@ -55,13 +56,17 @@ public class JDBCDecorator extends DatabaseClientDecorator<DBInfo> {
   }
 
   public Span onConnection(final Span span, final Connection connection) {
+    if (!span.isRecording()) {
+      return span;
+    }
     DBInfo dbInfo = JDBCMaps.connectionInfo.get(connection);
     /**
      * Logic to get the DBInfo from a JDBC Connection, if the connection was not created via
      * Driver.connect, or it has never seen before, the connectionInfo map will return null and will
      * attempt to extract DBInfo from the connection. If the DBInfo can't be extracted, then the
      * connection will be stored with the DEFAULT DBInfo as the value in the connectionInfo map to
-     * avoid retry overhead.
+     * avoid retry overhead. Parsed URLs are shared by all connections to the same URL, so the
+     * client info of the first one is used for all of them.
      */
     {
       if (dbInfo == null) {
@@ -69,11 +74,15 @@ public class JDBCDecorator extends DatabaseClientDecorator<DBInfo> {
           final DatabaseMetaData metaData = connection.getMetaData();
           final String url = metaData.getURL();
           if (url != null) {
-            try {
-              dbInfo = JDBCConnectionUrlParser.parse(url, connection.getClientInfo());
-            } catch (final Exception ex) {
-              // getClientInfo is likely not allowed.
-              dbInfo = JDBCConnectionUrlParser.parse(url, null);
+            dbInfo = JDBCMaps.connectionInfoByUrl.get(url);
+            if (dbInfo == null) {
+              try {
+                dbInfo = JDBCConnectionUrlParser.parse(url, connection.getClientInfo());
+              } catch (final Exception ex) {
+                // getClientInfo is likely not allowed.
+                dbInfo = JDBCConnectionUrlParser.parse(url, null);
+              }
+              JDBCMaps.connectionInfoByUrl.put(url, dbInfo);
             }
           } else {
             dbInfo = DBInfo.DEFAULT;
@@ -94,17 +103,30 @@ public class JDBCDecorator extends DatabaseClientDecorator<DBInfo> {
 
   @Override
   public Span onStatement(final Span span, final String statement) {
-    final String resourceName = statement == null ? DB_QUERY : statement;
-    span.setAttribute(MoreTags.RESOURCE_NAME, resourceName);
+    if (!span.isRecording()) {
+      return span;
+    }
+    final String sql = obfuscate(statement);
+    span.setAttribute(MoreTags.RESOURCE_NAME, sql == null ? DB_QUERY : sql);
     span.setAttribute(Tags.COMPONENT, "java-jdbc-statement");
-    return super.onStatement(span, statement);
+    return super.onStatement(span, sql);
   }
 
   public Span onPreparedStatement(final Span span, final PreparedStatement statement) {
-    final String sql = JDBCMaps.preparedStatements.get(statement);
-    final String resourceName = sql == null ? DB_QUERY : sql;
-    span.setAttribute(MoreTags.RESOURCE_NAME, resourceName);
+    if (!span.isRecording()) {
+      return span;
+    }
+    final String sql = obfuscate(JDBCMaps.preparedStatements.get(statement));
+    span.setAttribute(MoreTags.RESOURCE_NAME, sql == null ? DB_QUERY : sql);
     span.setAttribute(Tags.COMPONENT, "java-jdbc-prepared_statement");
     return super.onStatement(span, sql);
   }
+
+  /** @return the statement with its literals replaced if obfuscation is enabled, else as is. */
+  private static String obfuscate(final String sql) {
+    if (sql == null || !Config.get().isDbClientStatementObfuscation()) {
+      return sql;
+    }
+    return SQLNormalizer.OBFUSCATE.normalize(sql);
+  }
 }
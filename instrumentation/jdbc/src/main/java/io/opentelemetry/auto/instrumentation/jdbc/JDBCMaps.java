@@ -14,4 +14,9 @@ import java.sql.PreparedStatement;
 public class JDBCMaps {
   public static final WeakMap<Connection, DBInfo> connectionInfo = newWeakMap();
   public static final WeakMap<PreparedStatement, String> preparedStatements = newWeakMap();
+  /**
+   * Parsed connection info by connection URL, for connections missing from {@link
+   * #connectionInfo}, e.g. the proxies handed out by connection pools.
+   */
+  public static final LRUCache<String, DBInfo> connectionInfoByUrl = new LRUCache<>(256);
 }
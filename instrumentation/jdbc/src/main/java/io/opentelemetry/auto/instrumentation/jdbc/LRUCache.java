@@ -0,0 +1,70 @@
+package io.opentelemetry.auto.instrumentation.jdbc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded map evicting the least recently used entries.
+ *
+ * <p>Entries are spread over independently locked segments so concurrent statements don't all
+ * contend on one lock; recency is tracked per segment.
+ */
+public final class LRUCache<K, V> {
+  private static final int SEGMENTS = 16;
+
+  private final Segment<K, V>[] segments;
+
+  @SuppressWarnings("unchecked")
+  public LRUCache(final int capacity) {
+    final int segmentCapacity = Math.max(1, capacity / SEGMENTS);
+    segments = new Segment[SEGMENTS];
+    for (int i = 0; i < SEGMENTS; i++) {
+      segments[i] = new Segment<>(segmentCapacity);
+    }
+  }
+
+  public V get(final K key) {
+    final Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      return segment.get(key);
+    }
+  }
+
+  public void put(final K key, final V value) {
+    final Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      segment.put(key, value);
+    }
+  }
+
+  public int size() {
+    int size = 0;
+    for (final Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  private Segment<K, V> segmentFor(final K key) {
+    int hash = key.hashCode();
+    // the low bits of String hashes are often similar for similar keys
+    hash ^= (hash >>> 16);
+    return segments[hash & (SEGMENTS - 1)];
+  }
+
+  private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+    private final int capacity;
+
+    Segment(final int capacity) {
+      super(16, 0.75f, true);
+      this.capacity = capacity;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+      return size() > capacity;
+    }
+  }
+}
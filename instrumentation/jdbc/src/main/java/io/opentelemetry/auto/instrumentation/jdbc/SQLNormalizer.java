@@ -0,0 +1,164 @@
+package io.opentelemetry.auto.instrumentation.jdbc;
+
+/**
+ * Turns SQL statements into resource names: whitespace runs are collapsed to a single space and,
+ * when obfuscating, string and numeric literals are replaced with {@code ?}. String literals and
+ * quoted identifiers are otherwise left untouched.
+ *
+ * <p>Results are cached by statement, so a statement executed over and over is normalized once and
+ * every span gets the same string instance.
+ */
+public final class SQLNormalizer {
+  private static final int CACHE_SIZE = 4096;
+  // Longer statements usually embed values (bulk inserts...) and are rarely executed twice.
+  private static final int MAX_CACHED_LENGTH = 4096;
+
+  public static final SQLNormalizer NORMALIZE = new SQLNormalizer(false);
+  public static final SQLNormalizer OBFUSCATE = new SQLNormalizer(true);
+
+  private final boolean obfuscate;
+  private final LRUCache<String, String> cache = new LRUCache<>(CACHE_SIZE);
+
+  private SQLNormalizer(final boolean obfuscate) {
+    this.obfuscate = obfuscate;
+  }
+
+  public String normalize(final String sql) {
+    if (sql.length() > MAX_CACHED_LENGTH) {
+      return doNormalize(sql);
+    }
+    String normalized = cache.get(sql);
+    if (normalized == null) {
+      normalized = doNormalize(sql);
+      cache.put(sql, normalized);
+    }
+    return normalized;
+  }
+
+  private String doNormalize(final String sql) {
+    final int length = sql.length();
+    StringBuilder builder = null;
+    // index up to which sql has been copied to builder
+    int copied = 0;
+    boolean pendingSpace = false;
+    int i = 0;
+    while (i < length) {
+      final char c = sql.charAt(i);
+      if (Character.isWhitespace(c)) {
+        int end = i + 1;
+        while (end < length && Character.isWhitespace(sql.charAt(end))) {
+          end++;
+        }
+        if (c != ' ' || end - i > 1 || i == 0 || end == length) {
+          builder = copy(builder, sql, copied, i);
+          // leading and trailing whitespace is dropped
+          pendingSpace = i > 0 && end < length;
+          copied = end;
+        }
+        i = end;
+        continue;
+      }
+      if (pendingSpace) {
+        builder.append(' ');
+        pendingSpace = false;
+      }
+      if (c == '\'') {
+        final int end = endOfString(sql, i);
+        if (obfuscate) {
+          builder = copy(builder, sql, copied, i).append('?');
+          copied = end;
+        }
+        // otherwise kept as it is, whitespace included
+        i = end;
+      } else if (c == '"' || c == '`') {
+        // quoted identifiers are kept as they are, whitespace included
+        final int end = sql.indexOf(c, i + 1);
+        i = end < 0 ? length : end + 1;
+      } else if (obfuscate && isNumberStart(sql, i)) {
+        builder = copy(builder, sql, copied, i).append('?');
+        i = endOfNumber(sql, i);
+        copied = i;
+      } else {
+        i++;
+      }
+    }
+    if (builder == null) {
+      return sql;
+    }
+    builder.append(sql, copied, length);
+    return builder.toString();
+  }
+
+  private static StringBuilder copy(
+      final StringBuilder builder, final String sql, final int start, final int end) {
+    final StringBuilder result = builder == null ? new StringBuilder(sql.length()) : builder;
+    return result.append(sql, start, end);
+  }
+
+  /** @return the index after the closing quote, {@code ''} being an escaped quote. */
+  private static int endOfString(final String sql, final int start) {
+    int i = start + 1;
+    while (i < sql.length()) {
+      if (sql.charAt(i) == '\'') {
+        if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+          i += 2;
+          continue;
+        }
+        return i + 1;
+      }
+      i++;
+    }
+    return sql.length();
+  }
+
+  /** Digits, or a dot followed by digits, that aren't part of an identifier. */
+  private static boolean isNumberStart(final String sql, final int index) {
+    final char c = sql.charAt(index);
+    final boolean digit = isDigit(c);
+    if (!digit && !(c == '.' && index + 1 < sql.length() && isDigit(sql.charAt(index + 1)))) {
+      return false;
+    }
+    if (index == 0) {
+      return true;
+    }
+    final char previous = sql.charAt(index - 1);
+    return !Character.isLetterOrDigit(previous)
+        && previous != '_'
+        && previous != '$'
+        && previous != '.'
+        && previous != '"'
+        && previous != '`';
+  }
+
+  private static int endOfNumber(final String sql, final int start) {
+    final int length = sql.length();
+    int i = start;
+    if (sql.startsWith("0x", i) || sql.startsWith("0X", i)) {
+      i += 2;
+      while (i < length && Character.digit(sql.charAt(i), 16) >= 0) {
+        i++;
+      }
+      return i;
+    }
+    while (i < length && (isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+      i++;
+    }
+    if (i < length && (sql.charAt(i) == 'e' || sql.charAt(i) == 'E')) {
+      int exponent = i + 1;
+      if (exponent < length && (sql.charAt(exponent) == '+' || sql.charAt(exponent) == '-')) {
+        exponent++;
+      }
+      if (exponent < length && isDigit(sql.charAt(exponent))) {
+        i = exponent;
+        while (i < length && isDigit(sql.charAt(i))) {
+          i++;
+        }
+      }
+    }
+    return i;
+  }
+
+  private static boolean isDigit(final char c) {
+    return c >= '0' && c <= '9';
+  }
+}
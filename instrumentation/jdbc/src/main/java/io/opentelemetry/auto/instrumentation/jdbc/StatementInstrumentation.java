@@ -42,12 +42,15 @@ public final class StatementInstrumentation extends Instrumenter.Default {
 
   @Override
   public String[] helperClassNames() {
-    final List<String> helpers = new ArrayList<>(JDBCConnectionUrlParser.values().length + 9);
+    final List<String> helpers = new ArrayList<>(JDBCConnectionUrlParser.values().length + 12);
 
     helpers.add(packageName + ".DBInfo");
     helpers.add(packageName + ".DBInfo$Builder");
     helpers.add(packageName + ".JDBCUtils");
     helpers.add(packageName + ".JDBCMaps");
+    helpers.add(packageName + ".LRUCache");
+    helpers.add(packageName + ".LRUCache$Segment");
+    helpers.add(packageName + ".SQLNormalizer");
     helpers.add(packageName + ".JDBCConnectionUrlParser");
 
     helpers.add("io.opentelemetry.auto.decorator.BaseDecorator");
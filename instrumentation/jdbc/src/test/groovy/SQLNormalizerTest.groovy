@@ -0,0 +1,45 @@
+import io.opentelemetry.auto.instrumentation.jdbc.LRUCache
+import io.opentelemetry.auto.util.test.AgentSpecification
+
+import static io.opentelemetry.auto.instrumentation.jdbc.SQLNormalizer.NORMALIZE
+import static io.opentelemetry.auto.instrumentation.jdbc.SQLNormalizer.OBFUSCATE
+
+class SQLNormalizerTest extends AgentSpecification {
+
+  def "normalize #sql"() {
+    expect:
+    NORMALIZE.normalize(sql) == normalized
+    OBFUSCATE.normalize(sql) == obfuscated
+
+    where:
+    sql                                                      | normalized                                               | obfuscated
+    "SELECT 3"                                               | "SELECT 3"                                               | "SELECT ?"
+    "  SELECT  3\n FROM\tT  "                                | "SELECT 3 FROM T"                                        | "SELECT ? FROM T"
+    "SELECT * FROM t WHERE a = 'it''s' AND b=-1.5e10"        | "SELECT * FROM t WHERE a = 'it''s' AND b=-1.5e10"        | "SELECT * FROM t WHERE a = ? AND b=-?"
+    "SELECT t1.col2, \"x1\" FROM t1 WHERE v IN (1, 0xFF, .5)" | "SELECT t1.col2, \"x1\" FROM t1 WHERE v IN (1, 0xFF, .5)" | "SELECT t1.col2, \"x1\" FROM t1 WHERE v IN (?, ?, ?)"
+    "SELECT a FROM t WHERE b = ? AND c = :c AND d = \$1"     | "SELECT a FROM t WHERE b = ? AND c = :c AND d = \$1"     | "SELECT a FROM t WHERE b = ? AND c = :c AND d = \$1"
+    ""                                                       | ""                                                       | ""
+    "SELECT  'a  b\tc' FROM \"my  table\"\nWHERE `x\ny`=1"     | "SELECT 'a  b\tc' FROM \"my  table\" WHERE `x\ny`=1"      | "SELECT ? FROM \"my  table\" WHERE `x\ny`=?"
+  }
+
+  def "statements are normalized once"() {
+    setup:
+    def sql = "SELECT  a FROM t"
+
+    expect:
+    NORMALIZE.normalize(new String(sql)).is(NORMALIZE.normalize(new String(sql)))
+  }
+
+  def "cache is bounded"() {
+    setup:
+    def cache = new LRUCache<String, Integer>(32)
+
+    when:
+    (0..<1000).each { cache.put("key" + it, it) }
+
+    then:
+    cache.size() == 32
+    cache.get("key999") == 999
+    cache.get("key0") == null
+  }
+}
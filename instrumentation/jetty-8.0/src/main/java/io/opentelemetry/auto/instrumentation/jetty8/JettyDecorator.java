@@ -2,6 +2,7 @@ package io.opentelemetry.auto.instrumentation.jetty8;
 
 import io.opentelemetry.OpenTelemetry;
 import io.opentelemetry.auto.decorator.HttpServerDecorator;
+import io.opentelemetry.auto.decorator.RequestUrl;
 import io.opentelemetry.trace.Span;
 import io.opentelemetry.trace.Tracer;
 import java.net.URI;
@@ -38,6 +39,14 @@ public class JettyDecorator
         null);
   }
 
+  @Override
+  protected boolean requestUrl(final HttpServletRequest httpServletRequest, final RequestUrl url) {
+    url.scheme(httpServletRequest.getScheme())
+        .host(httpServletRequest.getServerName(), httpServletRequest.getServerPort())
+        .path(httpServletRequest.getRequestURI(), httpServletRequest.getQueryString());
+    return true;
+  }
+
   @Override
   protected String peerHostIP(final HttpServletRequest httpServletRequest) {
     return httpServletRequest.getRemoteAddr();
@@ -56,6 +65,9 @@ public class JettyDecorator
   @Override
   public Span onRequest(final Span span, final HttpServletRequest request) {
     assert span != null;
+    if (!span.isRecording()) {
+      return span;
+    }
     if (request != null) {
       final String sc = request.getContextPath();
       if (sc != null && !sc.isEmpty()) {
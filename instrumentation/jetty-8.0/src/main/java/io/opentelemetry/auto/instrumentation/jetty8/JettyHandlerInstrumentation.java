@@ -40,6 +40,9 @@ public final class JettyHandlerInstrumentation extends Instrumenter.Default {
       "io.opentelemetry.auto.decorator.BaseDecorator",
       "io.opentelemetry.auto.decorator.ServerDecorator",
       "io.opentelemetry.auto.decorator.HttpServerDecorator",
+      "io.opentelemetry.auto.decorator.HttpServerDecorator$RequestUrlThreadLocal",
+      "io.opentelemetry.auto.decorator.RequestUrl",
+      "io.opentelemetry.auto.decorator.IpAddresses",
       packageName + ".JettyDecorator",
       packageName + ".HttpServletRequestExtractAdapter",
       packageName + ".TagSettingAsyncListener"
@@ -0,0 +1,96 @@
+package io.opentelemetry.auto.instrumentation.kafka_clients;
+
+import static io.opentelemetry.auto.instrumentation.kafka_clients.KafkaDecorator.TRACER;
+import static io.opentelemetry.auto.instrumentation.kafka_clients.TextMapExtractAdapter.GETTER;
+
+import io.opentelemetry.trace.SpanContext;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+/** The records of a poll, summed up for the span consuming all of them. */
+public final class ConsumerBatch {
+  private final Set<SpanContext> links = new LinkedHashSet<>();
+  private final Set<String> topics = new LinkedHashSet<>();
+  private final List<Partition> partitions = new ArrayList<>();
+  private int recordCount = 0;
+
+  private ConsumerBatch() {}
+
+  public static ConsumerBatch of(final Iterable<ConsumerRecord> records) {
+    Iterator<ConsumerRecord> iterator = records.iterator();
+    if (iterator instanceof TracingIterator) {
+      // ConsumerRecords.iterator() is instrumented, the batch must not be traced twice
+      iterator = ((TracingIterator) iterator).delegate();
+    }
+    final ConsumerBatch batch = new ConsumerBatch();
+    Partition partition = null;
+    while (iterator.hasNext()) {
+      final ConsumerRecord record = iterator.next();
+      if (record == null) {
+        continue;
+      }
+      batch.recordCount++;
+      // records of the same partition come one after the other
+      if (partition == null || !partition.matches(record)) {
+        partition = new Partition(record);
+        batch.partitions.add(partition);
+        batch.topics.add(partition.topic);
+      } else {
+        partition.add(record);
+      }
+      try {
+        batch.links.add(TRACER.getHttpTextFormat().extract(record.headers(), GETTER));
+      } catch (final IllegalArgumentException e) {
+        // Couldn't extract a context
+      }
+    }
+    return batch;
+  }
+
+  /** @return the contexts of the spans which produced the records, without duplicates */
+  public Set<SpanContext> getLinks() {
+    return links;
+  }
+
+  public Set<String> getTopics() {
+    return topics;
+  }
+
+  public List<Partition> getPartitions() {
+    return partitions;
+  }
+
+  public int getRecordCount() {
+    return recordCount;
+  }
+
+  /** Records of a partition which follow each other in the batch. */
+  public static final class Partition {
+    final String topic;
+    final int partition;
+    final long firstOffset;
+    long lastOffset;
+    int recordCount = 1;
+
+    Partition(final ConsumerRecord record) {
+      topic = record.topic() == null ? "kafka" : record.topic();
+      partition = record.partition();
+      firstOffset = record.offset();
+      lastOffset = record.offset();
+    }
+
+    boolean matches(final ConsumerRecord record) {
+      return partition == record.partition()
+          && topic.equals(record.topic() == null ? "kafka" : record.topic());
+    }
+
+    void add(final ConsumerRecord record) {
+      lastOffset = record.offset();
+      recordCount++;
+    }
+  }
+}
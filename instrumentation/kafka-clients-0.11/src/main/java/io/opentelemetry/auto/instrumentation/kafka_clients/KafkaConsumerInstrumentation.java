@@ -41,6 +41,8 @@ public final class KafkaConsumerInstrumentation extends Instrumenter.Default {
       packageName + ".KafkaDecorator$1",
       packageName + ".KafkaDecorator$2",
       packageName + ".TextMapExtractAdapter",
+      packageName + ".ConsumerBatch",
+      packageName + ".ConsumerBatch$Partition",
       packageName + ".TracingIterable",
       packageName + ".TracingIterator",
       packageName + ".TracingList",
@@ -97,9 +99,11 @@ public final class KafkaConsumerInstrumentation extends Instrumenter.Default {
   public static class IteratorAdvice {
 
     @Advice.OnMethodExit(suppress = Throwable.class)
-    public static void wrap(@Advice.Return(readOnly = false) Iterator<ConsumerRecord> iterator) {
+    public static void wrap(
+        @Advice.This final Iterable<ConsumerRecord> records,
+        @Advice.Return(readOnly = false) Iterator<ConsumerRecord> iterator) {
       if (iterator != null) {
-        iterator = new TracingIterator(iterator, "kafka.consume", CONSUMER_DECORATE);
+        iterator = new TracingIterator(iterator, "kafka.consume", CONSUMER_DECORATE, records);
       }
     }
   }
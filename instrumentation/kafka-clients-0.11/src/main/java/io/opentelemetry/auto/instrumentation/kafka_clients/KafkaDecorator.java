@@ -4,8 +4,13 @@ import io.opentelemetry.OpenTelemetry;
 import io.opentelemetry.auto.decorator.ClientDecorator;
 import io.opentelemetry.auto.instrumentation.api.MoreTags;
 import io.opentelemetry.auto.instrumentation.api.SpanTypes;
+import io.opentelemetry.trace.AttributeValue;
 import io.opentelemetry.trace.Span;
 import io.opentelemetry.trace.Tracer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.ProducerRecord;
 
@@ -29,6 +34,11 @@ public abstract class KafkaDecorator extends ClientDecorator {
   public static final Tracer TRACER =
       OpenTelemetry.getTracerFactory().get("io.opentelemetry.auto.kafka-clients-0.11");
 
+  // Topics are few, unless named on the fly: stop caching then.
+  private static final int MAX_CACHED_TOPICS = 1000;
+
+  private final ConcurrentMap<String, String> consumeResourceNames = new ConcurrentHashMap<>();
+
   @Override
   protected String service() {
     return "kafka";
@@ -42,12 +52,42 @@ public abstract class KafkaDecorator extends ClientDecorator {
   public void onConsume(final Span span, final ConsumerRecord record) {
     if (record != null) {
       final String topic = record.topic() == null ? "kafka" : record.topic();
-      span.setAttribute(MoreTags.RESOURCE_NAME, "Consume Topic " + topic);
+      span.setAttribute(MoreTags.RESOURCE_NAME, consumeResourceName(topic));
       span.setAttribute("partition", record.partition());
       span.setAttribute("offset", record.offset());
     }
   }
 
+  public void onConsume(final Span span, final ConsumerBatch batch) {
+    if (batch.getTopics().size() == 1) {
+      span.setAttribute(
+          MoreTags.RESOURCE_NAME, consumeResourceName(batch.getTopics().iterator().next()));
+    } else {
+      span.setAttribute(MoreTags.RESOURCE_NAME, "Consume Topics");
+    }
+    span.setAttribute("record.count", batch.getRecordCount());
+    for (final ConsumerBatch.Partition partition : batch.getPartitions()) {
+      final Map<String, AttributeValue> attributes = new HashMap<>();
+      attributes.put("topic", AttributeValue.stringAttributeValue(partition.topic));
+      attributes.put("partition", AttributeValue.longAttributeValue(partition.partition));
+      attributes.put("record.count", AttributeValue.longAttributeValue(partition.recordCount));
+      attributes.put("offset.first", AttributeValue.longAttributeValue(partition.firstOffset));
+      attributes.put("offset.last", AttributeValue.longAttributeValue(partition.lastOffset));
+      span.addEvent("kafka.partition", attributes);
+    }
+  }
+
+  private String consumeResourceName(final String topic) {
+    String resourceName = consumeResourceNames.get(topic);
+    if (resourceName == null) {
+      resourceName = "Consume Topic " + topic;
+      if (consumeResourceNames.size() < MAX_CACHED_TOPICS) {
+        consumeResourceNames.putIfAbsent(topic, resourceName);
+      }
+    }
+    return resourceName;
+  }
+
   public void onProduce(final Span span, final ProducerRecord record) {
     if (record != null) {
 
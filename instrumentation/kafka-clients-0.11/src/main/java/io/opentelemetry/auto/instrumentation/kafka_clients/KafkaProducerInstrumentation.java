@@ -2,7 +2,6 @@ package io.opentelemetry.auto.instrumentation.kafka_clients;
 
 import static io.opentelemetry.auto.instrumentation.kafka_clients.KafkaDecorator.PRODUCER_DECORATE;
 import static io.opentelemetry.auto.instrumentation.kafka_clients.KafkaDecorator.TRACER;
-import static io.opentelemetry.auto.instrumentation.kafka_clients.TextMapInjectAdapter.SETTER;
 import static io.opentelemetry.trace.Span.Kind.PRODUCER;
 import static java.util.Collections.singletonMap;
 import static net.bytebuddy.matcher.ElementMatchers.isMethod;
@@ -47,6 +46,7 @@ public final class KafkaProducerInstrumentation extends Instrumenter.Default {
       packageName + ".KafkaDecorator$1",
       packageName + ".KafkaDecorator$2",
       packageName + ".TextMapInjectAdapter",
+      packageName + ".TraceParentInjector",
       KafkaProducerInstrumentation.class.getName() + "$ProducerCallback"
     };
   }
@@ -80,7 +80,7 @@ public final class KafkaProducerInstrumentation extends Instrumenter.Default {
       // https://github.com/apache/kafka/blob/05fcfde8f69b0349216553f711fdfc3f0259c601/clients/src/main/java/org/apache/kafka/common/record/MemoryRecordsBuilder.java#L411-L412
       if (apiVersions.maxUsableProduceMagic() >= RecordBatch.MAGIC_VALUE_V2) {
         try {
-          TRACER.getHttpTextFormat().inject(span.getContext(), record.headers(), SETTER);
+          TraceParentInjector.inject(span.getContext(), record.headers());
         } catch (final IllegalStateException e) {
           // headers must be read-only from reused record. try again with new one.
           record =
@@ -92,7 +92,7 @@ public final class KafkaProducerInstrumentation extends Instrumenter.Default {
                   record.value(),
                   record.headers());
 
-          TRACER.getHttpTextFormat().inject(span.getContext(), record.headers(), SETTER);
+          TraceParentInjector.inject(span.getContext(), record.headers());
         }
       }
 
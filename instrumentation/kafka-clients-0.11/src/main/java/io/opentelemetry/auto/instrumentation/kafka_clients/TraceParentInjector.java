@@ -0,0 +1,92 @@
+package io.opentelemetry.auto.instrumentation.kafka_clients;
+
+import static io.opentelemetry.auto.instrumentation.kafka_clients.KafkaDecorator.TRACER;
+import static io.opentelemetry.auto.instrumentation.kafka_clients.TextMapInjectAdapter.SETTER;
+
+import io.opentelemetry.context.propagation.HttpTextFormat;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.TraceId;
+import io.opentelemetry.trace.propagation.HttpTraceContext;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Injects the context of a produce span into the headers of its record.
+ *
+ * <p>With the default, W3C, format the header is encoded straight to bytes instead of going through
+ * a string. A producer sending many records under the same span gives them produce spans of the
+ * same trace, so the part of the header holding the trace id is encoded once and copied for each
+ * of them: only the span id and the flags are encoded per record.
+ */
+public final class TraceParentInjector {
+  private static final String TRACE_PARENT = "traceparent";
+
+  // 00-<trace id>-<span id>-<flags>
+  private static final int TRACE_ID_SIZE = 16;
+  private static final int SPAN_ID_SIZE = 8;
+  private static final int SPAN_ID_OFFSET = 3 + 2 * TRACE_ID_SIZE + 1;
+  private static final int FLAGS_OFFSET = SPAN_ID_OFFSET + 2 * SPAN_ID_SIZE + 1;
+  private static final int SIZE = FLAGS_OFFSET + 2;
+
+  private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+  // Sends of a thread follow each other, keep the encoding of the last trace id it sent followed by
+  // the raw trace id. Only a byte[] is kept on the thread: an instance of a helper class would hold
+  // on to the application's class loader.
+  private static final ThreadLocal<byte[]> LAST_TRACE_ID = new ThreadLocal<>();
+
+  private TraceParentInjector() {}
+
+  public static void inject(final SpanContext context, final Headers headers) {
+    final HttpTextFormat<SpanContext> format = TRACER.getHttpTextFormat();
+    if (!(format instanceof HttpTraceContext) || !context.getTracestate().getEntries().isEmpty()) {
+      format.inject(context, headers, SETTER);
+      return;
+    }
+    final byte[] value = new byte[SIZE];
+    encodeTraceId(context.getTraceId(), value);
+    // the raw span id is put in the second half of its place, then spread out over it
+    context.getSpanId().copyBytesTo(value, SPAN_ID_OFFSET + SPAN_ID_SIZE);
+    for (int i = 0; i < SPAN_ID_SIZE; i++) {
+      final int b = value[SPAN_ID_OFFSET + SPAN_ID_SIZE + i] & 0xff;
+      value[SPAN_ID_OFFSET + 2 * i] = HEX[b >>> 4];
+      value[SPAN_ID_OFFSET + 2 * i + 1] = HEX[b & 0xf];
+    }
+    value[FLAGS_OFFSET - 1] = '-';
+    final int flags = context.getTraceFlags().getByte() & 0xff;
+    value[FLAGS_OFFSET] = HEX[flags >>> 4];
+    value[FLAGS_OFFSET + 1] = HEX[flags & 0xf];
+    headers.remove(TRACE_PARENT).add(TRACE_PARENT, value);
+  }
+
+  /** Writes the header up to the span id: version, trace id and their delimiters. */
+  private static void encodeTraceId(final TraceId traceId, final byte[] value) {
+    // the raw trace id is put where the span id goes, which is written afterwards
+    traceId.copyBytesTo(value, SPAN_ID_OFFSET);
+    final byte[] last = LAST_TRACE_ID.get();
+    if (last != null && sameTraceId(last, value)) {
+      System.arraycopy(last, 0, value, 0, SPAN_ID_OFFSET);
+      return;
+    }
+    value[0] = '0';
+    value[1] = '0';
+    value[2] = '-';
+    for (int i = 0; i < TRACE_ID_SIZE; i++) {
+      final int b = value[SPAN_ID_OFFSET + i] & 0xff;
+      value[3 + 2 * i] = HEX[b >>> 4];
+      value[3 + 2 * i + 1] = HEX[b & 0xf];
+    }
+    value[SPAN_ID_OFFSET - 1] = '-';
+    LAST_TRACE_ID.set(Arrays.copyOf(value, SPAN_ID_OFFSET + TRACE_ID_SIZE));
+  }
+
+  private static boolean sameTraceId(final byte[] last, final byte[] value) {
+    for (int i = SPAN_ID_OFFSET; i < SPAN_ID_OFFSET + TRACE_ID_SIZE; i++) {
+      if (last[i] != value[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
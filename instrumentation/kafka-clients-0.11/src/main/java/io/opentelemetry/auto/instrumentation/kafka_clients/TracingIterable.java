@@ -25,7 +25,7 @@ public class TracingIterable implements Iterable<ConsumerRecord> {
     // However, this is not thread-safe, but usually the first (hopefully only) traversal of
     // ConsumerRecords is performed in the same thread that called poll()
     if (firstIterator) {
-      it = new TracingIterator(delegate.iterator(), operationName, decorator);
+      it = new TracingIterator(delegate.iterator(), operationName, decorator, delegate);
       firstIterator = false;
     } else {
       it = delegate.iterator();
@@ -4,8 +4,10 @@ import static io.opentelemetry.auto.instrumentation.kafka_clients.KafkaDecorator
 import static io.opentelemetry.auto.instrumentation.kafka_clients.TextMapExtractAdapter.GETTER;
 import static io.opentelemetry.trace.Span.Kind.CONSUMER;
 
+import io.opentelemetry.auto.config.Config;
 import io.opentelemetry.auto.instrumentation.api.SpanWithScope;
 import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.SpanContext;
 import java.util.Iterator;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -16,6 +18,14 @@ public class TracingIterator implements Iterator<ConsumerRecord> {
   private final String operationName;
   private final KafkaDecorator decorator;
 
+  /**
+   * The records iterated, when they get one span for all of them instead of a span each, see
+   * {@link Config#isKafkaConsumerBatchSpans()}.
+   */
+  private final Iterable<ConsumerRecord> batchRecords;
+
+  private boolean batchStarted = false;
+
   /**
    * Note: this may potentially create problems if this iterator is used from different threads. But
    * at the moment we cannot do much about this.
@@ -25,14 +35,30 @@ public class TracingIterator implements Iterator<ConsumerRecord> {
   public TracingIterator(
       final Iterator<ConsumerRecord> delegateIterator,
       final String operationName,
-      final KafkaDecorator decorator) {
+      final KafkaDecorator decorator,
+      final Iterable<ConsumerRecord> records) {
     this.delegateIterator = delegateIterator;
     this.operationName = operationName;
     this.decorator = decorator;
+    batchRecords = Config.get().isKafkaConsumerBatchSpans() ? records : null;
+  }
+
+  Iterator<ConsumerRecord> delegate() {
+    return delegateIterator;
   }
 
   @Override
   public boolean hasNext() {
+    if (batchRecords != null) {
+      final boolean hasNext = delegateIterator.hasNext();
+      if (!hasNext && currentSpanWithScope != null) {
+        // the whole batch was consumed
+        currentSpanWithScope.getSpan().end();
+        currentSpanWithScope.closeScope();
+        currentSpanWithScope = null;
+      }
+      return hasNext;
+    }
     if (currentSpanWithScope != null) {
       currentSpanWithScope.getSpan().end();
       currentSpanWithScope.closeScope();
@@ -43,6 +69,13 @@ public class TracingIterator implements Iterator<ConsumerRecord> {
 
   @Override
   public ConsumerRecord next() {
+    if (batchRecords != null) {
+      if (!batchStarted) {
+        batchStarted = true;
+        startBatch();
+      }
+      return delegateIterator.next();
+    }
     if (currentSpanWithScope != null) {
       // in case they didn't call hasNext()...
       currentSpanWithScope.getSpan().end();
@@ -71,6 +104,22 @@ public class TracingIterator implements Iterator<ConsumerRecord> {
     return next;
   }
 
+  private void startBatch() {
+    try {
+      final ConsumerBatch batch = ConsumerBatch.of(batchRecords);
+      final Span.Builder spanBuilder = TRACER.spanBuilder(operationName).setSpanKind(CONSUMER);
+      for (final SpanContext link : batch.getLinks()) {
+        spanBuilder.addLink(link);
+      }
+      final Span span = spanBuilder.startSpan();
+      decorator.afterStart(span);
+      decorator.onConsume(span, batch);
+      currentSpanWithScope = new SpanWithScope(span, TRACER.withSpan(span));
+    } catch (final Exception e) {
+      log.debug("Error during decoration", e);
+    }
+  }
+
   @Override
   public void remove() {
     delegateIterator.remove();
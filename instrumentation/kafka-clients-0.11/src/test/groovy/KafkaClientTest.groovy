@@ -1,3 +1,4 @@
+import io.opentelemetry.auto.config.Config
 import io.opentelemetry.auto.instrumentation.api.MoreTags
 import io.opentelemetry.auto.instrumentation.api.Tags
 import io.opentelemetry.auto.test.AgentTestRunner
@@ -20,6 +21,7 @@ import org.springframework.kafka.test.utils.KafkaTestUtils
 import java.util.concurrent.LinkedBlockingQueue
 import java.util.concurrent.TimeUnit
 
+import static io.opentelemetry.auto.test.utils.ConfigUtils.withConfigOverride
 import static io.opentelemetry.trace.Span.Kind.CONSUMER
 import static io.opentelemetry.trace.Span.Kind.PRODUCER
 
@@ -194,4 +196,81 @@ class KafkaClientTest extends AgentTestRunner {
 
   }
 
+  def "test kafka consume with batch spans"() {
+    setup:
+    def kafkaPartition = 0
+    def consumerProperties = KafkaTestUtils.consumerProps("sender", "false", embeddedKafka)
+    consumerProperties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest")
+    def consumer = new KafkaConsumer<String, String>(consumerProperties)
+
+    def senderProps = KafkaTestUtils.senderProps(embeddedKafka.getBrokersAsString())
+    def producer = new KafkaProducer(senderProps)
+
+    consumer.assign(Arrays.asList(new TopicPartition(SHARED_TOPIC, kafkaPartition)))
+
+    when:
+    producer.send(new ProducerRecord<Integer, String>(SHARED_TOPIC, kafkaPartition, null, "first")).get()
+    producer.send(new ProducerRecord<Integer, String>(SHARED_TOPIC, kafkaPartition, null, "second")).get()
+
+    then:
+    TEST_WRITER.waitForTraces(2)
+    def pollResult = KafkaTestUtils.getRecords(consumer)
+    def values = withConfigOverride(Config.KAFKA_CONSUMER_BATCH_SPANS, "true") {
+      pollResult.records(new TopicPartition(SHARED_TOPIC, kafkaPartition)).collect { it.value() }
+    }
+
+    then:
+    values == ["first", "second"]
+
+    assertTraces(3) {
+      2.times { index ->
+        trace(index, 1) {
+          span(0) {
+            operationName "kafka.produce"
+            spanKind PRODUCER
+            errored false
+            parent()
+            tags {
+              "$MoreTags.SERVICE_NAME" "kafka"
+              "$MoreTags.RESOURCE_NAME" "Produce Topic $SHARED_TOPIC"
+              "$MoreTags.SPAN_TYPE" "queue"
+              "$Tags.COMPONENT" "java-kafka"
+              "kafka.partition" { it >= 0 }
+            }
+          }
+        }
+      }
+      // one span for the whole batch
+      trace(2, 1) {
+        span(0) {
+          operationName "kafka.consume"
+          spanKind CONSUMER
+          errored false
+          hasLink traces[0][0]
+          hasLink traces[1][0]
+          tags {
+            "$MoreTags.SERVICE_NAME" "kafka"
+            "$MoreTags.RESOURCE_NAME" "Consume Topic $SHARED_TOPIC"
+            "$MoreTags.SPAN_TYPE" "queue"
+            "$Tags.COMPONENT" "java-kafka"
+            "record.count" 2
+          }
+          event(0) {
+            name "kafka.partition"
+            attributes {
+              "topic" SHARED_TOPIC
+              "partition" kafkaPartition
+              "record.count" 2
+              "offset.first" 0
+              "offset.last" 1
+            }
+          }
+        }
+      }
+    }
+
+    cleanup:
+    consumer.close()
+    producer.close()
+  }
 }
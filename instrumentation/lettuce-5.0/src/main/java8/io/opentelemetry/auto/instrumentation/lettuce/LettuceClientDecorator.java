@@ -48,6 +48,9 @@ public class LettuceClientDecorator extends DatabaseClientDecorator<RedisURI> {
 
   @Override
   public Span onConnection(final Span span, final RedisURI connection) {
+    if (!span.isRecording()) {
+      return span;
+    }
     if (connection != null) {
       span.setAttribute(Tags.PEER_HOSTNAME, connection.getHost());
       span.setAttribute(Tags.PEER_PORT, connection.getPort());
@@ -66,6 +69,9 @@ public class LettuceClientDecorator extends DatabaseClientDecorator<RedisURI> {
   }
 
   public Span onCommand(final Span span, final RedisCommand command) {
+    if (!span.isRecording()) {
+      return span;
+    }
     final String commandName = LettuceInstrumentationUtil.getCommandName(command);
     span.setAttribute(
         MoreTags.RESOURCE_NAME, LettuceInstrumentationUtil.getCommandResourceName(commandName));
@@ -48,6 +48,7 @@ public final class MongoClientInstrumentation extends Instrumenter.Default {
       "io.opentelemetry.auto.decorator.ClientDecorator",
       "io.opentelemetry.auto.decorator.DatabaseClientDecorator",
       packageName + ".MongoClientDecorator",
+      packageName + ".InFlightSpans",
       packageName + ".TracingCommandListener"
     };
   }
@@ -0,0 +1,39 @@
+import io.opentelemetry.auto.instrumentation.api.MoreTags
+import io.opentelemetry.auto.util.test.AgentSpecification
+import io.opentelemetry.trace.Span
+import org.bson.BsonDocument
+import org.bson.BsonString
+
+import static io.opentelemetry.auto.instrumentation.mongo.MongoClientDecorator.DECORATE
+
+class MongoClientDecoratorTest extends AgentSpecification {
+
+  def "statements escape #description like the driver"() {
+    setup:
+    def span = Mock(Span)
+    // the collection name is kept, other values are scrubbed
+    def command = new BsonDocument("find", new BsonString(name)).append(name, new BsonString("value"))
+    def scrubbed = new BsonDocument("find", new BsonString(name)).append(name, new BsonString("?"))
+    String resourceName = null
+
+    when:
+    DECORATE.onStatement(span, command)
+
+    then:
+    _ * span.isRecording() >> true
+    1 * span.setAttribute(MoreTags.RESOURCE_NAME, _) >> { resourceName = it[1] }
+    // newer drivers leave out some of the spaces
+    resourceName.replace(" ", "") == scrubbed.toString().replace(" ", "")
+
+    where:
+    description           | name
+    "backspaces"          | 'a\bb'
+    "form feeds"          | 'a\fb'
+    "control characters"  | 'a\u0001b\u007fc'
+    "line separators"     | 'a\u2028b\u2029c'
+    "format characters"   | 'a\u00adb\u200bc'
+    "combining marks"     | 'e\u0301'
+    "letters and symbols" | '\u00e9\u20ac\u2192\u00a0'
+    "quotes"              | 'a"b\\c'
+  }
+}
@@ -127,6 +127,37 @@ class MongoClientTest extends MongoBaseTest {
     collectionName = "testCollection"
   }
 
+  def "test insert many"() {
+    setup:
+    MongoCollection<Document> collection = runUnderTrace("setup") {
+      MongoDatabase db = client.getDatabase(dbName)
+      db.createCollection(collectionName)
+      return db.getCollection(collectionName)
+    }
+    TEST_WRITER.waitForTraces(1)
+    TEST_WRITER.clear()
+
+    when:
+    collection.insertMany((1..20).collect { new Document("password", "SECRET") })
+
+    then:
+    collection.count() == 20
+    assertTraces(2) {
+      trace(0, 1) {
+        // documents after the 10th are left out
+        def documents = (["{\"_id\":\"?\",\"password\":\"?\"}"] * 10 + ["\"...\""]).join(",")
+        mongoSpan(it, 0, "{\"insert\":\"$collectionName\",\"ordered\":\"?\",\"documents\":[$documents]}")
+      }
+      trace(1, 1) {
+        mongoSpan(it, 0, "{\"count\":\"$collectionName\",\"query\":{}}")
+      }
+    }
+
+    where:
+    dbName = "test_db"
+    collectionName = "testCollection"
+  }
+
   def "test update"() {
     setup:
     MongoCollection<Document> collection = runUnderTrace("setup") {
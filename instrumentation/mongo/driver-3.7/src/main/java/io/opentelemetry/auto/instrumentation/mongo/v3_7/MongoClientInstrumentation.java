@@ -49,6 +49,7 @@ public final class MongoClientInstrumentation extends Instrumenter.Default {
       "io.opentelemetry.auto.decorator.ClientDecorator",
       "io.opentelemetry.auto.decorator.DatabaseClientDecorator",
       "io.opentelemetry.auto.instrumentation.mongo.MongoClientDecorator",
+      "io.opentelemetry.auto.instrumentation.mongo.InFlightSpans",
       "io.opentelemetry.auto.instrumentation.mongo.TracingCommandListener"
     };
   }
@@ -0,0 +1,116 @@
+package io.opentelemetry.auto.instrumentation.mongo;
+
+import static io.opentelemetry.auto.instrumentation.mongo.MongoClientDecorator.DECORATE;
+
+import io.opentelemetry.auto.instrumentation.api.MoreTags;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Status;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Spans of the commands waiting for a reply, by request id.
+ *
+ * <p>An open addressing table of bounded capacity: the driver hands out request ids in sequence, so
+ * the commands in flight at the same time fall in different slots, and nothing is allocated per
+ * command. A slot is owned by whoever moves its key to {@link #BUSY}, which it only keeps for a few
+ * instructions: a thread removing a command waits for busy slots, which may hold that command.
+ *
+ * <p>The driver doesn't always report the end of a command, when its connection is dropped for
+ * instance. Spans waiting longer than {@link #TIMEOUT_NANOS} are ended as failed, checked at most
+ * once per {@link #SWEEP_INTERVAL_NANOS} as commands start, so the table can't fill up with them.
+ */
+@Slf4j
+final class InFlightSpans {
+  // Request ids are ints, so these can't be confused with one.
+  private static final long FREE = Long.MIN_VALUE;
+  private static final long BUSY = Long.MIN_VALUE + 1;
+
+  private static final int CAPACITY = 1024; // far more than the connections of a pool
+  private static final int MAX_PROBES = 16;
+
+  private static final long TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(10);
+  private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+  private final AtomicLongArray keys = new AtomicLongArray(CAPACITY);
+  // Only written by the owner of the slot, published by the writes to its key.
+  private final AtomicReferenceArray<Span> spans = new AtomicReferenceArray<>(CAPACITY);
+  // Also read by the sweep before taking the slot, to only take the slots which expired.
+  private final AtomicLongArray startNanos = new AtomicLongArray(CAPACITY);
+
+  private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime());
+
+  InFlightSpans() {
+    for (int slot = 0; slot < CAPACITY; slot++) {
+      keys.set(slot, FREE);
+    }
+  }
+
+  /** @return whether the span was added, {@code false} if the table is full. */
+  boolean put(final int requestId, final Span span) {
+    final long now = System.nanoTime();
+    final long nextSweep = nextSweepNanos.get();
+    if (now - nextSweep >= 0
+        && nextSweepNanos.compareAndSet(nextSweep, now + SWEEP_INTERVAL_NANOS)) {
+      expire(now);
+    }
+    for (int probe = 0; probe < MAX_PROBES; probe++) {
+      final int slot = (requestId + probe) & (CAPACITY - 1);
+      if (keys.get(slot) == FREE && keys.compareAndSet(slot, FREE, BUSY)) {
+        spans.lazySet(slot, span);
+        startNanos.lazySet(slot, now);
+        keys.set(slot, requestId);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** @return the span of the command, or {@code null} if it's not in the table. */
+  Span remove(final int requestId) {
+    for (int probe = 0; probe < MAX_PROBES; probe++) {
+      final int slot = (requestId + probe) & (CAPACITY - 1);
+      long key;
+      while ((key = keys.get(slot)) == BUSY) {
+        Thread.yield();
+      }
+      if (key == requestId && keys.compareAndSet(slot, requestId, BUSY)) {
+        return release(slot);
+      }
+    }
+    return null;
+  }
+
+  private Span release(final int slot) {
+    final Span span = spans.get(slot);
+    spans.lazySet(slot, null);
+    keys.set(slot, FREE);
+    return span;
+  }
+
+  /** Ends the spans which were put more than {@link #TIMEOUT_NANOS} before {@code now}. */
+  void expire(final long now) {
+    for (int slot = 0; slot < CAPACITY; slot++) {
+      final long key = keys.get(slot);
+      if (key == FREE || key == BUSY || now - startNanos.get(slot) < TIMEOUT_NANOS) {
+        continue;
+      }
+      if (keys.compareAndSet(slot, key, BUSY)) {
+        // checked again now that the slot is owned, it may have been reused in the meantime
+        if (now - startNanos.get(slot) < TIMEOUT_NANOS) {
+          keys.set(slot, key);
+        } else {
+          final Span span = release(slot);
+          log.debug("No reply to mongo request {}, ending its span", key);
+          span.setStatus(Status.DEADLINE_EXCEEDED);
+          span.setAttribute(MoreTags.ERROR_MSG, "No reply to the command");
+          DECORATE.beforeFinish(span);
+          span.end();
+        }
+      }
+    }
+  }
+}
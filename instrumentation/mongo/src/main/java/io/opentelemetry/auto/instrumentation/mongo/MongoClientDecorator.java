@@ -16,7 +16,6 @@ import java.util.List;
 import java.util.Map;
 import org.bson.BsonArray;
 import org.bson.BsonDocument;
-import org.bson.BsonString;
 import org.bson.BsonValue;
 
 public class MongoClientDecorator extends DatabaseClientDecorator<CommandStartedEvent> {
@@ -74,10 +73,11 @@ public class MongoClientDecorator extends DatabaseClientDecorator<CommandStarted
   }
 
   public Span onStatement(final Span span, final BsonDocument statement) {
-
+    if (!span.isRecording()) {
+      return span;
+    }
     // scrub the Mongo command so that parameters are removed from the string
-    final BsonDocument scrubbed = scrub(statement);
-    final String mongoCmd = scrubbed.toString();
+    final String mongoCmd = scrub(statement);
 
     span.setAttribute(MoreTags.RESOURCE_NAME, mongoCmd);
     return onStatement(span, mongoCmd);
@@ -90,39 +90,178 @@ public class MongoClientDecorator extends DatabaseClientDecorator<CommandStarted
   private static final List<String> UNSCRUBBED_FIELDS =
       Arrays.asList("ordered", "insert", "count", "find", "create");
 
-  private static final BsonValue HIDDEN_CHAR = new BsonString("?");
+  private static final String HIDDEN_CHAR = "\"?\"";
+
+  // Bulk writes carry thousands of documents, usually of the same shape.
+  private static final int MAX_ARRAY_ELEMENTS = 10;
+  private static final String MORE_ELEMENTS = "\"...\"";
+  private static final int MAX_LENGTH = 4096;
+  private static final String TRUNCATED = "...";
+
+  private static final ThreadLocal<StringBuilder> BUFFER = new ThreadLocal<>();
+
+  // Commands are rendered again for every call, but only a few shapes are used by an application:
+  // the rendered strings are kept, indexed by their hash, so the same shape reuses the same string.
+  private static final int CACHED_STATEMENTS = 256;
+  private static final String[] STATEMENTS = new String[CACHED_STATEMENTS];
+
+  /**
+   * Renders the command as JSON, like {@link BsonDocument#toString()} does, with the values
+   * replaced by {@code "?"}, without copying it. Arrays are cut after {@link #MAX_ARRAY_ELEMENTS}
+   * elements and the statement after {@link #MAX_LENGTH} characters.
+   */
+  private static String scrub(final BsonDocument origin) {
+    StringBuilder buffer = BUFFER.get();
+    if (buffer == null) {
+      buffer = new StringBuilder(MAX_LENGTH + TRUNCATED.length());
+      BUFFER.set(buffer);
+    }
+    buffer.setLength(0);
+    write(buffer, origin);
+    if (buffer.length() > MAX_LENGTH) {
+      buffer.setLength(MAX_LENGTH);
+      buffer.append(TRUNCATED);
+    }
+    return cached(buffer);
+  }
+
+  private static String cached(final StringBuilder buffer) {
+    int hash = 0;
+    for (int i = 0; i < buffer.length(); i++) {
+      hash = 31 * hash + buffer.charAt(i);
+    }
+    final int slot = (hash ^ (hash >>> 16)) & (CACHED_STATEMENTS - 1);
+    // strings are immutable, a racy read sees either a whole string or null
+    final String cached = STATEMENTS[slot];
+    if (cached != null && cached.contentEquals(buffer)) {
+      return cached;
+    }
+    final String statement = buffer.toString();
+    STATEMENTS[slot] = statement;
+    return statement;
+  }
 
-  private static BsonDocument scrub(final BsonDocument origin) {
-    final BsonDocument scrub = new BsonDocument();
+  private static void write(final StringBuilder buffer, final BsonDocument origin) {
+    if (origin.isEmpty()) {
+      buffer.append("{ }");
+      return;
+    }
+    buffer.append("{ ");
+    boolean first = true;
     for (final Map.Entry<String, BsonValue> entry : origin.entrySet()) {
+      if (buffer.length() > MAX_LENGTH) {
+        break;
+      }
+      if (!first) {
+        buffer.append(", ");
+      }
+      first = false;
+      writeString(buffer, entry.getKey());
+      buffer.append(" : ");
       if (UNSCRUBBED_FIELDS.contains(entry.getKey()) && entry.getValue().isString()) {
-        scrub.put(entry.getKey(), entry.getValue());
+        writeString(buffer, entry.getValue().asString().getValue());
       } else {
-        final BsonValue child = scrub(entry.getValue());
-        scrub.put(entry.getKey(), child);
+        write(buffer, entry.getValue());
       }
     }
-    return scrub;
+    buffer.append(" }");
   }
 
-  private static BsonValue scrub(final BsonArray origin) {
-    final BsonArray scrub = new BsonArray();
-    for (final BsonValue value : origin) {
-      final BsonValue child = scrub(value);
-      scrub.add(child);
+  private static void write(final StringBuilder buffer, final BsonArray origin) {
+    buffer.append('[');
+    final int size = origin.size();
+    for (int i = 0; i < size && buffer.length() <= MAX_LENGTH; i++) {
+      if (i > 0) {
+        buffer.append(", ");
+      }
+      if (i == MAX_ARRAY_ELEMENTS) {
+        buffer.append(MORE_ELEMENTS);
+        break;
+      }
+      write(buffer, origin.get(i));
     }
-    return scrub;
+    buffer.append(']');
   }
 
-  private static BsonValue scrub(final BsonValue origin) {
-    final BsonValue scrubbed;
+  private static void write(final StringBuilder buffer, final BsonValue origin) {
     if (origin.isDocument()) {
-      scrubbed = scrub(origin.asDocument());
+      write(buffer, origin.asDocument());
     } else if (origin.isArray()) {
-      scrubbed = scrub(origin.asArray());
+      write(buffer, origin.asArray());
     } else {
-      scrubbed = HIDDEN_CHAR;
+      buffer.append(HIDDEN_CHAR);
+    }
+  }
+
+  /** Escapes the string the way the driver's {@code JsonWriter} does. */
+  private static void writeString(final StringBuilder buffer, final String value) {
+    buffer.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          buffer.append("\\\"");
+          break;
+        case '\\':
+          buffer.append("\\\\");
+          break;
+        case '\b':
+          buffer.append("\\b");
+          break;
+        case '\f':
+          buffer.append("\\f");
+          break;
+        case '\n':
+          buffer.append("\\n");
+          break;
+        case '\r':
+          buffer.append("\\r");
+          break;
+        case '\t':
+          buffer.append("\\t");
+          break;
+        default:
+          if (isPrintable(c)) {
+            buffer.append(c);
+          } else {
+            buffer.append("\\u");
+            for (int shift = 12; shift >= 0; shift -= 4) {
+              buffer.append(Character.forDigit((c >> shift) & 0xf, 16));
+            }
+          }
+      }
+    }
+    buffer.append('"');
+  }
+
+  /**
+   * @return false for the characters escaped by {@code JsonWriter}: controls, formats, separators
+   *     other than spaces, combining marks, surrogates, private use and unassigned characters.
+   */
+  private static boolean isPrintable(final char c) {
+    switch (Character.getType(c)) {
+      case Character.UPPERCASE_LETTER:
+      case Character.LOWERCASE_LETTER:
+      case Character.TITLECASE_LETTER:
+      case Character.OTHER_LETTER:
+      case Character.DECIMAL_DIGIT_NUMBER:
+      case Character.LETTER_NUMBER:
+      case Character.OTHER_NUMBER:
+      case Character.SPACE_SEPARATOR:
+      case Character.CONNECTOR_PUNCTUATION:
+      case Character.DASH_PUNCTUATION:
+      case Character.START_PUNCTUATION:
+      case Character.END_PUNCTUATION:
+      case Character.INITIAL_QUOTE_PUNCTUATION:
+      case Character.FINAL_QUOTE_PUNCTUATION:
+      case Character.OTHER_PUNCTUATION:
+      case Character.MATH_SYMBOL:
+      case Character.CURRENCY_SYMBOL:
+      case Character.MODIFIER_SYMBOL:
+      case Character.OTHER_SYMBOL:
+        return true;
+      default:
+        return false;
     }
-    return scrubbed;
   }
 }
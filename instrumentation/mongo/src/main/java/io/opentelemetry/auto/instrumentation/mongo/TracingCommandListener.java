@@ -10,14 +10,12 @@ import com.mongodb.event.CommandStartedEvent;
 import com.mongodb.event.CommandSucceededEvent;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.trace.Span;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class TracingCommandListener implements CommandListener {
 
-  private final Map<Integer, Span> spanMap = new ConcurrentHashMap<>();
+  private final InFlightSpans spans = new InFlightSpans();
 
   @Override
   public void commandStarted(final CommandStartedEvent event) {
@@ -32,13 +30,17 @@ public class TracingCommandListener implements CommandListener {
             span, event.getConnectionDescription().getServerAddress().getSocketAddress());
       }
       DECORATE.onStatement(span, event.getCommand());
-      spanMap.put(event.getRequestId(), span);
+      if (!spans.put(event.getRequestId(), span)) {
+        log.debug("Too many mongo commands in flight, not waiting for a reply");
+        DECORATE.beforeFinish(span);
+        span.end();
+      }
     }
   }
 
   @Override
   public void commandSucceeded(final CommandSucceededEvent event) {
-    final Span span = spanMap.remove(event.getRequestId());
+    final Span span = spans.remove(event.getRequestId());
     if (span != null) {
       DECORATE.beforeFinish(span);
       span.end();
@@ -47,7 +49,7 @@ public class TracingCommandListener implements CommandListener {
 
   @Override
   public void commandFailed(final CommandFailedEvent event) {
-    final Span span = spanMap.remove(event.getRequestId());
+    final Span span = spans.remove(event.getRequestId());
     if (span != null) {
       DECORATE.onError(span, event.getThrowable());
       DECORATE.beforeFinish(span);
@@ -0,0 +1,106 @@
+package io.opentelemetry.auto.instrumentation.mongo
+
+import io.opentelemetry.auto.instrumentation.api.MoreTags
+import io.opentelemetry.auto.util.test.AgentSpecification
+import io.opentelemetry.trace.Span
+import io.opentelemetry.trace.Status
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+class InFlightSpansTest extends AgentSpecification {
+
+  def spans = new InFlightSpans()
+
+  def "spans are removed by request id"() {
+    setup:
+    def first = Mock(Span)
+    def second = Mock(Span)
+
+    expect:
+    spans.put(1, first)
+    spans.put(1025, second) // same slot as 1
+    spans.remove(1025).is(second)
+    spans.remove(1).is(first)
+    spans.remove(1) == null
+    spans.remove(2) == null
+  }
+
+  def "spans are added until their slots are full"() {
+    setup:
+    def span = Mock(Span)
+
+    expect:
+    (0..<16).every { spans.put(it, span) }
+    // 1024 falls on slot 0, and the slots it may use after it are taken
+    !spans.put(1024, span)
+    spans.put(16, span)
+    spans.remove(0).is(span)
+    spans.put(1024, span)
+  }
+
+  def "spans without reply are ended once expired"() {
+    setup:
+    def expired = Mock(Span)
+    spans.put(1, expired)
+
+    when:
+    spans.expire(System.nanoTime())
+
+    then:
+    0 * expired._
+
+    when:
+    spans.expire(System.nanoTime() + TimeUnit.MINUTES.toNanos(11))
+
+    then:
+    1 * expired.setStatus(Status.DEADLINE_EXCEEDED)
+    1 * expired.setAttribute(MoreTags.ERROR_MSG, "No reply to the command")
+    1 * expired.end()
+    spans.remove(1) == null
+  }
+
+  def "sweeps don't get in the way of removing spans"() {
+    setup:
+    def threads = 4
+    def threadSpans = (0..<threads).collect { Mock(Span) }
+    def start = new CountDownLatch(1)
+    def sweeping = new AtomicBoolean(true)
+    def executor = Executors.newFixedThreadPool(threads + 1)
+    def sweeper = executor.submit({
+      start.await()
+      while (sweeping.get()) {
+        spans.expire(System.nanoTime())
+      }
+    } as Runnable)
+
+    when:
+    def futures = (0..<threads).collect { thread ->
+      executor.submit({
+        start.await()
+        def span = threadSpans[thread]
+        int missed = 0
+        // 64 commands in flight per thread, each thread in its own slots so the table can't fill up
+        for (int i = 0; i < 5000; i++) {
+          def first = thread * 256 + i * 1024
+          (first..<first + 64).each { spans.put(it, span) }
+          missed += (first..<first + 64).count { !spans.remove(it).is(span) }
+        }
+        return missed
+      } as Callable)
+    }
+    start.countDown()
+    def missed = futures.sum { it.get(30, TimeUnit.SECONDS) }
+    sweeping.set(false)
+    sweeper.get(30, TimeUnit.SECONDS)
+
+    then:
+    missed == 0
+
+    cleanup:
+    executor.shutdownNow()
+  }
+}
@@ -53,6 +53,9 @@ public class ChannelFutureListenerInstrumentation extends Instrumenter.Default {
       // server helpers
       "io.opentelemetry.auto.decorator.ServerDecorator",
       "io.opentelemetry.auto.decorator.HttpServerDecorator",
+      "io.opentelemetry.auto.decorator.HttpServerDecorator$RequestUrlThreadLocal",
+      "io.opentelemetry.auto.decorator.RequestUrl",
+      "io.opentelemetry.auto.decorator.IpAddresses",
       packageName + ".server.NettyHttpServerDecorator",
       packageName + ".server.NettyRequestExtractAdapter",
       packageName + ".server.HttpServerRequestTracingHandler",
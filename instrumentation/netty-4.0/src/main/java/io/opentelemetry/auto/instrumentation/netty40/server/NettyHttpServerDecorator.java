@@ -7,6 +7,7 @@ import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
 import io.opentelemetry.OpenTelemetry;
 import io.opentelemetry.auto.decorator.HttpServerDecorator;
+import io.opentelemetry.auto.decorator.RequestUrl;
 import io.opentelemetry.trace.Tracer;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
@@ -42,6 +43,16 @@ public class NettyHttpServerDecorator
     }
   }
 
+  @Override
+  protected boolean requestUrl(final HttpRequest request, final RequestUrl url) {
+    url.target(request.getUri());
+    final String host = request.headers().get(HOST);
+    if (host != null) {
+      url.scheme("http").authority(host);
+    }
+    return true;
+  }
+
   @Override
   protected String peerHostIP(final Channel channel) {
     final SocketAddress socketAddress = channel.remoteAddress();
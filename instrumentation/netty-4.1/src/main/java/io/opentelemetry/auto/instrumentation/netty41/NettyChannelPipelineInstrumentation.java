@@ -68,6 +68,9 @@ public class NettyChannelPipelineInstrumentation extends Instrumenter.Default {
       // server helpers
       "io.opentelemetry.auto.decorator.ServerDecorator",
       "io.opentelemetry.auto.decorator.HttpServerDecorator",
+      "io.opentelemetry.auto.decorator.HttpServerDecorator$RequestUrlThreadLocal",
+      "io.opentelemetry.auto.decorator.RequestUrl",
+      "io.opentelemetry.auto.decorator.IpAddresses",
       packageName + ".server.NettyHttpServerDecorator",
       packageName + ".server.NettyRequestExtractAdapter",
       packageName + ".server.HttpServerRequestTracingHandler",
@@ -97,28 +100,46 @@ public class NettyChannelPipelineInstrumentation extends Instrumenter.Default {
    */
   public static class ChannelPipelineAddAdvice {
     @Advice.OnMethodEnter
-    public static int trackCallDepth(@Advice.Argument(2) final ChannelHandler handler) {
+    public static Class<?> trackCallDepth(@Advice.Argument(2) final ChannelHandler handler) {
       // Previously we used one unique call depth tracker for all handlers, using
       // ChannelPipeline.class as a key.
       // The problem with this approach is that it does not work with netty's
       // io.netty.channel.ChannelInitializer which provides an `initChannel` that can be used to
       // `addLast` other handlers. In that case the depth would exceed 0 and handlers added from
       // initializers would not be considered.
-      // Using the specific handler key instead of the generic ChannelPipeline.class will help us
-      // both to handle such cases and avoid adding our additional handlers in case of internal
-      // calls of `addLast` to other method overloads with a compatible signature.
-      return CallDepthThreadLocalMap.incrementCallDepth(handler.getClass());
+      // Tracking the depth per kind of handler we add tracing for instead will help us both to
+      // handle such cases and avoid adding our additional handlers in case of internal calls of
+      // `addLast` to other method overloads with a compatible signature. Unlike the handler's own
+      // class, these keys don't grow the call depth slots with every handler class in the app.
+      final Class<?> key;
+      if (handler instanceof HttpServerCodec) {
+        key = HttpServerCodec.class;
+      } else if (handler instanceof HttpRequestDecoder) {
+        key = HttpRequestDecoder.class;
+      } else if (handler instanceof HttpResponseEncoder) {
+        key = HttpResponseEncoder.class;
+      } else if (handler instanceof HttpClientCodec) {
+        key = HttpClientCodec.class;
+      } else if (handler instanceof HttpRequestEncoder) {
+        key = HttpRequestEncoder.class;
+      } else if (handler instanceof HttpResponseDecoder) {
+        key = HttpResponseDecoder.class;
+      } else {
+        return null;
+      }
+      return CallDepthThreadLocalMap.incrementCallDepth(key) > 0 ? null : key;
     }
 
     @Advice.OnMethodExit(onThrowable = Throwable.class, suppress = Throwable.class)
     public static void addHandler(
-        @Advice.Enter final int callDepth,
+        @Advice.Enter final Class<?> callDepthKey,
         @Advice.This final ChannelPipeline pipeline,
         @Advice.Argument(2) final ChannelHandler handler) {
-      if (callDepth > 0) {
+      // null for nested calls and handlers we don't add tracing for
+      if (callDepthKey == null) {
         return;
       }
-      CallDepthThreadLocalMap.reset(handler.getClass());
+      CallDepthThreadLocalMap.reset(callDepthKey);
 
       try {
         // Server pipeline handlers
@@ -57,6 +57,9 @@ public class PlayHttpServerDecorator extends HttpServerDecorator<Request, Reques
 
   @Override
   public Span onRequest(final Span span, final Request request) {
+    if (!span.isRecording()) {
+      return span;
+    }
     super.onRequest(span, request);
     if (request != null) {
       // more about routes here:
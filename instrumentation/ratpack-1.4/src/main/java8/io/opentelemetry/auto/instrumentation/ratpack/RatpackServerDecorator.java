@@ -64,7 +64,9 @@ public class RatpackServerDecorator extends HttpServerDecorator<Request, Request
   }
 
   public Span onContext(final Span span, final Context ctx) {
-
+    if (!span.isRecording()) {
+      return span;
+    }
     String description = ctx.getPathBinding().getDescription();
     if (description == null || description.isEmpty()) {
       description = "/";
@@ -2,6 +2,7 @@ package io.opentelemetry.auto.instrumentation.servlet2;
 
 import io.opentelemetry.OpenTelemetry;
 import io.opentelemetry.auto.decorator.HttpServerDecorator;
+import io.opentelemetry.auto.decorator.RequestUrl;
 import io.opentelemetry.trace.Span;
 import io.opentelemetry.trace.Tracer;
 import java.net.URI;
@@ -37,6 +38,14 @@ public class Servlet2Decorator
         null);
   }
 
+  @Override
+  protected boolean requestUrl(final HttpServletRequest httpServletRequest, final RequestUrl url) {
+    url.scheme(httpServletRequest.getScheme())
+        .host(httpServletRequest.getServerName(), httpServletRequest.getServerPort())
+        .path(httpServletRequest.getRequestURI(), httpServletRequest.getQueryString());
+    return true;
+  }
+
   @Override
   protected String peerHostIP(final HttpServletRequest httpServletRequest) {
     return httpServletRequest.getRemoteAddr();
@@ -61,6 +70,9 @@ public class Servlet2Decorator
   @Override
   public Span onRequest(final Span span, final HttpServletRequest request) {
     assert span != null;
+    if (!span.isRecording()) {
+      return span;
+    }
     if (request != null) {
       final String sc = request.getContextPath();
       if (sc != null && !sc.isEmpty()) {
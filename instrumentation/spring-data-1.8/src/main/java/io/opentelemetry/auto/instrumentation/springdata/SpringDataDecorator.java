@@ -35,6 +35,9 @@ public final class SpringDataDecorator extends ClientDecorator {
   public Span onOperation(final Span span, final Method method) {
     assert span != null;
     assert method != null;
+    if (!span.isRecording()) {
+      return span;
+    }
 
     if (method != null) {
       span.setAttribute(MoreTags.RESOURCE_NAME, spanNameForMethod(method));
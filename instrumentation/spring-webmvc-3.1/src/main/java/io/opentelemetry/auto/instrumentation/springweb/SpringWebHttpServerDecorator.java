@@ -72,6 +72,9 @@ public class SpringWebHttpServerDecorator
 
   @Override
   public Span onRequest(final Span span, final HttpServletRequest request) {
+    if (!span.isRecording()) {
+      return span;
+    }
     if (request != null) {
       final String method = request.getMethod();
       final Object bestMatchingPattern =
@@ -85,6 +88,9 @@ public class SpringWebHttpServerDecorator
   }
 
   public void onHandle(final Span span, final Object handler) {
+    if (!span.isRecording()) {
+      return;
+    }
     final Class<?> clazz;
     final String methodName;
 
@@ -116,6 +122,9 @@ public class SpringWebHttpServerDecorator
   }
 
   public Span onRender(final Span span, final ModelAndView mv) {
+    if (!span.isRecording()) {
+      return span;
+    }
     final String viewName = mv.getViewName();
     if (viewName != null) {
       span.setAttribute("view.name", viewName);
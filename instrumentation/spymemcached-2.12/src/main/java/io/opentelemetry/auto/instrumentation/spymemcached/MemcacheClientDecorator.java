@@ -45,7 +45,9 @@ public class MemcacheClientDecorator extends DatabaseClientDecorator<MemcachedCo
   }
 
   public Span onOperation(final Span span, final String methodName) {
-
+    if (!span.isRecording()) {
+      return span;
+    }
     final char[] chars =
         methodName
             .replaceFirst("^async", "")
@@ -5,6 +5,8 @@ import io.opentelemetry.OpenTelemetry;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.trace.Span;
 import io.opentelemetry.trace.Tracer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -12,6 +14,19 @@ import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 
+/**
+ * Generates traces through the agent's tracer and reports the CPU time the process spends per
+ * trace.
+ *
+ * <p>Comparing runs with and without sampling shows what unsampled traces cost, e.g. with {@code
+ * --attributes 10} to account for the attributes the decorators would set:
+ *
+ * <pre>
+ * ./gradlew :load-generator:launch --args="--rate 5000 --attributes 10"
+ * ./gradlew :load-generator:launch --args="--rate 5000 --attributes 10" \
+ *     -Dota.trace.sampler=ratio -Dota.trace.sampler.ratio=0.1
+ * </pre>
+ */
 @Command(
     mixinStandardHelpOptions = true,
     description = "Generates traces and spans at a specified rate")
@@ -53,6 +68,14 @@ public class LoadGenerator implements Callable<Integer> {
       description = "Interval, in seconds, to print statistics (default: ${DEFAULT-VALUE})")
   private int printInterval;
 
+  @Option(
+      names = "--attributes",
+      defaultValue = "0",
+      description =
+          "Number of attributes set on each span, skipped when it isn't recording like the"
+              + " decorators do (default: ${DEFAULT-VALUE})")
+  private int attributes;
+
   private RateLimiter rateLimiter;
   private final AtomicLong tracesSent = new AtomicLong();
 
@@ -62,6 +85,7 @@ public class LoadGenerator implements Callable<Integer> {
 
     long intervalStart = System.currentTimeMillis();
     long tracesAtLastReport = 0;
+    long cpuAtLastReport = processCpuTime();
 
     for (int i = 0; i < threads; i++) {
       final Thread workerThread = new Thread(new Worker(), "Worker-" + i);
@@ -78,10 +102,41 @@ public class LoadGenerator implements Callable<Integer> {
       final double currentRate =
           (currentTracesSent - tracesAtLastReport) / ((intervalEnd - intervalStart) / 1000d);
 
+      final long currentCpu = processCpuTime();
+      final long intervalTraces = currentTracesSent - tracesAtLastReport;
+      final String cpuPerTrace =
+          currentCpu < 0 || intervalTraces == 0
+              ? "n/a"
+              : (currentCpu - cpuAtLastReport) / intervalTraces / 1000 + " us";
+
       System.out.println(
-          "Total Traces Sent: " + currentTracesSent + ", Rate this interval: " + currentRate);
+          "Total Traces Sent: "
+              + currentTracesSent
+              + ", Rate this interval: "
+              + currentRate
+              + ", CPU per trace: "
+              + cpuPerTrace);
       intervalStart = System.currentTimeMillis();
       tracesAtLastReport = currentTracesSent;
+      cpuAtLastReport = currentCpu;
+    }
+  }
+
+  /** @return the CPU time used by the whole process in nanoseconds, or -1 if not available. */
+  private static long processCpuTime() {
+    final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    if (os instanceof com.sun.management.OperatingSystemMXBean) {
+      return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+    }
+    return -1;
+  }
+
+  private void decorate(final Span span) {
+    if (!span.isRecording()) {
+      return;
+    }
+    for (int i = 0; i < attributes; i++) {
+      span.setAttribute("attribute-" + i, "value-" + i);
     }
   }
 
@@ -98,13 +153,16 @@ public class LoadGenerator implements Callable<Integer> {
       while (true) {
         rateLimiter.acquire();
         final Span parent = TRACER.spanBuilder("parentSpan").startSpan();
+        decorate(parent);
 
         try (final Scope scope = TRACER.withSpan(parent)) {
           for (int i = 0; i < width; i++) {
             final Span widthSpan = TRACER.spanBuilder("span-" + i).startSpan();
+            decorate(widthSpan);
             try (final Scope widthScope = TRACER.withSpan(widthSpan)) {
               for (int j = 0; j < depth - 2; j++) {
                 final Span depthSpan = TRACER.spanBuilder("span-" + i + "-" + j).startSpan();
+                decorate(depthSpan);
                 try (final Scope depthScope = TRACER.withSpan(depthSpan)) {
                   // do nothing.  Maybe sleep? but that will mean we need more threads to keep the
                   // effective rate
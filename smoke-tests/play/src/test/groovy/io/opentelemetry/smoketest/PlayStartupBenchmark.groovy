@@ -0,0 +1,34 @@
+package io.opentelemetry.smoketest
+
+import spock.lang.Shared
+
+class PlayStartupBenchmark extends AbstractStartupBenchmark {
+
+  @Shared
+  File playDirectory = new File("${buildDirectory}/stage/playBinary")
+
+  @Override
+  String appName() {
+    return "play"
+  }
+
+  @Override
+  ProcessBuilder createProcessBuilder(List<String> jvmArgs, int httpPort) {
+    ProcessBuilder processBuilder = new ProcessBuilder("${playDirectory}/bin/playBinary")
+    processBuilder.directory(playDirectory)
+    processBuilder.environment().put("JAVA_OPTS",
+      (jvmArgs + [
+        "-Dconfig.file=${workingDirectory}/conf/application.conf",
+        "-Dhttp.port=${httpPort}",
+        "-Dhttp.address=127.0.0.1",
+        // a pid file left by a run killed before removing it would prevent the next ones from starting
+        "-Dpidfile.path=/dev/null"
+      ]).join(" "))
+    return processBuilder
+  }
+
+  @Override
+  String firstRequestPath() {
+    return "/welcome?id=1"
+  }
+}
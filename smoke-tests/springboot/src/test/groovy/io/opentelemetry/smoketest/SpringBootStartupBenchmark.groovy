@@ -0,0 +1,24 @@
+package io.opentelemetry.smoketest
+
+class SpringBootStartupBenchmark extends AbstractStartupBenchmark {
+
+  @Override
+  String appName() {
+    return "springboot"
+  }
+
+  @Override
+  ProcessBuilder createProcessBuilder(List<String> jvmArgs, int httpPort) {
+    String springBootShadowJar = System.getProperty("io.opentelemetry.smoketest.springboot.shadowJar.path")
+
+    List<String> command = [javaPath()]
+    command.addAll(jvmArgs)
+    command.addAll(["-jar", springBootShadowJar, "--server.port=${httpPort}".toString()])
+    return new ProcessBuilder(command).directory(new File(buildDirectory))
+  }
+
+  @Override
+  String firstRequestPath() {
+    return "/greeting"
+  }
+}
@@ -0,0 +1,151 @@
+package io.opentelemetry.smoketest
+
+import io.opentelemetry.auto.test.utils.OkHttpUtils
+import io.opentelemetry.auto.test.utils.PortUtils
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import spock.lang.Requires
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+/**
+ * Starts an app many times, without the agent, with the agent under test and optionally with a
+ * baseline agent jar to compare with, and records for each start:
+ * - the time from launching the app to its first successful request,
+ * - the time and the bytes allocated by the main thread in the agent's premain,
+ * - the classes loaded and the classes transformed by the agent until the app is stopped,
+ * the last three being reported by the {@link io.opentelemetry.smoketest.probe.StartupProbe}.
+ *
+ * Results go to build/reports/startup-${appName}.csv, one row per start.
+ *
+ * Only runs when asked for, as it starts the app many times, see the smoke tests' README.
+ */
+@Requires({ System.getProperty("io.opentelemetry.smoketest.startup.runs") })
+abstract class AbstractStartupBenchmark extends Specification {
+  static final String[] COLUMNS = ["premain_ms", "premain_allocated_bytes", "classes_loaded", "classes_transformed"]
+
+  @Shared
+  protected String workingDirectory = System.getProperty("user.dir")
+  @Shared
+  protected String buildDirectory = System.getProperty("io.opentelemetry.smoketest.builddir")
+  @Shared
+  String shadowJarPath = System.getProperty("io.opentelemetry.smoketest.agent.shadowJar.path")
+  @Shared
+  String probeJarPath = System.getProperty("io.opentelemetry.smoketest.startup.probe.path")
+  @Shared
+  String baselineAgentPath = System.getProperty("io.opentelemetry.smoketest.startup.baselineAgent")
+
+  OkHttpClient client = OkHttpUtils.client()
+
+  /** Names the report. */
+  abstract String appName()
+
+  /** @return the app launched with the given jvm arguments, serving http on the given port */
+  abstract ProcessBuilder createProcessBuilder(List<String> jvmArgs, int httpPort)
+
+  /** Path of a request the app answers with a 200 once started. */
+  abstract String firstRequestPath()
+
+  /** Stops the app in a way which lets its shutdown hooks run. */
+  void stop(Process process) {
+    process.destroy()
+  }
+
+  def "startup time"() {
+    setup:
+    int runs = Integer.getInteger("io.opentelemetry.smoketest.startup.runs")
+    Map<String, String> agents = ["no agent": null, "agent": shadowJarPath]
+    if (baselineAgentPath) {
+      agents["baseline agent"] = baselineAgentPath
+    }
+    Map<String, List<Long>> startupMillis = agents.collectEntries { name, path -> [(name): []] }
+    def report = new File(buildDirectory, "reports/startup-${appName()}.csv")
+    report.parentFile.mkdirs()
+    report.text = (["variant", "run", "time_to_first_request_ms"] + COLUMNS.toList()).join(",") + "\n"
+
+    when:
+    // alternate between the variants so that noise on the machine hits all of them alike
+    runs.times { run ->
+      agents.each { name, path ->
+        def result = start(path, "${name.replace(' ', '-')}-${run}")
+        startupMillis[name] << result.timeToFirstRequest
+        report << ([name, run, result.timeToFirstRequest] + COLUMNS.collect { result.probe.getProperty(it, "") }).join(",") + "\n"
+      }
+    }
+
+    println "${appName()} time to first request, ${runs} runs"
+    startupMillis.each { name, millis ->
+      def sorted = millis.sort(false)
+      println "${name}: min ${sorted.first()} ms, median ${sorted[sorted.size().intdiv(2)]} ms, max ${sorted.last()} ms"
+    }
+
+    then:
+    startupMillis.every { name, millis -> millis.size() == runs }
+  }
+
+  StartupResult start(String agentPath, String logName) {
+    def port = PortUtils.randomOpenPort()
+    def probeReport = new File(buildDirectory, "reports/startup.${appName()}.${logName}.properties")
+    probeReport.delete()
+    List<String> jvmArgs = []
+    if (probeJarPath) {
+      jvmArgs << "-javaagent:${probeJarPath}=start=${probeReport}".toString()
+    }
+    if (agentPath) {
+      jvmArgs << "-javaagent:${agentPath}".toString()
+    }
+    if (probeJarPath) {
+      jvmArgs << "-javaagent:${probeJarPath}=end".toString()
+    }
+    def processBuilder = createProcessBuilder(jvmArgs, port)
+      .redirectErrorStream(true)
+      .redirectOutput(new File(buildDirectory, "reports/startup.${appName()}.${logName}.log"))
+    processBuilder.environment().put("JAVA_HOME", System.getProperty("java.home"))
+    def request = new Request.Builder().url("http://localhost:${port}${firstRequestPath()}").get().build()
+
+    long start = System.nanoTime()
+    def process = processBuilder.start()
+    long timeToFirstRequest = -1
+    try {
+      timeToFirstRequest = awaitFirstRequest(request, start, logName)
+    } finally {
+      stop(process)
+      process.waitForOrKill(TimeUnit.SECONDS.toMillis(60))
+    }
+
+    def probe = new Properties()
+    if (probeReport.exists()) {
+      probeReport.withInputStream { probe.load(it) }
+    }
+    return new StartupResult(timeToFirstRequest: timeToFirstRequest, probe: probe)
+  }
+
+  long awaitFirstRequest(Request request, long start, String logName) {
+    long deadline = start + TimeUnit.SECONDS.toNanos(240)
+    while (System.nanoTime() < deadline) {
+      try {
+        def response = client.newCall(request).execute()
+        response.close()
+        if (response.code() == 200) {
+          return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+        }
+      } catch (IOException ignored) {
+        // not listening yet
+      }
+      Thread.sleep(10)
+    }
+    throw new AssertionError("${appName()} did not serve a request within 240s, see ${logName} log")
+  }
+
+  String javaPath() {
+    final String separator = System.getProperty("file.separator")
+    return System.getProperty("java.home") + separator + "bin" + separator + "java"
+  }
+
+  static class StartupResult {
+    long timeToFirstRequest
+    Properties probe
+  }
+}
@@ -0,0 +1,151 @@
+package io.opentelemetry.smoketest.probe;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.security.ProtectionDomain;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A java agent measuring the startup of an application, used by the startup benchmarks.
+ *
+ * <p>It is given twice on the command line, around the agent being measured:
+ *
+ * <pre>
+ * -javaagent:probe.jar=start=/path/to/report.properties
+ * -javaagent:agent.jar
+ * -javaagent:probe.jar=end
+ * </pre>
+ *
+ * <p>Agents' premain methods run in command line order, so the time and the bytes allocated by the
+ * main thread between the two are the measured agent's premain. Agents' transformers also run in
+ * command line order, each one given the bytes the previous one returned, so a class is transformed
+ * by the measured agent when the bytes seen after it differ from the ones seen before it. The
+ * counts are written to the report when the JVM shuts down.
+ */
+public final class StartupProbe {
+  private static final String START = "start=";
+  private static final String END = "end";
+
+  private static final AtomicLong CLASSES_LOADED = new AtomicLong();
+  private static final AtomicLong CLASSES_TRANSFORMED = new AtomicLong();
+
+  // Transformations can nest: defining a class while transforming another loads it on the spot.
+  private static final ThreadLocal<Deque<byte[]>> BUFFERS =
+      new ThreadLocal<Deque<byte[]>>() {
+        @Override
+        protected Deque<byte[]> initialValue() {
+          return new ArrayDeque<>();
+        }
+      };
+
+  private static volatile boolean counting = false;
+  private static long premainStartNanos;
+  private static long premainStartAllocatedBytes;
+  private static long premainNanos;
+  private static long premainAllocatedBytes;
+
+  private StartupProbe() {}
+
+  public static void premain(final String args, final Instrumentation inst) {
+    if (args != null && args.startsWith(START)) {
+      start(new File(args.substring(START.length())), inst);
+    } else if (END.equals(args)) {
+      end(inst);
+    } else {
+      throw new IllegalArgumentException("Expected start=<report file> or end, got " + args);
+    }
+  }
+
+  private static void start(final File report, final Instrumentation inst) {
+    premainStartNanos = System.nanoTime();
+    premainStartAllocatedBytes = allocatedBytes();
+    // first in line, sees the class as defined
+    inst.addTransformer(new Before(), true);
+    Runtime.getRuntime()
+        .addShutdownHook(
+            new Thread("startup-probe-report") {
+              @Override
+              public void run() {
+                writeReport(report);
+              }
+            });
+  }
+
+  private static void end(final Instrumentation inst) {
+    premainNanos = System.nanoTime() - premainStartNanos;
+    premainAllocatedBytes = allocatedBytes() - premainStartAllocatedBytes;
+    // last in line, sees the class as transformed
+    inst.addTransformer(new After(), true);
+    counting = true;
+  }
+
+  /** @return the bytes allocated by the current thread, or -1 if the JVM doesn't tell. */
+  private static long allocatedBytes() {
+    final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threads)
+          .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return -1;
+  }
+
+  private static void writeReport(final File report) {
+    final Properties properties = new Properties();
+    properties.setProperty("premain_ms", String.valueOf(premainNanos / 1000000));
+    properties.setProperty("premain_allocated_bytes", String.valueOf(premainAllocatedBytes));
+    properties.setProperty("classes_loaded", String.valueOf(CLASSES_LOADED.get()));
+    properties.setProperty("classes_transformed", String.valueOf(CLASSES_TRANSFORMED.get()));
+    try (final OutputStream out = new FileOutputStream(report)) {
+      properties.store(out, null);
+    } catch (final IOException e) {
+      System.err.println("Unable to write startup report " + report + ": " + e);
+    }
+  }
+
+  private static final class Before implements ClassFileTransformer {
+    @Override
+    public byte[] transform(
+        final ClassLoader loader,
+        final String className,
+        final Class<?> classBeingRedefined,
+        final ProtectionDomain protectionDomain,
+        final byte[] classfileBuffer) {
+      if (classBeingRedefined == null) {
+        CLASSES_LOADED.incrementAndGet();
+        if (counting) {
+          BUFFERS.get().push(classfileBuffer);
+        }
+      }
+      return null;
+    }
+  }
+
+  private static final class After implements ClassFileTransformer {
+    @Override
+    public byte[] transform(
+        final ClassLoader loader,
+        final String className,
+        final Class<?> classBeingRedefined,
+        final ProtectionDomain protectionDomain,
+        final byte[] classfileBuffer) {
+      if (classBeingRedefined == null) {
+        final byte[] defined = BUFFERS.get().poll();
+        // each agent gets its own copy of the bytes
+        if (defined != null && !Arrays.equals(defined, classfileBuffer)) {
+          CLASSES_TRANSFORMED.incrementAndGet();
+        }
+      }
+      return null;
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package io.opentelemetry.smoketest
+
+import io.opentelemetry.auto.test.utils.PortUtils
+import spock.lang.Shared
+
+class WildflyStartupBenchmark extends AbstractStartupBenchmark {
+
+  @Shared
+  File wildflyDirectory = new File(System.getProperty("io.opentelemetry.smoketest.wildflyDir"))
+  @Shared
+  int httpsPort = PortUtils.randomOpenPort()
+  @Shared
+  int managementPort = PortUtils.randomOpenPort()
+
+  @Override
+  String appName() {
+    return "wildfly"
+  }
+
+  @Override
+  ProcessBuilder createProcessBuilder(List<String> jvmArgs, int httpPort) {
+    ProcessBuilder processBuilder = new ProcessBuilder("${wildflyDirectory}/bin/standalone.sh")
+    processBuilder.directory(wildflyDirectory)
+    processBuilder.environment().put("JAVA_OPTS",
+      (jvmArgs + [
+        "-Djboss.http.port=${httpPort}",
+        "-Djboss.https.port=${httpsPort}",
+        "-Djboss.management.http.port=${managementPort}"
+      ]).join(" "))
+    return processBuilder
+  }
+
+  @Override
+  String firstRequestPath() {
+    return "/"
+  }
+
+  @Override
+  void stop(Process process) {
+    // shut down through the management interface, as the smoke test does
+    ProcessBuilder processBuilder = new ProcessBuilder(
+      "${wildflyDirectory}/bin/jboss-cli.sh",
+      "--connect",
+      "--controller=localhost:${managementPort}",
+      "command=:shutdown")
+    processBuilder.directory(wildflyDirectory)
+    processBuilder.start().waitFor()
+  }
+}
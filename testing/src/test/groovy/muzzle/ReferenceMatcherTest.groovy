@@ -85,6 +85,36 @@ class ReferenceMatcherTest extends AgentTestRunner {
     cl.count == countAfterFirstMatch
   }
 
+  def "fast path agrees with the full check"() {
+    setup:
+    Reference[] refs = ReferenceCreator.createReferencesFrom(MethodBodyAdvice.getName(), this.getClass().getClassLoader()).values().toArray(new Reference[0])
+    ReferenceMatcher refMatcher = new ReferenceMatcher(refs)
+
+    expect:
+    refMatcher.matches(safeClasspath)
+    !refMatcher.matches(unsafeClasspath)
+  }
+
+  def "identical references are checked once per classloader"() {
+    setup:
+    ClassLoader cl = new CountingClassLoader(
+      [ClasspathUtils.createJarWithClasses(MethodBodyAdvice.A,
+        MethodBodyAdvice.B,
+        MethodBodyAdvice.SomeInterface,
+        MethodBodyAdvice.SomeImplementation)] as URL[],
+      (ClassLoader) null)
+    ReferenceMatcher refMatcher1 = new ReferenceMatcher(ReferenceCreator.createReferencesFrom(MethodBodyAdvice.getName(), this.getClass().getClassLoader()).values().toArray(new Reference[0]))
+    // built separately, so only the content of the references is shared
+    ReferenceMatcher refMatcher2 = new ReferenceMatcher(ReferenceCreator.createReferencesFrom(MethodBodyAdvice.getName(), this.getClass().getClassLoader()).values().toArray(new Reference[0]))
+    assert refMatcher1.matches(cl)
+    int countAfterFirstMatch = cl.count
+
+    expect:
+    refMatcher2.matches(cl)
+    cl.count == countAfterFirstMatch
+    refMatcher1.getReferences().collect { ReferenceMatcher.signature(it) } as Set == refMatcher2.getReferences().collect { ReferenceMatcher.signature(it) } as Set
+  }
+
   def "matching ref #referenceName #referenceFlags against #classToCheck produces #expectedMismatches"() {
     setup:
     Reference.Builder builder = new Reference.Builder(referenceName)
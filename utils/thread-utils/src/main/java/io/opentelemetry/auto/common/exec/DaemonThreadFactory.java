@@ -9,6 +9,8 @@ public final class DaemonThreadFactory implements ThreadFactory {
   public static final DaemonThreadFactory TRACE_WRITER = new DaemonThreadFactory("dd-trace-writer");
   public static final DaemonThreadFactory TASK_SCHEDULER =
       new DaemonThreadFactory("dd-task-scheduler");
+  public static final DaemonThreadFactory MUZZLE_VALIDATOR =
+      new DaemonThreadFactory("dd-muzzle-validator");
 
   private final String threadName;
 